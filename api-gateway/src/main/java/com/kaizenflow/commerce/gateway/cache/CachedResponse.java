@@ -0,0 +1,69 @@
+package com.kaizenflow.commerce.gateway.cache;
+
+import java.time.Duration;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.util.DigestUtils;
+
+/**
+ * An upstream response held by the {@link EdgeCache}.
+ *
+ * @param status The upstream status
+ * @param headers The headers to send to clients, with {@code ETag} and {@code Content-Length} set
+ * @param body The body
+ * @param upstreamEtag The upstream's own ETag, for revalidation, or null if it sent none
+ * @param storedAt When the response was stored or last revalidated, from {@link System#nanoTime()}
+ */
+public record CachedResponse(
+		HttpStatusCode status, HttpHeaders headers, byte[] body, String upstreamEtag, long storedAt) {
+
+	/**
+	 * Captures an upstream response. Responses without an ETag get one from a hash of the body, as
+	 * Spring's {@code ShallowEtagHeaderFilter} would make, so that clients can still revalidate.
+	 */
+	public static CachedResponse of(HttpStatusCode status, HttpHeaders upstreamHeaders, byte[] body) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(upstreamHeaders);
+		headers.remove(HttpHeaders.TRANSFER_ENCODING);
+		headers.remove(HttpHeaders.CONNECTION);
+		headers.setContentLength(body.length);
+
+		String upstreamEtag = upstreamHeaders.getETag();
+		if (upstreamEtag == null) {
+			headers.setETag("\"0" + DigestUtils.md5DigestAsHex(body) + "\"");
+		}
+		return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body, upstreamEtag,
+				System.nanoTime());
+	}
+
+	/** This response, fresh again after the upstream confirmed it is unchanged. */
+	public CachedResponse revalidated() {
+		return new CachedResponse(status, headers, body, upstreamEtag, System.nanoTime());
+	}
+
+	public String etag() {
+		return headers.getETag();
+	}
+
+	public boolean isFresh(Duration ttl) {
+		return System.nanoTime() - storedAt < ttl.toNanos();
+	}
+
+	/**
+	 * Whether the response may be kept for later requests: only successful responses the upstream
+	 * has not marked private or uncacheable, that set no cookies, and that vary on no request header
+	 * but {@code Accept}, which is part of the cache key.
+	 */
+	public boolean isCacheable() {
+		String cacheControl = headers.getCacheControl();
+		return status.isSameCodeAs(HttpStatus.OK)
+				&& !headers.containsKey(HttpHeaders.SET_COOKIE)
+				&& headers.getVary().stream().allMatch(HttpHeaders.ACCEPT::equalsIgnoreCase)
+				&& (cacheControl == null || !(cacheControl.contains(CacheControl.noStore().getHeaderValue())
+						|| cacheControl.contains("private")));
+	}
+
+}
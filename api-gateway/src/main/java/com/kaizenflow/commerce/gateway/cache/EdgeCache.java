@@ -0,0 +1,83 @@
+package com.kaizenflow.commerce.gateway.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Responses cached at the gateway, bounded by the total size of their bodies. A response being
+ * fetched is held as an incomplete future, which concurrent requests for the same key wait on
+ * instead of going upstream themselves. Futures that fail are removed.
+ *
+ * <p>Metrics, tagged with the route:
+ *
+ * <ul>
+ *   <li>{@code gateway.edge.cache.requests} - cacheable requests, by result: {@code hit} for fresh
+ *       responses, {@code coalesced} for requests that waited on another's upstream call, {@code
+ *       miss} and {@code stale} for requests that went upstream, the latter to revalidate
+ *   <li>{@code gateway.edge.cache.revalidations} - stale responses the upstream confirmed as {@code
+ *       not_modified} or replaced as {@code modified}
+ * </ul>
+ *
+ * <p>{@code gateway.edge.cache.size} and {@code gateway.edge.cache.bytes} give the number of
+ * responses held and the size of their bodies.
+ */
+public class EdgeCache {
+
+	private final AsyncCache<String, CachedResponse> cache;
+
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * @param maxSize The total size of the bodies held
+	 * @param retention How long a response is kept after it was stored or revalidated. Responses past
+	 *     their route's TTL are kept until then to be revalidated rather than fetched again
+	 * @param meterRegistry The registry for cache metrics
+	 */
+	public EdgeCache(DataSize maxSize, Duration retention, MeterRegistry meterRegistry) {
+		this.cache = Caffeine.newBuilder()
+				.maximumWeight(maxSize.toBytes())
+				.weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+				.expireAfterWrite(retention)
+				.buildAsync();
+		this.meterRegistry = meterRegistry;
+
+		Gauge.builder("gateway.edge.cache.size", cache.synchronous(), c -> c.estimatedSize())
+				.register(meterRegistry);
+		Gauge.builder("gateway.edge.cache.bytes", cache.synchronous(),
+						c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+				.baseUnit("bytes")
+				.register(meterRegistry);
+	}
+
+	/** The responses by key, including those still being fetched. */
+	ConcurrentMap<String, CompletableFuture<CachedResponse>> responses() {
+		return cache.asMap();
+	}
+
+	void recordRequest(String routeId, String result) {
+		Counter.builder("gateway.edge.cache.requests")
+				.tag("route", routeId)
+				.tag("result", result)
+				.register(meterRegistry)
+				.increment();
+	}
+
+	void recordRevalidation(String routeId, String outcome) {
+		Counter.builder("gateway.edge.cache.revalidations")
+				.tag("route", routeId)
+				.tag("outcome", outcome)
+				.register(meterRegistry)
+				.increment();
+	}
+
+}
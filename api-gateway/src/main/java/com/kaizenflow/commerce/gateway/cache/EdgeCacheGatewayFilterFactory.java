@@ -0,0 +1,244 @@
+package com.kaizenflow.commerce.gateway.cache;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+
+import lombok.Getter;
+import lombok.Setter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves a route's GETs from the {@link EdgeCache}, keyed by route, path, query and {@code Accept}
+ * header, so JSON and Protobuf representations are cached apart. A response is fresh for the
+ * route's TTL. After that the next request revalidates it upstream, with {@code If-None-Match} when
+ * the upstream gave an ETag, while concurrent requests wait for the outcome. Clients' own {@code
+ * If-None-Match} is answered at the gateway with the cached ETag. Requests with credentials or
+ * cookies bypass the cache.
+ *
+ * <p>Runs outside {@link NettyWriteResponseFilter}, so that it sees the upstream body. Responses
+ * served from the cache therefore do not reach the gateway's request timer.
+ *
+ * <p>Usage: {@code EdgeCache=30s}
+ */
+public class EdgeCacheGatewayFilterFactory
+		extends AbstractGatewayFilterFactory<EdgeCacheGatewayFilterFactory.Config> {
+
+	private final EdgeCache edgeCache;
+
+	public EdgeCacheGatewayFilterFactory(EdgeCache edgeCache) {
+		super(Config.class);
+		this.edgeCache = edgeCache;
+	}
+
+	@Override
+	public List<String> shortcutFieldOrder() {
+		return List.of("ttl");
+	}
+
+	@Override
+	public GatewayFilter apply(Config config) {
+		return new OrderedGatewayFilter(
+				(exchange, chain) -> filter(exchange, chain, config.getTtl()),
+				NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+	}
+
+	private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Duration ttl) {
+		ServerHttpRequest request = exchange.getRequest();
+		if (request.getMethod() != HttpMethod.GET
+				|| request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)
+				|| request.getHeaders().containsKey(HttpHeaders.COOKIE)) {
+			return chain.filter(exchange);
+		}
+
+		Route route = exchange.getRequiredAttribute(GATEWAY_ROUTE_ATTR);
+		String key = route.getId() + ' ' + request.getURI().getRawPath() + '?'
+				+ request.getURI().getRawQuery() + ' '
+				+ String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT));
+		return lookUp(exchange, chain, ttl, route.getId(), key);
+	}
+
+	private Mono<Void> lookUp(
+			ServerWebExchange exchange, GatewayFilterChain chain, Duration ttl, String routeId, String key) {
+		CompletableFuture<CachedResponse> current = edgeCache.responses().get(key);
+		if (current == null) {
+			CompletableFuture<CachedResponse> fetch = new CompletableFuture<>();
+			current = edgeCache.responses().putIfAbsent(key, fetch);
+			if (current == null) {
+				edgeCache.recordRequest(routeId, "miss");
+				return fetch(exchange, chain, routeId, key, fetch, null);
+			}
+		}
+
+		if (!current.isDone()) {
+			edgeCache.recordRequest(routeId, "coalesced");
+			// Falls back to its own upstream call if the one it waited on failed or was cancelled
+			return Mono.fromFuture(current, true)
+					.flatMap(response -> write(exchange.getResponse(), exchange.getRequest(), response))
+					.onErrorResume(e -> chain.filter(exchange));
+		}
+
+		CachedResponse cached = current.isCompletedExceptionally() ? null : current.join();
+		if (cached != null && cached.isFresh(ttl)) {
+			edgeCache.recordRequest(routeId, "hit");
+			return write(exchange.getResponse(), exchange.getRequest(), cached);
+		}
+
+		CompletableFuture<CachedResponse> fetch = new CompletableFuture<>();
+		if (!edgeCache.responses().replace(key, current, fetch)) {
+			// Another request got there first and is fetching or has stored a newer response
+			return lookUp(exchange, chain, ttl, routeId, key);
+		}
+		edgeCache.recordRequest(routeId, cached == null ? "miss" : "stale");
+		return fetch(exchange, chain, routeId, key, fetch, cached);
+	}
+
+	/**
+	 * Forwards the request upstream, without the client's conditional headers, which the gateway
+	 * answers itself, and completes {@code fetch} with the response.
+	 */
+	private Mono<Void> fetch(
+			ServerWebExchange exchange,
+			GatewayFilterChain chain,
+			String routeId,
+			String key,
+			CompletableFuture<CachedResponse> fetch,
+			CachedResponse stale) {
+		ServerHttpRequest upstreamRequest = exchange.getRequest().mutate().headers(headers -> {
+			headers.remove(HttpHeaders.IF_NONE_MATCH);
+			headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+			if (stale != null && stale.upstreamEtag() != null) {
+				headers.setIfNoneMatch(stale.upstreamEtag());
+			}
+		}).build();
+		CachingResponse response = new CachingResponse(exchange, routeId, key, fetch, stale);
+
+		return chain.filter(exchange.mutate().request(upstreamRequest).response(response).build())
+				.doFinally(signal -> fetch.completeExceptionally(
+						new CancellationException("Upstream call for " + key + " ended without a response")));
+	}
+
+	private static Mono<Void> write(
+			ServerHttpResponse response, ServerHttpRequest request, CachedResponse cached) {
+		response.setStatusCode(cached.status());
+		response.getHeaders().putAll(cached.headers());
+		if (matches(request.getHeaders().getIfNoneMatch(), cached.etag())) {
+			response.setStatusCode(HttpStatus.NOT_MODIFIED);
+			response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+			return response.setComplete();
+		}
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+	}
+
+	private static boolean matches(List<String> ifNoneMatch, String etag) {
+		if (etag == null) {
+			return false;
+		}
+		String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+		return ifNoneMatch.stream()
+				.anyMatch(tag -> tag.equals("*")
+						|| (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag));
+	}
+
+	/** Holds back the upstream body until it can be stored, then answers the client as a hit would. */
+	private class CachingResponse extends ServerHttpResponseDecorator {
+
+		private final ServerHttpRequest clientRequest;
+
+		private final String routeId;
+
+		private final String key;
+
+		private final CompletableFuture<CachedResponse> fetch;
+
+		private final CachedResponse stale;
+
+		CachingResponse(
+				ServerWebExchange exchange,
+				String routeId,
+				String key,
+				CompletableFuture<CachedResponse> fetch,
+				CachedResponse stale) {
+			super(exchange.getResponse());
+			this.clientRequest = exchange.getRequest();
+			this.routeId = routeId;
+			this.key = key;
+			this.fetch = fetch;
+			this.stale = stale;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			return DataBufferUtils.join(body)
+					.map(buffer -> {
+						byte[] bytes = new byte[buffer.readableByteCount()];
+						buffer.read(bytes);
+						DataBufferUtils.release(buffer);
+						return bytes;
+					})
+					.defaultIfEmpty(new byte[0])
+					.flatMap(bytes -> {
+						CachedResponse response = capture(bytes);
+						fetch.complete(response);
+						if (!response.isCacheable()) {
+							edgeCache.responses().remove(key, fetch);
+						}
+
+						getHeaders().clear();
+						return write(getDelegate(), clientRequest, response);
+					});
+		}
+
+		@Override
+		public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			return writeWith(Flux.from(body).concatMap(Flux::from));
+		}
+
+		private CachedResponse capture(byte[] body) {
+			if (stale != null && getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+				edgeCache.recordRevalidation(routeId, "not_modified");
+				return stale.revalidated();
+			}
+
+			CachedResponse response = CachedResponse.of(getStatusCode(), getHeaders(), body);
+			if (stale != null) {
+				// Without an upstream ETag the body comes back in full, but may still be unchanged
+				edgeCache.recordRevalidation(
+						routeId, response.etag().equals(stale.etag()) ? "not_modified" : "modified");
+			}
+			return response;
+		}
+
+	}
+
+	@Getter
+	@Setter
+	public static class Config {
+
+		/** How long a response is served without going upstream. */
+		private Duration ttl = Duration.ofSeconds(30);
+
+	}
+
+}
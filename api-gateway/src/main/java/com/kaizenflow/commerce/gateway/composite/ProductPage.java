@@ -0,0 +1,17 @@
+package com.kaizenflow.commerce.gateway.composite;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Everything a product page shows, as returned by the services.
+ *
+ * @param product The product
+ * @param inventory The product's live inventory, or null if it has none or it is unavailable
+ * @param recentlyViewed The recently viewed products that still exist
+ * @param unavailable The parts that could not be fetched in time and are left empty, such as {@code
+ *     inventory}
+ */
+public record ProductPage(
+		JsonNode product, JsonNode inventory, List<JsonNode> recentlyViewed, List<String> unavailable) {}
@@ -0,0 +1,142 @@
+package com.kaizenflow.commerce.gateway.composite;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.kaizenflow.commerce.gateway.loadbalancer.ServiceClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Composes product pages from product-service and inventory-service. The product, its inventory and
+ * the recently viewed products are fetched at the same time, so a page takes as long as the slowest
+ * of them rather than all of them together.
+ *
+ * <p>Each call has its own timeout. Without the product there is no page, but the inventory and
+ * recently viewed products fall back to empty and are listed in {@link ProductPage#unavailable()}.
+ * Each fallback is counted as {@code gateway.product.page.fallbacks}, tagged with the part and
+ * whether it timed out or failed.
+ *
+ * <p>Product GETs are served from the edge cache and never count as views, so each composed page
+ * POSTs a view of its product to product-service. The page does not wait for it, and a view that
+ * cannot be recorded is only logged.
+ */
+@Service
+@Slf4j
+public class ProductPageService {
+
+	/** The most recently viewed products a page shows. */
+	public static final int MAX_RECENTLY_VIEWED = 20;
+
+	private final ServiceClient serviceClient;
+
+	private final MeterRegistry meterRegistry;
+
+	@Value("${gateway.product-page.product-timeout}")
+	private Duration productTimeout;
+
+	@Value("${gateway.product-page.inventory-timeout}")
+	private Duration inventoryTimeout;
+
+	@Value("${gateway.product-page.recently-viewed-timeout}")
+	private Duration recentlyViewedTimeout;
+
+	@Value("${gateway.product-page.view-timeout}")
+	private Duration viewTimeout;
+
+	public ProductPageService(ServiceClient serviceClient, MeterRegistry meterRegistry) {
+		this.serviceClient = serviceClient;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Composes the page of a product.
+	 *
+	 * @param productId The product ID
+	 * @param recentlyViewedIds The IDs of the products the customer viewed recently
+	 * @return The page, empty if there is no such product, or an error if the product could not be
+	 *     fetched
+	 * @throws IllegalArgumentException if more than {@value #MAX_RECENTLY_VIEWED} recently viewed IDs
+	 *     are given
+	 */
+	public Mono<ProductPage> getProductPage(String productId, List<String> recentlyViewedIds) {
+		if (recentlyViewedIds.size() > MAX_RECENTLY_VIEWED) {
+			throw new IllegalArgumentException("At most " + MAX_RECENTLY_VIEWED
+					+ " recently viewed products can be shown, got " + recentlyViewedIds.size());
+		}
+
+		List<String> unavailable = new CopyOnWriteArrayList<>();
+
+		Mono<JsonNode> product = serviceClient.get(
+						"product-service",
+						uri -> uri.path("/api/v1/products/{id}").build(productId),
+						JsonNode.class,
+						productTimeout)
+				.onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
+				.doOnNext(found -> recordView(productId));
+
+		Mono<Optional<JsonNode>> inventory = serviceClient.get(
+						"inventory-service",
+						uri -> uri.path("/api/v1/inventory/product/{productId}").build(productId),
+						JsonNode.class,
+						inventoryTimeout)
+				.map(Optional::of)
+				.onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
+				.onErrorResume(e -> fallBack("inventory", e, unavailable))
+				.defaultIfEmpty(Optional.empty());
+
+		Mono<List<JsonNode>> recentlyViewed = recentlyViewedIds.isEmpty()
+				? Mono.just(List.of())
+				: serviceClient.get(
+								"product-service",
+								uri -> uri.path("/api/v1/products").queryParam("ids", recentlyViewedIds).build(),
+								JsonNode.class,
+								recentlyViewedTimeout)
+						.map(ProductPageService::elements)
+						.onErrorResume(e -> fallBack("recentlyViewed", e, unavailable)
+								.map(none -> List.of()));
+
+		return Mono.zip(product, inventory, recentlyViewed)
+				.map(parts -> new ProductPage(
+						parts.getT1(), parts.getT2().orElse(null), parts.getT3(), List.copyOf(unavailable)));
+	}
+
+	private void recordView(String productId) {
+		serviceClient.post(
+						"product-service",
+						uri -> uri.path("/api/v1/products/{id}/views").build(productId),
+						viewTimeout)
+				.subscribe(null, e -> log.debug("View of product {} not recorded: {}", productId, e.toString()));
+	}
+
+	private <T> Mono<Optional<T>> fallBack(String part, Throwable error, List<String> unavailable) {
+		boolean timedOut = error instanceof TimeoutException;
+		log.warn("Product page shown without {}: {}", part, timedOut ? "timed out" : error.toString());
+		unavailable.add(part);
+		Counter.builder("gateway.product.page.fallbacks")
+				.tag("part", part)
+				.tag("reason", timedOut ? "timeout" : "error")
+				.register(meterRegistry)
+				.increment();
+		return Mono.just(Optional.empty());
+	}
+
+	private static List<JsonNode> elements(JsonNode array) {
+		List<JsonNode> elements = new ArrayList<>(array.size());
+		array.forEach(elements::add);
+		return elements;
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.kaizenflow.commerce.gateway.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.kaizenflow.commerce.gateway.limit.AdaptiveLimitSettings;
+import com.kaizenflow.commerce.gateway.limit.ConcurrencyLimitFilter;
+import com.kaizenflow.commerce.gateway.limit.ConcurrencyLimiters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Adaptive concurrency limits per downstream service. */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+	@Bean
+	public ConcurrencyLimiters concurrencyLimiters(
+			@Value("${gateway.concurrency-limit.initial}") int initialLimit,
+			@Value("${gateway.concurrency-limit.min}") int minLimit,
+			@Value("${gateway.concurrency-limit.max}") int maxLimit,
+			@Value("${gateway.concurrency-limit.rtt-tolerance}") double rttTolerance,
+			@Value("${gateway.concurrency-limit.backoff-ratio}") double backoffRatio,
+			@Value("${gateway.concurrency-limit.rtt-window}") Duration rttWindow,
+			@Value("${gateway.concurrency-limit.retry-after}") Duration retryAfter,
+			MeterRegistry meterRegistry) {
+		return new ConcurrencyLimiters(
+				new AdaptiveLimitSettings(
+						initialLimit, minLimit, maxLimit, rttTolerance, backoffRatio, rttWindow),
+				retryAfter,
+				meterRegistry);
+	}
+
+	@Bean
+	public ConcurrencyLimitFilter concurrencyLimitFilter(ConcurrencyLimiters concurrencyLimiters) {
+		return new ConcurrencyLimitFilter(concurrencyLimiters);
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.kaizenflow.commerce.gateway.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import com.kaizenflow.commerce.gateway.cache.EdgeCache;
+import com.kaizenflow.commerce.gateway.cache.EdgeCacheGatewayFilterFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** The response cache shared by routes with an {@code EdgeCache} filter. */
+@Configuration
+public class EdgeCacheConfig {
+
+	@Bean
+	public EdgeCache edgeCache(
+			@Value("${gateway.edge-cache.max-size}") DataSize maxSize,
+			@Value("${gateway.edge-cache.retention}") Duration retention,
+			MeterRegistry meterRegistry) {
+		return new EdgeCache(maxSize, retention, meterRegistry);
+	}
+
+	@Bean
+	public EdgeCacheGatewayFilterFactory edgeCacheGatewayFilterFactory(EdgeCache edgeCache) {
+		return new EdgeCacheGatewayFilterFactory(edgeCache);
+	}
+
+}
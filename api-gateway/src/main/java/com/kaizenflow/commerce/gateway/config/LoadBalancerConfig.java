@@ -0,0 +1,51 @@
+package com.kaizenflow.commerce.gateway.config;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.kaizenflow.commerce.gateway.limit.ConcurrencyLimiters;
+import com.kaizenflow.commerce.gateway.loadbalancer.LeastOutstandingRequestsConfiguration;
+import com.kaizenflow.commerce.gateway.loadbalancer.OutstandingRequests;
+import com.kaizenflow.commerce.gateway.loadbalancer.OutstandingRequestsFilter;
+import com.kaizenflow.commerce.gateway.loadbalancer.ServiceClient;
+
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Least-outstanding-requests balancing for every {@code lb://} route and for the gateway's own calls
+ * to services.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LeastOutstandingRequestsConfiguration.class)
+public class LoadBalancerConfig {
+
+	@Bean
+	public OutstandingRequests outstandingRequests() {
+		return new OutstandingRequests();
+	}
+
+	@Bean
+	public ServiceClient serviceClient(
+			WebClient.Builder webClientBuilder,
+			HttpClient gatewayHttpClient,
+			LoadBalancerClientFactory loadBalancerClientFactory,
+			OutstandingRequests outstandingRequests,
+			ConcurrencyLimiters concurrencyLimiters) {
+		// Shares the connection pool and timeouts of routed requests
+		WebClient webClient = webClientBuilder
+				.clientConnector(new ReactorClientHttpConnector(gatewayHttpClient))
+				.build();
+		return new ServiceClient(
+				webClient, loadBalancerClientFactory, outstandingRequests, concurrencyLimiters);
+	}
+
+	@Bean
+	public OutstandingRequestsFilter outstandingRequestsFilter(OutstandingRequests outstandingRequests) {
+		return new OutstandingRequestsFilter(outstandingRequests);
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.kaizenflow.commerce.gateway.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.kaizenflow.commerce.gateway.composite.ProductPage;
+import com.kaizenflow.commerce.gateway.composite.ProductPageService;
+
+import reactor.core.publisher.Mono;
+
+/** Serves product pages composed at the gateway, in one call instead of one per service. */
+@RestController
+@RequestMapping("/api/v1/product-pages")
+public class ProductPageController {
+
+	private final ProductPageService productPageService;
+
+	public ProductPageController(ProductPageService productPageService) {
+		this.productPageService = productPageService;
+	}
+
+	/**
+	 * Retrieves a product with its live inventory and the customer's recently viewed products.
+	 *
+	 * @param productId The product ID
+	 * @param recentlyViewed The IDs of the products the customer viewed recently, if any
+	 * @return ResponseEntity containing the page; 404 if there is no such product, 400 if too many
+	 *     recently viewed IDs were given, or 503 if the product could not be fetched
+	 */
+	@GetMapping("/{productId}")
+	public Mono<ResponseEntity<ProductPage>> getProductPage(
+			@PathVariable String productId,
+			@RequestParam(required = false) List<String> recentlyViewed) {
+		try {
+			return productPageService
+					.getProductPage(productId, recentlyViewed == null ? List.of() : recentlyViewed)
+					.map(ResponseEntity::ok)
+					.defaultIfEmpty(ResponseEntity.notFound().build())
+					.onErrorReturn(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+		} catch (IllegalArgumentException e) {
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+	}
+
+}
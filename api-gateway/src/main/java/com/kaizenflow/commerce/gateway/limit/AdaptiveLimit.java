@@ -0,0 +1,127 @@
+package com.kaizenflow.commerce.gateway.limit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit for one downstream service that adapts to its round-trip times, additive
+ * increase, multiplicative decrease (AIMD). A request that completes within {@code rttTolerance}
+ * times the lowest round-trip time recently seen from the same instance, while at least half the
+ * limit is in use, raises the limit by one. A slower or failed request multiplies it by
+ * {@code backoffRatio}. So the limit settles near the concurrency the service handles without
+ * queueing, and falls quickly when it starts to queue.
+ *
+ * <p>Each instance is judged against its own no-load time, so an instance that is always slower than
+ * the others, which the load balancer already sends fewer requests, does not hold down the limit of
+ * the whole service. Instances not heard from for two windows are forgotten.
+ */
+public class AdaptiveLimit {
+
+	private final AdaptiveLimitSettings settings;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private volatile double limit;
+
+	// Round-trip times by instance, guarded by this
+	private final Map<String, RttWindow> rttWindows = new HashMap<>();
+	private long lastPrune = System.nanoTime();
+
+	public AdaptiveLimit(AdaptiveLimitSettings settings) {
+		this.settings = settings;
+		this.limit = settings.initialLimit();
+	}
+
+	/**
+	 * Takes a slot for a request, unless the limit is reached. Every successful call must be followed
+	 * by one call to {@link #release(String, long, boolean)} or {@link #cancel()}.
+	 *
+	 * @return Whether the request may go ahead
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= (int) limit) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Frees the slot of a completed request and adjusts the limit to how it went.
+	 *
+	 * @param instance The instance that answered, as {@code host:port}, or null if the request failed
+	 *     before one was chosen, in which case its round-trip time is not judged
+	 * @param rttNanos How long the request took
+	 * @param failed Whether the service failed the request or did not answer in time
+	 */
+	public void release(String instance, long rttNanos, boolean failed) {
+		int requests = inFlight.getAndDecrement();
+		synchronized (this) {
+			boolean slow = instance != null && isSlow(instance, rttNanos);
+			if (failed || slow) {
+				limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+			} else if (requests * 2 >= limit) {
+				limit = Math.min(settings.maxLimit(), limit + 1);
+			}
+		}
+	}
+
+	/**
+	 * Frees the slot of a request whose outcome says nothing about the service, such as one the client
+	 * cancelled.
+	 */
+	public void cancel() {
+		inFlight.decrementAndGet();
+	}
+
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/** Records an instance's round-trip time and returns whether it is a sign of queueing. */
+	private boolean isSlow(String instance, long rttNanos) {
+		long now = System.nanoTime();
+		long windowNanos = settings.rttWindow().toNanos();
+		if (now - lastPrune > windowNanos) {
+			rttWindows.values().removeIf(window -> now - window.windowStart > 2 * windowNanos);
+			lastPrune = now;
+		}
+		long noLoadRtt = rttWindows.computeIfAbsent(instance, key -> new RttWindow(now))
+				.record(now, windowNanos, rttNanos);
+		return rttNanos > noLoadRtt * settings.rttTolerance();
+	}
+
+	/** Lowest round-trip times of an instance in the current and previous windows. */
+	private static final class RttWindow {
+
+		private long windowStart;
+		private long currentMinRtt = Long.MAX_VALUE;
+		private long previousMinRtt = Long.MAX_VALUE;
+
+		private RttWindow(long windowStart) {
+			this.windowStart = windowStart;
+		}
+
+		/** Records a round-trip time and returns the lowest of the current and previous windows. */
+		private long record(long now, long windowNanos, long rttNanos) {
+			if (now - windowStart > windowNanos) {
+				previousMinRtt = currentMinRtt;
+				currentMinRtt = Long.MAX_VALUE;
+				windowStart = now;
+			}
+			currentMinRtt = Math.min(currentMinRtt, rttNanos);
+			return Math.min(currentMinRtt, previousMinRtt);
+		}
+
+	}
+
+}
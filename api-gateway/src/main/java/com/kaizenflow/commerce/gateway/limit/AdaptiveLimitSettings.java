@@ -0,0 +1,34 @@
+package com.kaizenflow.commerce.gateway.limit;
+
+import java.time.Duration;
+
+/**
+ * Settings of an {@link AdaptiveLimit}.
+ *
+ * @param initialLimit The limit before any requests have completed
+ * @param minLimit The limit never drops below this, so a slow service still gets some requests
+ * @param maxLimit The limit never grows above this
+ * @param rttTolerance How many times the service's no-load round-trip time a request may take before
+ *     it counts as a sign of queueing
+ * @param backoffRatio What the limit is multiplied by for each slow or failed request
+ * @param rttWindow How long the lowest round-trip time seen stands as the no-load time. Kept for two
+ *     windows, so that a service that stays slower for longer is eventually taken to be its new normal
+ */
+public record AdaptiveLimitSettings(
+		int initialLimit,
+		int minLimit,
+		int maxLimit,
+		double rttTolerance,
+		double backoffRatio,
+		Duration rttWindow) {
+
+	public AdaptiveLimitSettings {
+		if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+		}
+		if (rttTolerance <= 1 || backoffRatio <= 0 || backoffRatio >= 1) {
+			throw new IllegalArgumentException("RTT tolerance must be above 1 and backoff ratio in (0, 1)");
+		}
+	}
+
+}
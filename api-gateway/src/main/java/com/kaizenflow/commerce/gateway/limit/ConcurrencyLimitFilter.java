@@ -0,0 +1,81 @@
+package com.kaizenflow.commerce.gateway.limit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+import java.net.URI;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.kaizenflow.commerce.gateway.loadbalancer.OutstandingRequestsFilter;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Holds each request routed to a load-balanced service within that service's concurrency limit.
+ * Requests over the limit are answered with 503 and {@code Retry-After} straight away, before an
+ * instance is chosen. Upstream 5xx responses and errors, such as response timeouts, count as failed;
+ * requests the client cancelled do not count. Round-trip times are judged against the chosen
+ * instance's own.
+ *
+ * <p>Responses served from the edge cache never reach this filter, so cached reads carry on while a
+ * service is over its limit.
+ *
+ * @see OutstandingRequestsFilter
+ */
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+	private final ConcurrencyLimiters concurrencyLimiters;
+
+	public ConcurrencyLimitFilter(ConcurrencyLimiters concurrencyLimiters) {
+		this.concurrencyLimiters = concurrencyLimiters;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+		if (url == null || !"lb".equals(url.getScheme())) {
+			return chain.filter(exchange);
+		}
+
+		ConcurrencyLimiters.Permit permit = concurrencyLimiters.tryAcquire(url.getHost());
+		if (permit == null) {
+			ServerHttpResponse response = exchange.getResponse();
+			response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+			long retryAfterSeconds = concurrencyLimiters.getRetryAfter().toSeconds();
+			response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+			return response.setComplete();
+		}
+
+		return chain.filter(exchange)
+				.doOnSuccess(done -> permit.release(
+						chosenInstance(exchange), isServerError(exchange.getResponse().getStatusCode())))
+				.doOnError(e -> permit.release(chosenInstance(exchange), true))
+				.doFinally(signal -> permit.cancel());
+	}
+
+	@Override
+	public int getOrder() {
+		return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+	}
+
+	private static ServiceInstance chosenInstance(ServerWebExchange exchange) {
+		Response<ServiceInstance> response = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+		return response != null && response.hasServer() ? response.getServer() : null;
+	}
+
+	private static boolean isServerError(HttpStatusCode status) {
+		return status != null && status.is5xxServerError();
+	}
+
+}
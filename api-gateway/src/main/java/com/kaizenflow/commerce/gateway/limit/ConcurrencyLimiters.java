@@ -0,0 +1,119 @@
+package com.kaizenflow.commerce.gateway.limit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * One {@link AdaptiveLimit} per downstream service, shared by its routes and the gateway's own calls
+ * to it. Each is a bulkhead: a slow service fills only its own slots, and requests to other services
+ * go ahead as before. Requests over the limit are rejected at once rather than queued.
+ *
+ * <p>Metrics, tagged with the service:
+ *
+ * <ul>
+ *   <li>{@code gateway.concurrency.limit} - the current limit
+ *   <li>{@code gateway.concurrency.in.flight} - requests holding a slot
+ *   <li>{@code gateway.concurrency.rejected} - requests rejected over the limit
+ * </ul>
+ */
+public class ConcurrencyLimiters {
+
+	private final AdaptiveLimitSettings settings;
+
+	private final Duration retryAfter;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Map<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+
+	/**
+	 * @param settings The settings of every service's limit
+	 * @param retryAfter How long rejected clients are told to wait before retrying
+	 * @param meterRegistry The registry for limit metrics
+	 */
+	public ConcurrencyLimiters(
+			AdaptiveLimitSettings settings, Duration retryAfter, MeterRegistry meterRegistry) {
+		this.settings = settings;
+		this.retryAfter = retryAfter;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Takes a slot for a request to a service.
+	 *
+	 * @param serviceId The service's name in discovery
+	 * @return The permit to release when the request completes, or null if the service is at its limit
+	 */
+	public Permit tryAcquire(String serviceId) {
+		AdaptiveLimit limit = limits.computeIfAbsent(serviceId, this::createLimit);
+		if (!limit.tryAcquire()) {
+			Counter.builder("gateway.concurrency.rejected")
+					.tag("service", serviceId)
+					.register(meterRegistry)
+					.increment();
+			return null;
+		}
+		return new Permit(limit, System.nanoTime());
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+
+	private AdaptiveLimit createLimit(String serviceId) {
+		AdaptiveLimit limit = new AdaptiveLimit(settings);
+		Gauge.builder("gateway.concurrency.limit", limit, AdaptiveLimit::getLimit)
+				.tag("service", serviceId)
+				.register(meterRegistry);
+		Gauge.builder("gateway.concurrency.in.flight", limit, AdaptiveLimit::getInFlight)
+				.tag("service", serviceId)
+				.register(meterRegistry);
+		return limit;
+	}
+
+	/** A slot taken for one request. Only the first release counts. */
+	public static final class Permit {
+
+		private final AdaptiveLimit limit;
+
+		private final long startedAt;
+
+		private boolean released;
+
+		private Permit(AdaptiveLimit limit, long startedAt) {
+			this.limit = limit;
+			this.startedAt = startedAt;
+		}
+
+		/**
+		 * Releases the slot of a request the service answered, failing it if it answered with an error.
+		 *
+		 * @param instance The instance the request went to, or null if none was chosen
+		 * @param failed Whether the service failed the request or did not answer in time
+		 */
+		public synchronized void release(ServiceInstance instance, boolean failed) {
+			if (!released) {
+				released = true;
+				String instanceKey = instance != null ? instance.getHost() + ':' + instance.getPort() : null;
+				limit.release(instanceKey, System.nanoTime() - startedAt, failed);
+			}
+		}
+
+		/** Releases the slot without taking the request's round-trip time into account. */
+		public synchronized void cancel() {
+			if (!released) {
+				released = true;
+				limit.cancel();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.kaizenflow.commerce.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer client configuration, created once per service in its own child context. Not a
+ * {@code @Configuration}, so that component scanning does not also load it into the main context.
+ */
+public class LeastOutstandingRequestsConfiguration {
+
+	@Bean
+	public ReactorLoadBalancer<ServiceInstance> leastOutstandingRequestsLoadBalancer(
+			Environment environment,
+			LoadBalancerClientFactory loadBalancerClientFactory,
+			OutstandingRequests outstandingRequests) {
+		String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+		return new LeastOutstandingRequestsLoadBalancer(
+				loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+				serviceId,
+				outstandingRequests);
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.kaizenflow.commerce.gateway.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Chooses the instance with the fewest {@link OutstandingRequests}, picking at random among ties so
+ * that idle instances share a burst instead of all of it going to the first one listed. A slow
+ * instance builds up outstanding requests and so gets fewer new ones, which round robin would keep
+ * sending its share regardless.
+ */
+@Slf4j
+public class LeastOutstandingRequestsLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+	private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+
+	private final String serviceId;
+
+	private final OutstandingRequests outstandingRequests;
+
+	public LeastOutstandingRequestsLoadBalancer(
+			ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+			String serviceId,
+			OutstandingRequests outstandingRequests) {
+		this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+		this.serviceId = serviceId;
+		this.outstandingRequests = outstandingRequests;
+	}
+
+	@Override
+	public Mono<Response<ServiceInstance>> choose(Request request) {
+		ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider.getIfAvailable();
+		return supplier.get(request).next().map(instances -> {
+			Response<ServiceInstance> response = choose(instances);
+			if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+				callback.selectedServiceInstance(response.getServer());
+			}
+			return response;
+		});
+	}
+
+	Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+		if (instances.isEmpty()) {
+			log.warn("No instances available for service {}", serviceId);
+			return new EmptyResponse();
+		}
+
+		ServiceInstance chosen = null;
+		int fewest = Integer.MAX_VALUE;
+		int ties = 0;
+		for (ServiceInstance instance : instances) {
+			int outstanding = outstandingRequests.get(instance);
+			if (outstanding < fewest) {
+				chosen = instance;
+				fewest = outstanding;
+				ties = 1;
+			} else if (outstanding == fewest && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+				// Keeps each of the tied instances seen so far with equal probability
+				chosen = instance;
+			}
+		}
+		return new DefaultResponse(chosen);
+	}
+
+}
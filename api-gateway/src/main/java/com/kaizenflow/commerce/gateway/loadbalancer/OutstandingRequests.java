@@ -0,0 +1,32 @@
+package com.kaizenflow.commerce.gateway.loadbalancer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+/**
+ * Counts the requests the gateway has sent to each service instance and not yet seen answered.
+ * Instances with nothing outstanding are not kept, so instances that leave discovery are forgotten.
+ */
+public class OutstandingRequests {
+
+	private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+	public int get(ServiceInstance instance) {
+		return counts.getOrDefault(key(instance), 0);
+	}
+
+	public void increment(ServiceInstance instance) {
+		counts.merge(key(instance), 1, Integer::sum);
+	}
+
+	public void decrement(ServiceInstance instance) {
+		counts.computeIfPresent(key(instance), (key, count) -> count == 1 ? null : count - 1);
+	}
+
+	private static String key(ServiceInstance instance) {
+		return instance.getServiceId() + '@' + instance.getHost() + ':' + instance.getPort();
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.kaizenflow.commerce.gateway.loadbalancer;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Updates {@link OutstandingRequests} around each request routed to a load-balanced instance, from
+ * just after the instance is chosen until the instance has answered, failed or the client has gone
+ * away. Load balancer lifecycle callbacks are not used because they are not called on cancellation,
+ * which would leave the instance's count too high for good.
+ */
+public class OutstandingRequestsFilter implements GlobalFilter, Ordered {
+
+	private final OutstandingRequests outstandingRequests;
+
+	public OutstandingRequestsFilter(OutstandingRequests outstandingRequests) {
+		this.outstandingRequests = outstandingRequests;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		Response<ServiceInstance> response = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+		if (response == null || !response.hasServer()) {
+			return chain.filter(exchange);
+		}
+
+		ServiceInstance instance = response.getServer();
+		outstandingRequests.increment(instance);
+		return chain.filter(exchange).doFinally(signal -> outstandingRequests.decrement(instance));
+	}
+
+	@Override
+	public int getOrder() {
+		return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+	}
+
+}
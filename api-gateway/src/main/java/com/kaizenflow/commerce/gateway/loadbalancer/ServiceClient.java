@@ -0,0 +1,118 @@
+package com.kaizenflow.commerce.gateway.loadbalancer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriBuilder;
+
+import com.kaizenflow.commerce.gateway.limit.ConcurrencyLimiters;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Calls services from the gateway itself, outside of routes. Calls are held within the same
+ * {@link ConcurrencyLimiters} as routed requests, instances are chosen by the same load balancers and
+ * the calls count towards their {@link OutstandingRequests}.
+ */
+public class ServiceClient {
+
+	private final WebClient webClient;
+
+	private final ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory;
+
+	private final OutstandingRequests outstandingRequests;
+
+	private final ConcurrencyLimiters concurrencyLimiters;
+
+	public ServiceClient(
+			WebClient webClient,
+			ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory,
+			OutstandingRequests outstandingRequests,
+			ConcurrencyLimiters concurrencyLimiters) {
+		this.webClient = webClient;
+		this.loadBalancerFactory = loadBalancerFactory;
+		this.outstandingRequests = outstandingRequests;
+		this.concurrencyLimiters = concurrencyLimiters;
+	}
+
+	/**
+	 * GETs a resource from an instance of a service.
+	 *
+	 * @param serviceId The service's name in discovery
+	 * @param uri Builds the path and query on the instance's base URI
+	 * @param bodyType The type to read the response body as
+	 * @param timeout How long to wait for the body; a call that takes longer counts as failed towards
+	 *     the service's concurrency limit
+	 * @return The body; an error with {@code WebClientResponseException} for error statuses, {@code
+	 *     TimeoutException} if the call took too long, or {@code IllegalStateException} if the service
+	 *     has no instances or is at its concurrency limit
+	 */
+	public <T> Mono<T> get(
+			String serviceId, Function<UriBuilder, URI> uri, Class<T> bodyType, Duration timeout) {
+		return call(serviceId, timeout, instance -> webClient.get()
+				.uri(instance.getUri().toString(), uri)
+				.retrieve()
+				.bodyToMono(bodyType));
+	}
+
+	/**
+	 * POSTs to a resource of an instance of a service, without a body in either direction.
+	 *
+	 * @param serviceId The service's name in discovery
+	 * @param uri Builds the path and query on the instance's base URI
+	 * @param timeout How long to wait for the response; a call that takes longer counts as failed
+	 *     towards the service's concurrency limit
+	 * @return Completes once the instance answered with a success status; errors as for {@link #get}
+	 */
+	public Mono<Void> post(String serviceId, Function<UriBuilder, URI> uri, Duration timeout) {
+		return call(serviceId, timeout, instance -> webClient.post()
+				.uri(instance.getUri().toString(), uri)
+				.retrieve()
+				.bodyToMono(Void.class));
+	}
+
+	private <T> Mono<T> call(
+			String serviceId, Duration timeout, Function<ServiceInstance, Mono<T>> request) {
+		return Mono.defer(() -> {
+			ConcurrencyLimiters.Permit permit = concurrencyLimiters.tryAcquire(serviceId);
+			if (permit == null) {
+				return Mono.error(new IllegalStateException(serviceId + " is at its concurrency limit"));
+			}
+			// Timeouts cancel the call to the instance, so are released below without one
+			return choose(serviceId)
+					.flatMap(instance -> call(instance, request)
+							.doOnSuccess(body -> permit.release(instance, false))
+							.doOnError(e -> permit.release(instance, isFailure(e))))
+					.timeout(timeout)
+					.doOnError(e -> permit.release(null, isFailure(e)))
+					.doFinally(signal -> permit.cancel());
+		});
+	}
+
+	private Mono<ServiceInstance> choose(String serviceId) {
+		return Mono.from(loadBalancerFactory.getInstance(serviceId).choose())
+				.flatMap(response -> response.hasServer()
+						? Mono.just(response.getServer())
+						: Mono.error(new IllegalStateException("No instances of " + serviceId + " available")));
+	}
+
+	// Client errors such as 404 are answers, not signs of an overloaded service
+	private static boolean isFailure(Throwable error) {
+		return !(error instanceof WebClientResponseException response)
+				|| response.getStatusCode().is5xxServerError();
+	}
+
+	private <T> Mono<T> call(ServiceInstance instance, Function<ServiceInstance, Mono<T>> request) {
+		return Mono.defer(() -> {
+			outstandingRequests.increment(instance);
+			return request.apply(instance)
+					.doFinally(signal -> outstandingRequests.decrement(instance));
+		});
+	}
+
+}
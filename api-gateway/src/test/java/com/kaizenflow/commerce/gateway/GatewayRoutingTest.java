@@ -0,0 +1,100 @@
+package com.kaizenflow.commerce.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Routes to two product-service stubs, one of them slow, listed by a simple discovery client. The
+ * concurrency limit is fixed well above the test's concurrency, so only the load balancer is tested.
+ */
+@SpringBootTest(
+		webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = {
+			"eureka.client.enabled=false",
+			"gateway.concurrency-limit.initial=100",
+			"gateway.concurrency-limit.min=100",
+			"gateway.concurrency-limit.max=100"
+		})
+class GatewayRoutingTest {
+
+	private static final AtomicInteger fastRequests = new AtomicInteger();
+
+	private static final AtomicInteger slowRequests = new AtomicInteger();
+
+	private static DisposableServer fastInstance;
+
+	private static DisposableServer slowInstance;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeAll
+	static void startInstances() {
+		fastInstance = instance(fastRequests, Duration.ZERO);
+		slowInstance = instance(slowRequests, Duration.ofMillis(300));
+	}
+
+	@AfterAll
+	static void stopInstances() {
+		fastInstance.disposeNow();
+		slowInstance.disposeNow();
+	}
+
+	@DynamicPropertySource
+	static void instances(DynamicPropertyRegistry registry) {
+		String prefix = "spring.cloud.discovery.client.simple.instances.product-service";
+		registry.add(prefix + "[0].uri", () -> "http://localhost:" + fastInstance.port());
+		registry.add(prefix + "[1].uri", () -> "http://localhost:" + slowInstance.port());
+	}
+
+	@Test
+	void sendsFewerRequestsToSlowInstance() {
+		Flux.range(0, 60)
+				.flatMap(i -> Mono.fromRunnable(() -> webTestClient.get()
+						.uri("/api/v1/products/{id}", i)
+						.exchange()
+						.expectStatus().isOk()
+						.expectBody(String.class).isEqualTo("product " + i))
+						.subscribeOn(Schedulers.boundedElastic()), 6)
+				.blockLast();
+
+		assertThat(fastRequests.get() + slowRequests.get()).isEqualTo(60);
+		assertThat(slowRequests.get()).isLessThan(fastRequests.get() / 2);
+		assertThat(meterRegistry.find("spring.cloud.gateway.requests")
+				.tag("routeId", "product-service")
+				.timer()).isNotNull();
+	}
+
+	private static DisposableServer instance(AtomicInteger requests, Duration delay) {
+		return HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/api/v1/products/{id}", (request, response) -> {
+					requests.incrementAndGet();
+					return response.sendString(Mono.just("product " + request.param("id")).delayElement(delay));
+				}))
+				.bindNow();
+	}
+
+}
@@ -0,0 +1,217 @@
+package com.kaizenflow.commerce.gateway.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/** Caches the product route of a product-service stub that answers after 200 ms. */
+@SpringBootTest(
+		webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = {
+			"eureka.client.enabled=false",
+			// Lists bind from a single property source, so the route is given in full
+			"spring.cloud.gateway.routes[0].id=product-service",
+			"spring.cloud.gateway.routes[0].uri=lb://product-service",
+			"spring.cloud.gateway.routes[0].predicates[0]=Path=/api/v1/products/**",
+			"spring.cloud.gateway.routes[0].filters[0]=EdgeCache=500ms"
+		})
+class EdgeCacheGatewayFilterFactoryTest {
+
+	private static final String PROTOBUF = "application/x-protobuf";
+
+	private static final AtomicInteger upstreamRequests = new AtomicInteger();
+
+	private static final AtomicInteger conditionalRequests = new AtomicInteger();
+
+	private static DisposableServer productService;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeAll
+	static void startProductService() {
+		productService = HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/api/v1/products/{id}", (request, response) -> {
+					upstreamRequests.incrementAndGet();
+					String id = request.param("id");
+					if (id.equals("missing")) {
+						return response.status(HttpStatus.NOT_FOUND.value()).send();
+					}
+					String etag = "\"" + id + "-v1\"";
+					if (etag.equals(request.requestHeaders().get(HttpHeaders.IF_NONE_MATCH))) {
+						conditionalRequests.incrementAndGet();
+						return response.status(HttpStatus.NOT_MODIFIED.value())
+								.header(HttpHeaders.ETAG, etag)
+								.send();
+					}
+					String accept = request.requestHeaders().get(HttpHeaders.ACCEPT, "");
+					String representation = accept.contains(PROTOBUF) ? "protobuf " : "";
+					return response.header(HttpHeaders.ETAG, etag)
+							.header(HttpHeaders.VARY, id.equals("localized") ? "Accept-Language" : "Accept")
+							.sendString(Mono.just(representation + "product " + id)
+									.delayElement(Duration.ofMillis(200)));
+				}))
+				.bindNow();
+	}
+
+	@AfterAll
+	static void stopProductService() {
+		productService.disposeNow();
+	}
+
+	@DynamicPropertySource
+	static void instances(DynamicPropertyRegistry registry) {
+		registry.add(
+				"spring.cloud.discovery.client.simple.instances.product-service[0].uri",
+				() -> "http://localhost:" + productService.port());
+	}
+
+	@Test
+	void coalescesConcurrentMissesIntoOneUpstreamCall() {
+		int before = upstreamRequests.get();
+
+		List<String> bodies = Flux.range(0, 20)
+				.flatMap(i -> Mono.fromCallable(() -> get("/api/v1/products/hot"))
+						.subscribeOn(Schedulers.boundedElastic()), 20)
+				.collectList()
+				.block();
+
+		assertThat(bodies).hasSize(20).containsOnly("product hot");
+		assertThat(upstreamRequests.get() - before).isEqualTo(1);
+		assertThat(count("miss")).isGreaterThanOrEqualTo(1);
+		assertThat(count("coalesced")).isPositive();
+	}
+
+	@Test
+	void keysByQuery() {
+		int before = upstreamRequests.get();
+
+		get("/api/v1/products/queried?currency=GBP");
+		get("/api/v1/products/queried?currency=EUR");
+		get("/api/v1/products/queried?currency=GBP");
+
+		assertThat(upstreamRequests.get() - before).isEqualTo(2);
+	}
+
+	@Test
+	void keysByAcceptHeader() {
+		int before = upstreamRequests.get();
+
+		assertThat(get("/api/v1/products/negotiated", "application/json")).isEqualTo("product negotiated");
+		assertThat(get("/api/v1/products/negotiated", PROTOBUF)).isEqualTo("protobuf product negotiated");
+		assertThat(get("/api/v1/products/negotiated", "application/json")).isEqualTo("product negotiated");
+		assertThat(get("/api/v1/products/negotiated", PROTOBUF)).isEqualTo("protobuf product negotiated");
+
+		assertThat(upstreamRequests.get() - before).isEqualTo(2);
+	}
+
+	@Test
+	void doesNotCacheResponsesVaryingOnOtherHeaders() {
+		int before = upstreamRequests.get();
+
+		get("/api/v1/products/localized");
+		get("/api/v1/products/localized");
+
+		assertThat(upstreamRequests.get() - before).isEqualTo(2);
+	}
+
+	@Test
+	void bypassesTheCacheForRequestsWithCookies() {
+		get("/api/v1/products/personal");
+		int before = upstreamRequests.get();
+
+		webTestClient.get()
+				.uri("/api/v1/products/personal")
+				.header(HttpHeaders.COOKIE, "session=abc")
+				.exchange()
+				.expectStatus().isOk();
+
+		assertThat(upstreamRequests.get() - before).isEqualTo(1);
+	}
+
+	@Test
+	void answersClientRevalidationWithoutGoingUpstream() {
+		get("/api/v1/products/conditional");
+		int before = upstreamRequests.get();
+
+		webTestClient.get()
+				.uri("/api/v1/products/conditional")
+				.header(HttpHeaders.IF_NONE_MATCH, "\"conditional-v1\"")
+				.exchange()
+				.expectStatus().isNotModified()
+				.expectBody().isEmpty();
+
+		assertThat(upstreamRequests.get()).isEqualTo(before);
+	}
+
+	@Test
+	void revalidatesStaleResponseWithUpstreamEtag() throws InterruptedException {
+		get("/api/v1/products/stale");
+		Thread.sleep(600);
+		int before = conditionalRequests.get();
+
+		assertThat(get("/api/v1/products/stale")).isEqualTo("product stale");
+
+		assertThat(conditionalRequests.get() - before).isEqualTo(1);
+		assertThat(meterRegistry.get("gateway.edge.cache.revalidations")
+				.tag("outcome", "not_modified")
+				.counter()
+				.count()).isPositive();
+	}
+
+	@Test
+	void doesNotCacheErrors() {
+		int before = upstreamRequests.get();
+
+		for (int i = 0; i < 2; i++) {
+			webTestClient.get().uri("/api/v1/products/missing").exchange().expectStatus().isNotFound();
+		}
+
+		assertThat(upstreamRequests.get() - before).isEqualTo(2);
+	}
+
+	private String get(String uri) {
+		return get(uri, "*/*");
+	}
+
+	private String get(String uri, String accept) {
+		return webTestClient.get()
+				.uri(uri)
+				.header(HttpHeaders.ACCEPT, accept)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class)
+				.returnResult()
+				.getResponseBody();
+	}
+
+	private double count(String result) {
+		return meterRegistry.get("gateway.edge.cache.requests").tag("result", result).counter().count();
+	}
+
+}
@@ -0,0 +1,165 @@
+package com.kaizenflow.commerce.gateway.composite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+/** Composes pages from product-service and inventory-service stubs that each answer after 300 ms. */
+@SpringBootTest(
+		webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = {
+			"eureka.client.enabled=false",
+			"gateway.product-page.inventory-timeout=1s",
+			"gateway.product-page.recently-viewed-timeout=1s"
+		})
+class ProductPageServiceTest {
+
+	private static final Duration DELAY = Duration.ofMillis(300);
+
+	// Product IDs that product-service was told were viewed
+	private static final List<String> views = new CopyOnWriteArrayList<>();
+
+	private static DisposableServer productService;
+
+	private static DisposableServer inventoryService;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@BeforeAll
+	static void startServices() {
+		productService = HttpServer.create()
+				.port(0)
+				.route(routes -> routes
+						.get("/api/v1/products/{id}", (request, response) -> request.param("id").equals("missing")
+								? response.status(HttpStatus.NOT_FOUND.value()).send()
+								: json(response).sendString(
+										Mono.just("{\"id\":\"" + request.param("id") + "\"}").delayElement(DELAY)))
+						.get("/api/v1/products", (request, response) -> json(response).sendString(
+								Mono.just("[{\"id\":\"p2\"},{\"id\":\"p3\"}]").delayElement(DELAY)))
+						.post("/api/v1/products/{id}/views", (request, response) -> {
+							views.add(request.param("id"));
+							return response.status(HttpStatus.NO_CONTENT.value()).send();
+						}))
+				.bindNow();
+		inventoryService = HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/api/v1/inventory/product/{productId}", (request, response) ->
+						switch (request.param("productId")) {
+							case "unstocked" -> response.status(HttpStatus.NOT_FOUND.value()).send();
+							case "slow-stock" -> json(response).sendString(
+									Mono.just("{\"availableQuantity\":1}").delayElement(Duration.ofSeconds(3)));
+							default -> json(response).sendString(
+									Mono.just("{\"availableQuantity\":7}").delayElement(DELAY));
+						}))
+				.bindNow();
+	}
+
+	@AfterAll
+	static void stopServices() {
+		productService.disposeNow();
+		inventoryService.disposeNow();
+	}
+
+	@DynamicPropertySource
+	static void instances(DynamicPropertyRegistry registry) {
+		String prefix = "spring.cloud.discovery.client.simple.instances.";
+		registry.add(prefix + "product-service[0].uri", () -> "http://localhost:" + productService.port());
+		registry.add(prefix + "inventory-service[0].uri", () -> "http://localhost:" + inventoryService.port());
+	}
+
+	@Test
+	void fetchesPartsInParallel() {
+		getPage("/api/v1/product-pages/p1");
+
+		long start = System.nanoTime();
+		ProductPage page = getPage("/api/v1/product-pages/p1?recentlyViewed=p2,p3");
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+		assertThat(page.product().get("id").asText()).isEqualTo("p1");
+		assertThat(page.inventory().get("availableQuantity").asInt()).isEqualTo(7);
+		assertThat(page.recentlyViewed()).extracting(product -> product.get("id").asText())
+				.containsExactly("p2", "p3");
+		assertThat(page.unavailable()).isEmpty();
+		assertThat(elapsed).isLessThan(DELAY.multipliedBy(3));
+	}
+
+	@Test
+	void leavesOutInventoryThatTimesOut() {
+		ProductPage page = getPage("/api/v1/product-pages/slow-stock");
+
+		assertThat(page.product().get("id").asText()).isEqualTo("slow-stock");
+		assertThat(page.inventory()).isEqualTo(NullNode.getInstance());
+		assertThat(page.unavailable()).containsExactly("inventory");
+	}
+
+	@Test
+	void showsProductWithoutInventory() {
+		ProductPage page = getPage("/api/v1/product-pages/unstocked");
+
+		assertThat(page.inventory()).isEqualTo(NullNode.getInstance());
+		assertThat(page.unavailable()).isEmpty();
+	}
+
+	@Test
+	void returnsNotFoundForMissingProduct() {
+		webTestClient.get().uri("/api/v1/product-pages/missing").exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	void recordsAViewOfTheProductShown() {
+		getPage("/api/v1/product-pages/viewed");
+		webTestClient.get().uri("/api/v1/product-pages/missing").exchange().expectStatus().isNotFound();
+
+		await().atMost(Duration.ofSeconds(2)).until(() -> views.contains("viewed"));
+		assertThat(views).doesNotContain("missing");
+	}
+
+	@Test
+	void rejectsTooManyRecentlyViewedProducts() {
+		webTestClient.get()
+				.uri(uri -> uri.path("/api/v1/product-pages/p1")
+						.queryParam("recentlyViewed", "p2,".repeat(ProductPageService.MAX_RECENTLY_VIEWED) + "p3")
+						.build())
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	private ProductPage getPage(String uri) {
+		return webTestClient.get()
+				.uri(uri)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(ProductPage.class)
+				.returnResult()
+				.getResponseBody();
+	}
+
+	private static HttpServerResponse json(HttpServerResponse response) {
+		return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+	}
+
+}
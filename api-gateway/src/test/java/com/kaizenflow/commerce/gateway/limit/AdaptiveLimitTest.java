@@ -0,0 +1,102 @@
+package com.kaizenflow.commerce.gateway.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimitTest {
+
+	private static final long FAST = Duration.ofMillis(10).toNanos();
+
+	private static final long SLOW = Duration.ofMillis(100).toNanos();
+
+	private static final String INSTANCE = "10.0.0.1:8080";
+
+	private static final String SLOW_INSTANCE = "10.0.0.2:8080";
+
+	private final AdaptiveLimit limit =
+			new AdaptiveLimit(new AdaptiveLimitSettings(10, 2, 20, 2.0, 0.5, Duration.ofMinutes(1)));
+
+	@Test
+	void rejectsRequestsOverTheLimit() {
+		for (int i = 0; i < 10; i++) {
+			assertThat(limit.tryAcquire()).isTrue();
+		}
+
+		assertThat(limit.tryAcquire()).isFalse();
+		assertThat(limit.getInFlight()).isEqualTo(10);
+	}
+
+	@Test
+	void growsWhileFastAndBusy() {
+		acquire(10);
+		limit.release(INSTANCE, FAST, false);
+
+		assertThat(limit.getLimit()).isEqualTo(11);
+	}
+
+	@Test
+	void doesNotGrowWhileMostlyIdle() {
+		acquire(2);
+		limit.release(INSTANCE, FAST, false);
+
+		assertThat(limit.getLimit()).isEqualTo(10);
+	}
+
+	@Test
+	void backsOffWhenRoundTripsGrow() {
+		acquire(3);
+		limit.release(INSTANCE, FAST, false);
+		limit.release(INSTANCE, SLOW, false);
+
+		assertThat(limit.getLimit()).isEqualTo(5);
+		assertThat(limit.getInFlight()).isEqualTo(1);
+	}
+
+	@Test
+	void judgesEachInstanceAgainstItsOwnRoundTrips() {
+		acquire(10);
+		limit.release(INSTANCE, FAST, false);
+		limit.release(SLOW_INSTANCE, SLOW, false);
+		limit.release(SLOW_INSTANCE, SLOW, false);
+
+		assertThat(limit.getLimit()).isEqualTo(13);
+	}
+
+	@Test
+	void doesNotJudgeRoundTripsWithoutAnInstance() {
+		acquire(10);
+		limit.release(INSTANCE, FAST, false);
+		limit.release(null, SLOW, false);
+
+		assertThat(limit.getLimit()).isEqualTo(12);
+	}
+
+	@Test
+	void backsOffOnFailuresButNotBelowMinimum() {
+		acquire(3);
+		for (int i = 0; i < 3; i++) {
+			limit.release(INSTANCE, FAST, true);
+		}
+
+		assertThat(limit.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void cancelFreesSlotWithoutChangingLimit() {
+		acquire(10);
+		limit.cancel();
+
+		assertThat(limit.getLimit()).isEqualTo(10);
+		assertThat(limit.tryAcquire()).isTrue();
+	}
+
+	private void acquire(int requests) {
+		for (int i = 0; i < requests; i++) {
+			limit.tryAcquire();
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+package com.kaizenflow.commerce.gateway.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Sends a burst to a slow inventory-service stub while reading from a fast product-service stub
+ * within its limit.
+ */
+@SpringBootTest(
+		webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = {
+			"eureka.client.enabled=false",
+			"gateway.concurrency-limit.initial=4",
+			"gateway.concurrency-limit.min=2",
+			"gateway.concurrency-limit.max=8"
+		})
+class ConcurrencyLimitFilterTest {
+
+	private static DisposableServer productService;
+
+	private static DisposableServer inventoryService;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeAll
+	static void startServices() {
+		productService = HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/api/v1/products/{id}",
+						(request, response) -> response.sendString(Mono.just("product " + request.param("id")))))
+				.bindNow();
+		inventoryService = HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/api/v1/inventory/{id}", (request, response) -> response
+						.sendString(Mono.just("inventory").delayElement(Duration.ofMillis(500)))))
+				.bindNow();
+	}
+
+	@AfterAll
+	static void stopServices() {
+		productService.disposeNow();
+		inventoryService.disposeNow();
+	}
+
+	@DynamicPropertySource
+	static void instances(DynamicPropertyRegistry registry) {
+		String prefix = "spring.cloud.discovery.client.simple.instances.";
+		registry.add(prefix + "product-service[0].uri", () -> "http://localhost:" + productService.port());
+		registry.add(prefix + "inventory-service[0].uri", () -> "http://localhost:" + inventoryService.port());
+	}
+
+	@Test
+	void shedsExcessLoadOnSlowServiceOnly() {
+		WebClient webClient = WebClient.create("http://localhost:" + port);
+		Mono<List<Response>> inventoryBurst = Flux.range(0, 12)
+				.flatMap(i -> get(webClient, "/api/v1/inventory/" + i))
+				.collectList();
+		Mono<List<Response>> productReads = Flux.range(0, 12)
+				.flatMap(i -> get(webClient, "/api/v1/products/" + i), 2)
+				.delaySubscription(Duration.ofMillis(100))
+				.collectList();
+
+		var results = Mono.zip(inventoryBurst, productReads).block();
+
+		List<Response> shed = results.getT1().stream().filter(response -> response.status() == 503).toList();
+		assertThat(shed).hasSize(8).allSatisfy(response -> assertThat(response.retryAfter()).isEqualTo("1"));
+		assertThat(results.getT2()).extracting(Response::status).containsOnly(200);
+		assertThat(meterRegistry.get("gateway.concurrency.rejected")
+				.tag("service", "inventory-service")
+				.counter()
+				.count()).isEqualTo(8);
+		assertThat(meterRegistry.find("gateway.concurrency.rejected").tag("service", "product-service").counter())
+				.isNull();
+	}
+
+	private static Mono<Response> get(WebClient webClient, String uri) {
+		return webClient.get()
+				.uri(uri)
+				.exchangeToMono(response -> response.releaseBody().thenReturn(new Response(
+						response.statusCode().value(),
+						response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER))));
+	}
+
+	private record Response(int status, String retryAfter) {}
+
+}
@@ -0,0 +1,65 @@
+package com.kaizenflow.commerce.gateway.loadbalancer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+class LeastOutstandingRequestsLoadBalancerTest {
+
+	private final OutstandingRequests outstandingRequests = new OutstandingRequests();
+
+	private final LeastOutstandingRequestsLoadBalancer loadBalancer =
+			new LeastOutstandingRequestsLoadBalancer(null, "product-service", outstandingRequests);
+
+	private final ServiceInstance first = instance("first", 8081);
+
+	private final ServiceInstance second = instance("second", 8082);
+
+	private final ServiceInstance third = instance("third", 8083);
+
+	@Test
+	void choosesInstanceWithFewestOutstandingRequests() {
+		outstandingRequests.increment(first);
+		outstandingRequests.increment(first);
+		outstandingRequests.increment(second);
+		outstandingRequests.increment(third);
+		outstandingRequests.increment(third);
+
+		assertThat(loadBalancer.choose(List.of(first, second, third)).getServer()).isEqualTo(second);
+	}
+
+	@Test
+	void spreadsTiesAcrossInstances() {
+		Set<ServiceInstance> chosen = new HashSet<>();
+		for (int i = 0; i < 200; i++) {
+			chosen.add(loadBalancer.choose(List.of(first, second, third)).getServer());
+		}
+
+		assertThat(chosen).containsExactlyInAnyOrder(first, second, third);
+	}
+
+	@Test
+	void forgetsInstanceOnceItsRequestsComplete() {
+		outstandingRequests.increment(first);
+		outstandingRequests.decrement(first);
+		outstandingRequests.decrement(first);
+
+		assertThat(outstandingRequests.get(first)).isZero();
+	}
+
+	@Test
+	void returnsNoServerWhenNoInstancesAreRegistered() {
+		assertThat(loadBalancer.choose(List.of()).hasServer()).isFalse();
+	}
+
+	private static ServiceInstance instance(String host, int port) {
+		return new DefaultServiceInstance(host, "product-service", host, port, false);
+	}
+
+}
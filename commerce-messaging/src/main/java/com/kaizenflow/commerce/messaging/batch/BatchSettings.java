@@ -0,0 +1,36 @@
+package com.kaizenflow.commerce.messaging.batch;
+
+import java.time.Duration;
+
+/**
+ * Tuning for an {@link EventBatcher}. A batch is sent as soon as it reaches either size limit, or
+ * once its first event has waited for the linger time.
+ *
+ * @param maxEvents Maximum number of events in one batch
+ * @param maxBytes Maximum total serialized size of the events in one batch; must stay below the
+ *     producer's {@code max.request.size}
+ * @param linger How long an event may wait for others to join its batch
+ * @param metadataWait How long adding an event may block while the topics' partition counts are
+ *     still being fetched and {@code maxEvents} events are already held for them
+ */
+public record BatchSettings(int maxEvents, int maxBytes, Duration linger, Duration metadataWait) {
+
+    public BatchSettings {
+        if (maxEvents <= 0) {
+            throw new IllegalArgumentException("maxEvents must be positive");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        if (linger.isNegative()) {
+            throw new IllegalArgumentException("linger must not be negative");
+        }
+        if (metadataWait.isNegative()) {
+            throw new IllegalArgumentException("metadataWait must not be negative");
+        }
+    }
+
+    public static BatchSettings defaults() {
+        return new BatchSettings(500, 256 * 1024, Duration.ofMillis(20), Duration.ofSeconds(5));
+    }
+}
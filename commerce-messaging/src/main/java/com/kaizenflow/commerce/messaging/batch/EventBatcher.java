@@ -0,0 +1,416 @@
+package com.kaizenflow.commerce.messaging.batch;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.SendResult;
+
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Packs events into batch envelopes, one Kafka record per batch, to cut the per-record cost of
+ * keys, headers, offsets and listener dispatch.
+ *
+ * <p>Events are grouped by the partition their key would be sent to, using the same hash as Kafka's
+ * default partitioner for string keys, and each batch is published to that partition. All events
+ * for a key therefore still land on one partition in the order they were added, within and across
+ * batches. Batch records carry no key. A batch is published once it holds {@link
+ * BatchSettings#maxEvents()} events or {@link BatchSettings#maxBytes()} bytes, or once its first
+ * event has waited {@link BatchSettings#linger()}; closing the batcher publishes whatever is left.
+ *
+ * <p>The partition counts of the batcher's topics are fetched once, on a background thread started
+ * with the batcher. Events added before they are known are held, and batched in the order they were
+ * added once they are. Up to {@link BatchSettings#maxEvents()} events are held; past that, adding
+ * an event waits up to {@link BatchSettings#metadataWait()} for the counts, then fails the event
+ * with a {@link TimeoutException}. Batches are handed to the publisher in the order they were cut,
+ * on the batcher's own sender thread, so a send that blocks, for instance while the producer waits
+ * for buffer space, never holds up callers adding events.
+ *
+ * <p>Metrics, tagged with the batcher name and topic:
+ *
+ * <ul>
+ *   <li>{@code kafka.batcher.events} - events per published batch
+ * </ul>
+ *
+ * @param <E> The event type
+ * @param <B> The batch envelope type
+ */
+public class EventBatcher<E, B> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventBatcher.class);
+    private static final Duration METADATA_RETRY_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final String name;
+    private final AsyncEventPublisher<B> publisher;
+    private final Function<List<E>, B> packer;
+    private final ToIntFunction<? super E> sizer;
+    private final MeterRegistry meterRegistry;
+    private final BatchSettings settings;
+    private final Set<String> topics;
+    private final ScheduledExecutorService lingerScheduler;
+    private final ExecutorService sender;
+    private final Map<String, Integer> partitionCounts = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> partitionCountsFetched = new CompletableFuture<>();
+    // Events added before the partition counts were known, oldest first, guarded by itself
+    private final List<HeldEvent<E, B>> held = new ArrayList<>();
+    // Set once the held events are batched; later events are batched straight away
+    private volatile boolean batching;
+    private boolean closed;
+    private final Thread metadataFetcher;
+    private final Map<TopicPartition, PendingBatch> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param name Name for metrics and the batcher's threads
+     * @param topics The topics events will be added for
+     * @param publisher Publishes the batch envelopes
+     * @param packer Builds an envelope from events, oldest first
+     * @param sizer The serialized size of an event
+     * @param meterRegistry Registry for the batcher's metrics
+     * @param settings Batch limits
+     */
+    public EventBatcher(
+            String name,
+            Collection<String> topics,
+            AsyncEventPublisher<B> publisher,
+            Function<List<E>, B> packer,
+            ToIntFunction<? super E> sizer,
+            MeterRegistry meterRegistry,
+            BatchSettings settings) {
+        this.name = name;
+        this.topics = Set.copyOf(topics);
+        this.publisher = publisher;
+        this.packer = packer;
+        this.sizer = sizer;
+        this.meterRegistry = meterRegistry;
+        this.settings = settings;
+        this.lingerScheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name(name + "-batcher-linger").daemon().factory());
+        this.sender =
+                Executors.newSingleThreadExecutor(
+                        Thread.ofPlatform().name(name + "-batcher-sender").daemon().factory());
+        this.metadataFetcher =
+                Thread.ofPlatform()
+                        .name(name + "-batcher-metadata")
+                        .daemon()
+                        .start(this::fetchPartitionCounts);
+    }
+
+    /**
+     * Adds an event to the batch for its key's partition.
+     *
+     * @param topic The destination topic, one of the batcher's topics
+     * @param key The event's key, which determines the partition
+     * @param event The event
+     * @return A future completed with the send result of the event's batch once acknowledged, or
+     *     exceptionally if the batch could not be published, or the partition counts were not known
+     *     in time
+     * @throws IllegalArgumentException If the topic is not one of the batcher's topics
+     */
+    public CompletableFuture<SendResult<String, B>> add(String topic, String key, E event) {
+        Objects.requireNonNull(key, "Batched events need a key to keep their order");
+        if (!topics.contains(topic)) {
+            throw new IllegalArgumentException("Topic " + topic + " is not batched by " + name);
+        }
+        if (!batching) {
+            CompletableFuture<SendResult<String, B>> result = hold(topic, key, event);
+            if (result != null) {
+                return result;
+            }
+        }
+        return batch(topic, key, event);
+    }
+
+    /** Hands every pending batch to the sender thread to publish. */
+    public void flush() {
+        pending.values().forEach(PendingBatch::flush);
+    }
+
+    @Override
+    public void close() {
+        metadataFetcher.interrupt();
+        synchronized (held) {
+            closed = true;
+            held.notifyAll();
+            for (HeldEvent<E, B> event : held) {
+                event
+                        .result()
+                        .completeExceptionally(
+                                new IllegalStateException(
+                                        name + " batcher closed before the partition counts were known"));
+            }
+            held.clear();
+        }
+        flush();
+        lingerScheduler.shutdownNow();
+        sender.shutdown();
+        try {
+            if (!sender.awaitTermination(CLOSE_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS)) {
+                log.warn("{} batcher did not publish its last batches within {}", name, CLOSE_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Completed once the partition counts of all the batcher's topics are known. */
+    CompletableFuture<Void> partitionCountsFetched() {
+        return partitionCountsFetched;
+    }
+
+    private CompletableFuture<SendResult<String, B>> batch(String topic, String key, E event) {
+        int partition =
+                Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8)))
+                        % partitionCounts.get(topic);
+        return pending
+                .computeIfAbsent(new TopicPartition(topic, partition), PendingBatch::new)
+                .add(event, sizer.applyAsInt(event));
+    }
+
+    /**
+     * Holds an event until the partition counts are known, waiting for room if too many are held.
+     *
+     * @return The event's future, or null if the counts became known and the event can be batched
+     */
+    private CompletableFuture<SendResult<String, B>> hold(String topic, String key, E event) {
+        synchronized (held) {
+            long deadline = System.nanoTime() + settings.metadataWait().toNanos();
+            while (!batching && !closed && held.size() >= settings.maxEvents()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return CompletableFuture.failedFuture(
+                            new TimeoutException(
+                                    "Partition counts of " + topics + " not known after " + settings.metadataWait()));
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(held, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+            if (batching) {
+                return null;
+            }
+            if (closed) {
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException(name + " batcher is closed"));
+            }
+            CompletableFuture<SendResult<String, B>> result = new CompletableFuture<>();
+            held.add(new HeldEvent<>(topic, key, event, result));
+            return result;
+        }
+    }
+
+    // Batches the held events, under the lock so that no event added later is batched ahead of them
+    private void batchHeldEvents() {
+        synchronized (held) {
+            if (closed) {
+                return;
+            }
+            for (HeldEvent<E, B> event : held) {
+                batch(event.topic(), event.key(), event.event())
+                        .whenComplete(
+                                (sendResult, error) -> {
+                                    if (error == null) {
+                                        event.result().complete(sendResult);
+                                    } else {
+                                        event.result().completeExceptionally(error);
+                                    }
+                                });
+            }
+            held.clear();
+            batching = true;
+            held.notifyAll();
+        }
+    }
+
+    // Runs on the metadata thread, retrying until the broker answers for every topic
+    private void fetchPartitionCounts() {
+        for (String topic : topics) {
+            while (!partitionCounts.containsKey(topic)) {
+                try {
+                    partitionCounts.put(topic, publisher.partitionCount(topic));
+                } catch (RuntimeException e) {
+                    log.warn(
+                            "Could not fetch the partition count of {}, retrying in {}",
+                            topic,
+                            METADATA_RETRY_INTERVAL,
+                            e);
+                    try {
+                        Thread.sleep(METADATA_RETRY_INTERVAL);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        }
+        batchHeldEvents();
+        partitionCountsFetched.complete(null);
+    }
+
+    /** An event added before the partition counts were known. */
+    private record HeldEvent<E, B>(
+            String topic, String key, E event, CompletableFuture<SendResult<String, B>> result) {}
+
+    /** Events cut into a batch, with the futures of the callers that added them. */
+    private record Batch<E, B>(
+            List<E> events, List<CompletableFuture<SendResult<String, B>>> results) {}
+
+    /** The events waiting to be published to one partition. */
+    private final class PendingBatch {
+
+        private final TopicPartition partition;
+        private final DistributionSummary batchSizes;
+        private final List<E> events = new ArrayList<>();
+        private final List<CompletableFuture<SendResult<String, B>>> results = new ArrayList<>();
+        // Batches cut but not yet handed to the publisher, oldest first
+        private final Queue<Batch<E, B>> ready = new ConcurrentLinkedQueue<>();
+        // Non-zero while a thread is handing ready batches to the publisher
+        private final AtomicInteger sending = new AtomicInteger();
+        private int bytes;
+        // Counts cut batches, so a linger task never flushes a later batch early
+        private long generation;
+        private ScheduledFuture<?> lingerTask;
+
+        PendingBatch(TopicPartition partition) {
+            this.partition = partition;
+            this.batchSizes =
+                    DistributionSummary.builder("kafka.batcher.events")
+                            .tag("batcher", name)
+                            .tag("topic", partition.topic())
+                            .register(meterRegistry);
+        }
+
+        CompletableFuture<SendResult<String, B>> add(E event, int size) {
+            CompletableFuture<SendResult<String, B>> result = new CompletableFuture<>();
+            synchronized (this) {
+                if (!events.isEmpty() && bytes + size > settings.maxBytes()) {
+                    cut();
+                }
+                events.add(event);
+                results.add(result);
+                bytes += size;
+                if (events.size() >= settings.maxEvents() || bytes >= settings.maxBytes()) {
+                    cut();
+                } else if (events.size() == 1) {
+                    long batch = generation;
+                    lingerTask =
+                            lingerScheduler.schedule(
+                                    () -> flushBatch(batch), settings.linger().toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            sendReady();
+            return result;
+        }
+
+        private void flushBatch(long batch) {
+            synchronized (this) {
+                if (generation == batch) {
+                    cut();
+                }
+            }
+            sendReady();
+        }
+
+        void flush() {
+            synchronized (this) {
+                cut();
+            }
+            sendReady();
+        }
+
+        // Called under the lock, so batches are queued in the order they are cut
+        private void cut() {
+            if (events.isEmpty()) {
+                return;
+            }
+            if (lingerTask != null) {
+                lingerTask.cancel(false);
+                lingerTask = null;
+            }
+            ready.add(new Batch<>(List.copyOf(events), List.copyOf(results)));
+            events.clear();
+            results.clear();
+            bytes = 0;
+            generation++;
+        }
+
+        /**
+         * Has the sender thread hand the ready batches to the publisher in order, unless it is already
+         * doing so, in which case it sends the new batches too. Once the batcher is closed, the calling
+         * thread sends them itself.
+         */
+        private void sendReady() {
+            if (sending.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drain();
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                Batch<E, B> batch;
+                while ((batch = ready.poll()) != null) {
+                    send(batch);
+                }
+                missed = sending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void send(Batch<E, B> batch) {
+            batchSizes.record(batch.events().size());
+            CompletableFuture<SendResult<String, B>> sent;
+            try {
+                sent =
+                        publisher.publish(
+                                partition.topic(), partition.partition(), null, packer.apply(batch.events()));
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            sent.whenComplete(
+                    (sendResult, error) -> {
+                        for (CompletableFuture<SendResult<String, B>> result : batch.results()) {
+                            if (error == null) {
+                                result.complete(sendResult);
+                            } else {
+                                result.completeExceptionally(error);
+                            }
+                        }
+                    });
+        }
+    }
+}
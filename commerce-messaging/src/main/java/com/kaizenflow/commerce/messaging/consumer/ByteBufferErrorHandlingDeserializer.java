@@ -0,0 +1,65 @@
+package com.kaizenflow.commerce.messaging.consumer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.validation.Validator;
+
+/**
+ * An {@link ErrorHandlingDeserializer} that hands the consumer's fetch buffer straight to a
+ * delegate reading {@link ByteBuffer}s. The plain error-handling deserializer only implements the
+ * byte array methods, so every record is copied into a new array before its delegate sees it.
+ *
+ * <p>Only a record the delegate fails on is copied, and then deserialized again through the byte
+ * array path, which records the failure and the raw bytes in the record's headers for the
+ * listener's error handling as usual. With a validator set, every record takes the byte array path.
+ *
+ * @param <T> The deserialized type
+ */
+public class ByteBufferErrorHandlingDeserializer<T> extends ErrorHandlingDeserializer<T> {
+
+    private final Deserializer<T> delegate;
+    private boolean validating;
+
+    public ByteBufferErrorHandlingDeserializer(Deserializer<T> delegate) {
+        super(delegate);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void setValidator(Validator validator) {
+        super.setValidator(validator);
+        this.validating = validator != null;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        super.configure(configs, isKey);
+        if (configs.containsKey(VALIDATOR_CLASS)) {
+            this.validating = true;
+        }
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data != null && !validating) {
+            int position = data.position();
+            headers.remove(
+                    isForKey()
+                            ? SerializationUtils.KEY_DESERIALIZER_EXCEPTION_HEADER
+                            : SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER);
+            try {
+                return delegate.deserialize(topic, headers, data);
+            } catch (RuntimeException e) {
+                // Failed again below, on a copy, to record the failure with the record's bytes
+                data.position(position);
+            }
+        }
+        return deserialize(topic, headers, Utils.toNullableArray(data));
+    }
+}
@@ -0,0 +1,98 @@
+package com.kaizenflow.commerce.messaging.consumer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+/**
+ * Deletes the consumer groups of listeners that consume in a group of their own per instance, such
+ * as {@code groupId = "name-${random.uuid}"}, when the application shuts down. Such a group is
+ * never joined again once its instance stops, so without this every restart leaves one behind on
+ * the broker with its committed offsets.
+ *
+ * <p>Declared as a bean, it is closed after the listener containers are stopped; containers still
+ * running are stopped first, since a group with members cannot be deleted. A failed deletion is
+ * logged and the broker's offset retention removes the group eventually.
+ */
+public class InstanceConsumerGroups implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(InstanceConsumerGroups.class);
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final Supplier<Admin> adminFactory;
+    private final List<String> listenerIds;
+    private final Duration timeout;
+
+    /**
+     * @param registry The registry holding the listener containers
+     * @param kafkaAdmin Supplies the settings of the admin client deleting the groups
+     * @param listenerIds The IDs of the listeners consuming in a group per instance
+     * @param timeout How long to wait for the groups to be deleted
+     */
+    public InstanceConsumerGroups(
+            KafkaListenerEndpointRegistry registry,
+            KafkaAdmin kafkaAdmin,
+            Collection<String> listenerIds,
+            Duration timeout) {
+        this(
+                registry,
+                () -> Admin.create(kafkaAdmin.getConfigurationProperties()),
+                listenerIds,
+                timeout);
+    }
+
+    InstanceConsumerGroups(
+            KafkaListenerEndpointRegistry registry,
+            Supplier<Admin> adminFactory,
+            Collection<String> listenerIds,
+            Duration timeout) {
+        this.registry = registry;
+        this.adminFactory = adminFactory;
+        this.listenerIds = List.copyOf(listenerIds);
+        this.timeout = timeout;
+    }
+
+    /** Deletes the listeners' consumer groups, stopping any listener still running. */
+    @Override
+    public void close() {
+        List<String> groupIds = new ArrayList<>();
+        for (String listenerId : listenerIds) {
+            MessageListenerContainer container = registry.getListenerContainer(listenerId);
+            if (container == null) {
+                continue;
+            }
+            if (container.isRunning()) {
+                container.stop();
+            }
+            String groupId = container.getGroupId();
+            if (groupId != null) {
+                groupIds.add(groupId);
+            }
+        }
+        if (groupIds.isEmpty()) {
+            return;
+        }
+
+        try (Admin admin = adminFactory.get()) {
+            admin.deleteConsumerGroups(groupIds).all().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Deleted consumer groups {}", groupIds);
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            log.warn("Unable to delete consumer groups {}: {}", groupIds, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while deleting consumer groups {}", groupIds);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.kaizenflow.commerce.messaging.http;
+
+import java.util.List;
+
+import org.springframework.http.ETag;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * ETags for documents served as JSON or Protobuf and versioned by a counter that every write bumps.
+ * Lets a service answer conditional GETs from the version alone, without loading and serializing
+ * the full document.
+ *
+ * <p>The JSON and Protobuf bodies of one version differ byte for byte, so each representation gets
+ * its own ETag; responses must vary by Accept so caches keep the two apart.
+ */
+public final class VersionETags {
+
+    private VersionETags() {}
+
+    /**
+     * Derives a strong ETag from a version counter and the media type the document is served as.
+     *
+     * @param version The version counter of the document
+     * @param representation The media type the document is served as
+     * @return The quoted ETag value
+     */
+    public static String eTagFor(long version, MediaType representation) {
+        return "\"" + version + "-" + representation.getSubtype() + "\"";
+    }
+
+    /**
+     * Checks whether an If-None-Match header matches a version in a representation. Uses the weak
+     * comparison required for If-None-Match, so W/ prefixes sent by intermediaries still match.
+     *
+     * @param ifNoneMatch The raw If-None-Match header value, may be null
+     * @param version The current version counter of the document
+     * @param representation The media type the document is served as
+     * @return true if the client's cached representation is still current
+     */
+    public static boolean isMatchedBy(String ifNoneMatch, long version, MediaType representation) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag currentTag = ETag.create(eTagFor(version, representation));
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(tag -> tag.isWildcard() || tag.compare(currentTag, false));
+    }
+
+    /**
+     * Picks the media type a document will be written as, chosen the way the message converters are:
+     * JSON for clients that accept anything, Protobuf only for those that prefer it. The result is
+     * what {@link #eTagFor} and {@link #isMatchedBy} expect.
+     *
+     * @param accept The Accept header, may be null
+     * @return JSON or Protobuf
+     */
+    public static MediaType representationFor(String accept) {
+        if (accept != null) {
+            try {
+                List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+                MimeTypeUtils.sortBySpecificity(accepted);
+                for (MediaType mediaType : accepted) {
+                    if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                        return MediaType.APPLICATION_JSON;
+                    }
+                    if (mediaType.isCompatibleWith(ProtobufHttpMessageConverter.PROTOBUF)) {
+                        return ProtobufHttpMessageConverter.PROTOBUF;
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                // Content negotiation rejects the request when the body is written
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
@@ -0,0 +1,45 @@
+package com.kaizenflow.commerce.messaging.producer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.kafka.support.LoggingProducerListener;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records the size of each record the broker acknowledges as {@code kafka.producer.record.size},
+ * tagged with the topic. For topics carrying event batches this is the size of each batch. Failed
+ * sends are still logged, as by the template's default listener.
+ *
+ * @param <K> The record key type
+ * @param <V> The record value type
+ */
+public class ProducerMetrics<K, V> extends LoggingProducerListener<K, V> {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> recordSizes = new ConcurrentHashMap<>();
+
+    public ProducerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onSuccess(ProducerRecord<K, V> record, RecordMetadata recordMetadata) {
+        recordSizes
+                .computeIfAbsent(record.topic(), this::recordSize)
+                .record(
+                        Math.max(recordMetadata.serializedKeySize(), 0)
+                                + Math.max(recordMetadata.serializedValueSize(), 0));
+    }
+
+    private DistributionSummary recordSize(String topic) {
+        return DistributionSummary.builder("kafka.producer.record.size")
+                .baseUnit("bytes")
+                .tag("topic", topic)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.kaizenflow.commerce.messaging.producer;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+/**
+ * Producer tuning presets. Both profiles use an idempotent producer with {@code acks=all}, so the
+ * client's own retries neither lose, duplicate nor reorder records within a partition.
+ *
+ * <p>Both also cap {@code max.block.ms}, how long a send may block its caller waiting for topic
+ * metadata or buffer space, at {@link #MAX_BLOCK_MS} instead of the client's default of a minute. A
+ * send that cannot go ahead in that time fails, and the caller's thread is freed.
+ */
+public enum ProducerProfile {
+
+    /**
+     * Waits up to 10 ms to fill batches of up to 128 KiB per partition and compresses them with zstd.
+     * For high-volume event streams, where fewer and smaller requests matter more than a few
+     * milliseconds.
+     */
+    THROUGHPUT(128 * 1024, 10, "zstd"),
+
+    /**
+     * Sends as soon as the producer's sender thread is free, compressing with the cheaper lz4. For
+     * replies that hold up a caller, such as saga steps.
+     */
+    LATENCY(16 * 1024, 0, "lz4");
+
+    /** How long a send may block its caller, in milliseconds. */
+    public static final int MAX_BLOCK_MS = 1000;
+
+    private final int batchSize;
+    private final int lingerMs;
+    private final String compressionType;
+
+    ProducerProfile(int batchSize, int lingerMs, String compressionType) {
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.compressionType = compressionType;
+    }
+
+    /** The producer settings for this profile, to add to the connection and serializer settings. */
+    public Map<String, Object> settings() {
+        return Map.ofEntries(
+                Map.entry(ProducerConfig.BATCH_SIZE_CONFIG, batchSize),
+                Map.entry(ProducerConfig.LINGER_MS_CONFIG, lingerMs),
+                Map.entry(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType),
+                Map.entry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true),
+                Map.entry(ProducerConfig.ACKS_CONFIG, "all"),
+                Map.entry(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5),
+                Map.entry(ProducerConfig.MAX_BLOCK_MS_CONFIG, MAX_BLOCK_MS));
+    }
+}
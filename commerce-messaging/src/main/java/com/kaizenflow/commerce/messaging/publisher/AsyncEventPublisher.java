@@ -0,0 +1,174 @@
+package com.kaizenflow.commerce.messaging.publisher;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes events to Kafka asynchronously, with bounded concurrency and metrics.
+ *
+ * <p>Callers get a future instead of blocking on the broker. The number of sends awaiting
+ * acknowledgement is capped by a semaphore: when the broker slows down and the cap is reached,
+ * further sends are rejected immediately, so a slow broker pushes back on producers instead of
+ * growing an unbounded backlog or stalling the calling thread. The send itself still blocks while
+ * the producer waits for topic metadata or buffer space, for up to its {@code max.block.ms}; the
+ * {@code ProducerProfile} presets keep that short, and producers built without them should too.
+ *
+ * <p>Transient failures are retried by the idempotent producer itself, within its delivery timeout,
+ * which keeps records with the same key in order. A failed future therefore means the producer has
+ * given up, and resending it from here could overtake later records for the key.
+ *
+ * <p>Metrics, tagged with the publisher name and topic:
+ *
+ * <ul>
+ *   <li>{@code kafka.publisher.in.flight} - sends awaiting acknowledgement
+ *   <li>{@code kafka.publisher.sent} / {@code failed} / {@code rejected}
+ *   <li>{@code kafka.publisher.latency} - time from publish to acknowledgement
+ * </ul>
+ *
+ * @param <V> The event type
+ */
+public class AsyncEventPublisher<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncEventPublisher.class);
+
+    private final String name;
+    private final KafkaTemplate<String, V> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final PublisherSettings settings;
+    private final Semaphore inFlightPermits;
+    private final Map<String, TopicMeters> topicMeters = new ConcurrentHashMap<>();
+
+    public AsyncEventPublisher(
+            String name,
+            KafkaTemplate<String, V> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            PublisherSettings settings) {
+        this.name = name;
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.settings = settings;
+        this.inFlightPermits = new Semaphore(settings.maxInFlight());
+
+        Gauge.builder(
+                        "kafka.publisher.in.flight",
+                        inFlightPermits,
+                        permits -> settings.maxInFlight() - permits.availablePermits())
+                .tag("publisher", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes an event without waiting for the broker.
+     *
+     * @param topic The destination topic
+     * @param key The record key, which determines the partition; may be null
+     * @param event The event to publish
+     * @return A future completed with the send result once acknowledged, or exceptionally if the
+     *     producer fails the send or it is rejected for lack of in-flight capacity
+     */
+    public CompletableFuture<SendResult<String, V>> publish(String topic, String key, V event) {
+        return publish(topic, null, key, event);
+    }
+
+    /**
+     * Publishes an event to a chosen partition without waiting for the broker.
+     *
+     * @param topic The destination topic
+     * @param partition The destination partition, or null to choose it by key
+     * @param key The record key; may be null
+     * @param event The event to publish
+     * @return A future completed with the send result once acknowledged, or exceptionally if the
+     *     producer fails the send or it is rejected for lack of in-flight capacity
+     */
+    public CompletableFuture<SendResult<String, V>> publish(
+            String topic, Integer partition, String key, V event) {
+        TopicMeters meters = metersFor(topic);
+        if (!inFlightPermits.tryAcquire()) {
+            meters.rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new PublishRejectedException(topic, settings.maxInFlight()));
+        }
+
+        CompletableFuture<SendResult<String, V>> result = new CompletableFuture<>();
+        long startNanos = System.nanoTime();
+        CompletableFuture<SendResult<String, V>> sendFuture;
+        try {
+            sendFuture =
+                    partition == null
+                            ? kafkaTemplate.send(topic, key, event)
+                            : kafkaTemplate.send(topic, partition, key, event);
+        } catch (RuntimeException e) {
+            sendFuture = CompletableFuture.failedFuture(e);
+        }
+
+        sendFuture.whenComplete(
+                (sendResult, error) -> {
+                    inFlightPermits.release();
+                    if (error == null) {
+                        meters.latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                        meters.sent.increment();
+                        result.complete(sendResult);
+                    } else {
+                        meters.failed.increment();
+                        log.error("Failed to publish to {} with key {}", topic, key, error);
+                        result.completeExceptionally(error);
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * The number of partitions of a topic, as known to the producer.
+     *
+     * @param topic The topic
+     * @return The partition count
+     */
+    public int partitionCount(String topic) {
+        return kafkaTemplate.partitionsFor(topic).size();
+    }
+
+    private TopicMeters metersFor(String topic) {
+        return topicMeters.computeIfAbsent(topic, t -> new TopicMeters(meterRegistry, name, t));
+    }
+
+    private static final class TopicMeters {
+
+        private final Counter sent;
+        private final Counter failed;
+        private final Counter rejected;
+        private final Timer latency;
+
+        TopicMeters(MeterRegistry registry, String publisher, String topic) {
+            this.sent = counter(registry, "kafka.publisher.sent", publisher, topic);
+            this.failed = counter(registry, "kafka.publisher.failed", publisher, topic);
+            this.rejected = counter(registry, "kafka.publisher.rejected", publisher, topic);
+            this.latency =
+                    Timer.builder("kafka.publisher.latency")
+                            .tag("publisher", publisher)
+                            .tag("topic", topic)
+                            .publishPercentileHistogram()
+                            .register(registry);
+        }
+
+        private static Counter counter(
+                MeterRegistry registry, String name, String publisher, String topic) {
+            return Counter.builder(name)
+                    .tag("publisher", publisher)
+                    .tag("topic", topic)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.kaizenflow.commerce.messaging.publisher;
+
+/** Thrown when a send is refused because too many sends are already awaiting the broker. */
+public class PublishRejectedException extends RuntimeException {
+
+    public PublishRejectedException(String topic, int maxInFlight) {
+        super("Rejected publish to " + topic + ": " + maxInFlight + " sends already in flight");
+    }
+}
@@ -0,0 +1,19 @@
+package com.kaizenflow.commerce.messaging.publisher;
+
+/**
+ * Tuning for an {@link AsyncEventPublisher}.
+ *
+ * @param maxInFlight Maximum number of sends awaiting broker acknowledgement
+ */
+public record PublisherSettings(int maxInFlight) {
+
+    public PublisherSettings {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+    }
+
+    public static PublisherSettings defaults() {
+        return new PublisherSettings(1000);
+    }
+}
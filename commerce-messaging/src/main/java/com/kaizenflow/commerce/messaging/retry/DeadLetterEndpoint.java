@@ -0,0 +1,37 @@
+package com.kaizenflow.commerce.messaging.retry;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Actuator endpoint replaying a dead-letter topic: {@code POST /actuator/deadletters/{topic}}.
+ * Exposed only when listed in {@code management.endpoints.web.exposure.include}.
+ */
+@Endpoint(id = "deadletters")
+public class DeadLetterEndpoint {
+
+    private final DeadLetterReplayer replayer;
+
+    public DeadLetterEndpoint(DeadLetterReplayer replayer) {
+        this.replayer = replayer;
+    }
+
+    /**
+     * Sends the records on a dead-letter topic back through the first retry topic of their source.
+     *
+     * @param topic One of this service's dead-letter topics
+     * @return The topic and the number of records replayed
+     */
+    @WriteOperation
+    public Map<String, Object> replay(@Selector String topic) {
+        try {
+            return Map.of("topic", topic, "replayed", replayer.replay(topic));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
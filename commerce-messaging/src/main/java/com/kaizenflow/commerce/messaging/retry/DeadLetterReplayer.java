@@ -0,0 +1,157 @@
+package com.kaizenflow.commerce.messaging.retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends dead letters back through the service's retry chain once whatever failed them has been
+ * fixed.
+ *
+ * <p>Records are replayed onto the first retry topic of their source topic rather than the source
+ * topic itself: the retry topics are consumed only by this service's listener, while other services
+ * consume the source topic and would otherwise receive the records a second time. From there a
+ * replayed record runs through the remaining retry topics as usual.
+ *
+ * <p>A replay covers the records on the dead-letter topic when it starts, from where the previous
+ * replay stopped; the position is kept as the committed offset of the given consumer factory's
+ * group. Each record goes back to its original partition with its original key, value and headers,
+ * minus those added while it was being retried. Offsets are committed only once the broker has
+ * acknowledged every record sent, so a failed replay can simply be repeated.
+ *
+ * <p>Replays are counted by {@code kafka.retry.replayed}, tagged with the source topic.
+ */
+public class DeadLetterReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+    // Added by the dead-letter publisher and the retry topic chain
+    private static final List<String> RETRY_HEADER_PREFIXES =
+            List.of("kafka_dlt-", "kafka_original-", "retry_topic-");
+
+    private final RetryTopicNames names;
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final long firstRetryDelayMs;
+
+    /**
+     * @param names The names of the service's retry topics
+     * @param consumerFactory Reads dead letters as raw bytes, in a group used only for replays,
+     *     starting from the earliest offset and without auto-commit
+     * @param kafkaTemplate Sends raw bytes to the retry topics
+     * @param meterRegistry The registry for replay metrics
+     * @param timeout How long one replay may spend reading; what was read is still replayed
+     * @param firstRetryDelayMs The delay of the first retry topic, {@code
+     *     kafka.retry.initial-delay-ms}
+     */
+    public DeadLetterReplayer(
+            RetryTopicNames names,
+            ConsumerFactory<String, byte[]> consumerFactory,
+            KafkaTemplate<String, Object> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            Duration timeout,
+            long firstRetryDelayMs) {
+        this.names = names;
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.firstRetryDelayMs = firstRetryDelayMs;
+    }
+
+    /**
+     * Replays the records currently on a dead-letter topic.
+     *
+     * @param deadLetterTopic One of this service's dead-letter topics
+     * @return The number of records replayed
+     * @throws IllegalArgumentException if the topic is not one of this service's dead-letter topics
+     */
+    public synchronized int replay(String deadLetterTopic) {
+        String sourceTopic = names.sourceOfDeadLetterTopic(deadLetterTopic);
+        if (sourceTopic == null) {
+            throw new IllegalArgumentException("Not a dead-letter topic: " + deadLetterTopic);
+        }
+        String retryTopic = names.retryTopic(sourceTopic, firstRetryDelayMs);
+
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer()) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo partition : consumer.partitionsFor(deadLetterTopic)) {
+                partitions.add(new TopicPartition(deadLetterTopic, partition.partition()));
+            }
+            if (partitions.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitions);
+            // Records dead-lettered while replaying wait for the next replay
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            List<CompletableFuture<?>> sends = new ArrayList<>();
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (!caughtUp(consumer, endOffsets) && System.nanoTime() < deadline) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(100))) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() < endOffsets.get(partition)) {
+                        sends.add(kafkaTemplate.send(toRetry(retryTopic, record)));
+                    }
+                }
+            }
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+
+            Map<TopicPartition, OffsetAndMetadata> replayed = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                long position = Math.min(consumer.position(partition), endOffsets.get(partition));
+                replayed.put(partition, new OffsetAndMetadata(position));
+            }
+            consumer.commitSync(replayed);
+
+            Counter.builder("kafka.retry.replayed")
+                    .tag("topic", sourceTopic)
+                    .register(meterRegistry)
+                    .increment(sends.size());
+            log.info("Replayed {} records from {} to {}", sends.size(), deadLetterTopic, retryTopic);
+            return sends.size();
+        }
+    }
+
+    private static boolean caughtUp(Consumer<?, ?> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> end : endOffsets.entrySet()) {
+            if (consumer.position(end.getKey()) < end.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ProducerRecord<String, Object> toRetry(
+            String retryTopic, ConsumerRecord<String, byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (RETRY_HEADER_PREFIXES.stream().noneMatch(header.key()::startsWith)) {
+                headers.add(header);
+            }
+        }
+        return new ProducerRecord<>(
+                retryTopic, record.partition(), record.key(), record.value(), headers);
+    }
+}
@@ -0,0 +1,51 @@
+package com.kaizenflow.commerce.messaging.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.retry.annotation.Backoff;
+
+/**
+ * Parks records a {@code @KafkaListener} fails to process instead of retrying them in place, so one
+ * bad record does not hold up the rest of its partition.
+ *
+ * <p>A failed record is forwarded to a chain of retry topics, each consumed after an exponentially
+ * growing delay, and finally to a dead-letter topic holding the original payload with headers
+ * describing the exception. Records that cannot be deserialized go straight to the dead-letter
+ * topic. Topic names follow {@link RetryTopicNames}, scoped to the consuming service so that
+ * services sharing a topic do not pick up each other's failures.
+ *
+ * <p>Only for listeners in a consumer group shared by all instances of a service; records parked by
+ * a per-instance group would be seen by every instance. The service must define:
+ *
+ * <ul>
+ *   <li>the properties {@link RetryTopicAutoConfiguration} needs for the {@code
+ *       deadLetterKafkaTemplate} bean
+ *   <li>{@code kafka.retry.attempts}, counting the first delivery
+ *   <li>{@code kafka.retry.initial-delay-ms}, {@code kafka.retry.multiplier} and {@code
+ *       kafka.retry.max-delay-ms}
+ *   <li>{@code kafka.retry.partitions}, matching the source topics so records keep their partition
+ * </ul>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@RetryableTopic(
+        attempts = "${kafka.retry.attempts}",
+        backoff =
+                @Backoff(
+                        delayExpression = "${kafka.retry.initial-delay-ms}",
+                        multiplierExpression = "${kafka.retry.multiplier}",
+                        maxDelayExpression = "${kafka.retry.max-delay-ms}"),
+        kafkaTemplate = "deadLetterKafkaTemplate",
+        numPartitions = "${kafka.retry.partitions}",
+        retryTopicSuffix = "-${spring.application.name}" + RetryTopicNames.RETRY_SUFFIX,
+        dltTopicSuffix = "-${spring.application.name}" + RetryTopicNames.DEAD_LETTER_SUFFIX,
+        // A dead letter that cannot be handled is logged rather than sent back to its own topic
+        dltStrategy = DltStrategy.FAIL_ON_ERROR)
+public @interface NonBlockingRetry {}
@@ -0,0 +1,120 @@
+package com.kaizenflow.commerce.messaging.retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Retry and dead-letter topics for the listeners marked {@link NonBlockingRetry}, set up for a
+ * service that sets {@code kafka.retry.replay-group-id}:
+ *
+ * <ul>
+ *   <li>{@code deadLetterKafkaTemplate}, sending parked records with the serializer named by {@code
+ *       kafka.retry.value-serializer}, or as raw bytes when they could not be deserialized
+ *   <li>a {@link DeadLetterReplayer} reading dead letters in the replay group, bounded by {@code
+ *       kafka.retry.replay-timeout}
+ *   <li>the {@link DeadLetterEndpoint}, when the service has Actuator
+ * </ul>
+ *
+ * <p>Runs before Spring Boot's Kafka auto-configuration, so the dead-letter template does not stand
+ * in for the service's own templates there.
+ */
+@AutoConfiguration(
+        beforeName = "org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration")
+@ConditionalOnProperty("kafka.retry.replay-group-id")
+public class RetryTopicAutoConfiguration {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RetryTopicNames retryTopicNames(
+            @Value("${spring.application.name}") String applicationName) {
+        return new RetryTopicNames(applicationName);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "deadLetterKafkaTemplate")
+    public KafkaTemplate<String, Object> deadLetterKafkaTemplate(
+            RetryTopicNames retryTopicNames,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.retry.value-serializer}") Class<?> valueSerializer) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+
+        // Records that could not be deserialized, and replayed dead letters, are sent as raw bytes
+        Map<Class<?>, Serializer<?>> valueSerializers = new LinkedHashMap<>();
+        valueSerializers.put(byte[].class, new ByteArraySerializer());
+        valueSerializers.put(
+                Object.class, BeanUtils.instantiateClass(valueSerializer, Serializer.class));
+
+        KafkaTemplate<String, Object> kafkaTemplate =
+                new KafkaTemplate<>(
+                        new DefaultKafkaProducerFactory<>(
+                                configProps,
+                                new StringSerializer(),
+                                new DelegatingByTypeSerializer(valueSerializers, true)));
+        kafkaTemplate.setProducerListener(new RetryTopicMetrics(retryTopicNames, meterRegistry));
+        return kafkaTemplate;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DeadLetterReplayer deadLetterReplayer(
+            RetryTopicNames retryTopicNames,
+            KafkaTemplate<String, Object> deadLetterKafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.retry.replay-group-id}") String replayGroupId,
+            @Value("${kafka.retry.replay-timeout}") Duration replayTimeout,
+            @Value("${kafka.retry.initial-delay-ms}") long initialDelayMs) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, replayGroupId);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        return new DeadLetterReplayer(
+                retryTopicNames,
+                new DefaultKafkaConsumerFactory<>(
+                        configProps, new StringDeserializer(), new ByteArrayDeserializer()),
+                deadLetterKafkaTemplate,
+                meterRegistry,
+                replayTimeout,
+                initialDelayMs);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class DeadLetterEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public DeadLetterEndpoint deadLetterEndpoint(DeadLetterReplayer deadLetterReplayer) {
+            return new DeadLetterEndpoint(deadLetterReplayer);
+        }
+    }
+}
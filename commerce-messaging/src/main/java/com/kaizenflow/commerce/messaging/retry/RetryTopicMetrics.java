@@ -0,0 +1,65 @@
+package com.kaizenflow.commerce.messaging.retry;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.ProducerListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts records parked by {@link NonBlockingRetry} listeners, as acknowledged by the broker. Set
+ * on the {@code deadLetterKafkaTemplate} that parks them.
+ *
+ * <p>Metrics, tagged with the source topic:
+ *
+ * <ul>
+ *   <li>{@code kafka.retry.scheduled} - records sent to a retry topic, including dead letters
+ *       replayed by {@link DeadLetterReplayer}
+ *   <li>{@code kafka.retry.dead.lettered} - records sent to the dead-letter topic, also tagged with
+ *       the exception that failed them
+ * </ul>
+ */
+public class RetryTopicMetrics implements ProducerListener<String, Object> {
+
+    private final RetryTopicNames names;
+    private final MeterRegistry meterRegistry;
+
+    public RetryTopicMetrics(RetryTopicNames names, MeterRegistry meterRegistry) {
+        this.names = names;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onSuccess(ProducerRecord<String, Object> record, RecordMetadata recordMetadata) {
+        String retried = names.sourceOfRetryTopic(record.topic());
+        if (retried != null) {
+            Counter.builder("kafka.retry.scheduled")
+                    .tag("topic", retried)
+                    .register(meterRegistry)
+                    .increment();
+            return;
+        }
+        String deadLettered = names.sourceOfDeadLetterTopic(record.topic());
+        if (deadLettered != null) {
+            Counter.builder("kafka.retry.dead.lettered")
+                    .tag("topic", deadLettered)
+                    .tag("exception", exception(record))
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private static String exception(ProducerRecord<String, Object> record) {
+        Header header = record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_FQCN);
+        if (header == null) {
+            return "unknown";
+        }
+        String className = new String(header.value(), StandardCharsets.UTF_8);
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,56 @@
+package com.kaizenflow.commerce.messaging.retry;
+
+/**
+ * Names of the retry and dead-letter topics a service's {@link NonBlockingRetry} listeners park
+ * records on: {@code <topic>-<service>-retry-<delay>} and {@code <topic>-<service>-dlt}.
+ *
+ * @param service The consuming service, as in {@code spring.application.name}
+ */
+public record RetryTopicNames(String service) {
+
+    static final String RETRY_SUFFIX = "-retry";
+    static final String DEAD_LETTER_SUFFIX = "-dlt";
+
+    public RetryTopicNames {
+        if (service == null || service.isBlank()) {
+            throw new IllegalArgumentException("service must not be blank");
+        }
+    }
+
+    /**
+     * One of the retry topics for records from a source topic, each named after its delay.
+     *
+     * @param topic The source topic
+     * @param delayMs The delay before records on the retry topic are consumed
+     */
+    public String retryTopic(String topic, long delayMs) {
+        return topic + "-" + service + RETRY_SUFFIX + "-" + delayMs;
+    }
+
+    /** The dead-letter topic for records from a source topic. */
+    public String deadLetterTopic(String topic) {
+        return topic + "-" + service + DEAD_LETTER_SUFFIX;
+    }
+
+    /**
+     * The source topic of one of this service's retry topics.
+     *
+     * @return The source topic, or null if the topic is not one of this service's retry topics
+     */
+    public String sourceOfRetryTopic(String topic) {
+        int suffix = topic.lastIndexOf("-" + service + RETRY_SUFFIX);
+        return suffix > 0 ? topic.substring(0, suffix) : null;
+    }
+
+    /**
+     * The source topic of one of this service's dead-letter topics.
+     *
+     * @return The source topic, or null if the topic is not one of this service's dead-letter topics
+     */
+    public String sourceOfDeadLetterTopic(String topic) {
+        String suffix = "-" + service + DEAD_LETTER_SUFFIX;
+        return topic.endsWith(suffix) && topic.length() > suffix.length()
+                ? topic.substring(0, topic.length() - suffix.length())
+                : null;
+    }
+}
@@ -0,0 +1,260 @@
+package com.kaizenflow.commerce.messaging.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.kafka.support.SendResult;
+
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EventBatcherTest {
+
+    @SuppressWarnings("unchecked")
+    private final AsyncEventPublisher<List<String>> publisher = mock(AsyncEventPublisher.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static final Duration METADATA_WAIT = Duration.ofSeconds(1);
+
+    private final SendResult<String, List<String>> sendResult = new SendResult<>(null, null);
+
+    private EventBatcher<String, List<String>> batcher;
+
+    @AfterEach
+    void closeBatcher() {
+        batcher.close();
+    }
+
+    @Test
+    void publishesABatchOnceItIsFull() throws Exception {
+        batcher = batcher(1, new BatchSettings(3, 1024, Duration.ofHours(1), METADATA_WAIT));
+
+        CompletableFuture<SendResult<String, List<String>>> first = batcher.add("topic", "a", "a");
+        batcher.add("topic", "b", "b");
+        assertFalse(first.isDone());
+        batcher.add("topic", "c", "c");
+
+        verify(publisher, timeout(1000)).publish("topic", 0, null, List.of("a", "b", "c"));
+        assertEquals(sendResult, first.get(1, TimeUnit.SECONDS));
+        assertEquals(3, meterRegistry.get("kafka.batcher.events").summary().max());
+    }
+
+    @Test
+    void publishesAfterTheLingerTime() throws Exception {
+        batcher = batcher(1, new BatchSettings(100, 1024, Duration.ofMillis(20), METADATA_WAIT));
+
+        CompletableFuture<SendResult<String, List<String>>> result = batcher.add("topic", "a", "a");
+
+        assertEquals(sendResult, result.get(1, TimeUnit.SECONDS));
+        verify(publisher, timeout(1000)).publish("topic", 0, null, List.of("a"));
+    }
+
+    @Test
+    void publishesTheBatchBeforeAnEventWouldTakeItPastMaxBytes() throws Exception {
+        batcher = batcher(1, new BatchSettings(100, 10, Duration.ofHours(1), METADATA_WAIT));
+
+        batcher.add("topic", "a", "aaaaaa");
+        batcher.add("topic", "b", "bbbbbb");
+
+        verify(publisher, timeout(1000)).publish("topic", 0, null, List.of("aaaaaa"));
+        verify(publisher, never()).publish(eq("topic"), anyInt(), isNull(), eq(List.of("bbbbbb")));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void keepsEachKeysEventsOnItsPartitionInOrder() throws Exception {
+        batcher = batcher(8, new BatchSettings(100, 1024, Duration.ofHours(1), METADATA_WAIT));
+
+        for (int i = 0; i < 50; i++) {
+            String key = "product-" + (i % 10);
+            batcher.add("topic", key, key + ":" + i);
+        }
+        // Publishes what is left, and waits for the sender thread
+        batcher.close();
+
+        ArgumentCaptor<Integer> partitions = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<List<String>> batches = ArgumentCaptor.forClass(List.class);
+        verify(publisher, atLeast(2))
+                .publish(eq("topic"), partitions.capture(), isNull(), batches.capture());
+        int events = 0;
+        for (int i = 0; i < batches.getAllValues().size(); i++) {
+            int partition = partitions.getAllValues().get(i);
+            int previous = -1;
+            for (String event : batches.getAllValues().get(i)) {
+                String key = event.substring(0, event.indexOf(':'));
+                assertEquals(partition, kafkaPartition(key, 8));
+                int sequence = Integer.parseInt(event.substring(event.indexOf(':') + 1));
+                assertTrue(sequence > previous);
+                previous = sequence;
+                events++;
+            }
+        }
+        assertEquals(50, events);
+    }
+
+    @Test
+    void failsEveryEventOfAFailedBatch() throws Exception {
+        batcher = batcher(1, new BatchSettings(2, 1024, Duration.ofHours(1), METADATA_WAIT));
+        when(publisher.publish(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too big")));
+
+        CompletableFuture<SendResult<String, List<String>>> first = batcher.add("topic", "a", "a");
+        CompletableFuture<SendResult<String, List<String>>> second = batcher.add("topic", "b", "b");
+
+        for (CompletableFuture<SendResult<String, List<String>>> result : List.of(first, second)) {
+            ExecutionException error =
+                    assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(RecordTooLargeException.class, error.getCause());
+        }
+    }
+
+    @Test
+    void closingPublishesWhatIsLeft() throws Exception {
+        batcher = batcher(1, new BatchSettings(100, 1024, Duration.ofHours(1), METADATA_WAIT));
+        batcher.add("topic", "a", "a");
+
+        batcher.close();
+
+        verify(publisher).publish("topic", 0, null, List.of("a"));
+    }
+
+    @Test
+    void rejectsEventsWithoutAKey() throws Exception {
+        batcher = batcher(1, BatchSettings.defaults());
+
+        assertThrows(NullPointerException.class, () -> batcher.add("topic", null, "a"));
+        assertNull(meterRegistry.find("kafka.batcher.events").summary());
+    }
+
+    @Test
+    void rejectsEventsForTopicsItWasNotCreatedFor() throws Exception {
+        batcher = batcher(1, BatchSettings.defaults());
+
+        assertThrows(IllegalArgumentException.class, () -> batcher.add("other", "a", "a"));
+    }
+
+    @Test
+    void holdsEventsUntilThePartitionCountIsKnown() throws Exception {
+        CountDownLatch brokerAnswers = new CountDownLatch(1);
+        when(publisher.partitionCount("topic"))
+                .thenAnswer(
+                        invocation -> {
+                            brokerAnswers.await();
+                            return 1;
+                        });
+        when(publisher.publish(eq("topic"), anyInt(), isNull(), any()))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+        batcher = newBatcher(new BatchSettings(2, 1024, Duration.ofHours(1), METADATA_WAIT));
+
+        CompletableFuture<SendResult<String, List<String>>> early = batcher.add("topic", "a", "a");
+        assertFalse(early.isDone());
+        verify(publisher, never()).publish(eq("topic"), anyInt(), isNull(), any());
+
+        brokerAnswers.countDown();
+        batcher.partitionCountsFetched().get(1, TimeUnit.SECONDS);
+        CompletableFuture<SendResult<String, List<String>>> late = batcher.add("topic", "b", "b");
+        assertEquals(sendResult, early.get(1, TimeUnit.SECONDS));
+        assertEquals(sendResult, late.get(1, TimeUnit.SECONDS));
+        verify(publisher).publish("topic", 0, null, List.of("a", "b"));
+    }
+
+    @Test
+    void failsEventsPastTheHeldLimitIfThePartitionCountStaysUnknown() throws Exception {
+        CountDownLatch brokerAnswers = new CountDownLatch(1);
+        when(publisher.partitionCount("topic"))
+                .thenAnswer(
+                        invocation -> {
+                            brokerAnswers.await();
+                            return 1;
+                        });
+        batcher = newBatcher(new BatchSettings(1, 1024, Duration.ofHours(1), Duration.ofMillis(50)));
+
+        CompletableFuture<SendResult<String, List<String>>> held = batcher.add("topic", "a", "a");
+        CompletableFuture<SendResult<String, List<String>>> overflow = batcher.add("topic", "b", "b");
+
+        ExecutionException error =
+                assertThrows(ExecutionException.class, () -> overflow.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertFalse(held.isDone());
+        brokerAnswers.countDown();
+    }
+
+    @Test
+    void addsEventsWhileABatchIsBeingSent() throws Exception {
+        batcher = batcher(1, new BatchSettings(1, 1024, Duration.ofHours(1), METADATA_WAIT));
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch brokerAccepts = new CountDownLatch(1);
+        when(publisher.publish("topic", 0, null, List.of("a")))
+                .thenAnswer(
+                        invocation -> {
+                            sending.countDown();
+                            brokerAccepts.await();
+                            return CompletableFuture.completedFuture(sendResult);
+                        });
+        CompletableFuture<SendResult<String, List<String>>> first =
+                CompletableFuture.supplyAsync(() -> batcher.add("topic", "a", "a")).thenCompose(f -> f);
+        assertTrue(sending.await(1, TimeUnit.SECONDS));
+
+        // Neither blocked by the send in progress nor sent ahead of it
+        CompletableFuture<SendResult<String, List<String>>> second = batcher.add("topic", "b", "b");
+        verify(publisher, never()).publish("topic", 0, null, List.of("b"));
+
+        brokerAccepts.countDown();
+        assertEquals(sendResult, first.get(1, TimeUnit.SECONDS));
+        assertEquals(sendResult, second.get(1, TimeUnit.SECONDS));
+        InOrder inOrder = inOrder(publisher);
+        inOrder.verify(publisher).publish("topic", 0, null, List.of("a"));
+        inOrder.verify(publisher).publish("topic", 0, null, List.of("b"));
+    }
+
+    private EventBatcher<String, List<String>> batcher(int partitions, BatchSettings settings)
+            throws Exception {
+        when(publisher.partitionCount("topic")).thenReturn(partitions);
+        when(publisher.publish(eq("topic"), anyInt(), isNull(), any()))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+        EventBatcher<String, List<String>> batcher = newBatcher(settings);
+        batcher.partitionCountsFetched().get(1, TimeUnit.SECONDS);
+        return batcher;
+    }
+
+    private EventBatcher<String, List<String>> newBatcher(BatchSettings settings) {
+        return new EventBatcher<>(
+                "test", List.of("topic"), publisher, List::copyOf, String::length, meterRegistry, settings);
+    }
+
+    private static int kafkaPartition(String key, int partitions) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+}
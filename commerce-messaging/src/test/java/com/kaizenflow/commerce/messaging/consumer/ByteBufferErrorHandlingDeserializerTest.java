@@ -0,0 +1,80 @@
+package com.kaizenflow.commerce.messaging.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+class ByteBufferErrorHandlingDeserializerTest {
+
+    private final RecordingDeserializer delegate = new RecordingDeserializer();
+
+    private final ByteBufferErrorHandlingDeserializer<String> deserializer =
+            new ByteBufferErrorHandlingDeserializer<>(delegate);
+
+    @Test
+    void readsTheFetchBufferWithoutCopyingIt() {
+        ByteBuffer fetched = ByteBuffer.wrap("order-1".getBytes(StandardCharsets.UTF_8));
+        Headers headers = new RecordHeaders();
+
+        assertEquals("order-1", deserializer.deserialize("orders", headers, fetched));
+        assertSame(fetched, delegate.lastBuffer);
+        assertEquals(0, delegate.arrayCalls);
+        assertNull(headers.lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER));
+    }
+
+    @Test
+    void recordsAFailureWithTheRecordsBytes() {
+        byte[] bytes = "bad".getBytes(StandardCharsets.UTF_8);
+        Headers headers = new RecordHeaders();
+
+        assertNull(deserializer.deserialize("orders", headers, ByteBuffer.wrap(bytes)));
+
+        assertNotNull(headers.lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER));
+        DeserializationException failure =
+                SerializationUtils.byteArrayToDeserializationException(
+                        null, headers.lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER));
+        assertArrayEquals(bytes, failure.getData());
+    }
+
+    /** Reads buffers in place, and fails on records reading "bad". */
+    private static final class RecordingDeserializer implements Deserializer<String> {
+
+        private ByteBuffer lastBuffer;
+        private int arrayCalls;
+
+        @Override
+        public String deserialize(String topic, byte[] data) {
+            arrayCalls++;
+            return check(new String(data, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String deserialize(String topic, Headers headers, ByteBuffer data) {
+            lastBuffer = data;
+            // Reads to the end, moving the position
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            return check(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        private static String check(String value) {
+            if (value.equals("bad")) {
+                throw new SerializationException("Cannot read " + value);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.kaizenflow.commerce.messaging.consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.DeleteConsumerGroupsResult;
+import org.apache.kafka.common.KafkaFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+@SuppressWarnings("unchecked")
+class InstanceConsumerGroupsTest {
+
+    private final KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+    private final Admin admin = mock(Admin.class);
+    private final Supplier<Admin> adminFactory = mock(Supplier.class);
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+
+    @BeforeEach
+    void setUp() {
+        when(adminFactory.get()).thenReturn(admin);
+        when(container.getGroupId()).thenReturn("catalog-1234");
+        DeleteConsumerGroupsResult result = mock(DeleteConsumerGroupsResult.class);
+        when(result.all()).thenReturn(KafkaFuture.completedFuture(null));
+        when(admin.deleteConsumerGroups(any())).thenReturn(result);
+    }
+
+    @Test
+    void deletesTheGroupsOfTheListenersOnClose() {
+        when(registry.getListenerContainer("catalog")).thenReturn(container);
+
+        groups(List.of("catalog", "unknown")).close();
+
+        verify(admin).deleteConsumerGroups(List.of("catalog-1234"));
+        verify(admin).close();
+    }
+
+    @Test
+    void stopsARunningListenerBeforeDeletingItsGroup() {
+        when(registry.getListenerContainer("catalog")).thenReturn(container);
+        when(container.isRunning()).thenReturn(true);
+
+        groups(List.of("catalog")).close();
+
+        InOrder inOrder = inOrder(container, admin);
+        inOrder.verify(container).stop();
+        inOrder.verify(admin).deleteConsumerGroups(List.of("catalog-1234"));
+    }
+
+    @Test
+    void doesNotConnectWithoutGroupsToDelete() {
+        groups(List.of("unknown")).close();
+
+        verify(adminFactory, never()).get();
+    }
+
+    private InstanceConsumerGroups groups(List<String> listenerIds) {
+        return new InstanceConsumerGroups(registry, adminFactory, listenerIds, Duration.ofSeconds(5));
+    }
+}
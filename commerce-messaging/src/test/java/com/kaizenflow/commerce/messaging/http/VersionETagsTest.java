@@ -0,0 +1,46 @@
+package com.kaizenflow.commerce.messaging.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+
+class VersionETagsTest {
+
+    @Test
+    void givesEachRepresentationOfAVersionItsOwnETag() {
+        assertEquals("\"3-json\"", VersionETags.eTagFor(3, MediaType.APPLICATION_JSON));
+        assertEquals(
+                "\"3-x-protobuf\"", VersionETags.eTagFor(3, ProtobufHttpMessageConverter.PROTOBUF));
+    }
+
+    @Test
+    void matchesTheCurrentVersionWeaklyOrByWildcard() {
+        assertTrue(VersionETags.isMatchedBy("W/\"3-json\"", 3, MediaType.APPLICATION_JSON));
+        assertTrue(VersionETags.isMatchedBy("\"2-json\", \"3-json\"", 3, MediaType.APPLICATION_JSON));
+        assertTrue(VersionETags.isMatchedBy("*", 3, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void doesNotMatchAnotherVersionOrRepresentation() {
+        assertFalse(VersionETags.isMatchedBy("\"2-json\"", 3, MediaType.APPLICATION_JSON));
+        assertFalse(VersionETags.isMatchedBy("\"3-json\"", 3, ProtobufHttpMessageConverter.PROTOBUF));
+        assertFalse(VersionETags.isMatchedBy(null, 3, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void servesProtobufOnlyToClientsThatPreferIt() {
+        assertEquals(
+                ProtobufHttpMessageConverter.PROTOBUF,
+                VersionETags.representationFor("application/x-protobuf, application/json;q=0.5"));
+        assertEquals(
+                MediaType.APPLICATION_JSON,
+                VersionETags.representationFor("application/json, application/x-protobuf;q=0.5"));
+        assertEquals(MediaType.APPLICATION_JSON, VersionETags.representationFor("*/*"));
+        assertEquals(MediaType.APPLICATION_JSON, VersionETags.representationFor(null));
+        assertEquals(MediaType.APPLICATION_JSON, VersionETags.representationFor("not a type"));
+    }
+}
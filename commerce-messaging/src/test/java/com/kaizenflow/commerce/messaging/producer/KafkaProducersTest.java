@@ -0,0 +1,95 @@
+package com.kaizenflow.commerce.messaging.producer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KafkaProducersTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void appliesTheProfileOnTopOfTheConnectionSettings() {
+        ProducerFactory<String, String> producerFactory =
+                KafkaProducers.producerFactory(
+                        "inventory-events",
+                        "localhost:9092",
+                        ProducerProfile.THROUGHPUT,
+                        new StringSerializer(),
+                        meterRegistry);
+
+        Map<String, Object> configProps = producerFactory.getConfigurationProperties();
+        assertEquals("localhost:9092", configProps.get(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG));
+        assertEquals("inventory-events", configProps.get(ProducerConfig.CLIENT_ID_CONFIG));
+        assertEquals("zstd", configProps.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(10, configProps.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(true, configProps.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals("all", configProps.get(ProducerConfig.ACKS_CONFIG));
+    }
+
+    @Test
+    void latencyProfileSendsWithoutLingering() {
+        Map<String, Object> settings = ProducerProfile.LATENCY.settings();
+
+        assertEquals(0, settings.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals("lz4", settings.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(true, settings.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+    }
+
+    @Test
+    void profilesBlockSendersBriefly() {
+        for (ProducerProfile profile : ProducerProfile.values()) {
+            assertEquals(
+                    ProducerProfile.MAX_BLOCK_MS, profile.settings().get(ProducerConfig.MAX_BLOCK_MS_CONFIG));
+        }
+    }
+
+    @Test
+    void templateTagsSendTimesWithTheTopic() {
+        KafkaTemplate<String, String> kafkaTemplate =
+                KafkaProducers.kafkaTemplate(
+                        KafkaProducers.producerFactory(
+                                "test",
+                                "localhost:9092",
+                                ProducerProfile.LATENCY,
+                                new StringSerializer(),
+                                meterRegistry),
+                        meterRegistry);
+
+        ProducerRecord<String, String> record = new ProducerRecord<>("inventory-events", "a", "b");
+        assertEquals(
+                Map.of("topic", "inventory-events"),
+                kafkaTemplate.getMicrometerTagsProvider().apply(record));
+    }
+
+    @Test
+    void recordsTheSizeOfEachAcknowledgedRecordByTopic() {
+        ProducerMetrics<String, String> metrics = new ProducerMetrics<>(meterRegistry);
+        ProducerRecord<String, String> record = new ProducerRecord<>("inventory-events", "a", "b");
+
+        metrics.onSuccess(record, metadata(3, 120));
+        metrics.onSuccess(record, metadata(-1, 80));
+
+        DistributionSummary recordSize =
+                meterRegistry.get("kafka.producer.record.size").tag("topic", "inventory-events").summary();
+        assertEquals(2, recordSize.count());
+        assertEquals(203, recordSize.totalAmount());
+    }
+
+    private static RecordMetadata metadata(int keySize, int valueSize) {
+        return new RecordMetadata(
+                new TopicPartition("inventory-events", 0), 0, 0, 0, keySize, valueSize);
+    }
+}
@@ -0,0 +1,81 @@
+package com.kaizenflow.commerce.messaging.publisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.errors.NetworkException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AsyncEventPublisherTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AsyncEventPublisher<String> publisher =
+            new AsyncEventPublisher<>("test", kafkaTemplate, meterRegistry, new PublisherSettings(1));
+
+    @Test
+    void rejectsSendsBeyondTheInFlightLimit() {
+        when(kafkaTemplate.send("topic", "a", "first")).thenReturn(new CompletableFuture<>());
+
+        publisher.publish("topic", "a", "first");
+        CompletableFuture<SendResult<String, String>> second =
+                publisher.publish("topic", "b", "second");
+
+        ExecutionException error = assertThrowsExecution(second);
+        assertInstanceOf(PublishRejectedException.class, error.getCause());
+        assertEquals(1, meterRegistry.get("kafka.publisher.in.flight").gauge().value());
+        assertEquals(1, meterRegistry.get("kafka.publisher.rejected").counter().count());
+    }
+
+    @Test
+    void releasesTheSlotOnceAcknowledged() throws Exception {
+        SendResult<String, String> sendResult = new SendResult<>(null, null);
+        when(kafkaTemplate.send("topic", "a", "event"))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        assertEquals(sendResult, publisher.publish("topic", "a", "event").get(1, TimeUnit.SECONDS));
+        assertEquals(sendResult, publisher.publish("topic", "a", "event").get(1, TimeUnit.SECONDS));
+        assertEquals(2, meterRegistry.get("kafka.publisher.sent").counter().count());
+        assertEquals(0, meterRegistry.get("kafka.publisher.in.flight").gauge().value());
+    }
+
+    @Test
+    void leavesRetriesToTheProducer() {
+        when(kafkaTemplate.send("topic", "a", "event"))
+                .thenReturn(CompletableFuture.failedFuture(new NetworkException("down")));
+
+        ExecutionException error = assertThrowsExecution(publisher.publish("topic", "a", "event"));
+        assertInstanceOf(NetworkException.class, error.getCause());
+        verify(kafkaTemplate, times(1)).send("topic", "a", "event");
+        assertEquals(1, meterRegistry.get("kafka.publisher.failed").counter().count());
+        assertEquals(0, meterRegistry.get("kafka.publisher.in.flight").gauge().value());
+    }
+
+    private static ExecutionException assertThrowsExecution(CompletableFuture<?> future) {
+        try {
+            future.get(1, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e;
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        assertTrue(false, "Expected the future to fail");
+        return null;
+    }
+}
@@ -0,0 +1,183 @@
+package com.kaizenflow.commerce.messaging.retry;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DeadLetterReplayerTest {
+
+    private static final String DEAD_LETTER_TOPIC = "inventory-events-product-service-dlt";
+    private static final TopicPartition FIRST = new TopicPartition(DEAD_LETTER_TOPIC, 0);
+    private static final TopicPartition SECOND = new TopicPartition(DEAD_LETTER_TOPIC, 1);
+
+    // Kept open across replays so the committed offsets can be checked afterwards
+    private final MockConsumer<String, byte[]> consumer =
+            new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+                @Override
+                public synchronized void close() {}
+            };
+
+    @SuppressWarnings("unchecked")
+    private final ConsumerFactory<String, byte[]> consumerFactory = mock(ConsumerFactory.class);
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final DeadLetterReplayer replayer =
+            new DeadLetterReplayer(
+                    new RetryTopicNames("product-service"),
+                    consumerFactory,
+                    kafkaTemplate,
+                    meterRegistry,
+                    Duration.ofSeconds(5),
+                    1000);
+
+    @BeforeEach
+    void setUpTopic() {
+        when(consumerFactory.createConsumer()).thenReturn(consumer);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        consumer.updatePartitions(
+                DEAD_LETTER_TOPIC,
+                List.of(
+                        new PartitionInfo(DEAD_LETTER_TOPIC, 0, null, null, null),
+                        new PartitionInfo(DEAD_LETTER_TOPIC, 1, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(FIRST, 0L, SECOND, 0L));
+    }
+
+    @Test
+    void sendsDeadLettersToTheFirstRetryTopicOnTheirPartitionWithoutRetryHeaders() {
+        consumer.updateEndOffsets(Map.of(FIRST, 1L, SECOND, 1L));
+        consumer.schedulePollTask(
+                () -> {
+                    consumer.addRecord(deadLetter(FIRST, 0, "product-1", "first"));
+                    consumer.addRecord(deadLetter(SECOND, 0, null, "second"));
+                });
+
+        assertEquals(2, replayer.replay(DEAD_LETTER_TOPIC));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, Object>> sent =
+                ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(sent.capture());
+        ProducerRecord<String, Object> first = sent.getAllValues().get(0);
+        // Not the shared source topic, which other services consume too
+        assertEquals("inventory-events-product-service-retry-1000", first.topic());
+        assertEquals(0, first.partition());
+        assertEquals("product-1", first.key());
+        assertArrayEquals(bytes("first"), (byte[]) first.value());
+        assertEquals(1, first.headers().toArray().length);
+        assertArrayEquals(bytes("Batch"), first.headers().lastHeader("message-type").value());
+        assertEquals(1, sent.getAllValues().get(1).partition());
+
+        assertEquals(
+                Map.of(FIRST, new OffsetAndMetadata(1), SECOND, new OffsetAndMetadata(1)),
+                consumer.committed(Set.of(FIRST, SECOND)));
+        assertEquals(
+                2,
+                meterRegistry
+                        .get("kafka.retry.replayed")
+                        .tag("topic", "inventory-events")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void leavesRecordsDeadLetteredDuringTheReplayForTheNextOne() {
+        consumer.updateEndOffsets(Map.of(FIRST, 1L, SECOND, 0L));
+        consumer.schedulePollTask(
+                () -> {
+                    consumer.addRecord(deadLetter(FIRST, 0, "product-1", "first"));
+                    consumer.addRecord(deadLetter(FIRST, 1, "product-2", "late"));
+                });
+
+        assertEquals(1, replayer.replay(DEAD_LETTER_TOPIC));
+
+        verify(kafkaTemplate).send(any(ProducerRecord.class));
+        assertEquals(new OffsetAndMetadata(1), consumer.committed(Set.of(FIRST)).get(FIRST));
+    }
+
+    @Test
+    void commitsNothingWhenASendFails() {
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        consumer.updateEndOffsets(Map.of(FIRST, 1L, SECOND, 0L));
+        consumer.schedulePollTask(() -> consumer.addRecord(deadLetter(FIRST, 0, "product-1", "first")));
+
+        assertThrows(CompletionException.class, () -> replayer.replay(DEAD_LETTER_TOPIC));
+
+        assertNull(consumer.committed(Set.of(FIRST)).get(FIRST));
+    }
+
+    @Test
+    void rejectsTopicsThatAreNotThisServicesDeadLetterTopics() {
+        IllegalArgumentException error =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () -> replayer.replay("inventory-events-order-service-dlt"));
+
+        assertTrue(error.getMessage().contains("inventory-events-order-service-dlt"));
+        verify(consumerFactory, never()).createConsumer();
+    }
+
+    private static ConsumerRecord<String, byte[]> deadLetter(
+            TopicPartition partition, long offset, String key, String value) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("message-type", bytes("Batch"));
+        headers.add("kafka_dlt-exception-fqcn", bytes("java.lang.IllegalStateException"));
+        headers.add("kafka_original-topic", bytes("inventory-events"));
+        headers.add("retry_topic-attempts", new byte[] {0, 0, 0, 4});
+        return new ConsumerRecord<>(
+                partition.topic(),
+                partition.partition(),
+                offset,
+                0L,
+                TimestampType.CREATE_TIME,
+                0,
+                0,
+                key,
+                bytes(value),
+                headers,
+                Optional.empty());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,54 @@
+package com.kaizenflow.commerce.messaging.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RetryTopicAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner =
+            new ApplicationContextRunner()
+                    // Converts properties such as durations the way a Spring Boot application does
+                    .withInitializer(
+                            context ->
+                                    context
+                                            .getBeanFactory()
+                                            .setConversionService(ApplicationConversionService.getSharedInstance()))
+                    .withConfiguration(AutoConfigurations.of(RetryTopicAutoConfiguration.class))
+                    .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                    .withPropertyValues(
+                            "spring.application.name=inventory-service",
+                            "spring.kafka.bootstrap-servers=localhost:9092",
+                            "kafka.retry.value-serializer=org.apache.kafka.common.serialization.StringSerializer",
+                            "kafka.retry.replay-timeout=30s",
+                            "kafka.retry.initial-delay-ms=1000");
+
+    @Test
+    void setsUpDeadLettersForAServiceWithAReplayGroup() {
+        contextRunner
+                .withPropertyValues("kafka.retry.replay-group-id=inventory-dlt-replay")
+                .run(
+                        context -> {
+                            assertThat(context).hasBean("deadLetterKafkaTemplate");
+                            assertThat(context).hasSingleBean(DeadLetterReplayer.class);
+                            assertThat(context).hasSingleBean(DeadLetterEndpoint.class);
+                            assertThat(context.getBean(RetryTopicNames.class).deadLetterTopic("order-events"))
+                                    .isEqualTo("order-events-inventory-service-dlt");
+                        });
+    }
+
+    @Test
+    void staysOutOfServicesWithoutAReplayGroup() {
+        contextRunner.run(
+                context -> {
+                    assertThat(context).doesNotHaveBean("deadLetterKafkaTemplate");
+                    assertThat(context).doesNotHaveBean(DeadLetterReplayer.class);
+                });
+    }
+}
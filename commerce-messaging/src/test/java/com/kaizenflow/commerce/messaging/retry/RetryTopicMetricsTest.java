@@ -0,0 +1,73 @@
+package com.kaizenflow.commerce.messaging.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RetryTopicMetricsTest {
+
+    private final RetryTopicNames names = new RetryTopicNames("inventory-service");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RetryTopicMetrics metrics = new RetryTopicMetrics(names, meterRegistry);
+
+    @Test
+    void findsTheSourceOfTheServicesRetryAndDeadLetterTopics() {
+        assertEquals(
+                "order-events", names.sourceOfRetryTopic("order-events-inventory-service-retry-1000"));
+        assertEquals("order-events", names.sourceOfRetryTopic("order-events-inventory-service-retry"));
+        assertEquals(
+                "order-events", names.sourceOfDeadLetterTopic("order-events-inventory-service-dlt"));
+        assertEquals("order-events-inventory-service-dlt", names.deadLetterTopic("order-events"));
+
+        assertNull(names.sourceOfRetryTopic("order-events"));
+        assertNull(names.sourceOfRetryTopic("order-events-payment-service-retry-1000"));
+        assertNull(names.sourceOfDeadLetterTopic("order-events-payment-service-dlt"));
+        assertNull(names.sourceOfDeadLetterTopic("-inventory-service-dlt"));
+    }
+
+    @Test
+    void countsRetriesAndDeadLettersBySourceTopic() {
+        metrics.onSuccess(record("order-events-inventory-service-retry-1000"), null);
+        metrics.onSuccess(record("order-events-inventory-service-retry-5000"), null);
+        ProducerRecord<String, Object> deadLetter = record("order-events-inventory-service-dlt");
+        deadLetter
+                .headers()
+                .add(
+                        KafkaHeaders.DLT_EXCEPTION_FQCN,
+                        "org.springframework.dao.QueryTimeoutException".getBytes(StandardCharsets.UTF_8));
+        metrics.onSuccess(deadLetter, null);
+
+        assertEquals(
+                2,
+                meterRegistry.get("kafka.retry.scheduled").tag("topic", "order-events").counter().count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("kafka.retry.dead.lettered")
+                        .tag("topic", "order-events")
+                        .tag("exception", "QueryTimeoutException")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    void ignoresOtherTopics() {
+        metrics.onSuccess(record("order-events"), null);
+
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    private static ProducerRecord<String, Object> record(String topic) {
+        return new ProducerRecord<>(topic, "key", "value");
+    }
+}
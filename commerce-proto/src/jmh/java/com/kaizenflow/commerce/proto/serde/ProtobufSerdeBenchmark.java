@@ -0,0 +1,99 @@
+package com.kaizenflow.commerce.proto.serde;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.order.OrderLine;
+import com.kaizenflow.commerce.proto.order.OrderPlaced;
+
+/**
+ * Compares the shared serde with the per-service serializers it replaced, which wrote with {@code
+ * toByteArray()} and parsed from a {@code byte[]}, so Kafka copied every fetched record into a new
+ * array before parsing it. Uses a placed order of five lines as a typical record. Run with the gc
+ * profiler to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtobufSerdeBenchmark {
+
+    private final ProtobufSerializer<OrderEvent> serializer = new ProtobufSerializer<>();
+    private final ProtobufDeserializer<OrderEvent> deserializer =
+            new ProtobufDeserializer<>(OrderEvent.parser());
+    // The replaced deserializer only implemented the byte[] overload
+    private final Deserializer<OrderEvent> arrayDeserializer =
+            (topic, data) -> {
+                try {
+                    return OrderEvent.parseFrom(data);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+    private final Headers headers = new RecordHeaders();
+
+    private OrderEvent event;
+    private ByteBuffer fetched;
+
+    @Setup
+    public void setUp() {
+        OrderPlaced.Builder placed = OrderPlaced.newBuilder().setCustomerId("customer-1234");
+        for (int i = 0; i < 5; i++) {
+            placed.addLines(
+                    OrderLine.newBuilder()
+                            .setProductId("product-" + (1000 + i))
+                            .setQuantity(1 + i)
+                            .setUnitPriceMinor(1999L * (i + 1)));
+        }
+        event =
+                OrderEvent.newBuilder()
+                        .setOrderId("7f3c2a9e-4b1d-4c8e-9a55-0d6b1e2f3a4b")
+                        .setTimestamp(Timestamp.newBuilder().setSeconds(1_760_000_000L).setNanos(123_000_000))
+                        .setPlaced(placed)
+                        .build();
+        // A record somewhere in the middle of a fetched batch
+        byte[] bytes = event.toByteArray();
+        ByteBuffer batch = ByteBuffer.allocate(bytes.length + 64);
+        batch.position(32);
+        batch.put(bytes);
+        fetched = batch.position(32).limit(32 + bytes.length).slice();
+    }
+
+    @Benchmark
+    public byte[] serializeToByteArray() {
+        return event.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializeShared() {
+        return serializer.serialize("order-events", event);
+    }
+
+    @Benchmark
+    public OrderEvent deserializeViaArrayCopy() {
+        return arrayDeserializer.deserialize("order-events", headers, fetched);
+    }
+
+    @Benchmark
+    public OrderEvent deserializeShared() {
+        return deserializer.deserialize("order-events", headers, fetched);
+    }
+}
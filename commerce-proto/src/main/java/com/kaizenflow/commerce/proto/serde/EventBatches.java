@@ -0,0 +1,64 @@
+package com.kaizenflow.commerce.proto.serde;
+
+import java.util.List;
+
+import com.google.protobuf.Message;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateBatch;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
+import com.kaizenflow.commerce.proto.product.ProductEvent;
+import com.kaizenflow.commerce.proto.product.ProductEventBatch;
+
+/**
+ * Reading the inventory and product topics, whose records hold either a single event or a batch
+ * envelope of events. Records are told apart by their {@value
+ * ProtobufSerializer#MESSAGE_TYPE_HEADER} header; records without one are single events, as written
+ * before producers batched.
+ */
+public final class EventBatches {
+
+    private EventBatches() {}
+
+    /** A deserializer for the inventory topic, producing events and batches. */
+    public static ProtobufDeserializer<Message> inventoryUpdateDeserializer() {
+        return ProtobufDeserializer.forTypes(
+                InventoryUpdateEvent.getDefaultInstance(), InventoryUpdateBatch.getDefaultInstance());
+    }
+
+    /** A deserializer for the product topics, producing events and batches. */
+    public static ProtobufDeserializer<Message> productEventDeserializer() {
+        return ProtobufDeserializer.forTypes(
+                ProductEvent.getDefaultInstance(), ProductEventBatch.getDefaultInstance());
+    }
+
+    /**
+     * The inventory updates in a record.
+     *
+     * @param value A record value from {@link #inventoryUpdateDeserializer()}
+     * @return The updates, oldest first
+     */
+    public static List<InventoryUpdateEvent> inventoryUpdates(Message value) {
+        return switch (value) {
+            case InventoryUpdateBatch batch -> batch.getEventsList();
+            case InventoryUpdateEvent event -> List.of(event);
+            default ->
+                    throw new IllegalArgumentException(
+                            "Not an inventory update: " + value.getDescriptorForType().getFullName());
+        };
+    }
+
+    /**
+     * The product events in a record.
+     *
+     * @param value A record value from {@link #productEventDeserializer()}
+     * @return The events, oldest first
+     */
+    public static List<ProductEvent> productEvents(Message value) {
+        return switch (value) {
+            case ProductEventBatch batch -> batch.getEventsList();
+            case ProductEvent event -> List.of(event);
+            default ->
+                    throw new IllegalArgumentException(
+                            "Not a product event: " + value.getDescriptorForType().getFullName());
+        };
+    }
+}
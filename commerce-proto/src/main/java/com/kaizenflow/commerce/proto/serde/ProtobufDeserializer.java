@@ -0,0 +1,119 @@
+package com.kaizenflow.commerce.proto.serde;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+
+/**
+ * Kafka deserializer for Protobuf messages written by a {@link ProtobufSerializer}, or by any
+ * producer writing plain Protobuf bytes.
+ *
+ * <p>Parses straight from the consumer's fetch buffer through {@link
+ * Deserializer#deserialize(String, Headers, ByteBuffer)}, rather than the default of copying each
+ * record into a new array first. Bytes fields are copied out of the buffer, so messages do not keep
+ * the fetched batch alive.
+ *
+ * <p>A deserializer for one type parses every record as that type. One created for several types
+ * picks each record's type by its {@value ProtobufSerializer#MESSAGE_TYPE_HEADER} header, treating
+ * records without one as the first type, and rejects records of other types.
+ *
+ * @param <T> The message type, or a common supertype such as {@link Message} for several types
+ */
+public class ProtobufDeserializer<T extends Message> implements Deserializer<T> {
+
+    private final Parser<? extends T> defaultParser;
+    // Null for a single-type deserializer
+    private final Map<String, Parser<? extends T>> parsersByType;
+
+    /**
+     * Creates a deserializer for a single message type.
+     *
+     * @param parser The parser for the message type, e.g. {@code OrderEvent.parser()}
+     */
+    public ProtobufDeserializer(Parser<T> parser) {
+        this.defaultParser = parser;
+        this.parsersByType = null;
+    }
+
+    private ProtobufDeserializer(List<? extends T> prototypes) {
+        if (prototypes.isEmpty()) {
+            throw new IllegalArgumentException("At least one message type is required");
+        }
+        Map<String, Parser<? extends T>> parsers = new HashMap<>();
+        for (T prototype : prototypes) {
+            parsers.put(prototype.getDescriptorForType().getFullName(), parser(prototype));
+        }
+        this.defaultParser = parser(prototypes.getFirst());
+        this.parsersByType = Map.copyOf(parsers);
+    }
+
+    /**
+     * Creates a deserializer for a topic carrying several message types.
+     *
+     * @param prototypes An instance of each message type, e.g. {@code
+     *     OrderEvent.getDefaultInstance()}; the first is assumed for records without a type header
+     * @param <T> A supertype of all the message types
+     * @return The deserializer
+     */
+    @SafeVarargs
+    public static <T extends Message> ProtobufDeserializer<T> forTypes(T... prototypes) {
+        return new ProtobufDeserializer<>(List.of(prototypes));
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return data == null ? null : parse(defaultParser, CodedInputStream.newInstance(data));
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        return data == null ? null : parse(parserFor(headers), CodedInputStream.newInstance(data));
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, ByteBuffer data) {
+        // Reads the buffer in place without moving its position
+        return data == null ? null : parse(parserFor(headers), CodedInputStream.newInstance(data));
+    }
+
+    private Parser<? extends T> parserFor(Headers headers) {
+        if (parsersByType == null || headers == null) {
+            return defaultParser;
+        }
+        Header type = headers.lastHeader(ProtobufSerializer.MESSAGE_TYPE_HEADER);
+        if (type == null) {
+            return defaultParser;
+        }
+        String typeName = new String(type.value(), StandardCharsets.UTF_8);
+        Parser<? extends T> parser = parsersByType.get(typeName);
+        if (parser == null) {
+            throw new SerializationException("Unexpected Protobuf message type " + typeName);
+        }
+        return parser;
+    }
+
+    private static <T extends Message> T parse(Parser<? extends T> parser, CodedInputStream input) {
+        try {
+            return parser.parseFrom(input);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Error deserializing Protobuf message", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Message> Parser<? extends T> parser(T prototype) {
+        return (Parser<? extends T>) prototype.getParserForType();
+    }
+}
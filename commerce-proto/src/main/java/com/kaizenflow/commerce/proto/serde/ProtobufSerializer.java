@@ -0,0 +1,65 @@
+package com.kaizenflow.commerce.proto.serde;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Internal;
+import com.google.protobuf.Message;
+
+/**
+ * Kafka serializer for Protobuf messages. Records get a {@value #MESSAGE_TYPE_HEADER} header with
+ * the message's full Protobuf type name, so a topic can carry several message types and a {@link
+ * ProtobufDeserializer} can tell them apart.
+ *
+ * <p>Each message is written once, straight into an array of its serialized size, which Protobuf
+ * computes once per message and caches. The producer copies the array into its batch buffer, so it
+ * is only held until the record is appended.
+ *
+ * @param <T> The message type, or {@link Message} for a topic carrying several types
+ */
+public class ProtobufSerializer<T extends Message> implements Serializer<T> {
+
+    /** Header holding the full Protobuf type name of the record's value. */
+    public static final String MESSAGE_TYPE_HEADER = "message-type";
+
+    // Header values are shared by all records of a type, so each name is encoded only once
+    private static final ClassValue<byte[]> TYPE_NAMES =
+            new ClassValue<>() {
+                @Override
+                protected byte[] computeValue(Class<?> type) {
+                    Message prototype = Internal.getDefaultInstance(type.asSubclass(Message.class));
+                    return prototype.getDescriptorForType().getFullName().getBytes(StandardCharsets.UTF_8);
+                }
+            };
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        byte[] bytes = new byte[data.getSerializedSize()];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            data.writeTo(output);
+            output.checkNoSpaceLeft();
+        } catch (IOException | IllegalStateException e) {
+            throw new SerializationException(
+                    "Error serializing Protobuf message " + data.getDescriptorForType().getFullName(), e);
+        }
+        return bytes;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data != null) {
+            headers.remove(MESSAGE_TYPE_HEADER);
+            headers.add(MESSAGE_TYPE_HEADER, TYPE_NAMES.get(data.getClass()));
+        }
+        return serialize(topic, data);
+    }
+}
@@ -0,0 +1,45 @@
+package com.kaizenflow.commerce.proto.time;
+
+import java.time.Clock;
+
+import com.google.protobuf.Timestamp;
+
+/**
+ * Supplies event timestamps with millisecond precision. The Protobuf timestamp for the current
+ * millisecond is built once and shared by every event stamped within it, so stamping an event
+ * normally allocates nothing.
+ */
+public class TimestampClock {
+
+    private static final int NANOS_PER_MILLI = 1_000_000;
+
+    private final Clock clock;
+    // Immutable, so racing threads at worst both build the timestamp for a new millisecond
+    private volatile Timestamp current = Timestamp.getDefaultInstance();
+
+    /**
+     * @param clock The source of the current time
+     */
+    public TimestampClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /** The current time, truncated to the millisecond. */
+    public Timestamp now() {
+        long millis = clock.millis();
+        Timestamp timestamp = current;
+        if (toMillis(timestamp) != millis) {
+            timestamp =
+                    Timestamp.newBuilder()
+                            .setSeconds(Math.floorDiv(millis, 1000))
+                            .setNanos((int) Math.floorMod(millis, 1000) * NANOS_PER_MILLI)
+                            .build();
+            current = timestamp;
+        }
+        return timestamp;
+    }
+
+    private static long toMillis(Timestamp timestamp) {
+        return timestamp.getSeconds() * 1000 + timestamp.getNanos() / NANOS_PER_MILLI;
+    }
+}
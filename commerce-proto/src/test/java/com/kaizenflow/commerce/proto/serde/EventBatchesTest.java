@@ -0,0 +1,58 @@
+package com.kaizenflow.commerce.proto.serde;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.Message;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateBatch;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
+import com.kaizenflow.commerce.proto.product.ProductEvent;
+
+class EventBatchesTest {
+
+    private static final InventoryUpdateEvent FIRST =
+            InventoryUpdateEvent.newBuilder().setProductId("product-1").setAvailableQuantity(3).build();
+    private static final InventoryUpdateEvent SECOND =
+            InventoryUpdateEvent.newBuilder().setProductId("product-2").setAvailableQuantity(0).build();
+
+    private final ProtobufSerializer<Message> serializer = new ProtobufSerializer<>();
+    private final ProtobufDeserializer<Message> deserializer =
+            EventBatches.inventoryUpdateDeserializer();
+
+    @Test
+    void unpacksBatchesInOrder() {
+        Headers headers = new RecordHeaders();
+        byte[] bytes =
+                serializer.serialize(
+                        "topic",
+                        headers,
+                        InventoryUpdateBatch.newBuilder().addEvents(FIRST).addEvents(SECOND).build());
+
+        Message record = deserializer.deserialize("topic", headers, ByteBuffer.wrap(bytes));
+
+        assertEquals(List.of(FIRST, SECOND), EventBatches.inventoryUpdates(record));
+    }
+
+    @Test
+    void readsRecordsWrittenBeforeBatchingAsSingleEvents() {
+        Message record =
+                deserializer.deserialize(
+                        "topic", new RecordHeaders(), ByteBuffer.wrap(FIRST.toByteArray()));
+
+        assertEquals(List.of(FIRST), EventBatches.inventoryUpdates(record));
+    }
+
+    @Test
+    void rejectsOtherMessages() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> EventBatches.inventoryUpdates(ProductEvent.getDefaultInstance()));
+    }
+}
@@ -0,0 +1,151 @@
+package com.kaizenflow.commerce.proto.serde;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.Message;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.order.OrderLine;
+import com.kaizenflow.commerce.proto.order.OrderPlaced;
+import com.kaizenflow.commerce.proto.payment.PaymentEvent;
+import com.kaizenflow.commerce.proto.payment.ProcessPaymentCommand;
+
+class ProtobufSerdeTest {
+
+    private static final OrderEvent EVENT =
+            OrderEvent.newBuilder()
+                    .setOrderId("order-1")
+                    .setPlaced(
+                            OrderPlaced.newBuilder()
+                                    .setCustomerId("customer-1")
+                                    .addLines(
+                                            OrderLine.newBuilder()
+                                                    .setProductId("product-1")
+                                                    .setQuantity(2)
+                                                    .setUnitPriceMinor(1999)))
+                    .build();
+
+    private final ProtobufSerializer<Message> serializer = new ProtobufSerializer<>();
+
+    @Test
+    void serializesToTheStandardEncodingAndTagsTheType() {
+        Headers headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize("topic", headers, EVENT);
+
+        assertArrayEquals(EVENT.toByteArray(), bytes);
+        assertEquals(
+                "com.kaizenflow.commerce.proto.OrderEvent",
+                new String(
+                        headers.lastHeader(ProtobufSerializer.MESSAGE_TYPE_HEADER).value(),
+                        StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void replacesAnExistingTypeHeader() {
+        Headers headers = new RecordHeaders();
+        headers.add(ProtobufSerializer.MESSAGE_TYPE_HEADER, "stale".getBytes(StandardCharsets.UTF_8));
+
+        serializer.serialize("topic", headers, EVENT);
+
+        assertEquals(1, headers.toArray().length);
+    }
+
+    @Test
+    void parsesInPlaceFromTheMiddleOfAHeapBuffer() {
+        ByteBuffer record = inBatch(ByteBuffer.allocate(256), serializer.serialize("topic", EVENT));
+        int position = record.position();
+
+        ProtobufDeserializer<OrderEvent> deserializer = new ProtobufDeserializer<>(OrderEvent.parser());
+
+        assertEquals(EVENT, deserializer.deserialize("topic", new RecordHeaders(), record));
+        assertEquals(position, record.position());
+    }
+
+    @Test
+    void parsesFromADirectBuffer() {
+        ByteBuffer record =
+                inBatch(ByteBuffer.allocateDirect(256), serializer.serialize("topic", EVENT));
+
+        ProtobufDeserializer<OrderEvent> deserializer = new ProtobufDeserializer<>(OrderEvent.parser());
+
+        assertEquals(EVENT, deserializer.deserialize("topic", new RecordHeaders(), record));
+    }
+
+    @Test
+    void picksEachRecordsTypeByItsHeader() {
+        ProcessPaymentCommand command =
+                ProcessPaymentCommand.newBuilder().setOrderId("order-1").setAmountMinor(3998).build();
+        ProtobufDeserializer<Message> deserializer =
+                ProtobufDeserializer.forTypes(
+                        OrderEvent.getDefaultInstance(), ProcessPaymentCommand.getDefaultInstance());
+
+        Headers eventHeaders = new RecordHeaders();
+        ByteBuffer eventBytes = ByteBuffer.wrap(serializer.serialize("topic", eventHeaders, EVENT));
+        Headers commandHeaders = new RecordHeaders();
+        ByteBuffer commandBytes =
+                ByteBuffer.wrap(serializer.serialize("topic", commandHeaders, command));
+
+        assertEquals(EVENT, deserializer.deserialize("topic", eventHeaders, eventBytes));
+        assertEquals(command, deserializer.deserialize("topic", commandHeaders, commandBytes));
+    }
+
+    @Test
+    void treatsRecordsWithoutATypeHeaderAsTheFirstType() {
+        ProtobufDeserializer<Message> deserializer =
+                ProtobufDeserializer.forTypes(
+                        OrderEvent.getDefaultInstance(), ProcessPaymentCommand.getDefaultInstance());
+
+        assertEquals(
+                EVENT, deserializer.deserialize("topic", new RecordHeaders(), EVENT.toByteArray()));
+    }
+
+    @Test
+    void rejectsTypesItWasNotCreatedFor() {
+        ProtobufDeserializer<Message> deserializer =
+                ProtobufDeserializer.forTypes(OrderEvent.getDefaultInstance());
+        Headers headers = new RecordHeaders();
+        byte[] bytes = serializer.serialize("topic", headers, PaymentEvent.getDefaultInstance());
+
+        assertThrows(
+                SerializationException.class,
+                () -> deserializer.deserialize("topic", headers, ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    void rejectsMalformedRecords() {
+        ProtobufDeserializer<OrderEvent> deserializer = new ProtobufDeserializer<>(OrderEvent.parser());
+        ByteBuffer malformed = ByteBuffer.wrap(new byte[] {(byte) 0x0a, 0x10, 'x'});
+
+        assertThrows(
+                SerializationException.class,
+                () -> deserializer.deserialize("topic", new RecordHeaders(), malformed));
+    }
+
+    @Test
+    void passesNullsThrough() {
+        ProtobufDeserializer<OrderEvent> deserializer = new ProtobufDeserializer<>(OrderEvent.parser());
+
+        assertNull(serializer.serialize("topic", new RecordHeaders(), null));
+        assertNull(deserializer.deserialize("topic", new RecordHeaders(), (ByteBuffer) null));
+        assertNull(deserializer.deserialize("topic", (byte[]) null));
+    }
+
+    /** Places a record between other bytes, as it would sit in a fetched batch. */
+    private static ByteBuffer inBatch(ByteBuffer batch, byte[] record) {
+        batch.position(17);
+        batch.put(record);
+        batch.put(new byte[] {1, 2, 3});
+        return batch.position(17).limit(17 + record.length).slice();
+    }
+}
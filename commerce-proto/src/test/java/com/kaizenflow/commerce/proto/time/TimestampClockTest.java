@@ -0,0 +1,71 @@
+package com.kaizenflow.commerce.proto.time;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.Timestamp;
+
+class TimestampClockTest {
+
+    private final AtomicLong millis = new AtomicLong(1_760_000_000_123L);
+
+    private final TimestampClock clock =
+            new TimestampClock(
+                    new Clock() {
+                        @Override
+                        public long millis() {
+                            return millis.get();
+                        }
+
+                        @Override
+                        public Instant instant() {
+                            return Instant.ofEpochMilli(millis.get());
+                        }
+
+                        @Override
+                        public ZoneOffset getZone() {
+                            return ZoneOffset.UTC;
+                        }
+
+                        @Override
+                        public Clock withZone(ZoneId zone) {
+                            throw new UnsupportedOperationException();
+                        }
+                    });
+
+    @Test
+    void stampsTheCurrentMillisecond() {
+        Timestamp timestamp = clock.now();
+
+        assertEquals(1_760_000_000L, timestamp.getSeconds());
+        assertEquals(123_000_000, timestamp.getNanos());
+    }
+
+    @Test
+    void sharesTheTimestampWithinAMillisecond() {
+        Timestamp first = clock.now();
+
+        assertSame(first, clock.now());
+
+        millis.incrementAndGet();
+        assertEquals(124_000_000, clock.now().getNanos());
+    }
+
+    @Test
+    void handlesTimesBeforeTheEpoch() {
+        millis.set(-1);
+
+        Timestamp timestamp = clock.now();
+
+        assertEquals(-1, timestamp.getSeconds());
+        assertEquals(999_000_000, timestamp.getNanos());
+    }
+}
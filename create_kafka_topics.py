@@ -27,6 +27,12 @@ def create_topics():
         {"name": "order-created", "config": {"retention.ms": str(RETENTION_MS)}},
         {"name": "order-updated", "config": {"retention.ms": str(RETENTION_MS)}},
         {"name": "order-cancelled", "config": {"retention.ms": str(RETENTION_MS)}},
+
+        # Order placement saga topics, keyed by order ID
+        {"name": "order-events", "config": {"retention.ms": str(RETENTION_MS)}},
+        {"name": "inventory-reservation-events", "config": {"retention.ms": str(RETENTION_MS)}},
+        {"name": "payment-commands", "config": {"retention.ms": str(RETENTION_MS)}},
+        {"name": "payment-events", "config": {"retention.ms": str(RETENTION_MS)}},
         
         # Payment-related topics
         {"name": "payment-confirmed", "config": {"retention.ms": str(RETENTION_MS)}},
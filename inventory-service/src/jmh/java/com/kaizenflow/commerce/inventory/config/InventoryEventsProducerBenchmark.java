@@ -0,0 +1,144 @@
+package com.kaizenflow.commerce.inventory.config;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.kaizenflow.commerce.messaging.producer.KafkaProducers;
+import com.kaizenflow.commerce.messaging.producer.ProducerProfile;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateBatch;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
+import com.kaizenflow.commerce.proto.inventory.StockStatus;
+import com.kaizenflow.commerce.proto.serde.ProtobufSerializer;
+import com.kaizenflow.commerce.proto.time.TimestampClock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Measures how many inventory update records per second reach an embedded broker's {@code
+ * inventory-events} topic, comparing each producer profile with the untuned producer the service
+ * used before, which set only the brokers and serializers. Each operation sends a burst of records
+ * and waits for all of them to be acknowledged, as a busy {@code EventBatcher} would.
+ *
+ * <p>On loopback the broker's CPU, not the network, limits throughput, so the trial also prints the
+ * requests and bytes the producer sent per thousand records, which is what the profiles save on a
+ * real network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InventoryEventsProducerBenchmark {
+
+    private static final String TOPIC = "inventory-events";
+    private static final int RECORDS_PER_BURST = 2_000;
+    private static final int EVENTS_PER_RECORD = 4;
+
+    @Param({"UNTUNED", "THROUGHPUT", "LATENCY"})
+    public String profile;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private ProducerFactory<String, InventoryUpdateBatch> producerFactory;
+    private KafkaTemplate<String, InventoryUpdateBatch> kafkaTemplate;
+    private InventoryUpdateBatch[] records;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+
+        if (profile.equals("UNTUNED")) {
+            producerFactory =
+                    new DefaultKafkaProducerFactory<>(
+                            Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()),
+                            new StringSerializer(),
+                            new ProtobufSerializer<>());
+        } else {
+            producerFactory =
+                    KafkaProducers.producerFactory(
+                            "benchmark",
+                            broker.getBrokersAsString(),
+                            ProducerProfile.valueOf(profile),
+                            new ProtobufSerializer<>(),
+                            new SimpleMeterRegistry());
+        }
+        kafkaTemplate = new KafkaTemplate<>(producerFactory);
+
+        TimestampClock clock = new TimestampClock(Clock.systemUTC());
+        records = new InventoryUpdateBatch[RECORDS_PER_BURST];
+        for (int i = 0; i < RECORDS_PER_BURST; i++) {
+            InventoryUpdateBatch.Builder batch = InventoryUpdateBatch.newBuilder();
+            for (int j = 0; j < EVENTS_PER_RECORD; j++) {
+                int quantity = (i * EVENTS_PER_RECORD + j) % 97;
+                batch.addEvents(
+                        InventoryUpdateEvent.newBuilder()
+                                .setProductId(String.format("67f1c2a9e4b0d5a1c3e2%04x", i * EVENTS_PER_RECORD + j))
+                                .setAvailableQuantity(quantity)
+                                .setInStock(quantity > 0)
+                                .setStockStatus(quantity > 10 ? StockStatus.IN_STOCK : StockStatus.LOW_STOCK)
+                                .setTimestamp(clock.now()));
+            }
+            records[i] = batch.build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        double records = producerMetric("record-send-total");
+        System.out.printf(
+                "%n%s: %.1f requests and %.0f KiB sent per 1000 records%n",
+                profile,
+                producerMetric("request-total") * 1000 / records,
+                producerMetric("outgoing-byte-total") * 1000 / records / 1024);
+
+        kafkaTemplate.destroy();
+        producerFactory.reset();
+        broker.destroy();
+    }
+
+    private double producerMetric(String name) {
+        for (Map.Entry<MetricName, ? extends Metric> metric : kafkaTemplate.metrics().entrySet()) {
+            if (metric.getKey().group().equals("producer-metrics")
+                    && metric.getKey().name().equals(name)) {
+                return ((Number) metric.getValue().metricValue()).doubleValue();
+            }
+        }
+        throw new IllegalStateException("No producer metric " + name);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS_PER_BURST)
+    public void sendBurst() {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[RECORDS_PER_BURST];
+        for (int i = 0; i < RECORDS_PER_BURST; i++) {
+            sends[i] = kafkaTemplate.send(TOPIC, Integer.toString(i), records[i]);
+        }
+        CompletableFuture.allOf(sends).join();
+    }
+}
@@ -0,0 +1,76 @@
+package com.kaizenflow.commerce.inventory.mappers;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.inventory.domain.enums.InventoryStatus;
+import com.kaizenflow.commerce.inventory.domain.models.Inventory;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
+import com.kaizenflow.commerce.proto.time.TimestampClock;
+
+/**
+ * Compares building an inventory update event as {@code InventoryService} does, with a shared
+ * {@link TimestampClock} and the status enum, against the previous construction from a fresh {@link
+ * Instant}, a timestamp builder and the status name. Run with the gc profiler to compare allocation
+ * per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryEventBenchmark {
+
+    private final InventoryProtoMapper mapper = new InventoryProtoMapper();
+    private final TimestampClock clock = new TimestampClock(Clock.systemUTC());
+
+    private Inventory inventory;
+
+    @Setup
+    public void setUp() {
+        inventory =
+                Inventory.builder()
+                        .productId("67f1c2a9e4b0d5a1c3e2f4b6")
+                        .availableQuantity(42)
+                        .inventoryStatus(InventoryStatus.IN_STOCK)
+                        .inStock(true)
+                        .build();
+    }
+
+    @Benchmark
+    public InventoryUpdateEvent buildEvent() {
+        return mapper.toUpdateEvent(inventory, clock.now());
+    }
+
+    @SuppressWarnings("deprecation")
+    @Benchmark
+    public InventoryUpdateEvent buildEventFromInstant() {
+        Instant instant = Instant.now();
+        Timestamp timestamp =
+                Timestamp.newBuilder()
+                        .setSeconds(instant.getEpochSecond())
+                        .setNanos(instant.getNano())
+                        .build();
+        InventoryUpdateEvent.Builder builder = InventoryUpdateEvent.newBuilder();
+        builder.setProductId(inventory.getProductId());
+        builder.setAvailableQuantity(inventory.getAvailableQuantity());
+        builder.setInventoryStatus(inventory.getInventoryStatus().name());
+        builder.setInStock(inventory.getInStock());
+        builder.setTimestamp(timestamp);
+        return builder.build();
+    }
+}
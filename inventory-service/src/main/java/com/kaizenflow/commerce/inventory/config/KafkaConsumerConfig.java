@@ -3,7 +3,6 @@ package com.kaizenflow.commerce.inventory.config;
 import java.util.HashMap;
 import java.util.Map;
 
-import com.kaizenflow.commerce.proto.product.ProductEvent;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,8 +12,17 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 
-import com.kaizenflow.commerce.inventory.serializer.SimpleProtobufDeserializer;
+import com.google.protobuf.Message;
+import com.kaizenflow.commerce.messaging.consumer.ByteBufferErrorHandlingDeserializer;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.serde.EventBatches;
+import com.kaizenflow.commerce.proto.serde.ProtobufDeserializer;
 
+/**
+ * Consumer factories for the inventory group. Values are read through a {@link
+ * ByteBufferErrorHandlingDeserializer}, so a record that cannot be deserialized reaches the
+ * listener's error handling and is dead-lettered instead of failing every poll.
+ */
 @Configuration
 public class KafkaConsumerConfig {
 
@@ -22,26 +30,48 @@ public class KafkaConsumerConfig {
     private String bootstrapServers;
 
     @Bean
-    public ConsumerFactory<String, ProductEvent> productEventConsumerFactory() {
+    public ConsumerFactory<String, Message> productEventConsumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "inventory-group");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(
-                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SimpleProtobufDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ProtobufDeserializer.class);
 
         return new DefaultKafkaConsumerFactory<>(
                 configProps,
                 new StringDeserializer(),
-                new SimpleProtobufDeserializer<>(ProductEvent.parser()));
+                new ByteBufferErrorHandlingDeserializer<>(EventBatches.productEventDeserializer()));
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, ProductEvent>
+    public ConcurrentKafkaListenerContainerFactory<String, Message>
             productEventKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, ProductEvent> factory =
+        ConcurrentKafkaListenerContainerFactory<String, Message> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(productEventConsumerFactory());
         return factory;
     }
+
+    @Bean
+    public ConsumerFactory<String, OrderEvent> orderEventConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "inventory-group");
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ProtobufDeserializer.class);
+
+        return new DefaultKafkaConsumerFactory<>(
+                configProps,
+                new StringDeserializer(),
+                new ByteBufferErrorHandlingDeserializer<>(new ProtobufDeserializer<>(OrderEvent.parser())));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent>
+            orderEventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(orderEventConsumerFactory());
+        return factory;
+    }
 }
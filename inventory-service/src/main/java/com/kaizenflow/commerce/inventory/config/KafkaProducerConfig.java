@@ -1,19 +1,28 @@
 package com.kaizenflow.commerce.inventory.config;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
 
-import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 
-import com.kaizenflow.commerce.inventory.serializer.SimpleProtobufSerializer;
+import com.kaizenflow.commerce.messaging.batch.BatchSettings;
+import com.kaizenflow.commerce.messaging.batch.EventBatcher;
+import com.kaizenflow.commerce.messaging.producer.KafkaProducers;
+import com.kaizenflow.commerce.messaging.producer.ProducerProfile;
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+import com.kaizenflow.commerce.messaging.publisher.PublisherSettings;
+import com.kaizenflow.commerce.proto.inventory.InventoryReservationEvent;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateBatch;
 import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
+import com.kaizenflow.commerce.proto.serde.ProtobufSerializer;
+import com.kaizenflow.commerce.proto.time.TimestampClock;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class KafkaProducerConfig {
@@ -22,17 +31,80 @@ public class KafkaProducerConfig {
     private String bootstrapServers;
 
     @Bean
-    public ProducerFactory<String, InventoryUpdateEvent> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SimpleProtobufSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+    public TimestampClock eventClock() {
+        return new TimestampClock(Clock.systemUTC());
+    }
+
+    @Bean
+    public ProducerFactory<String, InventoryUpdateBatch> producerFactory(
+            MeterRegistry meterRegistry,
+            @Value("${kafka.producer.inventory-events.profile}") ProducerProfile profile) {
+        return KafkaProducers.producerFactory(
+                "inventory-events", bootstrapServers, profile, new ProtobufSerializer<>(), meterRegistry);
+    }
+
+    @Bean
+    public KafkaTemplate<String, InventoryUpdateBatch> kafkaTemplate(
+            ProducerFactory<String, InventoryUpdateBatch> producerFactory, MeterRegistry meterRegistry) {
+        return KafkaProducers.kafkaTemplate(producerFactory, meterRegistry);
+    }
+
+    @Bean
+    public AsyncEventPublisher<InventoryUpdateBatch> inventoryEventPublisher(
+            KafkaTemplate<String, InventoryUpdateBatch> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.publisher.max-in-flight}") int maxInFlight) {
+        return new AsyncEventPublisher<>(
+                "inventory-events", kafkaTemplate, meterRegistry, new PublisherSettings(maxInFlight));
+    }
+
+    @Bean
+    public EventBatcher<InventoryUpdateEvent, InventoryUpdateBatch> inventoryEventBatcher(
+            AsyncEventPublisher<InventoryUpdateBatch> inventoryEventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.topic.inventory-events}") String inventoryTopic,
+            @Value("${kafka.batch.max-events}") int maxEvents,
+            @Value("${kafka.batch.max-bytes}") int maxBytes,
+            @Value("${kafka.batch.linger}") Duration linger,
+            @Value("${kafka.batch.metadata-wait}") Duration metadataWait) {
+        return new EventBatcher<>(
+                "inventory-events",
+                List.of(inventoryTopic),
+                inventoryEventPublisher,
+                events -> InventoryUpdateBatch.newBuilder().addAllEvents(events).build(),
+                InventoryUpdateEvent::getSerializedSize,
+                meterRegistry,
+                new BatchSettings(maxEvents, maxBytes, linger, metadataWait));
+    }
+
+    @Bean
+    public ProducerFactory<String, InventoryReservationEvent> reservationEventProducerFactory(
+            MeterRegistry meterRegistry,
+            @Value("${kafka.producer.reservation-events.profile}") ProducerProfile profile) {
+        return KafkaProducers.producerFactory(
+                "inventory-reservation-events",
+                bootstrapServers,
+                profile,
+                new ProtobufSerializer<>(),
+                meterRegistry);
+    }
+
+    @Bean
+    public KafkaTemplate<String, InventoryReservationEvent> reservationEventKafkaTemplate(
+            ProducerFactory<String, InventoryReservationEvent> reservationEventProducerFactory,
+            MeterRegistry meterRegistry) {
+        return KafkaProducers.kafkaTemplate(reservationEventProducerFactory, meterRegistry);
     }
 
     @Bean
-    public KafkaTemplate<String, InventoryUpdateEvent> kafkaTemplate(
-            ProducerFactory<String, InventoryUpdateEvent> producerFactory) {
-        return new KafkaTemplate<>(producerFactory);
+    public AsyncEventPublisher<InventoryReservationEvent> reservationEventPublisher(
+            KafkaTemplate<String, InventoryReservationEvent> reservationEventKafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.publisher.max-in-flight}") int maxInFlight) {
+        return new AsyncEventPublisher<>(
+                "inventory-reservation-events",
+                reservationEventKafkaTemplate,
+                meterRegistry,
+                new PublisherSettings(maxInFlight));
     }
 }
@@ -12,8 +12,16 @@ public class KafkaTopicConfig {
     @Value("${kafka.topic.inventory-events}")
     private String topicName;
 
+    @Value("${kafka.topic.inventory-reservation-events}")
+    private String reservationTopicName;
+
     @Bean
     public NewTopic inventoryEventsTopic() {
         return TopicBuilder.name(topicName).build();
     }
+
+    @Bean
+    public NewTopic inventoryReservationEventsTopic() {
+        return TopicBuilder.name(reservationTopicName).build();
+    }
 }
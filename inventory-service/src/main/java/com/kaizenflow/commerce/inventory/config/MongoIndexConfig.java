@@ -0,0 +1,44 @@
+package com.kaizenflow.commerce.inventory.config;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import com.kaizenflow.commerce.inventory.domain.models.StockReservation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the indexes declared on {@link StockReservation}, including the one expiring finished
+ * reservations, once the application is up. Done off the startup thread, so an unreachable database
+ * delays indexing instead of failing startup.
+ */
+@Configuration
+@Slf4j
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        Thread.ofPlatform().name("inventory-index-init").daemon().start(this::createReservationIndexes);
+    }
+
+    private void createReservationIndexes() {
+        try {
+            IndexResolver resolver =
+                    new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            IndexOperations indexOps = mongoTemplate.indexOps(StockReservation.class);
+            resolver.resolveIndexFor(StockReservation.class).forEach(indexOps::ensureIndex);
+            log.info("Ensured indexes on the stock reservations");
+        } catch (RuntimeException e) {
+            log.error("Failed to create indexes on the stock reservations", e);
+        }
+    }
+}
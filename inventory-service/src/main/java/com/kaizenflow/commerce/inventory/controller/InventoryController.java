@@ -1,8 +1,13 @@
 package com.kaizenflow.commerce.inventory.controller;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,15 +15,18 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.kaizenflow.commerce.inventory.domain.dto.InventoryRecord;
+import com.kaizenflow.commerce.inventory.domain.dto.InventoryVersion;
 import com.kaizenflow.commerce.inventory.domain.dto.UpdateInventoryRequest;
 import com.kaizenflow.commerce.inventory.domain.models.Inventory;
 import com.kaizenflow.commerce.inventory.mappers.InventoryMapper;
 import com.kaizenflow.commerce.inventory.service.InventoryService;
+import com.kaizenflow.commerce.messaging.http.VersionETags;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -34,6 +42,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class InventoryController {
 
+    // Stock levels are live, so clients must revalidate on every use; a 304 keeps that cheap
+    private static final CacheControl INVENTORY_CACHE_CONTROL = CacheControl.noCache();
+
     private final InventoryService inventoryService;
     private final InventoryMapper inventoryMapper;
 
@@ -43,27 +54,39 @@ public class InventoryController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Inventory> getInventoryById(@PathVariable String id) {
-        return inventoryService
-                .getInventoryById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Inventory> getInventoryById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return conditionalGet(
+                ifNoneMatch,
+                accept,
+                () -> inventoryService.getInventoryVersionById(id),
+                () -> inventoryService.getInventoryById(id));
     }
 
     @GetMapping("/product/{productId}")
-    public ResponseEntity<Inventory> getInventoryByProductId(@PathVariable String productId) {
-        return inventoryService
-                .getInventoryByProductId(productId)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Inventory> getInventoryByProductId(
+            @PathVariable String productId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return conditionalGet(
+                ifNoneMatch,
+                accept,
+                () -> inventoryService.getInventoryVersionByProductId(productId),
+                () -> inventoryService.getInventoryByProductId(productId));
     }
 
     @GetMapping("/sku/{productSku}")
-    public ResponseEntity<Inventory> getInventoryByProductSku(@PathVariable String productSku) {
-        return inventoryService
-                .getInventoryByProductSku(productSku)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Inventory> getInventoryByProductSku(
+            @PathVariable String productSku,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return conditionalGet(
+                ifNoneMatch,
+                accept,
+                () -> inventoryService.getInventoryVersionByProductSku(productSku),
+                () -> inventoryService.getInventoryByProductSku(productSku));
     }
 
     @GetMapping("/warehouse/{warehouseId}")
@@ -243,4 +266,48 @@ public class InventoryController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Serves a single inventory record with ETag support. Requests carrying If-None-Match are first
+     * checked against the version projection, so an unchanged record is answered with 304 without
+     * loading and serializing the full document. ETags differ between the JSON and Protobuf
+     * representations, and responses vary by Accept, so caches keep the two apart.
+     *
+     * @param ifNoneMatch The ETag(s) held by the client, may be null
+     * @param accept The media types the client accepts, may be null
+     * @param versionLookup Looks up the current version of the record
+     * @param loader Loads the full record
+     * @return ResponseEntity with the record, 304 if unchanged, or 404 if not found
+     */
+    private ResponseEntity<Inventory> conditionalGet(
+            String ifNoneMatch,
+            String accept,
+            Supplier<Optional<InventoryVersion>> versionLookup,
+            Supplier<Optional<Inventory>> loader) {
+        MediaType representation = VersionETags.representationFor(accept);
+        if (ifNoneMatch != null) {
+            Optional<InventoryVersion> version = versionLookup.get();
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (version.get().isMatchedBy(ifNoneMatch, representation)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(version.get().eTag(representation))
+                        .cacheControl(INVENTORY_CACHE_CONTROL)
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build();
+            }
+        }
+
+        return loader
+                .get()
+                .map(
+                        inventory ->
+                                ResponseEntity.ok()
+                                        .eTag(VersionETags.eTagFor(inventory.getVersion(), representation))
+                                        .cacheControl(INVENTORY_CACHE_CONTROL)
+                                        .varyBy(HttpHeaders.ACCEPT)
+                                        .body(inventory))
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
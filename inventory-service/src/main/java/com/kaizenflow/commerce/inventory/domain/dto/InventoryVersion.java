@@ -0,0 +1,34 @@
+package com.kaizenflow.commerce.inventory.domain.dto;
+
+import org.springframework.http.MediaType;
+
+import com.kaizenflow.commerce.messaging.http.VersionETags;
+
+/**
+ * Lightweight projection of an inventory record's version counter. Used to answer conditional GETs
+ * without loading and serializing the full inventory document; the ETags come from {@link
+ * VersionETags}.
+ */
+public record InventoryVersion(String id, long version) {
+
+    /**
+     * Returns the strong ETag of this version in a representation.
+     *
+     * @param representation The media type the record is served as
+     * @return The quoted ETag value
+     */
+    public String eTag(MediaType representation) {
+        return VersionETags.eTagFor(version, representation);
+    }
+
+    /**
+     * Checks whether an If-None-Match header matches this version in a representation.
+     *
+     * @param ifNoneMatch The raw If-None-Match header value, may be null
+     * @param representation The media type the record is served as
+     * @return true if the client's cached representation is still current
+     */
+    public boolean isMatchedBy(String ifNoneMatch, MediaType representation) {
+        return VersionETags.isMatchedBy(ifNoneMatch, version, representation);
+    }
+}
@@ -1,7 +1,20 @@
 package com.kaizenflow.commerce.inventory.domain.enums;
 
+import com.kaizenflow.commerce.proto.inventory.StockStatus;
+
 public enum InventoryStatus {
-    IN_STOCK,
-    LOW_STOCK,
-    OUT_OF_STOCK
+    IN_STOCK(StockStatus.IN_STOCK),
+    LOW_STOCK(StockStatus.LOW_STOCK),
+    OUT_OF_STOCK(StockStatus.OUT_OF_STOCK);
+
+    private final StockStatus stockStatus;
+
+    InventoryStatus(StockStatus stockStatus) {
+        this.stockStatus = stockStatus;
+    }
+
+    /** The status as carried in inventory update events. */
+    public StockStatus toStockStatus() {
+        return stockStatus;
+    }
 }
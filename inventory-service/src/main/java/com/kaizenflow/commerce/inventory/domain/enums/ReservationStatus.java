@@ -0,0 +1,20 @@
+package com.kaizenflow.commerce.inventory.domain.enums;
+
+public enum ReservationStatus {
+    PENDING(false),
+    RESERVED(false),
+    FAILED(false),
+    COMMITTED(true),
+    RELEASED(true);
+
+    private final boolean finished;
+
+    ReservationStatus(boolean finished) {
+        this.finished = finished;
+    }
+
+    /** Whether the order's stock was committed or released, so it must not be held again. */
+    public boolean isFinished() {
+        return finished;
+    }
+}
@@ -1,10 +1,13 @@
 package com.kaizenflow.commerce.inventory.domain.models;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -31,6 +34,10 @@ public class Inventory {
 
     @Builder.Default private Integer availableQuantity = 0;
     @Builder.Default private Integer reservedQuantity = 0;
+
+    // Per-order holds making up reservedQuantity, so reservations can be released idempotently
+    @Builder.Default private List<StockHold> holds = new ArrayList<>();
+
     private String warehouseId;
 
     @Builder.Default private InventoryStatus inventoryStatus = InventoryStatus.OUT_OF_STOCK;
@@ -42,4 +49,7 @@ public class Inventory {
 
     @LastModifiedDate
     private LocalDateTime updatedAt; // Spring Data: Automatically updates on modifications
+
+    // Bumped by every write: by Spring Data on saves, which fail if it changed, and $inc in place
+    @Version private long version;
 }
@@ -0,0 +1,17 @@
+package com.kaizenflow.commerce.inventory.domain.models;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Stock held on an inventory record for an order that has not been confirmed or cancelled yet. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHold {
+    private String orderId;
+    private Integer quantity;
+    private LocalDateTime createdAt;
+}
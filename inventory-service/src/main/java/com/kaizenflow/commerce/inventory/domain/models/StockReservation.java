@@ -0,0 +1,46 @@
+package com.kaizenflow.commerce.inventory.domain.models;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.kaizenflow.commerce.inventory.domain.enums.ReservationStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of reserving stock for an order, kept after its holds are committed or released so a
+ * redelivered placement of the order is not reserved again. A failed reservation is replaced when
+ * the order is amended and placed again at a newer version.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stock_reservations")
+public class StockReservation {
+    @Id private String orderId;
+
+    private ReservationStatus status;
+
+    // Order version of the placement this reservation is for
+    private long orderVersion;
+
+    // Why the reservation failed, replied again when the placement is redelivered
+    private String failureReason;
+
+    @Builder.Default private List<String> missingProductIds = new ArrayList<>();
+
+    private LocalDateTime createdAt;
+
+    // Finished and failed reservations are dropped long after any redelivery of their placement
+    @Indexed(expireAfter = "30d")
+    private LocalDateTime finishedAt;
+}
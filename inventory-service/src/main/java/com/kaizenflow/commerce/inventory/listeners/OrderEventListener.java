@@ -0,0 +1,56 @@
+package com.kaizenflow.commerce.inventory.listeners;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.inventory.service.StockReservationService;
+import com.kaizenflow.commerce.messaging.retry.NonBlockingRetry;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.order.OrderStatusChanged;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderEventListener {
+
+    private final StockReservationService stockReservationService;
+
+    /**
+     * Reserves, commits or releases stock as orders move through placement. A placement that is
+     * retried can arrive after the order was confirmed or cancelled; {@link StockReservationService}
+     * ignores it then.
+     */
+    @NonBlockingRetry
+    @KafkaListener(
+            topics = "${kafka.topic.order-events}",
+            containerFactory = "orderEventKafkaListenerContainerFactory")
+    public void handleOrderEvent(OrderEvent orderEvent) {
+        log.info(
+                "Received Order {} event with order ID: {}",
+                orderEvent.getEventCase(),
+                orderEvent.getOrderId());
+
+        switch (orderEvent.getEventCase()) {
+            case PLACED ->
+                    stockReservationService.reserve(orderEvent.getOrderId(), orderEvent.getPlaced());
+            case STATUS_CHANGED ->
+                    onStatusChanged(orderEvent.getOrderId(), orderEvent.getStatusChanged());
+            case CANCELLED -> stockReservationService.release(orderEvent.getOrderId());
+            default -> log.warn("Ignoring order event without a payload: {}", orderEvent.getOrderId());
+        }
+    }
+
+    /** Commits the held stock once an order is paid for and releases it once it is cancelled. */
+    private void onStatusChanged(String orderId, OrderStatusChanged statusChanged) {
+        switch (statusChanged.getStatus()) {
+            case CONFIRMED -> stockReservationService.commit(orderId);
+            case CANCELLED -> stockReservationService.release(orderId);
+            default -> {
+                // Other transitions neither hold nor free stock
+            }
+        }
+    }
+}
@@ -3,8 +3,11 @@ package com.kaizenflow.commerce.inventory.listeners;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import com.google.protobuf.Message;
 import com.kaizenflow.commerce.inventory.service.InventoryService;
+import com.kaizenflow.commerce.messaging.retry.NonBlockingRetry;
 import com.kaizenflow.commerce.proto.product.ProductEvent;
+import com.kaizenflow.commerce.proto.serde.EventBatches;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,17 +19,25 @@ public class ProductEventListener {
 
     private final InventoryService inventoryService;
 
-    /** Listens for product creation events and creates initial inventory records. */
+    /**
+     * Listens for product creation events and creates initial inventory records. Each record holds a
+     * single event or a batch of them.
+     */
+    @NonBlockingRetry
     @KafkaListener(
             topics = "${kafka.topic.product-created-events}",
             containerFactory = "productEventKafkaListenerContainerFactory")
-    public void handleProductCreatedEvent(ProductEvent productEvent) {
-        log.info(
-                "Received Product created event with product ID: {}", productEvent.getProduct().getId());
+    public void handleProductCreatedEvents(Message record) {
+        for (ProductEvent productEvent : EventBatches.productEvents(record)) {
+            log.info(
+                    "Received Product created event with product ID: {}", productEvent.getProduct().getId());
 
-        // Only process CREATED events
-        if (productEvent.getType() == ProductEvent.EventType.CREATED) {
-            inventoryService.createInventory(productEvent);
+            // Only process CREATED events. A retried or replayed batch repeats the events that
+            // succeeded before the failure, so products that already have inventory are skipped.
+            if (productEvent.getType() == ProductEvent.EventType.CREATED
+                    && !inventoryService.hasInventory(productEvent.getProduct().getId())) {
+                inventoryService.createInventory(productEvent);
+            }
         }
     }
 }
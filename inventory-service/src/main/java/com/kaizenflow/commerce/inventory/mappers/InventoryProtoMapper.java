@@ -0,0 +1,134 @@
+package com.kaizenflow.commerce.inventory.mappers;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.inventory.domain.dto.InventoryRecord;
+import com.kaizenflow.commerce.inventory.domain.dto.UpdateInventoryRequest;
+import com.kaizenflow.commerce.inventory.domain.models.Inventory;
+import com.kaizenflow.commerce.proto.inventory.InventoryListResponse;
+import com.kaizenflow.commerce.proto.inventory.InventoryResponse;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateRequest;
+
+/**
+ * Mapper for converting between inventory types and their Protobuf API messages.
+ *
+ * <p>Written by hand rather than generated by MapStruct because Protobuf builders reject nulls.
+ */
+@Component
+public class InventoryProtoMapper {
+
+    /**
+     * Converts an Inventory entity to an InventoryResponse message.
+     *
+     * @param inventory The inventory entity
+     * @return The inventory response message
+     */
+    public InventoryResponse toInventoryResponse(Inventory inventory) {
+        InventoryResponse.Builder builder = InventoryResponse.newBuilder();
+        setIfPresent(inventory.getId(), builder::setId);
+        setIfPresent(inventory.getProductId(), builder::setProductId);
+        setIfPresent(inventory.getProductSku(), builder::setProductSku);
+        setIfPresent(inventory.getAvailableQuantity(), builder::setAvailableQuantity);
+        setIfPresent(inventory.getReservedQuantity(), builder::setReservedQuantity);
+        if (inventory.getInventoryStatus() != null) {
+            builder.setInventoryStatus(inventory.getInventoryStatus().name());
+        }
+        setIfPresent(inventory.getInStock(), builder::setInStock);
+        setIfPresent(inventory.getWarehouseId(), builder::setWarehouseId);
+        setIfPresent(toTimestamp(inventory.getCreatedAt()), builder::setCreatedAt);
+        setIfPresent(toTimestamp(inventory.getUpdatedAt()), builder::setUpdatedAt);
+        return builder.build();
+    }
+
+    /**
+     * Converts an InventoryRecord DTO to an InventoryResponse message.
+     *
+     * @param inventoryRecord The inventory record DTO
+     * @return The inventory response message
+     */
+    public InventoryResponse toInventoryResponse(InventoryRecord inventoryRecord) {
+        InventoryResponse.Builder builder = InventoryResponse.newBuilder();
+        setIfPresent(inventoryRecord.id(), builder::setId);
+        setIfPresent(inventoryRecord.productId(), builder::setProductId);
+        setIfPresent(inventoryRecord.productSku(), builder::setProductSku);
+        setIfPresent(inventoryRecord.availableQuantity(), builder::setAvailableQuantity);
+        setIfPresent(inventoryRecord.reservedQuantity(), builder::setReservedQuantity);
+        if (inventoryRecord.inventoryStatus() != null) {
+            builder.setInventoryStatus(inventoryRecord.inventoryStatus().name());
+        }
+        setIfPresent(inventoryRecord.inStock(), builder::setInStock);
+        setIfPresent(inventoryRecord.warehouseCode(), builder::setWarehouseId);
+        setIfPresent(toTimestamp(inventoryRecord.createdAt()), builder::setCreatedAt);
+        setIfPresent(toTimestamp(inventoryRecord.lastUpdated()), builder::setUpdatedAt);
+        return builder.build();
+    }
+
+    /**
+     * Converts a list of Inventory entities to an InventoryListResponse message.
+     *
+     * @param inventoryList The inventory entities
+     * @return The inventory list response message
+     */
+    public InventoryListResponse toInventoryListResponse(List<Inventory> inventoryList) {
+        InventoryListResponse.Builder builder = InventoryListResponse.newBuilder();
+        for (Inventory inventory : inventoryList) {
+            builder.addInventory(toInventoryResponse(inventory));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts an InventoryUpdateRequest message to an UpdateInventoryRequest DTO. A missing quantity
+     * maps to null so bean validation rejects it.
+     *
+     * @param request The inventory update request message
+     * @return The update inventory request DTO
+     */
+    public UpdateInventoryRequest toUpdateInventoryRequest(InventoryUpdateRequest request) {
+        return new UpdateInventoryRequest(
+                request.hasAvailableQuantity() ? request.getAvailableQuantity() : null);
+    }
+
+    /**
+     * Converts an Inventory entity to the update event published when its stock changes. Sets fields
+     * directly rather than through {@code setIfPresent}, whose method references allocate on every
+     * call, as this runs for every published event.
+     *
+     * @param inventory The inventory entity
+     * @param timestamp When the update happened
+     * @return The inventory update event
+     */
+    public InventoryUpdateEvent toUpdateEvent(Inventory inventory, Timestamp timestamp) {
+        return InventoryUpdateEvent.newBuilder()
+                .setProductId(inventory.getProductId())
+                .setAvailableQuantity(inventory.getAvailableQuantity())
+                .setStockStatus(inventory.getInventoryStatus().toStockStatus())
+                .setInStock(inventory.getInStock())
+                .setTimestamp(timestamp)
+                .build();
+    }
+
+    private static <T> void setIfPresent(T value, Consumer<T> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        var instant = dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
@@ -1,11 +1,13 @@
 package com.kaizenflow.commerce.inventory.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import com.kaizenflow.commerce.inventory.domain.dto.InventoryVersion;
 import com.kaizenflow.commerce.inventory.domain.models.Inventory;
 
 @Repository
@@ -14,9 +16,21 @@ public interface InventoryRepository extends MongoRepository<Inventory, String>
     // Find by productId
     Optional<Inventory> findByProductId(String productId);
 
+    // Find by a set of productIds
+    List<Inventory> findByProductIdIn(Collection<String> productIds);
+
     // Find by productSku
     Optional<Inventory> findByProductSku(String productSku);
 
+    // Find only the version counter by ID, for conditional requests
+    Optional<InventoryVersion> findVersionById(String id);
+
+    // Find only the version counter by productId, for conditional requests
+    Optional<InventoryVersion> findVersionByProductId(String productId);
+
+    // Find only the version counter by productSku, for conditional requests
+    Optional<InventoryVersion> findVersionByProductSku(String productSku);
+
     // Find all inventory items in a specific warehouse
     List<Inventory> findByWarehouseId(String warehouseId);
 
@@ -0,0 +1,99 @@
+package com.kaizenflow.commerce.inventory.serializer;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.kaizenflow.commerce.inventory.domain.dto.InventoryRecord;
+import com.kaizenflow.commerce.inventory.domain.dto.UpdateInventoryRequest;
+import com.kaizenflow.commerce.inventory.domain.models.Inventory;
+import com.kaizenflow.commerce.inventory.mappers.InventoryProtoMapper;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateRequest;
+
+/**
+ * HTTP message converter that reads and writes the inventory API types as application/x-protobuf.
+ *
+ * <p>Controllers keep returning entities and records; this converter is only selected when the
+ * client negotiates Protobuf, in which case they are mapped to the commerce-proto API messages and
+ * written in binary form, skipping Jackson entirely.
+ */
+public class InventoryProtobufHttpMessageConverter
+        extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final InventoryProtoMapper inventoryProtoMapper;
+
+    public InventoryProtobufHttpMessageConverter(InventoryProtoMapper inventoryProtoMapper) {
+        super(ProtobufHttpMessageConverter.PROTOBUF);
+        this.inventoryProtoMapper = inventoryProtoMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Inventory.class == clazz
+                || InventoryRecord.class == clazz
+                || UpdateInventoryRequest.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type == UpdateInventoryRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        Type targetType = type != null ? type : clazz;
+        return (targetType == Inventory.class
+                        || targetType == InventoryRecord.class
+                        || isListOf(targetType, Inventory.class))
+                && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException {
+        return readInternal(UpdateInventoryRequest.class, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return inventoryProtoMapper.toUpdateInventoryRequest(
+                    InventoryUpdateRequest.parseFrom(inputMessage.getBody()));
+        } catch (InvalidProtocolBufferException e) {
+            throw new HttpMessageNotReadableException(
+                    "Invalid Protobuf inventory request: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        Message message =
+                switch (object) {
+                    case List<?> inventoryList ->
+                            inventoryProtoMapper.toInventoryListResponse((List<Inventory>) inventoryList);
+                    case InventoryRecord inventoryRecord ->
+                            inventoryProtoMapper.toInventoryResponse(inventoryRecord);
+                    default -> inventoryProtoMapper.toInventoryResponse((Inventory) object);
+                };
+        message.writeTo(outputMessage.getBody());
+    }
+
+    private static boolean isListOf(Type type, Class<?> elementType) {
+        return type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getRawType() instanceof Class<?> rawType
+                && List.class.isAssignableFrom(rawType)
+                && parameterizedType.getActualTypeArguments()[0] == elementType;
+    }
+}
@@ -1,21 +1,29 @@
 package com.kaizenflow.commerce.inventory.service;
 
-import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.inventory.domain.dto.InventoryVersion;
 import com.kaizenflow.commerce.inventory.domain.enums.InventoryStatus;
 import com.kaizenflow.commerce.inventory.domain.models.Inventory;
+import com.kaizenflow.commerce.inventory.mappers.InventoryProtoMapper;
 import com.kaizenflow.commerce.inventory.repository.InventoryRepository;
+import com.kaizenflow.commerce.messaging.batch.EventBatcher;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateBatch;
 import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
 import com.kaizenflow.commerce.proto.product.ProductEvent;
 import com.kaizenflow.commerce.proto.product.ProductModel;
+import com.kaizenflow.commerce.proto.time.TimestampClock;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,7 +34,10 @@ import lombok.extern.slf4j.Slf4j;
 public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
-    private final KafkaTemplate<String, InventoryUpdateEvent> kafkaTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final EventBatcher<InventoryUpdateEvent, InventoryUpdateBatch> eventBatcher;
+    private final InventoryProtoMapper inventoryProtoMapper;
+    private final TimestampClock eventClock;
 
     @Value("${kafka.topic.inventory-events}")
     private String inventoryTopic;
@@ -50,11 +61,36 @@ public class InventoryService {
         return inventoryRepository.findById(id);
     }
 
+    // Get only the version of an inventory by ID
+    public Optional<InventoryVersion> getInventoryVersionById(String id) {
+        return inventoryRepository.findVersionById(id);
+    }
+
+    // Get only the version of an inventory by product ID
+    public Optional<InventoryVersion> getInventoryVersionByProductId(String productId) {
+        return inventoryRepository.findVersionByProductId(productId);
+    }
+
+    // Get only the version of an inventory by product SKU
+    public Optional<InventoryVersion> getInventoryVersionByProductSku(String productSku) {
+        return inventoryRepository.findVersionByProductSku(productSku);
+    }
+
     // Get inventory by warehouse ID
     public List<Inventory> getInventoryByWarehouse(String warehouseId) {
         return inventoryRepository.findByWarehouseId(warehouseId);
     }
 
+    /**
+     * Checks whether a product already has an inventory record.
+     *
+     * @param productId The product ID
+     * @return true if the product has inventory
+     */
+    public boolean hasInventory(String productId) {
+        return inventoryRepository.existsByProductId(productId);
+    }
+
     /**
      * Creates a new inventory entry for a product and sends an update event.
      *
@@ -80,7 +116,8 @@ public class InventoryService {
 
     /**
      * Updates an existing inventory with a new quantity and sends an update event. Uses the inventory
-     * ID to find the inventory record.
+     * ID to find the inventory record. Only the quantity and status fields are written, so stock
+     * reserved for orders in the meantime is kept.
      *
      * @param id The inventory ID
      * @param availableQuantity The new available quantity
@@ -88,24 +125,22 @@ public class InventoryService {
      * @throws IllegalArgumentException if inventory with the given ID is not found
      */
     public Inventory updateInventory(String id, Integer availableQuantity) {
-        // Find and validate inventory exists
-        Inventory inventory = findInventoryById(id);
-
-        // Update inventory with new quantity
-        updateInventoryQuantity(inventory, availableQuantity);
-
-        // Save changes
-        Inventory saved = inventoryRepository.save(inventory);
+        // Write the new quantity in place
+        Inventory updated = setAvailableQuantity(Criteria.where("id").is(id), availableQuantity);
+        if (updated == null) {
+            throw new IllegalArgumentException("Inventory with ID " + id + " not found");
+        }
 
         // Send inventory update event
-        sendInventoryUpdateEvent(saved);
+        sendInventoryUpdateEvent(updated);
 
-        return saved;
+        return updated;
     }
 
     /**
      * Updates an existing inventory with a new quantity and sends an update event. Uses the product
-     * SKU to find the inventory record.
+     * SKU to find the inventory record. Only the quantity and status fields are written, so stock
+     * reserved for orders in the meantime is kept.
      *
      * @param productSku The product SKU
      * @param availableQuantity The new available quantity
@@ -113,19 +148,17 @@ public class InventoryService {
      * @throws IllegalArgumentException if inventory with the given product SKU is not found
      */
     public Inventory updateInventoryByProductSku(String productSku, Integer availableQuantity) {
-        // Find and validate inventory exists by product SKU
-        Inventory inventory = findInventoryByProductSku(productSku);
-
-        // Update inventory with new quantity
-        updateInventoryQuantity(inventory, availableQuantity);
-
-        // Save changes
-        Inventory saved = inventoryRepository.save(inventory);
+        // Write the new quantity in place
+        Inventory updated =
+                setAvailableQuantity(Criteria.where("productSku").is(productSku), availableQuantity);
+        if (updated == null) {
+            throw new IllegalArgumentException("Inventory with product SKU " + productSku + " not found");
+        }
 
         // Send inventory update event
-        sendInventoryUpdateEvent(saved);
+        sendInventoryUpdateEvent(updated);
 
-        return saved;
+        return updated;
     }
 
     /**
@@ -163,82 +196,131 @@ public class InventoryService {
     }
 
     /**
-     * Finds an inventory by ID or throws an exception if not found.
+     * Sets the available quantity of the matching inventory in place and recalculates its status.
      *
-     * @param id The inventory ID
-     * @return The found inventory entity
-     * @throws IllegalArgumentException if inventory with the given ID is not found
+     * @param match Selects the inventory to update
+     * @param availableQuantity The new available quantity
+     * @return The updated inventory entity, or null if none matched
      */
-    private Inventory findInventoryById(String id) {
-        return getInventoryById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Inventory with ID " + id + " not found"));
+    private Inventory setAvailableQuantity(Criteria match, Integer availableQuantity) {
+        InventoryStatus status = stockStatusOf(availableQuantity);
+        return mongoTemplate.findAndModify(
+                Query.query(match),
+                new Update()
+                        .set("availableQuantity", availableQuantity)
+                        .set("inventoryStatus", status)
+                        .set("inStock", status != InventoryStatus.OUT_OF_STOCK)
+                        .set("updatedAt", LocalDateTime.now())
+                        .inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                Inventory.class);
     }
 
     /**
-     * Finds an inventory by product SKU or throws an exception if not found.
+     * Applies an in-place quantity change to an inventory, provided it still holds enough stock. The
+     * check and the change are one atomic update, so concurrent reservations are never overwritten or
+     * driven below zero.
      *
-     * @param productSku The product SKU
-     * @return The found inventory entity
-     * @throws IllegalArgumentException if inventory with the given product SKU is not found
+     * @param id The inventory ID
+     * @param enough The stock the inventory must hold for the change to apply, or null if any will do
+     * @param update The quantity change
+     * @param shortage The message to fail with if the inventory does not hold enough stock
+     * @return The updated inventory entity
+     * @throws IllegalArgumentException if the inventory is not found or does not hold enough stock
      */
-    private Inventory findInventoryByProductSku(String productSku) {
-        return getInventoryByProductSku(productSku)
-                .orElseThrow(
-                        () ->
-                                new IllegalArgumentException(
-                                        "Inventory with product SKU " + productSku + " not found"));
+    private Inventory adjustQuantities(String id, Criteria enough, Update update, String shortage) {
+        Criteria match = Criteria.where("id").is(id);
+        if (enough != null) {
+            match = match.andOperator(enough);
+        }
+        Inventory updated =
+                mongoTemplate.findAndModify(
+                        Query.query(match),
+                        update.set("updatedAt", LocalDateTime.now()).inc("version", 1),
+                        FindAndModifyOptions.options().returnNew(true),
+                        Inventory.class);
+        if (updated != null) {
+            return updated;
+        }
+        if (inventoryRepository.existsById(id)) {
+            throw new IllegalArgumentException(shortage + id);
+        }
+        throw new IllegalArgumentException("Inventory with ID " + id + " not found");
     }
 
     /**
-     * Updates an inventory entity with a new quantity and recalculates status.
+     * Determines the stock status for an available quantity.
      *
-     * @param inventory The inventory entity to update
-     * @param availableQuantity The new available quantity
+     * @param availableQuantity The available quantity
+     * @return The stock status; anything but OUT_OF_STOCK counts as in stock
      */
-    private void updateInventoryQuantity(Inventory inventory, Integer availableQuantity) {
-        inventory.setAvailableQuantity(availableQuantity);
-
-        // Update inventory status based on quantity
+    private static InventoryStatus stockStatusOf(int availableQuantity) {
         if (availableQuantity <= 0) {
-            inventory.setInventoryStatus(InventoryStatus.OUT_OF_STOCK);
-            inventory.setInStock(false);
+            return InventoryStatus.OUT_OF_STOCK;
         } else if (availableQuantity <= 5) { // Using 5 as threshold for low stock
-            inventory.setInventoryStatus(InventoryStatus.LOW_STOCK);
-            inventory.setInStock(true);
+            return InventoryStatus.LOW_STOCK;
         } else {
-            inventory.setInventoryStatus(InventoryStatus.IN_STOCK);
-            inventory.setInStock(true);
+            return InventoryStatus.IN_STOCK;
+        }
+    }
+
+    /**
+     * Recalculates the stock status of inventories whose quantities were changed in place, such as by
+     * order reservations, and sends update events for them. Only the status fields are written, so
+     * concurrent quantity changes are not overwritten. A status change bumps the version counter, so
+     * the record's ETag changes even though its quantities were written already.
+     *
+     * @param productIds The products whose inventory quantities changed
+     */
+    void refreshStockStatus(Collection<String> productIds) {
+        for (Inventory inventory : inventoryRepository.findByProductIdIn(productIds)) {
+            InventoryStatus status = stockStatusOf(inventory.getAvailableQuantity());
+            if (inventory.getInventoryStatus() != status) {
+                inventory.setInventoryStatus(status);
+                inventory.setInStock(status != InventoryStatus.OUT_OF_STOCK);
+                LocalDateTime updatedAt = LocalDateTime.now();
+                mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("id").is(inventory.getId())),
+                        new Update()
+                                .set("inventoryStatus", inventory.getInventoryStatus())
+                                .set("inStock", inventory.getInStock())
+                                .max("updatedAt", updatedAt)
+                                .inc("version", 1),
+                        Inventory.class);
+                inventory.setUpdatedAt(updatedAt);
+            }
+            sendInventoryUpdateEvent(inventory);
         }
     }
 
     /**
-     * Creates and sends an inventory update event to Kafka.
+     * Creates and sends an inventory update event to Kafka, batched with other updates for the same
+     * partition and routed by product ID so updates for the same product stay ordered. The send is
+     * asynchronous; the outcome is logged from the completion callback once the batch is sent.
      *
      * @param inventory The inventory entity to create an event for
      */
     private void sendInventoryUpdateEvent(Inventory inventory) {
-        Instant instant = Instant.now();
-        Timestamp timestamp =
-                Timestamp.newBuilder()
-                        .setSeconds(instant.getEpochSecond())
-                        .setNanos(instant.getNano())
-                        .build();
-
-        InventoryUpdateEvent.Builder builder = InventoryUpdateEvent.newBuilder();
-        builder.setProductId(inventory.getProductId());
-        builder.setAvailableQuantity(inventory.getAvailableQuantity());
-        builder.setInventoryStatus(inventory.getInventoryStatus().name());
-        builder.setInStock(inventory.getInStock());
-        builder.setTimestamp(timestamp);
-
-        // Send event to Kafka
-        kafkaTemplate.send(inventoryTopic, builder.build());
-
-        log.info(
-                "Sent inventory update event for product ID: {}, status: {}, quantity: {}",
-                inventory.getProductId(),
-                inventory.getInventoryStatus(),
-                inventory.getAvailableQuantity());
+        InventoryUpdateEvent event = inventoryProtoMapper.toUpdateEvent(inventory, eventClock.now());
+
+        // Send event to Kafka without waiting for the batch or the broker
+        eventBatcher
+                .add(inventoryTopic, inventory.getProductId(), event)
+                .whenComplete(
+                        (result, ex) -> {
+                            if (ex != null) {
+                                log.error(
+                                        "Failed to send inventory update event for product ID: {}",
+                                        inventory.getProductId(),
+                                        ex);
+                            } else {
+                                log.info(
+                                        "Sent inventory update event for product ID: {}, status: {}, quantity: {}",
+                                        inventory.getProductId(),
+                                        inventory.getInventoryStatus(),
+                                        inventory.getAvailableQuantity());
+                            }
+                        });
     }
 
     // Delete inventory
@@ -261,69 +343,35 @@ public class InventoryService {
     }
 
     // Increment available quantity
-    @Transactional
     public Inventory incrementAvailableQuantity(String id, Integer quantity) {
-        Optional<Inventory> optionalInventory = inventoryRepository.findById(id);
-        if (optionalInventory.isPresent()) {
-            Inventory inventory = optionalInventory.get();
-            inventory.setAvailableQuantity(inventory.getAvailableQuantity() + quantity);
-            return inventoryRepository.save(inventory);
-        } else {
-            throw new IllegalArgumentException("Inventory with ID " + id + " not found");
-        }
+        return adjustQuantities(id, null, new Update().inc("availableQuantity", quantity), null);
     }
 
     // Decrement available quantity
-    @Transactional
     public Inventory decrementAvailableQuantity(String id, Integer quantity) {
-        Optional<Inventory> optionalInventory = inventoryRepository.findById(id);
-        if (optionalInventory.isPresent()) {
-            Inventory inventory = optionalInventory.get();
-            if (inventory.getAvailableQuantity() < quantity) {
-                throw new IllegalArgumentException(
-                        "Not enough available quantity in inventory with ID " + id);
-            }
-            inventory.setAvailableQuantity(inventory.getAvailableQuantity() - quantity);
-            return inventoryRepository.save(inventory);
-        } else {
-            throw new IllegalArgumentException("Inventory with ID " + id + " not found");
-        }
+        return adjustQuantities(
+                id,
+                Criteria.where("availableQuantity").gte(quantity),
+                new Update().inc("availableQuantity", -quantity),
+                "Not enough available quantity in inventory with ID ");
     }
 
     // Reserve quantity (move from available to reserved)
-    @Transactional
     public Inventory reserveQuantity(String id, Integer quantity) {
-        Optional<Inventory> optionalInventory = inventoryRepository.findById(id);
-        if (optionalInventory.isPresent()) {
-            Inventory inventory = optionalInventory.get();
-            if (inventory.getAvailableQuantity() < quantity) {
-                throw new IllegalArgumentException(
-                        "Not enough available quantity to reserve in inventory with ID " + id);
-            }
-            inventory.setAvailableQuantity(inventory.getAvailableQuantity() - quantity);
-            inventory.setReservedQuantity(inventory.getReservedQuantity() + quantity);
-            return inventoryRepository.save(inventory);
-        } else {
-            throw new IllegalArgumentException("Inventory with ID " + id + " not found");
-        }
+        return adjustQuantities(
+                id,
+                Criteria.where("availableQuantity").gte(quantity),
+                new Update().inc("availableQuantity", -quantity).inc("reservedQuantity", quantity),
+                "Not enough available quantity to reserve in inventory with ID ");
     }
 
     // Release reserved quantity (move from reserved to available)
-    @Transactional
     public Inventory releaseReservedQuantity(String id, Integer quantity) {
-        Optional<Inventory> optionalInventory = inventoryRepository.findById(id);
-        if (optionalInventory.isPresent()) {
-            Inventory inventory = optionalInventory.get();
-            if (inventory.getReservedQuantity() < quantity) {
-                throw new IllegalArgumentException(
-                        "Not enough reserved quantity to release in inventory with ID " + id);
-            }
-            inventory.setReservedQuantity(inventory.getReservedQuantity() - quantity);
-            inventory.setAvailableQuantity(inventory.getAvailableQuantity() + quantity);
-            return inventoryRepository.save(inventory);
-        } else {
-            throw new IllegalArgumentException("Inventory with ID " + id + " not found");
-        }
+        return adjustQuantities(
+                id,
+                Criteria.where("reservedQuantity").gte(quantity),
+                new Update().inc("reservedQuantity", -quantity).inc("availableQuantity", quantity),
+                "Not enough reserved quantity to release in inventory with ID ");
     }
 
     // Get low stock inventory (available quantity below threshold)
@@ -0,0 +1,381 @@
+package com.kaizenflow.commerce.inventory.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.inventory.domain.enums.ReservationStatus;
+import com.kaizenflow.commerce.inventory.domain.models.Inventory;
+import com.kaizenflow.commerce.inventory.domain.models.StockHold;
+import com.kaizenflow.commerce.inventory.domain.models.StockReservation;
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+import com.kaizenflow.commerce.proto.inventory.InventoryReservationEvent;
+import com.kaizenflow.commerce.proto.inventory.InventoryReservationFailed;
+import com.kaizenflow.commerce.proto.inventory.InventoryReserved;
+import com.kaizenflow.commerce.proto.order.OrderPlaced;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds stock for orders on behalf of the order placement saga.
+ *
+ * <p>Each hold is recorded on the inventory document together with the quantity it moved from
+ * available to reserved, and every update is conditional on the hold being absent (to reserve) or
+ * present (to commit or release). That makes all operations safe to repeat when an order event is
+ * delivered more than once.
+ *
+ * <p>The outcome of each order's reservation is recorded as a {@link StockReservation}, which
+ * outlives the holds: a placement redelivered after its stock was committed or released is ignored
+ * instead of holding the stock a second time, and one redelivered before that gets the original
+ * reply again. Reservations are for one placement of the order: a rejected order that is amended is
+ * placed again at a newer order version, which replaces its failed reservation, and a placement
+ * older than the recorded one is ignored. Replies carry the placement's version so the order
+ * service can tell them apart.
+ *
+ * <p>Order events are retried on retry topics, so a placement can be handled after, or at the same
+ * time as, the order's cancellation. A reservation is therefore claimed before any stock is held,
+ * and only completed if the order was not committed or released meanwhile; otherwise the stock it
+ * held is returned straight away.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private static final String HOLDS = "holds";
+    private static final String HOLD_ORDER_ID = "holds.orderId";
+
+    private final MongoTemplate mongoTemplate;
+    private final InventoryService inventoryService;
+    private final AsyncEventPublisher<InventoryReservationEvent> reservationEventPublisher;
+
+    @Value("${kafka.topic.inventory-reservation-events}")
+    private String reservationTopic;
+
+    /**
+     * Reserves stock for every line of a placed order in a single bulk write and replies with the
+     * outcome. Reservation is all-or-nothing: if any line cannot be held, the holds that were taken
+     * are released again before replying. A placement already reserved is answered from its recorded
+     * outcome; one superseded by a newer placement of the order is ignored.
+     *
+     * @param orderId The order ID
+     * @param orderPlaced The placed order
+     */
+    public void reserve(String orderId, OrderPlaced orderPlaced) {
+        long version = orderPlaced.getVersion();
+        StockReservation reservation = claim(orderId, version);
+        if (reservation.getOrderVersion() > version) {
+            log.info(
+                    "Ignoring placement of order {} at version {}, it was placed again at version {}",
+                    orderId,
+                    version,
+                    reservation.getOrderVersion());
+            return;
+        }
+        if (reservation.getStatus() != ReservationStatus.PENDING) {
+            replyAgain(reservation);
+            return;
+        }
+
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        orderPlaced
+                .getLinesList()
+                .forEach(line -> quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+        if (quantities.isEmpty()) {
+            fail(orderId, version, "Order has no lines", List.of());
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Inventory.class);
+        quantities.forEach(
+                (productId, quantity) ->
+                        bulk.updateOne(
+                                Query.query(
+                                        Criteria.where("productId")
+                                                .is(productId)
+                                                .and("availableQuantity")
+                                                .gte(quantity)
+                                                .and(HOLD_ORDER_ID)
+                                                .ne(orderId)),
+                                new Update()
+                                        .inc("availableQuantity", -quantity)
+                                        .inc("reservedQuantity", quantity)
+                                        .push(HOLDS, new StockHold(orderId, quantity, now))
+                                        .set("updatedAt", now)
+                                        .inc("version", 1)));
+        int modified = bulk.execute().getModifiedCount();
+
+        // Lines held by an earlier delivery of the same event count as reserved
+        Set<String> held = heldProductIds(orderId);
+        List<String> missing =
+                quantities.keySet().stream().filter(productId -> !held.contains(productId)).toList();
+
+        if (missing.isEmpty()) {
+            if (modified > 0) {
+                inventoryService.refreshStockStatus(quantities.keySet());
+            }
+            if (!complete(orderId, version, ReservationStatus.RESERVED, null, List.of())) {
+                clearHolds(orderId, true);
+                log.info("Order {} was finished while reserving, returned its stock", orderId);
+                return;
+            }
+            log.info("Reserved {} products for order {}", quantities.size(), orderId);
+            replyReserved(orderId, version);
+        } else {
+            clearHolds(orderId, true);
+            log.info("Could not reserve products {} for order {}", missing, orderId);
+            fail(orderId, version, "Insufficient stock", missing);
+        }
+    }
+
+    /**
+     * Claims the reservation of an order's stock, unless its outcome was already recorded. A failed
+     * reservation of an earlier placement is reset, since the order was amended since then.
+     *
+     * @return The order's reservation, {@code PENDING} at this version when it is for this call (or
+     *     an earlier one that did not finish) to reserve
+     */
+    private StockReservation claim(String orderId, long version) {
+        StockReservation reservation =
+                mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("orderId").is(orderId)),
+                        new Update()
+                                .setOnInsert("status", ReservationStatus.PENDING)
+                                .setOnInsert("orderVersion", version)
+                                .setOnInsert("createdAt", LocalDateTime.now()),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        StockReservation.class);
+        if (reservation.getStatus() != ReservationStatus.FAILED
+                || reservation.getOrderVersion() >= version) {
+            return reservation;
+        }
+
+        StockReservation reset =
+                mongoTemplate.findAndModify(
+                        Query.query(
+                                Criteria.where("orderId")
+                                        .is(orderId)
+                                        .and("status")
+                                        .is(ReservationStatus.FAILED)
+                                        .and("orderVersion")
+                                        .lt(version)),
+                        new Update()
+                                .set("status", ReservationStatus.PENDING)
+                                .set("orderVersion", version)
+                                .set("missingProductIds", List.of())
+                                .unset("failureReason")
+                                .unset("finishedAt"),
+                        FindAndModifyOptions.options().returnNew(true),
+                        StockReservation.class);
+        // Another delivery reset or moved the reservation on first; claim it as it is now
+        return reset != null ? reset : claim(orderId, version);
+    }
+
+    /** Answers a redelivered placement with the outcome recorded for the order. */
+    private void replyAgain(StockReservation reservation) {
+        String orderId = reservation.getOrderId();
+        long version = reservation.getOrderVersion();
+        switch (reservation.getStatus()) {
+            case RESERVED -> {
+                log.info("Stock for order {} is already reserved", orderId);
+                replyReserved(orderId, version);
+            }
+            case FAILED -> {
+                log.info("Stock for order {} already failed to reserve", orderId);
+                replyFailed(
+                        orderId, version, reservation.getFailureReason(), reservation.getMissingProductIds());
+            }
+            default ->
+                    log.info(
+                            "Ignoring placement of order {}, its stock was already {}",
+                            orderId,
+                            reservation.getStatus());
+        }
+    }
+
+    /**
+     * Commits the stock held for a confirmed order: the held quantity leaves reserved stock for good.
+     *
+     * @param orderId The order ID
+     */
+    public void commit(String orderId) {
+        int committed = clearHolds(orderId, false);
+        record(orderId, ReservationStatus.COMMITTED, null, List.of());
+        log.info("Committed stock for order {} on {} products", orderId, committed);
+    }
+
+    /**
+     * Releases the stock held for an order back to available stock. Used as the compensation when an
+     * order fails or is cancelled after stock was reserved.
+     *
+     * @param orderId The order ID
+     */
+    public void release(String orderId) {
+        int released = clearHolds(orderId, true);
+        record(orderId, ReservationStatus.RELEASED, null, List.of());
+        log.info("Released stock for order {} on {} products", orderId, released);
+    }
+
+    /**
+     * Removes an order's holds, optionally returning the held quantities to available stock.
+     *
+     * @return The number of inventory records updated
+     */
+    private int clearHolds(String orderId, boolean returnToAvailable) {
+        Query heldQuery = Query.query(Criteria.where(HOLD_ORDER_ID).is(orderId));
+        heldQuery.fields().include("productId").include(HOLDS);
+        List<Inventory> heldInventory = mongoTemplate.find(heldQuery, Inventory.class);
+        if (heldInventory.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Inventory.class);
+        for (Inventory inventory : heldInventory) {
+            int quantity =
+                    inventory.getHolds().stream()
+                            .filter(hold -> orderId.equals(hold.getOrderId()))
+                            .mapToInt(StockHold::getQuantity)
+                            .sum();
+            Update update =
+                    new Update()
+                            .inc("reservedQuantity", -quantity)
+                            .pull(HOLDS, new Document("orderId", orderId))
+                            .set("updatedAt", now)
+                            .inc("version", 1);
+            if (returnToAvailable) {
+                update.inc("availableQuantity", quantity);
+            }
+            bulk.updateOne(
+                    Query.query(Criteria.where("id").is(inventory.getId()).and(HOLD_ORDER_ID).is(orderId)),
+                    update);
+        }
+        int modified = bulk.execute().getModifiedCount();
+
+        if (returnToAvailable && modified > 0) {
+            inventoryService.refreshStockStatus(
+                    heldInventory.stream().map(Inventory::getProductId).toList());
+        }
+        return modified;
+    }
+
+    private Set<String> heldProductIds(String orderId) {
+        Query query = Query.query(Criteria.where(HOLD_ORDER_ID).is(orderId));
+        query.fields().include("productId");
+        return mongoTemplate.find(query, Inventory.class).stream()
+                .map(Inventory::getProductId)
+                .collect(Collectors.toSet());
+    }
+
+    private void fail(String orderId, long version, String reason, List<String> productIds) {
+        if (complete(orderId, version, ReservationStatus.FAILED, reason, productIds)) {
+            replyFailed(orderId, version, reason, productIds);
+        }
+    }
+
+    /**
+     * Records the outcome of a claimed reservation, unless the order was committed or released since
+     * it was claimed.
+     *
+     * @return Whether the outcome was recorded
+     */
+    private boolean complete(
+            String orderId,
+            long version,
+            ReservationStatus status,
+            String failureReason,
+            List<String> productIds) {
+        return mongoTemplate
+                        .updateFirst(
+                                Query.query(
+                                        Criteria.where("orderId")
+                                                .is(orderId)
+                                                .and("orderVersion")
+                                                .is(version)
+                                                .and("status")
+                                                .is(ReservationStatus.PENDING)),
+                                outcome(status, failureReason, productIds),
+                                StockReservation.class)
+                        .getModifiedCount()
+                > 0;
+    }
+
+    /**
+     * Records the outcome of an order's reservation, whether or not stock was held for it, so a
+     * placement handled later is not reserved. Finished reservations are kept until the TTL index on
+     * their finish time drops them.
+     */
+    private void record(
+            String orderId, ReservationStatus status, String failureReason, List<String> productIds) {
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("orderId").is(orderId)),
+                outcome(status, failureReason, productIds).setOnInsert("createdAt", LocalDateTime.now()),
+                StockReservation.class);
+    }
+
+    private static Update outcome(
+            ReservationStatus status, String failureReason, List<String> productIds) {
+        Update update =
+                new Update()
+                        .set("status", status)
+                        .set("failureReason", failureReason)
+                        .set("missingProductIds", productIds);
+        // A failed reservation expires too; an amended order replaces it before then
+        if (status.isFinished() || status == ReservationStatus.FAILED) {
+            update.set("finishedAt", LocalDateTime.now());
+        }
+        return update;
+    }
+
+    private void replyReserved(String orderId, long version) {
+        reply(
+                InventoryReservationEvent.newBuilder()
+                        .setOrderId(orderId)
+                        .setOrderVersion(version)
+                        .setReserved(InventoryReserved.getDefaultInstance()));
+    }
+
+    private void replyFailed(String orderId, long version, String reason, List<String> productIds) {
+        reply(
+                InventoryReservationEvent.newBuilder()
+                        .setOrderId(orderId)
+                        .setOrderVersion(version)
+                        .setFailed(
+                                InventoryReservationFailed.newBuilder()
+                                        .setReason(reason)
+                                        .addAllProductIds(productIds)));
+    }
+
+    private void reply(InventoryReservationEvent.Builder event) {
+        Instant now = Instant.now();
+        event.setTimestamp(
+                Timestamp.newBuilder().setSeconds(now.getEpochSecond()).setNanos(now.getNano()));
+
+        String orderId = event.getOrderId();
+        reservationEventPublisher
+                .publish(reservationTopic, orderId, event.build())
+                .whenComplete(
+                        (result, ex) -> {
+                            if (ex != null) {
+                                log.error("Failed to send reservation reply for order {}", orderId, ex);
+                            }
+                        });
+    }
+}
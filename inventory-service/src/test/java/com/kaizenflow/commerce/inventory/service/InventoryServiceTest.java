@@ -0,0 +1,150 @@
+package com.kaizenflow.commerce.inventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.kaizenflow.commerce.inventory.domain.enums.InventoryStatus;
+import com.kaizenflow.commerce.inventory.domain.models.Inventory;
+import com.kaizenflow.commerce.inventory.mappers.InventoryProtoMapper;
+import com.kaizenflow.commerce.inventory.repository.InventoryRepository;
+import com.kaizenflow.commerce.messaging.batch.EventBatcher;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateBatch;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
+import com.kaizenflow.commerce.proto.time.TimestampClock;
+
+@SuppressWarnings("unchecked")
+class InventoryServiceTest {
+
+    private static final String ID = "inventory-1";
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final EventBatcher<InventoryUpdateEvent, InventoryUpdateBatch> eventBatcher =
+            mock(EventBatcher.class);
+    private final InventoryProtoMapper inventoryProtoMapper = mock(InventoryProtoMapper.class);
+    private final InventoryService service =
+            new InventoryService(
+                    inventoryRepository,
+                    mongoTemplate,
+                    eventBatcher,
+                    inventoryProtoMapper,
+                    new TimestampClock(Clock.systemUTC()));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "inventoryTopic", "inventory-events");
+        when(inventoryProtoMapper.toUpdateEvent(any(), any()))
+                .thenReturn(InventoryUpdateEvent.getDefaultInstance());
+        when(eventBatcher.add(any(), any(), any())).thenReturn(new CompletableFuture<>());
+    }
+
+    @Test
+    void setsANewQuantityWithoutTouchingReservedStock() {
+        Inventory updated = Inventory.builder().id(ID).productId("product-1").build();
+        modifies(updated);
+
+        assertSame(updated, service.updateInventory(ID, 3));
+
+        Document update = update();
+        Document set = (Document) update.get("$set");
+        assertEquals(3, set.get("availableQuantity"));
+        assertEquals(InventoryStatus.LOW_STOCK, set.get("inventoryStatus"));
+        assertTrue((Boolean) set.get("inStock"));
+        assertFalse(set.containsKey("reservedQuantity"));
+        assertEquals(1, ((Document) update.get("$inc")).get("version"));
+        verify(eventBatcher).add(eq("inventory-events"), eq("product-1"), any());
+    }
+
+    @Test
+    void reservesStockOnlyWhileEnoughIsAvailable() {
+        modifies(Inventory.builder().id(ID).build());
+
+        service.reserveQuantity(ID, 2);
+
+        Document query = query();
+        assertEquals(ID, query.get("id"));
+        assertEquals(
+                new Document("availableQuantity", new Document("$gte", 2)),
+                query.getList("$and", Document.class).get(0));
+        Document inc = (Document) update().get("$inc");
+        assertEquals(-2, inc.get("availableQuantity"));
+        assertEquals(2, inc.get("reservedQuantity"));
+        assertEquals(1, inc.get("version"));
+    }
+
+    @Test
+    void rejectsADecrementBelowTheAvailableQuantity() {
+        modifies(null);
+        when(inventoryRepository.existsById(ID)).thenReturn(true);
+
+        IllegalArgumentException e =
+                assertThrows(
+                        IllegalArgumentException.class, () -> service.decrementAvailableQuantity(ID, 5));
+
+        assertEquals("Not enough available quantity in inventory with ID " + ID, e.getMessage());
+    }
+
+    @Test
+    void reportsAMissingInventoryAsNotFound() {
+        modifies(null);
+
+        IllegalArgumentException e =
+                assertThrows(IllegalArgumentException.class, () -> service.releaseReservedQuantity(ID, 1));
+
+        assertEquals("Inventory with ID " + ID + " not found", e.getMessage());
+        verify(eventBatcher, never()).add(any(), any(), any());
+    }
+
+    private void modifies(Inventory result) {
+        when(mongoTemplate.findAndModify(
+                        any(Query.class),
+                        any(UpdateDefinition.class),
+                        any(FindAndModifyOptions.class),
+                        eq(Inventory.class)))
+                .thenReturn(result);
+    }
+
+    private Document query() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate)
+                .findAndModify(
+                        query.capture(),
+                        any(UpdateDefinition.class),
+                        any(FindAndModifyOptions.class),
+                        eq(Inventory.class));
+        return query.getValue().getQueryObject();
+    }
+
+    private Document update() {
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate)
+                .findAndModify(
+                        any(Query.class),
+                        update.capture(),
+                        any(FindAndModifyOptions.class),
+                        eq(Inventory.class));
+        return update.getValue().getUpdateObject();
+    }
+}
@@ -0,0 +1,290 @@
+package com.kaizenflow.commerce.inventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.kaizenflow.commerce.inventory.domain.enums.ReservationStatus;
+import com.kaizenflow.commerce.inventory.domain.models.Inventory;
+import com.kaizenflow.commerce.inventory.domain.models.StockHold;
+import com.kaizenflow.commerce.inventory.domain.models.StockReservation;
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+import com.kaizenflow.commerce.proto.inventory.InventoryReservationEvent;
+import com.kaizenflow.commerce.proto.order.OrderLine;
+import com.kaizenflow.commerce.proto.order.OrderPlaced;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+
+@SuppressWarnings("unchecked")
+class StockReservationServiceTest {
+
+    private static final String ORDER_ID = "order-1";
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private final AsyncEventPublisher<InventoryReservationEvent> reservationEventPublisher =
+            mock(AsyncEventPublisher.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final StockReservationService service =
+            new StockReservationService(mongoTemplate, inventoryService, reservationEventPublisher);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "reservationTopic", "inventory-reservation-events");
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Inventory.class)))
+                .thenReturn(bulk);
+        when(reservationEventPublisher.publish(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        claimed(ReservationStatus.PENDING);
+        completes(true);
+    }
+
+    @Test
+    void reservesEveryLineOfAPlacedOrder() {
+        modifies(2);
+        holding("product-1", "product-2");
+
+        service.reserve(ORDER_ID, placed("product-1", "product-2"));
+
+        assertTrue(reply().hasReserved());
+        verify(inventoryService).refreshStockStatus(Set.of("product-1", "product-2"));
+        assertEquals(ReservationStatus.RESERVED, completedStatus());
+    }
+
+    @Test
+    void releasesTheHeldLinesWhenAnotherCannotBeReserved() {
+        modifies(1);
+        holding("product-1");
+
+        service.reserve(ORDER_ID, placed("product-1", "product-2"));
+
+        InventoryReservationEvent reply = reply();
+        assertTrue(reply.hasFailed());
+        assertEquals(List.of("product-2"), reply.getFailed().getProductIdsList());
+        // The hold on product-1 is pulled and its stock returned
+        ArgumentCaptor<Update> release = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(3)).updateOne(any(Query.class), release.capture());
+        Document returned = (Document) release.getValue().getUpdateObject().get("$inc");
+        assertEquals(1, returned.get("availableQuantity"));
+        verify(inventoryService).refreshStockStatus(List.of("product-1"));
+        assertEquals(ReservationStatus.FAILED, completedStatus());
+    }
+
+    @Test
+    void ignoresAPlacementRedeliveredAfterItsStockWasCommitted() {
+        claimed(ReservationStatus.COMMITTED);
+
+        service.reserve(ORDER_ID, placed("product-1"));
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Inventory.class));
+        verifyNoInteractions(reservationEventPublisher, inventoryService);
+    }
+
+    @Test
+    void ignoresAPlacementRedeliveredAfterItsStockWasReleased() {
+        claimed(ReservationStatus.RELEASED);
+
+        service.reserve(ORDER_ID, placed("product-1"));
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Inventory.class));
+        verifyNoInteractions(reservationEventPublisher, inventoryService);
+    }
+
+    @Test
+    void repliesAgainToAPlacementRedeliveredWhileItsStockIsHeld() {
+        claimed(ReservationStatus.RESERVED);
+
+        service.reserve(ORDER_ID, placed("product-1"));
+
+        assertTrue(reply().hasReserved());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Inventory.class));
+    }
+
+    @Test
+    void reservesAnAmendedOrderPlacedAgainAfterItsStockFailedToReserve() {
+        when(mongoTemplate.findAndModify(
+                        any(Query.class),
+                        any(UpdateDefinition.class),
+                        any(FindAndModifyOptions.class),
+                        eq(StockReservation.class)))
+                .thenReturn(reservation(ReservationStatus.FAILED, 0))
+                .thenReturn(reservation(ReservationStatus.PENDING, 2));
+        modifies(1);
+        holding("product-1");
+
+        service.reserve(ORDER_ID, placed(2, "product-1"));
+
+        InventoryReservationEvent reply = reply();
+        assertTrue(reply.hasReserved());
+        assertEquals(2, reply.getOrderVersion());
+        assertEquals(ReservationStatus.RESERVED, completedStatus());
+    }
+
+    @Test
+    void ignoresAPlacementSupersededByANewerOne() {
+        claimed(reservation(ReservationStatus.PENDING, 2));
+
+        service.reserve(ORDER_ID, placed(0, "product-1"));
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Inventory.class));
+        verifyNoInteractions(reservationEventPublisher, inventoryService);
+    }
+
+    @Test
+    void expiresAFailedReservation() {
+        modifies(0);
+        holding();
+
+        service.reserve(ORDER_ID, placed("product-1"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate)
+                .updateFirst(any(Query.class), update.capture(), eq(StockReservation.class));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(ReservationStatus.FAILED, set.get("status"));
+        assertTrue(set.containsKey("finishedAt"));
+    }
+
+    @Test
+    void recordsCommittedStockSoTheOrderIsNotReservedAgain() {
+        modifies(1);
+        holding("product-1");
+
+        service.commit(ORDER_ID);
+
+        assertEquals(ReservationStatus.COMMITTED, recordedStatus());
+    }
+
+    @Test
+    void recordsACancellationHandledBeforeThePlacement() {
+        holding();
+
+        service.release(ORDER_ID);
+
+        // Recorded although no stock was held, for the placement still on a retry topic
+        assertEquals(ReservationStatus.RELEASED, recordedStatus());
+    }
+
+    @Test
+    void returnsTheStockOfAnOrderCancelledWhileReserving() {
+        modifies(1);
+        holding("product-1");
+        completes(false);
+
+        service.reserve(ORDER_ID, placed("product-1"));
+
+        ArgumentCaptor<Update> release = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(any(Query.class), release.capture());
+        Document returned = (Document) release.getValue().getUpdateObject().get("$inc");
+        assertEquals(1, returned.get("availableQuantity"));
+        verifyNoInteractions(reservationEventPublisher);
+    }
+
+    private void modifies(int count) {
+        when(bulk.execute())
+                .thenReturn(BulkWriteResult.acknowledged(0, count, 0, count, List.of(), List.of()));
+    }
+
+    /** Inventory records currently holding stock for the order, one unit each. */
+    private void holding(String... productIds) {
+        List<Inventory> held = new ArrayList<>();
+        for (String productId : productIds) {
+            held.add(
+                    Inventory.builder()
+                            .id("inventory-" + productId)
+                            .productId(productId)
+                            .holds(List.of(new StockHold(ORDER_ID, 1, LocalDateTime.now())))
+                            .build());
+        }
+        when(mongoTemplate.find(any(Query.class), eq(Inventory.class))).thenReturn(held);
+    }
+
+    private void claimed(ReservationStatus status) {
+        claimed(reservation(status, 0));
+    }
+
+    private void claimed(StockReservation reservation) {
+        when(mongoTemplate.findAndModify(
+                        any(Query.class),
+                        any(UpdateDefinition.class),
+                        any(FindAndModifyOptions.class),
+                        eq(StockReservation.class)))
+                .thenReturn(reservation);
+    }
+
+    private static StockReservation reservation(ReservationStatus status, long orderVersion) {
+        return StockReservation.builder()
+                .orderId(ORDER_ID)
+                .status(status)
+                .orderVersion(orderVersion)
+                .build();
+    }
+
+    /** Whether the claimed reservation is still pending when its outcome is recorded. */
+    private void completes(boolean pending) {
+        when(mongoTemplate.updateFirst(
+                        any(Query.class), any(UpdateDefinition.class), eq(StockReservation.class)))
+                .thenReturn(UpdateResult.acknowledged(pending ? 1 : 0, pending ? 1L : 0L, null));
+    }
+
+    private static OrderPlaced placed(String... productIds) {
+        return placed(0, productIds);
+    }
+
+    private static OrderPlaced placed(long version, String... productIds) {
+        OrderPlaced.Builder placed =
+                OrderPlaced.newBuilder().setCustomerId("customer-1").setVersion(version);
+        for (String productId : productIds) {
+            placed.addLines(OrderLine.newBuilder().setProductId(productId).setQuantity(1));
+        }
+        return placed.build();
+    }
+
+    private InventoryReservationEvent reply() {
+        ArgumentCaptor<InventoryReservationEvent> reply =
+                ArgumentCaptor.forClass(InventoryReservationEvent.class);
+        verify(reservationEventPublisher)
+                .publish(eq("inventory-reservation-events"), eq(ORDER_ID), reply.capture());
+        return reply.getValue();
+    }
+
+    private ReservationStatus completedStatus() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate)
+                .updateFirst(any(Query.class), update.capture(), eq(StockReservation.class));
+        return (ReservationStatus)
+                ((Document) update.getValue().getUpdateObject().get("$set")).get("status");
+    }
+
+    private ReservationStatus recordedStatus() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(StockReservation.class));
+        return (ReservationStatus)
+                ((Document) update.getValue().getUpdateObject().get("$set")).get("status");
+    }
+}
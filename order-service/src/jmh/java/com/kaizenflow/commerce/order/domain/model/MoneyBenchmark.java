@@ -0,0 +1,81 @@
+package com.kaizenflow.commerce.order.domain.model;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares totalling an order's lines in minor units, as {@code OrderService} does, with chained
+ * {@link Money} values and with the {@link BigDecimal} arithmetic it replaced. Run with the gc
+ * profiler to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final Currency GBP = Currency.getInstance("GBP");
+
+    @Param({"5", "200"})
+    private int lines;
+
+    private long[] unitPricesMinor;
+    private BigDecimal[] unitPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        unitPricesMinor = new long[lines];
+        unitPrices = new BigDecimal[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            unitPricesMinor[i] = random.nextLong(100_000);
+            unitPrices[i] = BigDecimal.valueOf(unitPricesMinor[i], 2);
+            quantities[i] = 1 + random.nextInt(50);
+        }
+    }
+
+    @Benchmark
+    public Money money() {
+        Money total = Money.zero(GBP);
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(new Money(unitPricesMinor[i], GBP).times(quantities[i]));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money minorUnits() {
+        long totalMinor = 0;
+        for (int i = 0; i < lines; i++) {
+            totalMinor = Money.addLine(totalMinor, unitPricesMinor[i], quantities[i]);
+        }
+        return new Money(totalMinor, GBP);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(unitPrices[i].multiply(new BigDecimal(quantities[i])));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,248 @@
+package com.kaizenflow.commerce.order.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kaizenflow.commerce.order.loadtest.LoadTestSettings.Operation;
+
+/**
+ * Drives the order API from virtual-thread clients, each picking its next operation at random by
+ * the configured mix, and records the latency of every request in an HDR histogram per operation.
+ *
+ * <p>Without a target rate the clients form a closed loop and latency is the time each request
+ * took. With a rate, each client sends on a fixed schedule and latency is measured from when the
+ * request was due, so a stalled server shows up in the latencies instead of silently lowering the
+ * request rate.
+ */
+final class LoadGenerator {
+
+    /** Recently created orders kept for get and cancel requests to pick from. */
+    private static final int KNOWN_ORDERS = 1 << 16;
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient http;
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final AtomicReferenceArray<String> knownOrders = new AtomicReferenceArray<>(KNOWN_ORDERS);
+    private final AtomicLong created = new AtomicLong();
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LoadGenerator(URI baseUri, LoadTestSettings settings) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.http =
+                HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .executor(Executors.newVirtualThreadPerTaskExecutor())
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+
+        Map<Operation, Integer> mix = settings.mix();
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Runs the clients for a while.
+     *
+     * @param duration How long to run for
+     * @return What the clients saw during the run
+     */
+    Result run(Duration duration) throws InterruptedException {
+        // Discard whatever an earlier run left behind
+        latencies.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.clients(); i++) {
+                int client = i;
+                clients.submit(() -> runClient(client, start, end));
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, latencies.get(operation).getIntervalHistogram());
+            errorCounts.put(operation, errors.get(operation).sum());
+        }
+        return new Result(elapsed, histograms, errorCounts);
+    }
+
+    private void runClient(int client, long start, long end) {
+        // Each client's share of the target rate, its first request offset to spread them out
+        long interval =
+                settings.rate() == 0 ? 0 : TimeUnit.SECONDS.toNanos(settings.clients()) / settings.rate();
+        long due = start + (interval * client) / settings.clients();
+        while (true) {
+            long now = System.nanoTime();
+            if (interval > 0) {
+                if (due - now > 0) {
+                    LockSupport.parkNanos(due - now);
+                }
+            } else {
+                due = now;
+            }
+            if (due - end >= 0 || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            Operation operation = pickOperation();
+            boolean ok;
+            try {
+                ok = execute(operation);
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                return;
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+            latencies.get(operation).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            if (!ok) {
+                errors.get(operation).increment();
+            }
+            due += interval;
+        }
+    }
+
+    private Operation pickOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                Operation operation = operations[i];
+                // Nothing to read or cancel until an order exists
+                return operation != Operation.CREATE && operation != Operation.LIST && created.get() == 0
+                        ? Operation.CREATE
+                        : operation;
+            }
+        }
+        throw new IllegalStateException("Weights do not cover " + roll);
+    }
+
+    /** Sends one request; returns whether the response was one the operation can produce. */
+    private boolean execute(Operation operation) throws IOException, InterruptedException {
+        return switch (operation) {
+            case CREATE -> {
+                HttpResponse<String> response =
+                        send(
+                                HttpRequest.newBuilder(baseUri.resolve("/orders"))
+                                        .header("Content-Type", "application/json")
+                                        .POST(HttpRequest.BodyPublishers.ofString(orderRequest())));
+                if (response.statusCode() != 202) {
+                    yield false;
+                }
+                String orderId = objectMapper.readTree(response.body()).path("id").asText();
+                knownOrders.set((int) (created.getAndIncrement() & (KNOWN_ORDERS - 1)), orderId);
+                yield true;
+            }
+            case GET -> send(HttpRequest.newBuilder(orderUri(knownOrder())).GET()).statusCode() == 200;
+            case LIST ->
+                    send(HttpRequest.newBuilder(
+                                                    baseUri.resolve("/orders?customerId=" + customer() + "&pageSize=20"))
+                                            .GET())
+                                    .statusCode()
+                            == 200;
+            case CANCEL -> {
+                int status = send(HttpRequest.newBuilder(orderUri(knownOrder())).DELETE()).statusCode();
+                // Orders the saga already confirmed can no longer be cancelled
+                yield status == 200 || status == 409;
+            }
+        };
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request)
+            throws IOException, InterruptedException {
+        return http.send(
+                request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String orderRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder body = new StringBuilder(128);
+        body.append("{\"customerId\":\"").append(customer()).append("\",\"items\":[");
+        int first = random.nextInt(settings.products());
+        for (int i = 0; i < settings.itemsPerOrder(); i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            // Consecutive products, so no product appears twice in an order
+            body.append("{\"productId\":\"")
+                    .append(OrderServiceLoadTest.productId((first + i) % settings.products()))
+                    .append("\",\"quantity\":")
+                    .append(1 + random.nextInt(3))
+                    .append('}');
+        }
+        return body.append("]}").toString();
+    }
+
+    private String customer() {
+        return "customer-" + ThreadLocalRandom.current().nextInt(settings.customers());
+    }
+
+    private String knownOrder() {
+        int count = (int) Math.min(created.get(), KNOWN_ORDERS);
+        String orderId;
+        // A slot is counted just before its order ID is stored
+        while ((orderId = knownOrders.get(ThreadLocalRandom.current().nextInt(count))) == null) {
+            Thread.onSpinWait();
+        }
+        return orderId;
+    }
+
+    private URI orderUri(String orderId) {
+        return baseUri.resolve("/orders/" + orderId);
+    }
+
+    /**
+     * What the clients saw during a run.
+     *
+     * @param elapsed How long the run took
+     * @param latencies Latency of each operation in microseconds
+     * @param errors Number of failed or unexpected responses per operation
+     */
+    record Result(
+            Duration elapsed, Map<Operation, Histogram> latencies, Map<Operation, Long> errors) {
+
+        long requests() {
+            return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        }
+    }
+}
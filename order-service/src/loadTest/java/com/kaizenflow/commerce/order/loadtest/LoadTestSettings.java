@@ -0,0 +1,92 @@
+package com.kaizenflow.commerce.order.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Settings of a load test run, read from {@code loadTest.*} system properties. The Gradle {@code
+ * loadTest} task passes {@code -PloadTest.*} project properties through.
+ *
+ * @param duration How long to measure for
+ * @param warmup How long to run before measuring, to let the JIT and pools settle
+ * @param clients Number of concurrent clients, each on its own virtual thread
+ * @param rate Target requests per second across all clients, or 0 for each client to send its next
+ *     request as soon as the previous one completes
+ * @param mix Relative weight of each operation
+ * @param products Number of products in the catalog
+ * @param customers Number of customers placing orders
+ * @param itemsPerOrder Number of lines in each created order
+ */
+record LoadTestSettings(
+        Duration duration,
+        Duration warmup,
+        int clients,
+        int rate,
+        Map<Operation, Integer> mix,
+        int products,
+        int customers,
+        int itemsPerOrder) {
+
+    /** A request made by a load test client. */
+    enum Operation {
+        /** {@code POST /orders} */
+        CREATE,
+        /** {@code GET /orders/{orderId}} */
+        GET,
+        /** {@code GET /orders?customerId=} */
+        LIST,
+        /** {@code DELETE /orders/{orderId}}, the status change clients can request */
+        CANCEL
+    }
+
+    LoadTestSettings {
+        if (clients < 1) {
+            throw new IllegalArgumentException("loadTest.clients must be at least 1");
+        }
+        if (rate < 0) {
+            throw new IllegalArgumentException("loadTest.rate must not be negative");
+        }
+        if (mix.getOrDefault(Operation.CREATE, 0) < 1) {
+            throw new IllegalArgumentException("loadTest.mix must include create");
+        }
+        if (products < itemsPerOrder) {
+            throw new IllegalArgumentException("loadTest.products must be at least loadTest.items");
+        }
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                DurationStyle.detectAndParse(System.getProperty("loadTest.duration", "60s")),
+                DurationStyle.detectAndParse(System.getProperty("loadTest.warmup", "15s")),
+                Integer.getInteger("loadTest.clients", 64),
+                Integer.getInteger("loadTest.rate", 0),
+                parseMix(System.getProperty("loadTest.mix", "create=40,get=30,list=20,cancel=10")),
+                Integer.getInteger("loadTest.products", 1000),
+                Integer.getInteger("loadTest.customers", 10000),
+                Integer.getInteger("loadTest.items", 3));
+    }
+
+    /**
+     * Parses a mix such as {@code create=40,get=30,list=20,cancel=10}.
+     *
+     * @throws IllegalArgumentException if an operation or weight is invalid
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in loadTest.mix: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in loadTest.mix: " + entry);
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,296 @@
+package com.kaizenflow.commerce.order.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.kaizenflow.commerce.order.OrderServiceApplication;
+import com.kaizenflow.commerce.order.catalog.CatalogReplica;
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.loadtest.LoadTestSettings.Operation;
+
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Measures how many requests a single order-service instance sustains. Starts the real application
+ * context against an embedded Kafka broker and an embedded mongod, with a {@link SagaResponder}
+ * answering for inventory-service and payment-service, then drives the order API with a {@link
+ * LoadGenerator}. The mongod binary is downloaded on the first run and cached in {@code
+ * ~/.embedmongo}, so later runs need no network and no Docker.
+ *
+ * <p>Reports throughput and latency percentiles per operation, the allocation rate of the whole JVM
+ * and per request on the server's request threads, and garbage collection activity. Latency
+ * histograms are also written to {@code build/reports/load-test} in HdrHistogram's percentile
+ * distribution format. The load generator and Kafka broker run in the same JVM as the service, so
+ * the JVM-wide figures include them; mongod runs as a separate process and is not included.
+ *
+ * <p>Run with {@code gradle loadTest}; see {@link LoadTestSettings} for the options.
+ */
+public final class OrderServiceLoadTest {
+
+    private static final Path REPORT_DIR = Path.of("build", "reports", "load-test");
+
+    private OrderServiceLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        Map<String, String> topics = topics();
+
+        EmbeddedKafkaKraftBroker broker =
+                new EmbeddedKafkaKraftBroker(1, 3, topics.values().toArray(new String[0]));
+        broker.afterPropertiesSet();
+        try (TransitionWalker.ReachedState<RunningMongodProcess> mongod =
+                Mongod.instance().start(Version.Main.V7_0)) {
+            ServerAddress address = mongod.current().getServerAddress();
+            String mongoUri =
+                    "mongodb://" + address.getHost() + ":" + address.getPort() + "/phoenix-order";
+            run(settings, topics, broker.getBrokersAsString(), mongoUri);
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static void run(
+            LoadTestSettings settings,
+            Map<String, String> topics,
+            String bootstrapServers,
+            String mongoUri)
+            throws Exception {
+        try (ConfigurableApplicationContext context = start(bootstrapServers, mongoUri);
+                SagaResponder responder = new SagaResponder(bootstrapServers, topics)) {
+            seedCatalog(context.getBean(CatalogReplica.class), settings);
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            LoadGenerator generator = new LoadGenerator(URI.create("http://localhost:" + port), settings);
+
+            System.out.printf(
+                    "Warming up for %s with %d clients%n", settings.warmup(), settings.clients());
+            generator.run(settings.warmup());
+
+            System.out.printf("Measuring for %s%n", settings.duration());
+            ResourceUsage before = ResourceUsage.now();
+            LoadGenerator.Result result = generator.run(settings.duration());
+            ResourceUsage after = ResourceUsage.now();
+
+            report(settings, result, before.until(after), context, responder);
+        }
+    }
+
+    /** The product ID of the product with the given index in the seeded catalog. */
+    static String productId(int index) {
+        return "product-" + index;
+    }
+
+    /** The {@code kafka.topic.*} names from the application's properties, by property suffix. */
+    private static Map<String, String> topics() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadAllProperties("application.properties");
+        Map<String, String> topics = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith("kafka.topic.")) {
+                topics.put(name.substring("kafka.topic.".length()), properties.getProperty(name));
+            }
+        }
+        return topics;
+    }
+
+    private static ConfigurableApplicationContext start(String bootstrapServers, String mongoUri) {
+        return new SpringApplicationBuilder(OrderServiceApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.kafka.bootstrap-servers=" + bootstrapServers,
+                        "--spring.data.mongodb.uri=" + mongoUri,
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--order.archive.enabled=false",
+                        "--order.saga.recovery.enabled=false",
+                        "--eureka.client.enabled=false");
+    }
+
+    /** Puts every product in the catalog with a price and more stock than the run can use. */
+    private static void seedCatalog(CatalogReplica catalog, LoadTestSettings settings) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < settings.products(); i++) {
+            String productId = productId(i);
+            catalog.updateProduct(productId, "Product " + i, "Category " + (i % 20), 500 + i, now);
+            catalog.updateStock(productId, Integer.MAX_VALUE / 2, now);
+        }
+    }
+
+    private static void report(
+            LoadTestSettings settings,
+            LoadGenerator.Result result,
+            ResourceUsage used,
+            ConfigurableApplicationContext context,
+            SagaResponder responder)
+            throws IOException {
+        double seconds = result.elapsed().toNanos() / 1e9;
+        Files.createDirectories(REPORT_DIR);
+        try (PrintStream summary =
+                new PrintStream(Files.newOutputStream(REPORT_DIR.resolve("summary.txt")))) {
+            for (PrintStream out : List.of(System.out, summary)) {
+                out.printf(
+                        "%nclients=%d rate=%s mix=%s duration=%.1fs%n",
+                        settings.clients(),
+                        settings.rate() == 0 ? "closed-loop" : settings.rate() + "/s",
+                        settings.mix(),
+                        seconds);
+                out.printf(
+                        "%-8s %10s %10s %8s %9s %9s %9s %9s %9s%n",
+                        "op",
+                        "requests",
+                        "req/s",
+                        "errors",
+                        "p50 ms",
+                        "p90 ms",
+                        "p99 ms",
+                        "p99.9 ms",
+                        "max ms");
+                for (Operation operation : Operation.values()) {
+                    Histogram latencies = result.latencies().get(operation);
+                    if (latencies.getTotalCount() == 0) {
+                        continue;
+                    }
+                    out.printf(
+                            "%-8s %10d %10.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                            operation.name().toLowerCase(),
+                            latencies.getTotalCount(),
+                            latencies.getTotalCount() / seconds,
+                            result.errors().get(operation),
+                            millis(latencies.getValueAtPercentile(50)),
+                            millis(latencies.getValueAtPercentile(90)),
+                            millis(latencies.getValueAtPercentile(99)),
+                            millis(latencies.getValueAtPercentile(99.9)),
+                            millis(latencies.getMaxValue()));
+                }
+                out.printf("%-8s %10d %10.1f%n", "total", result.requests(), result.requests() / seconds);
+
+                out.printf(
+                        "%nAllocation: %.1f MB/s in the JVM, %.1f KB per request on request threads%n",
+                        used.allocatedBytes() / seconds / (1 << 20),
+                        result.requests() == 0
+                                ? 0.0
+                                : used.requestThreadBytes() / (double) result.requests() / 1024);
+                out.printf(
+                        "GC: %d collections, %d ms (%.2f%% of the run)%n",
+                        used.gcCount(), used.gcMillis(), 100.0 * used.gcMillis() / (seconds * 1000));
+
+                reportSaga(out, context, responder);
+            }
+        }
+        for (Operation operation : Operation.values()) {
+            Histogram latencies = result.latencies().get(operation);
+            if (latencies.getTotalCount() > 0) {
+                try (PrintStream out =
+                        new PrintStream(
+                                Files.newOutputStream(
+                                        REPORT_DIR.resolve(operation.name().toLowerCase() + ".hgrm")))) {
+                    // Recorded in microseconds, reported in milliseconds
+                    latencies.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+        System.out.printf("%nLatency histograms written to %s%n", REPORT_DIR.toAbsolutePath());
+    }
+
+    /** Orders by status and saga latency, including the warmup, to show the saga kept up. */
+    private static void reportSaga(
+            PrintStream out, ConfigurableApplicationContext context, SagaResponder responder) {
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        Map<Order.OrderStatus, Long> byStatus = new TreeMap<>();
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            long count =
+                    mongoTemplate.count(Query.query(Criteria.where("status").is(status)), Order.class);
+            if (count > 0) {
+                byStatus.put(status, count);
+            }
+        }
+        out.printf("%nOrders by status: %s; saga replies sent: %d%n", byStatus, responder.replies());
+
+        Timer endToEnd =
+                context
+                        .getBean(MeterRegistry.class)
+                        .find("order.saga.stage")
+                        .tags("stage", "end_to_end", "outcome", "confirmed")
+                        .timer();
+        if (endToEnd != null && endToEnd.count() > 0) {
+            out.printf(
+                    "Placed to confirmed: %d orders, mean %.2f ms, max %.2f ms%n",
+                    endToEnd.count(),
+                    endToEnd.mean(TimeUnit.MILLISECONDS),
+                    endToEnd.max(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Resources used over an interval: bytes allocated by the JVM and by the server's request
+     * threads, and garbage collections.
+     */
+    private record ResourceUsage(
+            long allocatedBytes, long requestThreadBytes, long gcCount, long gcMillis) {
+
+        private static final String REQUEST_THREAD_PREFIX = "http-nio-";
+
+        static ResourceUsage now() {
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long[] requestThreads =
+                    Thread.getAllStackTraces().keySet().stream()
+                            .filter(thread -> thread.getName().startsWith(REQUEST_THREAD_PREFIX))
+                            .filter(thread -> thread.getName().contains("-exec-"))
+                            .mapToLong(Thread::threadId)
+                            .toArray();
+            long requestThreadBytes = 0;
+            for (long bytes : threads.getThreadAllocatedBytes(requestThreads)) {
+                requestThreadBytes += Math.max(bytes, 0);
+            }
+            long gcCount = 0;
+            long gcMillis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(collector.getCollectionCount(), 0);
+                gcMillis += Math.max(collector.getCollectionTime(), 0);
+            }
+            return new ResourceUsage(
+                    threads.getTotalThreadAllocatedBytes(), requestThreadBytes, gcCount, gcMillis);
+        }
+
+        /**
+         * What was used between this and a later snapshot. Request threads started in between count
+         * everything they allocated.
+         */
+        ResourceUsage until(ResourceUsage later) {
+            return new ResourceUsage(
+                    later.allocatedBytes - allocatedBytes,
+                    later.requestThreadBytes - requestThreadBytes,
+                    later.gcCount - gcCount,
+                    later.gcMillis - gcMillis);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.kaizenflow.commerce.order.loadtest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.proto.inventory.InventoryReservationEvent;
+import com.kaizenflow.commerce.proto.inventory.InventoryReserved;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.payment.PaymentAuthorized;
+import com.kaizenflow.commerce.proto.payment.PaymentEvent;
+import com.kaizenflow.commerce.proto.payment.ProcessPaymentCommand;
+
+/**
+ * Stands in for inventory-service and payment-service during a load test: reserves the stock of
+ * every placed order and authorizes every payment request, so orders run through the whole saga.
+ */
+final class SagaResponder implements AutoCloseable {
+
+    private final KafkaConsumer<String, byte[]> consumer;
+    private final KafkaProducer<String, byte[]> producer;
+    private final String orderEventsTopic;
+    private final String reservationEventsTopic;
+    private final String paymentEventsTopic;
+    private final Thread thread;
+    private final AtomicLong replies = new AtomicLong();
+
+    /**
+     * @param bootstrapServers The Kafka brokers
+     * @param topics The {@code kafka.topic.*} names used by the order service, by property suffix
+     */
+    SagaResponder(String bootstrapServers, Map<String, String> topics) {
+        this.orderEventsTopic = topics.get("order-events");
+        this.reservationEventsTopic = topics.get("inventory-reservation-events");
+        this.paymentEventsTopic = topics.get("payment-events");
+        this.consumer =
+                new KafkaConsumer<>(
+                        Map.of(
+                                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                                ConsumerConfig.GROUP_ID_CONFIG, "load-test-saga-responder",
+                                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"),
+                        new StringDeserializer(),
+                        new ByteArrayDeserializer());
+        this.producer =
+                new KafkaProducer<>(
+                        Map.of(
+                                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                                bootstrapServers,
+                                ProducerConfig.LINGER_MS_CONFIG,
+                                2),
+                        new StringSerializer(),
+                        new ByteArraySerializer());
+        consumer.subscribe(List.of(orderEventsTopic, topics.get("payment-commands")));
+        this.thread = Thread.ofPlatform().name("load-test-saga-responder").daemon().start(this::run);
+    }
+
+    /** The number of replies sent so far. */
+    long replies() {
+        return replies.get();
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(100))) {
+                    reply(record);
+                }
+            }
+        } catch (WakeupException e) {
+            // Closing
+        } finally {
+            consumer.close();
+        }
+    }
+
+    private void reply(ConsumerRecord<String, byte[]> record) {
+        try {
+            if (record.topic().equals(orderEventsTopic)) {
+                OrderEvent event = OrderEvent.parseFrom(record.value());
+                if (event.hasPlaced()) {
+                    send(
+                            reservationEventsTopic,
+                            event.getOrderId(),
+                            InventoryReservationEvent.newBuilder()
+                                    .setOrderId(event.getOrderId())
+                                    .setTimestamp(now())
+                                    .setOrderVersion(event.getPlaced().getVersion())
+                                    .setReserved(InventoryReserved.getDefaultInstance())
+                                    .build()
+                                    .toByteArray());
+                }
+            } else {
+                ProcessPaymentCommand command = ProcessPaymentCommand.parseFrom(record.value());
+                send(
+                        paymentEventsTopic,
+                        command.getOrderId(),
+                        PaymentEvent.newBuilder()
+                                .setOrderId(command.getOrderId())
+                                .setTimestamp(now())
+                                .setOrderVersion(command.getOrderVersion())
+                                .setAuthorized(
+                                        PaymentAuthorized.newBuilder()
+                                                .setPaymentId("load-test-" + command.getOrderId()))
+                                .build()
+                                .toByteArray());
+            }
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Unreadable message on " + record.topic(), e);
+        }
+    }
+
+    private void send(String topic, String key, byte[] value) {
+        producer.send(new ProducerRecord<>(topic, key, value));
+        replies.incrementAndGet();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        consumer.wakeup();
+        thread.join(Duration.ofSeconds(5));
+        producer.close(Duration.ofSeconds(5));
+    }
+
+    private static Timestamp now() {
+        Instant instant = Instant.now();
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.kaizenflow.commerce.order.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Per-minute sales counters for one product, category or the whole shop, held in a ring buffer of
+ * primitive columns with one slot per minute. A slot is reused for a later minute once the ring
+ * wraps, so the series keeps exactly the last {@code slots} minutes it was written to. Not
+ * thread-safe; {@link SalesAggregator} guards all access.
+ */
+final class MinuteSeries {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] minutes;
+    private final long[] revenueMinor;
+    private final long[] orders;
+    private final long[] units;
+    private long latestMinute = EMPTY;
+
+    MinuteSeries(int slots) {
+        this.minutes = new long[slots];
+        this.revenueMinor = new long[slots];
+        this.orders = new long[slots];
+        this.units = new long[slots];
+        Arrays.fill(minutes, EMPTY);
+    }
+
+    /**
+     * Adds sales to a minute. Sales for a minute whose slot already holds a later minute are too old
+     * to keep and are dropped.
+     *
+     * @return Whether the sales were kept
+     */
+    boolean add(long epochMinute, long revenueMinor, long orders, long units) {
+        int slot = slot(epochMinute);
+        if (minutes[slot] != epochMinute) {
+            if (minutes[slot] > epochMinute) {
+                return false;
+            }
+            minutes[slot] = epochMinute;
+            this.revenueMinor[slot] = 0;
+            this.orders[slot] = 0;
+            this.units[slot] = 0;
+        }
+        this.revenueMinor[slot] += revenueMinor;
+        this.orders[slot] += orders;
+        this.units[slot] += units;
+        latestMinute = Math.max(latestMinute, epochMinute);
+        return true;
+    }
+
+    /** Sums the minutes from {@code fromMinute} to {@code toMinute}, both inclusive. */
+    SalesTotals sum(long fromMinute, long toMinute) {
+        long revenue = 0;
+        long orderCount = 0;
+        long unitCount = 0;
+        for (int slot = 0; slot < minutes.length; slot++) {
+            long minute = minutes[slot];
+            if (minute >= fromMinute && minute <= toMinute) {
+                revenue += revenueMinor[slot];
+                orderCount += orders[slot];
+                unitCount += units[slot];
+            }
+        }
+        return new SalesTotals(revenue, orderCount, unitCount);
+    }
+
+    /** Returns the sales of one minute, zero if none were recorded or the minute was overwritten. */
+    SalesTotals at(long epochMinute) {
+        int slot = slot(epochMinute);
+        if (minutes[slot] != epochMinute) {
+            return SalesTotals.ZERO;
+        }
+        return new SalesTotals(revenueMinor[slot], orders[slot], units[slot]);
+    }
+
+    /** Returns the latest minute with sales, or {@link Long#MIN_VALUE} if there are none. */
+    long latestMinute() {
+        return latestMinute;
+    }
+
+    SalesCheckpoint.Series toCheckpoint(String key) {
+        int used = 0;
+        for (long minute : minutes) {
+            if (minute != EMPTY) {
+                used++;
+            }
+        }
+        SalesCheckpoint.Series series =
+                new SalesCheckpoint.Series(
+                        key, new long[used], new long[used], new long[used], new long[used]);
+        int i = 0;
+        for (int slot = 0; slot < minutes.length; slot++) {
+            if (minutes[slot] != EMPTY) {
+                series.getMinutes()[i] = minutes[slot];
+                series.getRevenueMinor()[i] = revenueMinor[slot];
+                series.getOrders()[i] = orders[slot];
+                series.getUnits()[i] = units[slot];
+                i++;
+            }
+        }
+        return series;
+    }
+
+    void restore(SalesCheckpoint.Series series) {
+        for (int i = 0; i < series.getMinutes().length; i++) {
+            add(
+                    series.getMinutes()[i],
+                    series.getRevenueMinor()[i],
+                    series.getOrders()[i],
+                    series.getUnits()[i]);
+        }
+    }
+
+    private int slot(long epochMinute) {
+        return (int) Math.floorMod(epochMinute, (long) minutes.length);
+    }
+}
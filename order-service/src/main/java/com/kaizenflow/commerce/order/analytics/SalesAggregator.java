@@ -0,0 +1,324 @@
+package com.kaizenflow.commerce.order.analytics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.order.catalog.CatalogEntry;
+import com.kaizenflow.commerce.order.catalog.CatalogReplica;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.order.OrderLine;
+import com.kaizenflow.commerce.proto.order.OrderPlaced;
+import com.kaizenflow.commerce.proto.order.OrderStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Live sales figures built in memory from the order events topic: revenue, order counts and units
+ * per minute for the whole shop, for each product and for each product category.
+ *
+ * <p>An order counts as a sale in the minute it is confirmed. Placed orders are held until their
+ * confirmation arrives and dropped if they are rejected or cancelled instead; at most {@code
+ * order.analytics.max-pending} are held, the oldest being evicted first. Each series keeps the last
+ * {@code order.analytics.retention} of minutes in a {@link MinuteSeries}, so dashboards can ask for
+ * any sliding window up to the retention, broken down into one-minute tumbling windows. Categories
+ * come from the {@link CatalogReplica} when the sale is recorded.
+ *
+ * <p>Events are applied by a single listener thread and dashboards are read under the same monitor;
+ * both only touch primitive arrays. The aggregator tracks the next offset to apply per partition,
+ * so events redelivered after a restore from a {@link SalesCheckpoint} are not counted twice.
+ *
+ * <p>Metrics:
+ *
+ * <ul>
+ *   <li>{@code order.analytics.pending} - placed orders waiting for confirmation
+ *   <li>{@code order.analytics.pending.evicted} - placed orders evicted before being confirmed
+ *   <li>{@code order.analytics.late} - confirmed orders too old for the retained minutes
+ * </ul>
+ */
+@Component
+public class SalesAggregator {
+
+    static final String UNCATEGORISED = "uncategorised";
+
+    private final CatalogReplica catalogReplica;
+    private final Clock clock;
+    private final int slots;
+    private final Counter evicted;
+    private final Counter late;
+
+    private final LinkedHashMap<String, OrderPlaced> pending;
+    private MinuteSeries total;
+    private final Map<String, MinuteSeries> products = new HashMap<>();
+    private final Map<String, MinuteSeries> categories = new HashMap<>();
+    private long[] nextOffsets = new long[0];
+    private long applied;
+
+    @Autowired
+    public SalesAggregator(
+            CatalogReplica catalogReplica,
+            MeterRegistry meterRegistry,
+            @Value("${order.analytics.retention}") Duration retention,
+            @Value("${order.analytics.max-pending}") int maxPending) {
+        this(catalogReplica, meterRegistry, retention, maxPending, Clock.systemUTC());
+    }
+
+    SalesAggregator(
+            CatalogReplica catalogReplica,
+            MeterRegistry meterRegistry,
+            Duration retention,
+            int maxPending,
+            Clock clock) {
+        if (retention.toMinutes() < 1) {
+            throw new IllegalArgumentException("Sales retention must be at least one minute");
+        }
+        this.catalogReplica = catalogReplica;
+        this.clock = clock;
+        this.slots = (int) retention.toMinutes();
+        this.total = new MinuteSeries(slots);
+        this.evicted = Counter.builder("order.analytics.pending.evicted").register(meterRegistry);
+        this.late = Counter.builder("order.analytics.late").register(meterRegistry);
+        this.pending =
+                new LinkedHashMap<>() {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, OrderPlaced> eldest) {
+                        if (size() > maxPending) {
+                            evicted.increment();
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+
+        Gauge.builder("order.analytics.pending", this, SalesAggregator::pendingCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies an order event read from the order events topic.
+     *
+     * @param event The event
+     * @param partition The partition it was read from
+     * @param offset Its offset; events before the partition's next offset were already applied
+     */
+    public synchronized void apply(OrderEvent event, int partition, long offset) {
+        if (offset < nextOffset(partition)) {
+            return;
+        }
+        switch (event.getEventCase()) {
+            case PLACED -> pending.put(event.getOrderId(), event.getPlaced());
+            case STATUS_CHANGED -> {
+                OrderStatus status = event.getStatusChanged().getStatus();
+                if (status == OrderStatus.CONFIRMED) {
+                    OrderPlaced placed = pending.remove(event.getOrderId());
+                    if (placed != null) {
+                        record(toEpochMinute(event.getTimestamp()), placed);
+                    }
+                } else if (status == OrderStatus.REJECTED || status == OrderStatus.CANCELLED) {
+                    pending.remove(event.getOrderId());
+                }
+            }
+            default -> {
+                // Other events do not affect sales
+            }
+        }
+        setNextOffset(partition, offset + 1);
+        applied++;
+    }
+
+    /**
+     * Reads the sales over the last {@code windowMinutes} minutes, including the current one.
+     *
+     * @param windowMinutes Length of the window, from one minute up to the retention
+     * @param top Number of top products to include
+     * @return The sales
+     */
+    public synchronized SalesDashboard dashboard(int windowMinutes, int top) {
+        if (windowMinutes < 1 || windowMinutes > slots) {
+            throw new IllegalArgumentException(
+                    "Window must be between 1 and " + slots + " minutes: " + windowMinutes);
+        }
+        if (top < 0) {
+            throw new IllegalArgumentException("Top product count must not be negative: " + top);
+        }
+        long to = currentMinute();
+        long from = to - windowMinutes + 1;
+
+        List<SalesTotals> perMinute = new ArrayList<>(windowMinutes);
+        for (long minute = from; minute <= to; minute++) {
+            perMinute.add(total.at(minute));
+        }
+        List<SalesDashboard.Ranked> byCategory = rank(categories, from, to, Integer.MAX_VALUE);
+        List<SalesDashboard.Ranked> topProducts = rank(products, from, to, top);
+        return new SalesDashboard(from, to, total.sum(from, to), perMinute, byCategory, topProducts);
+    }
+
+    /**
+     * @param partition A partition of the order events topic
+     * @return The offset to resume the partition from, or empty if nothing was applied from it
+     */
+    public synchronized OptionalLong resumeOffset(int partition) {
+        long next = nextOffset(partition);
+        return next < 0 ? OptionalLong.empty() : OptionalLong.of(next);
+    }
+
+    /** Returns the number of events applied so far, for checkpointing only when something changed. */
+    public synchronized long appliedCount() {
+        return applied;
+    }
+
+    /**
+     * Takes a checkpoint of the current state, first dropping series without sales in the retained
+     * minutes.
+     */
+    public synchronized SalesCheckpoint checkpoint() {
+        long oldest = currentMinute() - slots + 1;
+        products.values().removeIf(series -> series.latestMinute() < oldest);
+        categories.values().removeIf(series -> series.latestMinute() < oldest);
+
+        List<SalesCheckpoint.PendingOrder> pendingOrders = new ArrayList<>(pending.size());
+        pending.forEach(
+                (orderId, placed) ->
+                        pendingOrders.add(new SalesCheckpoint.PendingOrder(orderId, placed.toByteArray())));
+        return new SalesCheckpoint(
+                SalesCheckpoint.ID,
+                LocalDateTime.now(clock),
+                nextOffsets.clone(),
+                total.toCheckpoint(null),
+                toCheckpoint(products),
+                toCheckpoint(categories),
+                pendingOrders);
+    }
+
+    /** Replaces the current state with a checkpoint's. */
+    public synchronized void restore(SalesCheckpoint checkpoint) {
+        total = new MinuteSeries(slots);
+        total.restore(checkpoint.getTotal());
+        restore(products, checkpoint.getProducts());
+        restore(categories, checkpoint.getCategories());
+
+        pending.clear();
+        for (SalesCheckpoint.PendingOrder order : checkpoint.getPending()) {
+            try {
+                pending.put(order.getOrderId(), OrderPlaced.parseFrom(order.getPlaced()));
+            } catch (InvalidProtocolBufferException e) {
+                throw new IllegalStateException("Corrupt pending order " + order.getOrderId(), e);
+            }
+        }
+        nextOffsets = checkpoint.getNextOffsets().clone();
+    }
+
+    private void record(long minute, OrderPlaced placed) {
+        if (minute <= currentMinute() - slots) {
+            late.increment();
+            return;
+        }
+        List<OrderLine> lines = placed.getLinesList();
+        String[] productIds = new String[lines.size()];
+        String[] lineCategories = new String[lines.size()];
+        long units = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            productIds[i] = line.getProductId();
+            lineCategories[i] =
+                    catalogReplica
+                            .find(line.getProductId())
+                            .map(CatalogEntry::category)
+                            .orElse(UNCATEGORISED);
+            long revenue = line.getUnitPriceMinor() * line.getQuantity();
+
+            // An order counts once per product and category however many of its lines they have
+            products
+                    .computeIfAbsent(productIds[i], key -> new MinuteSeries(slots))
+                    .add(minute, revenue, firstOccurrence(productIds, i), line.getQuantity());
+            categories
+                    .computeIfAbsent(lineCategories[i], key -> new MinuteSeries(slots))
+                    .add(minute, revenue, firstOccurrence(lineCategories, i), line.getQuantity());
+            units += line.getQuantity();
+        }
+        total.add(minute, placed.getTotalMinor(), 1, units);
+    }
+
+    /** Returns 1 if no element before {@code index} equals the one at it, otherwise 0. */
+    private static long firstOccurrence(String[] keys, int index) {
+        for (int i = 0; i < index; i++) {
+            if (keys[i].equals(keys[index])) {
+                return 0;
+            }
+        }
+        return 1;
+    }
+
+    private static List<SalesDashboard.Ranked> rank(
+            Map<String, MinuteSeries> series, long from, long to, int limit) {
+        List<SalesDashboard.Ranked> ranked = new ArrayList<>();
+        series.forEach(
+                (key, minutes) -> {
+                    SalesTotals totals = minutes.sum(from, to);
+                    if (totals.orders() > 0) {
+                        ranked.add(new SalesDashboard.Ranked(key, totals));
+                    }
+                });
+        ranked.sort(
+                Comparator.comparingLong((SalesDashboard.Ranked r) -> r.totals().revenueMinor())
+                        .reversed()
+                        .thenComparing(SalesDashboard.Ranked::key));
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    private static List<SalesCheckpoint.Series> toCheckpoint(Map<String, MinuteSeries> series) {
+        List<SalesCheckpoint.Series> checkpoint = new ArrayList<>(series.size());
+        series.forEach((key, minutes) -> checkpoint.add(minutes.toCheckpoint(key)));
+        return checkpoint;
+    }
+
+    private void restore(Map<String, MinuteSeries> series, List<SalesCheckpoint.Series> checkpoint) {
+        series.clear();
+        for (SalesCheckpoint.Series entry : checkpoint) {
+            MinuteSeries minutes = new MinuteSeries(slots);
+            minutes.restore(entry);
+            series.put(entry.getKey(), minutes);
+        }
+    }
+
+    private long nextOffset(int partition) {
+        return partition < nextOffsets.length ? nextOffsets[partition] : -1;
+    }
+
+    private void setNextOffset(int partition, long offset) {
+        if (partition >= nextOffsets.length) {
+            int length = nextOffsets.length;
+            nextOffsets = Arrays.copyOf(nextOffsets, partition + 1);
+            Arrays.fill(nextOffsets, length, nextOffsets.length, -1);
+        }
+        nextOffsets[partition] = offset;
+    }
+
+    private synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    private long currentMinute() {
+        return Math.floorDiv(clock.millis(), 60_000L);
+    }
+
+    private static long toEpochMinute(Timestamp timestamp) {
+        return Math.floorDiv(timestamp.getSeconds(), 60L);
+    }
+}
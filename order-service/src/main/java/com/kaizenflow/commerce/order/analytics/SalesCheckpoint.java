@@ -0,0 +1,54 @@
+package com.kaizenflow.commerce.order.analytics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Snapshot of the {@link SalesAggregator}'s state, together with the order events topic offsets it
+ * covers, so a restarted instance resumes from the snapshot instead of replaying the topic.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "sales_checkpoints")
+public class SalesCheckpoint {
+
+    public static final String ID = "sales";
+
+    @Id private String id;
+    private LocalDateTime takenAt;
+    // Next offset to apply, indexed by partition; -1 for partitions with nothing applied
+    private long[] nextOffsets;
+    private Series total;
+    private List<Series> products;
+    private List<Series> categories;
+    private List<PendingOrder> pending;
+
+    /** The non-empty minutes of one series, as parallel arrays. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Series {
+        private String key;
+        private long[] minutes;
+        private long[] revenueMinor;
+        private long[] orders;
+        private long[] units;
+    }
+
+    /** A placed order waiting for confirmation, as its serialized {@code OrderPlaced} event. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PendingOrder {
+        private String orderId;
+        private byte[] placed;
+    }
+}
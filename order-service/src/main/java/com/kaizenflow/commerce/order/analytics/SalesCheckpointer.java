@@ -0,0 +1,88 @@
+package com.kaizenflow.commerce.order.analytics;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Saves the {@link SalesAggregator}'s state to the {@code sales_checkpoints} collection every
+ * {@code order.analytics.checkpoint-interval}, and restores it when the aggregator's listener is
+ * first assigned partitions. Every instance aggregates the whole topic, so all instances write the
+ * same checkpoint and any of them can resume from it.
+ */
+@Component
+@Slf4j
+public class SalesCheckpointer {
+
+    private final SalesAggregator salesAggregator;
+    private final MongoTemplate mongoTemplate;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("sales-checkpointer").daemon().factory());
+
+    private volatile boolean restored;
+    private long checkpointedCount;
+
+    public SalesCheckpointer(
+            SalesAggregator salesAggregator,
+            MongoTemplate mongoTemplate,
+            @Value("${order.analytics.checkpoint-interval}") Duration interval) {
+        this.salesAggregator = salesAggregator;
+        this.mongoTemplate = mongoTemplate;
+        this.interval = interval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(
+                this::checkpoint, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        checkpoint();
+    }
+
+    /**
+     * Restores the aggregator from the last checkpoint, if there is one. Only the first call has an
+     * effect; later partition assignments keep the state built since.
+     */
+    public synchronized void restoreOnce() {
+        if (restored) {
+            return;
+        }
+        SalesCheckpoint checkpoint = mongoTemplate.findById(SalesCheckpoint.ID, SalesCheckpoint.class);
+        if (checkpoint != null) {
+            salesAggregator.restore(checkpoint);
+            log.info("Restored sales figures from checkpoint taken at {}", checkpoint.getTakenAt());
+        }
+        checkpointedCount = salesAggregator.appliedCount();
+        restored = true;
+    }
+
+    /** Saves a checkpoint if events were applied since the last one. */
+    synchronized void checkpoint() {
+        long applied = salesAggregator.appliedCount();
+        if (!restored || applied == checkpointedCount) {
+            return;
+        }
+        try {
+            mongoTemplate.save(salesAggregator.checkpoint());
+            checkpointedCount = applied;
+        } catch (RuntimeException e) {
+            log.error("Sales checkpoint failed", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.kaizenflow.commerce.order.analytics;
+
+import java.util.List;
+
+/**
+ * Sales over a sliding window of whole minutes ending with the current minute.
+ *
+ * @param fromMinute First minute of the window, in minutes since the epoch
+ * @param toMinute Last (current) minute of the window, in minutes since the epoch
+ * @param total Sales over the whole window
+ * @param perMinute Sales of each minute of the window, oldest first
+ * @param categories Sales per product category over the window, highest revenue first
+ * @param topProducts The products with the highest revenue over the window, highest first
+ */
+public record SalesDashboard(
+        long fromMinute,
+        long toMinute,
+        SalesTotals total,
+        List<SalesTotals> perMinute,
+        List<Ranked> categories,
+        List<Ranked> topProducts) {
+
+    /**
+     * @param key The product ID or category
+     * @param totals Its sales over the window
+     */
+    public record Ranked(String key, SalesTotals totals) {}
+}
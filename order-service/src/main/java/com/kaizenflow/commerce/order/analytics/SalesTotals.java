@@ -0,0 +1,13 @@
+package com.kaizenflow.commerce.order.analytics;
+
+/**
+ * Sales over some span of time.
+ *
+ * @param revenueMinor Revenue in minor currency units
+ * @param orders Number of orders
+ * @param units Number of units sold
+ */
+public record SalesTotals(long revenueMinor, long orders, long units) {
+
+    public static final SalesTotals ZERO = new SalesTotals(0, 0, 0);
+}
@@ -0,0 +1,58 @@
+package com.kaizenflow.commerce.order.catalog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Snapshot of one instance's {@link CatalogReplica}, together with the product and inventory topic
+ * offsets it covers, so a new instance starts from the snapshot instead of from whatever is still
+ * retained on the topics.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "catalog_checkpoints")
+public class CatalogCheckpoint {
+
+    // The instance that took the checkpoint
+    @Id private String id;
+    @Indexed private LocalDateTime takenAt;
+    private List<PartitionOffset> nextOffsets;
+    private Products products;
+
+    /** The next offset to apply on a partition of one of the replica's topics. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartitionOffset {
+        private String topic;
+        private int partition;
+        private long offset;
+    }
+
+    /**
+     * Every product in the replica, removed ones included, as parallel arrays with the event time
+     * each column was last set by.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Products {
+        private String[] productIds;
+        private String[] names;
+        private String[] categories;
+        private long[] unitPriceMinor;
+        private long[] priceEventTime;
+        private int[] availableQuantity;
+        private long[] stockEventTime;
+        private boolean[] removed;
+    }
+}
@@ -0,0 +1,159 @@
+package com.kaizenflow.commerce.order.catalog;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Saves the {@link CatalogReplica} to the {@code catalog_checkpoints} collection every {@code
+ * order.catalog.checkpoint-interval}, and restores the newest checkpoint when the replica's
+ * listeners are first assigned partitions. The product and inventory topics only retain a week of
+ * events, so without a checkpoint a new instance would never learn of products that have not
+ * changed since.
+ *
+ * <p>Each instance saves under its own ID, so instances never overwrite each other; checkpoints of
+ * instances that stopped are removed once older than {@code order.catalog.checkpoint-retention}.
+ * Offsets are captured before the products are copied, so a restored replica may replay a few
+ * events it already has, which the replica ignores as not newer.
+ */
+@Component
+@Slf4j
+public class CatalogCheckpointer {
+
+    private final CatalogReplica catalogReplica;
+    private final MongoTemplate mongoTemplate;
+    private final Duration interval;
+    private final Duration retention;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<TopicPartition, Long> nextOffsets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("catalog-checkpointer").daemon().factory());
+
+    private volatile boolean restored;
+    private Map<TopicPartition, Long> checkpointedOffsets = Map.of();
+
+    public CatalogCheckpointer(
+            CatalogReplica catalogReplica,
+            MongoTemplate mongoTemplate,
+            @Value("${order.catalog.checkpoint-interval}") Duration interval,
+            @Value("${order.catalog.checkpoint-retention}") Duration retention) {
+        this.catalogReplica = catalogReplica;
+        this.mongoTemplate = mongoTemplate;
+        this.interval = interval;
+        this.retention = retention;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(
+                this::checkpoint, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        checkpoint();
+    }
+
+    /**
+     * Restores the replica from the newest checkpoint of any instance, if there is one. Only the
+     * first call has an effect. If the checkpoints cannot be read, the replica is rebuilt from the
+     * events still on the topics.
+     */
+    public synchronized void restoreOnce() {
+        if (restored) {
+            return;
+        }
+        try {
+            CatalogCheckpoint checkpoint =
+                    mongoTemplate.findOne(
+                            new Query().with(Sort.by(Sort.Direction.DESC, "takenAt")).limit(1),
+                            CatalogCheckpoint.class);
+            if (checkpoint != null) {
+                catalogReplica.restore(checkpoint.getProducts());
+                checkpoint
+                        .getNextOffsets()
+                        .forEach(
+                                offset ->
+                                        nextOffsets.put(
+                                                new TopicPartition(offset.getTopic(), offset.getPartition()),
+                                                offset.getOffset()));
+                log.info(
+                        "Restored {} products from catalog checkpoint taken at {}",
+                        catalogReplica.size(),
+                        checkpoint.getTakenAt());
+            }
+        } catch (RuntimeException e) {
+            log.error("Catalog checkpoint restore failed, replaying the retained events instead", e);
+        }
+        checkpointedOffsets = Map.copyOf(nextOffsets);
+        restored = true;
+    }
+
+    /**
+     * @param partition A partition of one of the replica's topics
+     * @return The offset to resume the partition from, or null if no checkpoint covers it
+     */
+    public Long resumeOffset(TopicPartition partition) {
+        return nextOffsets.get(partition);
+    }
+
+    /**
+     * Records that the event at an offset was applied to the replica.
+     *
+     * @param topic The topic
+     * @param partition The partition
+     * @param offset The offset of the applied event
+     */
+    public void applied(String topic, int partition, long offset) {
+        nextOffsets.put(new TopicPartition(topic, partition), offset + 1);
+    }
+
+    /** Saves a checkpoint if events were applied since the last one. */
+    synchronized void checkpoint() {
+        Map<TopicPartition, Long> offsets = Map.copyOf(nextOffsets);
+        if (!restored || offsets.equals(checkpointedOffsets)) {
+            return;
+        }
+        try {
+            LocalDateTime takenAt = LocalDateTime.now();
+            mongoTemplate.save(
+                    new CatalogCheckpoint(
+                            instanceId,
+                            takenAt,
+                            offsets.entrySet().stream()
+                                    .map(
+                                            entry ->
+                                                    new CatalogCheckpoint.PartitionOffset(
+                                                            entry.getKey().topic(), entry.getKey().partition(), entry.getValue()))
+                                    .toList(),
+                            catalogReplica.checkpoint()));
+            mongoTemplate.remove(
+                    Query.query(
+                            Criteria.where("_id").ne(instanceId).and("takenAt").lt(takenAt.minus(retention))),
+                    CatalogCheckpoint.class);
+            checkpointedOffsets = offsets;
+        } catch (RuntimeException e) {
+            log.error("Catalog checkpoint failed", e);
+        }
+    }
+}
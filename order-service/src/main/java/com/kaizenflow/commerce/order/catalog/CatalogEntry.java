@@ -0,0 +1,30 @@
+package com.kaizenflow.commerce.order.catalog;
+
+import java.math.BigDecimal;
+
+/**
+ * Point-in-time view of one product in the {@link CatalogReplica}.
+ *
+ * @param productId The product ID
+ * @param name The product name, or null if no product event has been seen yet
+ * @param category The product category, or null if no product event has been seen yet
+ * @param unitPriceMinor The unit price in minor currency units, or {@link CatalogReplica#UNKNOWN}
+ *     if no product event has been seen yet
+ * @param availableQuantity The available stock, or {@link CatalogReplica#UNKNOWN} if no inventory
+ *     event has been seen yet
+ */
+public record CatalogEntry(
+        String productId, String name, String category, long unitPriceMinor, int availableQuantity) {
+
+    public boolean hasPrice() {
+        return unitPriceMinor != CatalogReplica.UNKNOWN;
+    }
+
+    public boolean hasStock(int quantity) {
+        return availableQuantity != CatalogReplica.UNKNOWN && availableQuantity >= quantity;
+    }
+
+    public BigDecimal unitPrice() {
+        return BigDecimal.valueOf(unitPriceMinor, CatalogReplica.PRICE_SCALE);
+    }
+}
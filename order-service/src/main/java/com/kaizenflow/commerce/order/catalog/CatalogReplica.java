@@ -0,0 +1,397 @@
+package com.kaizenflow.commerce.order.catalog;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Local replica of product names, categories, prices and stock levels, fed from the product and
+ * inventory topics so orders can be priced and stock-checked without calling other services.
+ *
+ * <p>Products are stored column-wise in primitive arrays indexed by a slot number, with an
+ * open-addressing table mapping product IDs to slots, so the replica holds no per-product objects
+ * beyond the ID, name and category strings. Updates come from the Kafka listener threads and are
+ * serialised by a {@link StampedLock}; lookups on the order path use optimistic reads and only take
+ * the read lock when a write raced them. Each column keeps the timestamp of the event that last set
+ * it, so events arriving out of order across topics never overwrite newer data.
+ *
+ * <p>Metrics, tagged with {@code source} = {@code product} or {@code inventory}:
+ *
+ * <ul>
+ *   <li>{@code order.catalog.replica.size} - products currently in the replica
+ *   <li>{@code order.catalog.replica.staleness} - seconds since an event was last applied
+ *   <li>{@code order.catalog.replica.lag} - seconds between the last applied event being produced
+ *       and being applied
+ * </ul>
+ */
+@Component
+public class CatalogReplica {
+
+    /** Marker for a price or quantity that has not been received yet. */
+    public static final int UNKNOWN = -1;
+
+    /** Number of decimal places held by minor-unit prices. */
+    public static final int PRICE_SCALE = 2;
+
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final Clock clock;
+    private final StampedLock lock = new StampedLock();
+    private final SourceClock productSource = new SourceClock();
+    private final SourceClock inventorySource = new SourceClock();
+
+    private Table table = new Table(INITIAL_SLOTS);
+    private int slotCount;
+    private volatile int liveCount;
+
+    @Autowired
+    public CatalogReplica(MeterRegistry meterRegistry) {
+        this(meterRegistry, Clock.systemUTC());
+    }
+
+    CatalogReplica(MeterRegistry meterRegistry, Clock clock) {
+        this.clock = clock;
+
+        Gauge.builder("order.catalog.replica.size", this, CatalogReplica::size).register(meterRegistry);
+        registerSourceGauges(meterRegistry, "product", productSource);
+        registerSourceGauges(meterRegistry, "inventory", inventorySource);
+    }
+
+    /**
+     * Looks up a product without blocking on concurrent updates in the common case.
+     *
+     * @param productId The product ID
+     * @return The product's current name, category, price and stock, or empty if unknown or removed
+     */
+    public Optional<CatalogEntry> find(String productId) {
+        long stamp = lock.tryOptimisticRead();
+        CatalogEntry entry = read(table, productId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                entry = read(table, productId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * Sets a product's unit price, restoring it if it had been removed.
+     *
+     * @param productId The product ID
+     * @param unitPriceMinor The unit price in minor currency units
+     * @param eventTimeMillis When the product event was produced; older events are ignored
+     */
+    public void updatePrice(String productId, long unitPriceMinor, long eventTimeMillis) {
+        updateProduct(productId, null, null, unitPriceMinor, eventTimeMillis);
+    }
+
+    /**
+     * Sets a product's name, category and unit price, restoring it if it had been removed.
+     *
+     * @param productId The product ID
+     * @param name The product name, or null to keep the current one
+     * @param category The product category, or null to keep the current one
+     * @param unitPriceMinor The unit price in minor currency units
+     * @param eventTimeMillis When the product event was produced; older events are ignored
+     */
+    public void updateProduct(
+            String productId, String name, String category, long unitPriceMinor, long eventTimeMillis) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotFor(productId);
+            Table t = table;
+            if (eventTimeMillis >= t.priceEventTime[slot]) {
+                if (t.removed[slot]) {
+                    t.removed[slot] = false;
+                    liveCount++;
+                }
+                if (name != null) {
+                    t.names[slot] = name;
+                }
+                if (category != null) {
+                    t.categories[slot] = category;
+                }
+                t.unitPriceMinor[slot] = unitPriceMinor;
+                t.priceEventTime[slot] = eventTimeMillis;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        productSource.applied(clock.millis(), eventTimeMillis);
+    }
+
+    /**
+     * Sets a product's available stock.
+     *
+     * @param productId The product ID
+     * @param availableQuantity The available quantity
+     * @param eventTimeMillis When the inventory event was produced; older events are ignored
+     */
+    public void updateStock(String productId, int availableQuantity, long eventTimeMillis) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotFor(productId);
+            Table t = table;
+            if (eventTimeMillis >= t.stockEventTime[slot]) {
+                t.availableQuantity[slot] = availableQuantity;
+                t.stockEventTime[slot] = eventTimeMillis;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        inventorySource.applied(clock.millis(), eventTimeMillis);
+    }
+
+    /**
+     * Removes a product from the replica. Its slot is kept so that a late, older update cannot bring
+     * it back.
+     *
+     * @param productId The product ID
+     * @param eventTimeMillis When the product event was produced; older events are ignored
+     */
+    public void remove(String productId, long eventTimeMillis) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotFor(productId);
+            Table t = table;
+            if (eventTimeMillis >= t.priceEventTime[slot]) {
+                if (!t.removed[slot]) {
+                    t.removed[slot] = true;
+                    liveCount--;
+                }
+                t.priceEventTime[slot] = eventTimeMillis;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        productSource.applied(clock.millis(), eventTimeMillis);
+    }
+
+    /**
+     * Copies every product for a {@link CatalogCheckpoint}, including removed products so a late,
+     * older update cannot bring them back after a restore.
+     */
+    public CatalogCheckpoint.Products checkpoint() {
+        long stamp = lock.readLock();
+        try {
+            Table t = table;
+            int used = slotCount;
+            return new CatalogCheckpoint.Products(
+                    Arrays.copyOf(t.productIds, used),
+                    Arrays.copyOf(t.names, used),
+                    Arrays.copyOf(t.categories, used),
+                    Arrays.copyOf(t.unitPriceMinor, used),
+                    Arrays.copyOf(t.priceEventTime, used),
+                    Arrays.copyOf(t.availableQuantity, used),
+                    Arrays.copyOf(t.stockEventTime, used),
+                    Arrays.copyOf(t.removed, used));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Merges a checkpoint into the replica. Like events, each column of a checkpointed product only
+     * replaces an older one, so events applied before the restore are kept.
+     *
+     * @param products The checkpointed products
+     */
+    public void restore(CatalogCheckpoint.Products products) {
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < products.getProductIds().length; i++) {
+                int slot = slotFor(products.getProductIds()[i]);
+                Table t = table;
+                if (products.getPriceEventTime()[i] >= t.priceEventTime[slot]) {
+                    boolean removed = products.getRemoved()[i];
+                    if (removed != t.removed[slot]) {
+                        t.removed[slot] = removed;
+                        liveCount += removed ? -1 : 1;
+                    }
+                    t.names[slot] = products.getNames()[i];
+                    t.categories[slot] = products.getCategories()[i];
+                    t.unitPriceMinor[slot] = products.getUnitPriceMinor()[i];
+                    t.priceEventTime[slot] = products.getPriceEventTime()[i];
+                }
+                if (products.getStockEventTime()[i] >= t.stockEventTime[slot]) {
+                    t.availableQuantity[slot] = products.getAvailableQuantity()[i];
+                    t.stockEventTime[slot] = products.getStockEventTime()[i];
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Returns the number of products currently in the replica. */
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * Converts a price as carried on product events to minor currency units.
+     *
+     * @param price The price in major units
+     * @return The price in minor units, rounded half-even
+     */
+    public static long toMinorUnits(double price) {
+        return BigDecimal.valueOf(price)
+                .setScale(PRICE_SCALE, RoundingMode.HALF_EVEN)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    /**
+     * Reads an entry from a table that may be concurrently modified. Torn reads are tolerated since
+     * the caller validates its stamp and retries under the read lock.
+     */
+    private static CatalogEntry read(Table t, String productId) {
+        int mask = t.buckets.length - 1;
+        for (int i = spread(productId.hashCode()) & mask; ; i = (i + 1) & mask) {
+            int slot = t.buckets[i] - 1;
+            if (slot < 0) {
+                return null;
+            }
+            if (productId.equals(t.productIds[slot])) {
+                if (t.removed[slot]) {
+                    return null;
+                }
+                return new CatalogEntry(
+                        productId,
+                        t.names[slot],
+                        t.categories[slot],
+                        t.unitPriceMinor[slot],
+                        t.availableQuantity[slot]);
+            }
+        }
+    }
+
+    /** Finds the slot for a product, allocating one if needed. Must hold the write lock. */
+    private int slotFor(String productId) {
+        Table t = table;
+        int mask = t.buckets.length - 1;
+        int i = spread(productId.hashCode()) & mask;
+        for (; t.buckets[i] != 0; i = (i + 1) & mask) {
+            int slot = t.buckets[i] - 1;
+            if (productId.equals(t.productIds[slot])) {
+                return slot;
+            }
+        }
+
+        if (slotCount == t.productIds.length) {
+            table = t = t.grow(slotCount);
+            return slotFor(productId);
+        }
+
+        int slot = slotCount++;
+        t.productIds[slot] = productId;
+        t.unitPriceMinor[slot] = UNKNOWN;
+        t.priceEventTime[slot] = Long.MIN_VALUE;
+        t.availableQuantity[slot] = UNKNOWN;
+        t.stockEventTime[slot] = Long.MIN_VALUE;
+        t.removed[slot] = true;
+        t.buckets[i] = slot + 1;
+        return slot;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void registerSourceGauges(
+            MeterRegistry registry, String source, SourceClock sourceClock) {
+        Gauge.builder(
+                        "order.catalog.replica.staleness",
+                        sourceClock,
+                        s -> s.lastAppliedAt == 0 ? Double.NaN : (clock.millis() - s.lastAppliedAt) / 1000.0)
+                .tag("source", source)
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder(
+                        "order.catalog.replica.lag",
+                        sourceClock,
+                        s -> s.lastAppliedAt == 0 ? Double.NaN : s.lastLagMillis / 1000.0)
+                .tag("source", source)
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Slot columns plus the ID index. Replaced as a whole when it grows, so optimistic readers always
+     * see arrays of matching sizes.
+     */
+    private static final class Table {
+
+        // Slot + 1 per bucket, 0 marking an empty bucket; kept at most half full
+        final int[] buckets;
+        final String[] productIds;
+        final String[] names;
+        final String[] categories;
+        final long[] unitPriceMinor;
+        final long[] priceEventTime;
+        final int[] availableQuantity;
+        final long[] stockEventTime;
+        final boolean[] removed;
+
+        Table(int slots) {
+            this.buckets = new int[slots * 2];
+            this.productIds = new String[slots];
+            this.names = new String[slots];
+            this.categories = new String[slots];
+            this.unitPriceMinor = new long[slots];
+            this.priceEventTime = new long[slots];
+            this.availableQuantity = new int[slots];
+            this.stockEventTime = new long[slots];
+            this.removed = new boolean[slots];
+        }
+
+        private Table(Table from, int slots, int used) {
+            this.buckets = new int[slots * 2];
+            this.productIds = Arrays.copyOf(from.productIds, slots);
+            this.names = Arrays.copyOf(from.names, slots);
+            this.categories = Arrays.copyOf(from.categories, slots);
+            this.unitPriceMinor = Arrays.copyOf(from.unitPriceMinor, slots);
+            this.priceEventTime = Arrays.copyOf(from.priceEventTime, slots);
+            this.availableQuantity = Arrays.copyOf(from.availableQuantity, slots);
+            this.stockEventTime = Arrays.copyOf(from.stockEventTime, slots);
+            this.removed = Arrays.copyOf(from.removed, slots);
+
+            int mask = buckets.length - 1;
+            for (int slot = 0; slot < used; slot++) {
+                int i = spread(productIds[slot].hashCode()) & mask;
+                while (buckets[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                buckets[i] = slot + 1;
+            }
+        }
+
+        Table grow(int used) {
+            return new Table(this, productIds.length * 2, used);
+        }
+    }
+
+    /** Apply times for one source topic, read by the staleness and lag gauges. */
+    private static final class SourceClock {
+
+        volatile long lastAppliedAt;
+        volatile long lastLagMillis;
+
+        void applied(long appliedAt, long eventTimeMillis) {
+            lastLagMillis = Math.max(0, appliedAt - eventTimeMillis);
+            lastAppliedAt = appliedAt;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.kaizenflow.commerce.order.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import com.google.protobuf.Message;
+import com.kaizenflow.commerce.messaging.consumer.ByteBufferErrorHandlingDeserializer;
+import com.kaizenflow.commerce.messaging.consumer.InstanceConsumerGroups;
+import com.kaizenflow.commerce.order.listeners.CatalogReplicaListener;
+import com.kaizenflow.commerce.order.listeners.SalesListener;
+import com.kaizenflow.commerce.proto.inventory.InventoryReservationEvent;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.payment.PaymentEvent;
+import com.kaizenflow.commerce.proto.serde.EventBatches;
+import com.kaizenflow.commerce.proto.serde.ProtobufDeserializer;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Bean
+    public ConsumerFactory<String, Message> productEventConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(
+                replicaConsumerProps(), new StringDeserializer(), EventBatches.productEventDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Message>
+            productEventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Message> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(productEventConsumerFactory());
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, Message> inventoryUpdateEventConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(
+                replicaConsumerProps(),
+                new StringDeserializer(),
+                EventBatches.inventoryUpdateDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Message>
+            inventoryUpdateEventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Message> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(inventoryUpdateEventConsumerFactory());
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, InventoryReservationEvent> reservationEventConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(
+                sagaConsumerProps(),
+                new StringDeserializer(),
+                new ByteBufferErrorHandlingDeserializer<>(
+                        new ProtobufDeserializer<>(InventoryReservationEvent.parser())));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, InventoryReservationEvent>
+            reservationEventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, InventoryReservationEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(reservationEventConsumerFactory());
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, PaymentEvent> paymentEventConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(
+                sagaConsumerProps(),
+                new StringDeserializer(),
+                new ByteBufferErrorHandlingDeserializer<>(
+                        new ProtobufDeserializer<>(PaymentEvent.parser())));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentEvent>
+            paymentEventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(paymentEventConsumerFactory());
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, OrderEvent> orderHistoryConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "order-history");
+        // A new projection is built from everything still on the topic
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ProtobufDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(
+                configProps,
+                new StringDeserializer(),
+                new ByteBufferErrorHandlingDeserializer<>(new ProtobufDeserializer<>(OrderEvent.parser())));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent>
+            orderHistoryKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(orderHistoryConsumerFactory());
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, OrderEvent> salesConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(
+                replicaConsumerProps(),
+                new StringDeserializer(),
+                new ProtobufDeserializer<>(OrderEvent.parser()));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderEvent>
+            salesKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(salesConsumerFactory());
+        return factory;
+    }
+
+    /** Removes the catalog replica's and sales aggregator's consumer groups on shutdown. */
+    @Bean
+    public InstanceConsumerGroups instanceConsumerGroups(
+            KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
+            KafkaAdmin kafkaAdmin,
+            @Value("${kafka.consumer.group-delete-timeout}") Duration groupDeleteTimeout) {
+        return new InstanceConsumerGroups(
+                kafkaListenerEndpointRegistry,
+                kafkaAdmin,
+                List.of(
+                        CatalogReplicaListener.PRODUCT_LISTENER_ID,
+                        CatalogReplicaListener.INVENTORY_LISTENER_ID,
+                        SalesListener.LISTENER_ID),
+                groupDeleteTimeout);
+    }
+
+    /**
+     * Consumer settings for saga replies, shared by all instances through one consumer group. The
+     * saga and history listeners read values through a {@link ByteBufferErrorHandlingDeserializer},
+     * so a record that cannot be deserialized is dead-lettered instead of failing every poll.
+     */
+    private Map<String, Object> sagaConsumerProps() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "order-group");
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ProtobufDeserializer.class);
+        return configProps;
+    }
+
+    /**
+     * Consumer settings for the catalog replica and sales aggregator. Each instance builds its own
+     * state in a consumer group of its own, seeking to its checkpoint's offsets when assigned; other
+     * partitions begin at the earliest offset.
+     */
+    private Map<String, Object> replicaConsumerProps() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ProtobufDeserializer.class);
+        return configProps;
+    }
+}
@@ -0,0 +1,103 @@
+package com.kaizenflow.commerce.order.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import com.kaizenflow.commerce.messaging.producer.ProducerProfile;
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+import com.kaizenflow.commerce.messaging.publisher.PublisherSettings;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.payment.ProcessPaymentCommand;
+import com.kaizenflow.commerce.proto.payment.VoidPaymentCommand;
+import com.kaizenflow.commerce.proto.serde.ProtobufSerializer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class KafkaProducerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${kafka.publisher.max-in-flight}")
+    private int maxInFlight;
+
+    @Bean
+    public ProducerFactory<String, OrderEvent> orderEventProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerProps());
+    }
+
+    @Bean
+    public KafkaTemplate<String, OrderEvent> orderEventKafkaTemplate(
+            ProducerFactory<String, OrderEvent> orderEventProducerFactory) {
+        return new KafkaTemplate<>(orderEventProducerFactory);
+    }
+
+    @Bean
+    public AsyncEventPublisher<OrderEvent> orderEventPublisher(
+            KafkaTemplate<String, OrderEvent> orderEventKafkaTemplate, MeterRegistry meterRegistry) {
+        return new AsyncEventPublisher<>(
+                "order-events", orderEventKafkaTemplate, meterRegistry, publisherSettings());
+    }
+
+    @Bean
+    public ProducerFactory<String, ProcessPaymentCommand> paymentCommandProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerProps());
+    }
+
+    @Bean
+    public KafkaTemplate<String, ProcessPaymentCommand> paymentCommandKafkaTemplate(
+            ProducerFactory<String, ProcessPaymentCommand> paymentCommandProducerFactory) {
+        return new KafkaTemplate<>(paymentCommandProducerFactory);
+    }
+
+    @Bean
+    public AsyncEventPublisher<ProcessPaymentCommand> paymentCommandPublisher(
+            KafkaTemplate<String, ProcessPaymentCommand> paymentCommandKafkaTemplate,
+            MeterRegistry meterRegistry) {
+        return new AsyncEventPublisher<>(
+                "payment-commands", paymentCommandKafkaTemplate, meterRegistry, publisherSettings());
+    }
+
+    @Bean
+    public ProducerFactory<String, VoidPaymentCommand> voidPaymentProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerProps());
+    }
+
+    @Bean
+    public KafkaTemplate<String, VoidPaymentCommand> voidPaymentKafkaTemplate(
+            ProducerFactory<String, VoidPaymentCommand> voidPaymentProducerFactory) {
+        return new KafkaTemplate<>(voidPaymentProducerFactory);
+    }
+
+    @Bean
+    public AsyncEventPublisher<VoidPaymentCommand> voidPaymentPublisher(
+            KafkaTemplate<String, VoidPaymentCommand> voidPaymentKafkaTemplate,
+            MeterRegistry meterRegistry) {
+        return new AsyncEventPublisher<>(
+                "payment-voids", voidPaymentKafkaTemplate, meterRegistry, publisherSettings());
+    }
+
+    private Map<String, Object> producerProps() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ProtobufSerializer.class);
+        // Saga steps publish from request and listener threads, which must not hang on the broker
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, ProducerProfile.MAX_BLOCK_MS);
+        return configProps;
+    }
+
+    private PublisherSettings publisherSettings() {
+        return new PublisherSettings(maxInFlight);
+    }
+}
@@ -0,0 +1,35 @@
+package com.kaizenflow.commerce.order.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    @Value("${kafka.topic.order-events}")
+    private String orderEventsTopic;
+
+    @Value("${kafka.topic.payment-commands}")
+    private String paymentCommandsTopic;
+
+    @Value("${kafka.topic.payment-voids}")
+    private String paymentVoidsTopic;
+
+    @Bean
+    public NewTopic orderEventsTopic() {
+        return TopicBuilder.name(orderEventsTopic).build();
+    }
+
+    @Bean
+    public NewTopic paymentCommandsTopic() {
+        return TopicBuilder.name(paymentCommandsTopic).build();
+    }
+
+    @Bean
+    public NewTopic paymentVoidsTopic() {
+        return TopicBuilder.name(paymentVoidsTopic).build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.kaizenflow.commerce.order.config;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import com.kaizenflow.commerce.order.domain.model.Money;
+
+/** Stores {@link Money} as {@code {amountMinor, currency}}. */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions(
+            @Value("${order.currency}") Currency defaultCurrency) {
+        return new MongoCustomConversions(
+                List.of(
+                        new MoneyWritingConverter(),
+                        new MoneyReadingConverter(),
+                        new LegacyMoneyReadingConverter(defaultCurrency)));
+    }
+
+    @WritingConverter
+    static class MoneyWritingConverter implements Converter<Money, Document> {
+        @Override
+        public Document convert(Money money) {
+            return new Document("amountMinor", money.amountMinor())
+                    .append("currency", money.currency().getCurrencyCode());
+        }
+    }
+
+    @ReadingConverter
+    static class MoneyReadingConverter implements Converter<Document, Money> {
+        @Override
+        public Money convert(Document document) {
+            return new Money(
+                    ((Number) document.get("amountMinor")).longValue(),
+                    Currency.getInstance(document.getString("currency")));
+        }
+    }
+
+    /** Reads amounts stored as decimal strings before they carried a currency. */
+    @ReadingConverter
+    static class LegacyMoneyReadingConverter implements Converter<String, Money> {
+        private final Currency currency;
+
+        LegacyMoneyReadingConverter(Currency currency) {
+            this.currency = currency;
+        }
+
+        @Override
+        public Money convert(String amount) {
+            return Money.of(new BigDecimal(amount), currency);
+        }
+    }
+}
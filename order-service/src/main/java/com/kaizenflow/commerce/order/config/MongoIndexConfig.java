@@ -0,0 +1,60 @@
+package com.kaizenflow.commerce.order.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import com.kaizenflow.commerce.order.catalog.CatalogCheckpoint;
+import com.kaizenflow.commerce.order.domain.model.ArchivedOrder;
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.history.OrderHistoryBucket;
+import com.kaizenflow.commerce.order.history.PendingStatusChange;
+import com.kaizenflow.commerce.order.idempotency.IdempotencyRecord;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the indexes declared on the order service's documents, such as {@link Order} and {@link
+ * ArchivedOrder}, once the application is up. Done off the startup thread rather than through
+ * automatic index creation, so an unreachable database delays indexing instead of failing startup.
+ */
+@Configuration
+@Slf4j
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        Thread.ofPlatform().name("order-index-init").daemon().start(this::createOrderIndexes);
+    }
+
+    private void createOrderIndexes() {
+        try {
+            IndexResolver resolver =
+                    new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            for (Class<?> type :
+                    List.of(
+                            Order.class,
+                            ArchivedOrder.class,
+                            OrderHistoryBucket.class,
+                            PendingStatusChange.class,
+                            CatalogCheckpoint.class,
+                            IdempotencyRecord.class)) {
+                IndexOperations indexOps = mongoTemplate.indexOps(type);
+                resolver.resolveIndexFor(type).forEach(indexOps::ensureIndex);
+            }
+            log.info("Ensured indexes on the order collections");
+        } catch (RuntimeException e) {
+            log.error("Failed to create indexes on the order collections", e);
+        }
+    }
+}
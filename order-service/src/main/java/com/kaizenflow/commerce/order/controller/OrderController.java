@@ -1,17 +1,28 @@
 package com.kaizenflow.commerce.order.controller;
 
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.kaizenflow.commerce.order.api.OrdersApi;
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.domain.model.OrderPage;
+import com.kaizenflow.commerce.order.history.OrderHistoryProjection;
+import com.kaizenflow.commerce.order.idempotency.IdempotentOrderSubmitter;
 import com.kaizenflow.commerce.order.mappers.OrderMapper;
 import com.kaizenflow.commerce.order.model.OrderDTO;
+import com.kaizenflow.commerce.order.model.OrderHistoryDTO;
+import com.kaizenflow.commerce.order.model.OrderPageDTO;
 import com.kaizenflow.commerce.order.model.OrderRequestDTO;
+import com.kaizenflow.commerce.order.model.OrderStatusUpdateDTO;
+import com.kaizenflow.commerce.order.model.OrderUpdateDTO;
 import com.kaizenflow.commerce.order.service.OrderService;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @RestController
@@ -19,37 +30,153 @@ import lombok.extern.slf4j.Slf4j;
 public class OrderController implements OrdersApi {
     private final OrderService orderService;
 
+    private final OrderHistoryProjection orderHistoryProjection;
+
+    private final IdempotentOrderSubmitter idempotentOrderSubmitter;
+
     private final OrderMapper orderMapper;
 
     @Autowired
-    public OrderController(OrderService orderService, OrderMapper orderMapper) {
+    public OrderController(
+            OrderService orderService,
+            OrderHistoryProjection orderHistoryProjection,
+            IdempotentOrderSubmitter idempotentOrderSubmitter,
+            OrderMapper orderMapper) {
         this.orderService = orderService;
+        this.orderHistoryProjection = orderHistoryProjection;
+        this.idempotentOrderSubmitter = idempotentOrderSubmitter;
         this.orderMapper = orderMapper;
     }
 
     @Override
-    public ResponseEntity<Void> ordersGet(String customerId, String status) {
-        return OrdersApi.super.ordersGet(customerId, status);
+    public ResponseEntity<OrderPageDTO> ordersGet(
+            String customerId, String status, Integer pageSize, String pageToken) {
+        try {
+            Order.OrderStatus orderStatus = status == null ? null : Order.OrderStatus.valueOf(status);
+            OrderPage page = orderService.getOrders(customerId, orderStatus, pageSize, pageToken);
+            return ResponseEntity.ok(orderMapper.toPageDTO(page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @Override
-    public ResponseEntity<Void> ordersOrderIdDelete(String orderId) {
-        return OrdersApi.super.ordersOrderIdDelete(orderId);
+    public ResponseEntity<OrderDTO> ordersOrderIdDelete(String orderId) {
+        try {
+            Order cancelled = orderService.cancelOrder(orderId);
+            if (cancelled == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(orderMapper.toDTO(cancelled));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @Override
-    public ResponseEntity<Void> ordersOrderIdGet(String orderId) {
-        return OrdersApi.super.ordersOrderIdGet(orderId);
+    public ResponseEntity<OrderDTO> ordersOrderIdStatusPut(
+            String orderId, OrderStatusUpdateDTO orderStatusUpdateDTO) {
+        try {
+            Order updated =
+                    orderService.updateOrderStatus(
+                            orderId, Order.OrderStatus.valueOf(orderStatusUpdateDTO.getStatus().getValue()));
+            if (updated == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(orderMapper.toDTO(updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @Override
-    public ResponseEntity<Void> ordersOrderIdPut(String orderId) {
-        return OrdersApi.super.ordersOrderIdPut(orderId);
+    public ResponseEntity<OrderDTO> ordersOrderIdGet(String orderId) {
+        return orderService
+                .getOrderById(orderId)
+                .map(order -> ResponseEntity.ok(orderMapper.toDTO(order)))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @Override
-    public ResponseEntity<OrderDTO> ordersPost(OrderRequestDTO orderRequestDTO) {
-        return new ResponseEntity<>(
-                orderMapper.toDTO(orderService.createOrder(orderRequestDTO)), HttpStatus.CREATED);
+    public ResponseEntity<OrderHistoryDTO> ordersHistoryCustomerIdGet(
+            String customerId, Integer bucket) {
+        if (bucket == null) {
+            return orderHistoryProjection
+                    .findHistory(customerId)
+                    .map(
+                            history ->
+                                    ResponseEntity.ok(
+                                            new OrderHistoryDTO()
+                                                    .customerId(customerId)
+                                                    .orderCount(history.getOrderCount())
+                                                    .orders(orderMapper.toSummaryDTOs(history.getRecent()))
+                                                    .olderBuckets(orderHistoryProjection.bucketCount(history))))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+
+        // Buckets hold their orders oldest first
+        return orderHistoryProjection
+                .findBucket(customerId, bucket)
+                .map(
+                        found ->
+                                ResponseEntity.ok(
+                                        new OrderHistoryDTO()
+                                                .customerId(customerId)
+                                                .orders(orderMapper.toSummaryDTOs(found.getOrders().reversed()))
+                                                .olderBuckets(bucket)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Override
+    public ResponseEntity<OrderDTO> ordersOrderIdPut(String orderId, OrderUpdateDTO orderUpdateDTO) {
+        try {
+            Order updated = orderService.updateOrder(orderId, orderUpdateDTO.getItems());
+            if (updated == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(orderMapper.toDTO(updated));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected update of order {}: {}", orderId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<OrderDTO> ordersPost(
+            OrderRequestDTO orderRequestDTO, String idempotencyKey) {
+        try {
+            Order created =
+                    idempotencyKey == null
+                            ? orderService.createOrder(orderRequestDTO)
+                            : idempotentOrderSubmitter.submit(
+                                    idempotencyKey,
+                                    orderRequestDTO,
+                                    orderId -> orderService.createOrder(orderRequestDTO, orderId));
+            OrderDTO order = orderMapper.toDTO(created);
+
+            // Placement completes asynchronously; the client follows the order's status resource
+            URI location =
+                    ServletUriComponentsBuilder.fromCurrentRequest()
+                            .path("/{orderId}")
+                            .buildAndExpand(order.getId())
+                            .toUri();
+            return ResponseEntity.accepted().location(location).body(order);
+        } catch (IllegalArgumentException e) {
+            log.warn(
+                    "Rejected order for customer {}: {}", orderRequestDTO.getCustomerId(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn(
+                    "Rejected order for customer {}: {}", orderRequestDTO.getCustomerId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RejectedExecutionException e) {
+            log.warn(
+                    "Rejected order for customer {}: {}", orderRequestDTO.getCustomerId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
 }
@@ -0,0 +1,73 @@
+package com.kaizenflow.commerce.order.controller;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.kaizenflow.commerce.order.analytics.SalesAggregator;
+import com.kaizenflow.commerce.order.analytics.SalesDashboard;
+import com.kaizenflow.commerce.order.analytics.SalesTotals;
+import com.kaizenflow.commerce.order.api.AnalyticsApi;
+import com.kaizenflow.commerce.order.domain.model.Money;
+import com.kaizenflow.commerce.order.model.SalesDashboardDTO;
+import com.kaizenflow.commerce.order.model.SalesTotalsDTO;
+
+@RestController
+public class SalesController implements AnalyticsApi {
+    private final SalesAggregator salesAggregator;
+
+    private final Currency currency;
+
+    public SalesController(
+            SalesAggregator salesAggregator, @Value("${order.currency}") Currency currency) {
+        this.salesAggregator = salesAggregator;
+        this.currency = currency;
+    }
+
+    @Override
+    public ResponseEntity<SalesDashboardDTO> analyticsSalesGet(Integer windowMinutes, Integer top) {
+        SalesDashboard dashboard;
+        try {
+            dashboard = salesAggregator.dashboard(windowMinutes, top);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<SalesTotalsDTO> perMinute = new ArrayList<>(dashboard.perMinute().size());
+        for (int i = 0; i < dashboard.perMinute().size(); i++) {
+            perMinute.add(
+                    toDTO(dashboard.perMinute().get(i)).minute(toDateTime(dashboard.fromMinute() + i)));
+        }
+        return ResponseEntity.ok(
+                new SalesDashboardDTO()
+                        .from(toDateTime(dashboard.fromMinute()))
+                        .to(toDateTime(dashboard.toMinute() + 1))
+                        .currency(currency.getCurrencyCode())
+                        .total(toDTO(dashboard.total()))
+                        .perMinute(perMinute)
+                        .categories(dashboard.categories().stream().map(this::toDTO).toList())
+                        .topProducts(dashboard.topProducts().stream().map(this::toDTO).toList()));
+    }
+
+    private SalesTotalsDTO toDTO(SalesDashboard.Ranked ranked) {
+        return toDTO(ranked.totals()).key(ranked.key());
+    }
+
+    private SalesTotalsDTO toDTO(SalesTotals totals) {
+        return new SalesTotalsDTO()
+                .revenue(new Money(totals.revenueMinor(), currency).toDecimal())
+                .orders(totals.orders())
+                .units(totals.units());
+    }
+
+    private static OffsetDateTime toDateTime(long epochMinute) {
+        return Instant.ofEpochSecond(epochMinute * 60).atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,109 @@
+package com.kaizenflow.commerce.order.domain.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.kaizenflow.commerce.order.model.OrderItemDTO;
+import com.kaizenflow.commerce.proto.order.ArchivedOrderItems;
+import com.kaizenflow.commerce.proto.order.OrderLine;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A delivered or cancelled order moved out of the orders collection. Same fields as {@link Order},
+ * except that the items are stored as one protobuf-encoded {@link ArchivedOrderItems} blob.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "orders_archive")
+// Archived orders are only listed newest first, per customer or across all customers
+@CompoundIndexes({
+    @CompoundIndex(name = "customer_created", def = "{'customerId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "created", def = "{'createdAt': -1, '_id': -1}")
+})
+public class ArchivedOrder {
+    @Id private String id;
+    private String customerId;
+    private byte[] items;
+    private Order.OrderStatus status;
+    private Money totalAmount;
+    private String paymentId;
+    private String failureReason;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
+    private List<StatusChange> statusHistory;
+    private LocalDateTime archivedAt;
+
+    public static ArchivedOrder from(Order order, LocalDateTime archivedAt) {
+        int scale = order.getTotalAmount().currency().getDefaultFractionDigits();
+        ArchivedOrderItems.Builder items = ArchivedOrderItems.newBuilder();
+        for (OrderItemDTO item : order.getItems()) {
+            items.addLines(
+                    OrderLine.newBuilder()
+                            .setProductId(item.getProductId())
+                            .setQuantity(item.getQuantity())
+                            .setUnitPriceMinor(
+                                    item.getUnitPrice().setScale(scale).unscaledValue().longValueExact()));
+        }
+
+        return ArchivedOrder.builder()
+                .id(order.getId())
+                .customerId(order.getCustomerId())
+                .items(items.build().toByteArray())
+                .status(order.getStatus())
+                .totalAmount(order.getTotalAmount())
+                .paymentId(order.getPaymentId())
+                .failureReason(order.getFailureReason())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .version(order.getVersion())
+                .statusHistory(order.getStatusHistory())
+                .archivedAt(archivedAt)
+                .build();
+    }
+
+    public Order toOrder() {
+        int scale = totalAmount.currency().getDefaultFractionDigits();
+        List<OrderItemDTO> orderItems;
+        try {
+            orderItems =
+                    ArchivedOrderItems.parseFrom(items).getLinesList().stream()
+                            .map(
+                                    line ->
+                                            new OrderItemDTO()
+                                                    .productId(line.getProductId())
+                                                    .quantity(line.getQuantity())
+                                                    .unitPrice(BigDecimal.valueOf(line.getUnitPriceMinor(), scale)))
+                            .toList();
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Corrupt items in archived order " + id, e);
+        }
+
+        return Order.builder()
+                .id(id)
+                .customerId(customerId)
+                .items(orderItems)
+                .status(status)
+                .totalAmount(totalAmount)
+                .paymentId(paymentId)
+                .failureReason(failureReason)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .version(version)
+                .statusHistory(statusHistory)
+                .build();
+    }
+}
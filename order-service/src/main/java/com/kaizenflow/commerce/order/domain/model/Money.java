@@ -0,0 +1,142 @@
+package com.kaizenflow.commerce.order.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * An amount of money held as a whole number of minor currency units (e.g. pence for GBP).
+ *
+ * <p>Arithmetic is exact and overflow throws {@link ArithmeticException}. The only operation that
+ * can produce fractions of a minor unit is {@link #multiply}, used for discounts and tax, which
+ * rounds with an explicit {@link RoundingMode}. Amounts are converted to and from {@link
+ * BigDecimal} only at the API and storage boundary.
+ *
+ * @param amountMinor The amount in minor units of the currency
+ * @param currency The currency
+ */
+public record Money(long amountMinor, Currency currency) {
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+        if (currency.getDefaultFractionDigits() < 0) {
+            throw new IllegalArgumentException("Currency has no minor unit: " + currency);
+        }
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    /**
+     * Converts a decimal amount, which must not have more decimal places than the currency.
+     *
+     * @param amount The decimal amount
+     * @param currency The currency
+     * @return The amount as money
+     * @throws ArithmeticException if the amount has too many decimal places or is out of range
+     */
+    public static Money of(BigDecimal amount, Currency currency) {
+        long amountMinor =
+                amount
+                        .setScale(currency.getDefaultFractionDigits(), RoundingMode.UNNECESSARY)
+                        .unscaledValue()
+                        .longValueExact();
+        return new Money(amountMinor, currency);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(amountMinor, other.amountMinor), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(amountMinor, other.amountMinor), currency);
+    }
+
+    /**
+     * Adds a line total ({@code unitPriceMinor * quantity}) to a running total in minor units. Lets
+     * loops over many lines total them without allocating an intermediate {@code Money} per line.
+     *
+     * @throws ArithmeticException on overflow
+     */
+    public static long addLine(long totalMinor, long unitPriceMinor, long quantity) {
+        return Math.addExact(totalMinor, Math.multiplyExact(unitPriceMinor, quantity));
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(amountMinor, quantity), currency);
+    }
+
+    /**
+     * Multiplies by the rate {@code numerator / denominator}, rounding to a whole minor unit. For
+     * example, 20% tax is {@code multiply(20, 100, RoundingMode.HALF_EVEN)} and a 12.5% discount is
+     * {@code multiply(1250, 10_000, RoundingMode.HALF_EVEN)}.
+     *
+     * @param numerator The rate numerator
+     * @param denominator The rate denominator, positive
+     * @param rounding How to round a result that falls between two minor units
+     * @return The scaled amount
+     * @throws ArithmeticException if rounding is {@link RoundingMode#UNNECESSARY} and the result is
+     *     not whole, or on overflow
+     */
+    public Money multiply(long numerator, long denominator, RoundingMode rounding) {
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("Denominator must be positive: " + denominator);
+        }
+        long product = Math.multiplyExact(amountMinor, numerator);
+        long quotient = Math.floorDiv(product, denominator);
+        long remainder = Math.floorMod(product, denominator);
+        if (remainder != 0 && roundsUp(quotient, remainder, denominator, product < 0, rounding)) {
+            quotient++;
+        }
+        return new Money(quotient, currency);
+    }
+
+    public boolean isZero() {
+        return amountMinor == 0;
+    }
+
+    public boolean isPositive() {
+        return amountMinor > 0;
+    }
+
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(amountMinor, currency.getDefaultFractionDigits());
+    }
+
+    @Override
+    public String toString() {
+        return toDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+
+    /**
+     * Decides whether a floored quotient with a non-zero remainder in {@code (0, denominator)} rounds
+     * up to the next minor unit.
+     */
+    private static boolean roundsUp(
+            long floor, long remainder, long denominator, boolean negative, RoundingMode rounding) {
+        // Compare the remainder with half the denominator without overflowing. Towards zero is down
+        // for positive results and up for negative ones.
+        int half = Long.compare(remainder, denominator - remainder);
+        return switch (rounding) {
+            case FLOOR -> false;
+            case CEILING -> true;
+            case DOWN -> negative;
+            case UP -> !negative;
+            case HALF_UP -> half > 0 || (half == 0 && !negative);
+            case HALF_DOWN -> half > 0 || (half == 0 && negative);
+            case HALF_EVEN -> half > 0 || (half == 0 && (floor & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException(
+                    "Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+}
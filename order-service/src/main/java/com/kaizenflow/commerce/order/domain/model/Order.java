@@ -1,10 +1,12 @@
 package com.kaizenflow.commerce.order.domain.model;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.kaizenflow.commerce.order.model.OrderItemDTO;
@@ -19,17 +21,51 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "orders")
+// Each index ends in (createdAt, _id) descending to serve keyset-paginated listings for its filter
+@CompoundIndexes({
+    @CompoundIndex(
+            name = "customer_status_created",
+            def = "{'customerId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "customer_created", def = "{'customerId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_created", def = "{'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "created", def = "{'createdAt': -1, '_id': -1}"),
+    // Finds status changes whose events were not acknowledged, for recovery to publish again
+    @CompoundIndex(name = "outbox_changed", def = "{'outbox.changedAt': 1}", sparse = true)
+})
 public class Order {
     @Id private String id;
     private String customerId;
     private List<OrderItemDTO> items;
     private OrderStatus status;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
+    private String paymentId;
+    private String failureReason;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Incremented by every write; guards against concurrent modification
+    @Version private Long version;
+    // Every status the order has been in, oldest first
+    private List<StatusChange> statusHistory;
+    // Status changes whose events Kafka has not acknowledged yet, oldest first
+    private List<OutboxStatusChange> outbox;
+    // Why the archiver could not archive the order; such orders are left out of later runs
+    private String archiveError;
+
+    /**
+     * Returns the order's version. Orders stored before orders were versioned have none and count as
+     * version 0, which is also the version every new order is inserted at.
+     *
+     * @return The version, 0 if none is stored
+     */
+    public long currentVersion() {
+        return version != null ? version : 0;
+    }
 
     public enum OrderStatus {
-        PENDING,
+        PENDING, // Placed, waiting for stock to be reserved
+        INVENTORY_RESERVED, // Stock held, waiting for payment
+        CONFIRMED, // Paid and committed
+        REJECTED, // Stock could not be reserved
         SHIPPED,
         DELIVERED,
         CANCELLED
@@ -0,0 +1,11 @@
+package com.kaizenflow.commerce.order.domain.model;
+
+import java.util.List;
+
+/**
+ * One page of an order listing.
+ *
+ * @param orders The orders on this page, newest first
+ * @param nextPageToken Token for the following page, or null if this is the last page
+ */
+public record OrderPage(List<Order> orders, String nextPageToken) {}
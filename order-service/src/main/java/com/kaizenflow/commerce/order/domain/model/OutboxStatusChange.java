@@ -0,0 +1,22 @@
+package com.kaizenflow.commerce.order.domain.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A status change written to an order's outbox together with the transition itself, and removed
+ * once its {@code OrderStatusChanged} event is acknowledged by Kafka.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatusChange {
+    private Order.OrderStatus previousStatus;
+    private Order.OrderStatus status;
+    // Order version the transition produced
+    private long version;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,16 @@
+package com.kaizenflow.commerce.order.domain.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One entry of an order's status history: the status it moved to and when. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusChange {
+    private Order.OrderStatus status;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,28 @@
+package com.kaizenflow.commerce.order.history;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A customer's order history: summaries of their most recent orders, newest first. Older orders
+ * overflow into {@link OrderHistoryBucket}s, so this document stays the same size however many
+ * orders the customer places.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "customer_order_history")
+public class CustomerOrderHistory {
+    @Id private String customerId;
+    private List<OrderSummary> recent;
+    // Orders ever added; the ones beyond the recent list are in buckets
+    private long orderCount;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,31 @@
+package com.kaizenflow.commerce.order.history;
+
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A fixed-size bucket of orders that overflowed from a {@link CustomerOrderHistory}, oldest first.
+ * Bucket 0 holds a customer's oldest orders.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "customer_order_history_buckets")
+public class OrderHistoryBucket {
+    // customerId:bucket
+    @Id private String id;
+    @Indexed private String customerId;
+    private int bucket;
+    private List<OrderSummary> orders;
+
+    public static String id(String customerId, int bucket) {
+        return customerId + ":" + bucket;
+    }
+}
@@ -0,0 +1,304 @@
+package com.kaizenflow.commerce.order.history;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Currency;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.order.catalog.CatalogEntry;
+import com.kaizenflow.commerce.order.catalog.CatalogReplica;
+import com.kaizenflow.commerce.order.domain.model.Money;
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.proto.order.OrderLine;
+import com.kaizenflow.commerce.proto.order.OrderPlaced;
+import com.kaizenflow.commerce.proto.order.OrderStatusChanged;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the per-customer order history read model from order events, so a customer's order list
+ * is a single read by customer ID instead of a query over full order documents.
+ *
+ * <p>New orders are pushed onto the front of the customer's recent list, which is capped at {@code
+ * order.history.recent-size}. The order pushed out of a full list moves to the customer's current
+ * overflow bucket; the n-th overflowing order goes to bucket {@code n / bucket-size}, derived from
+ * the order count before the push, so concurrent pushes never contend for a bucket slot.
+ *
+ * <p>Status changes carry the order version and only apply over an older one, and an order placed
+ * again only refreshes its items and total over an older placement, so redelivered or reordered
+ * events leave the newest state in place. A status change handled before its order's placement is
+ * kept as a {@link PendingStatusChange} and applied once the placement is.
+ */
+@Component
+@Slf4j
+public class OrderHistoryProjection {
+
+    private final MongoTemplate mongoTemplate;
+    private final CatalogReplica catalogReplica;
+    private final Currency currency;
+    private final int recentSize;
+    private final int bucketSize;
+
+    public OrderHistoryProjection(
+            MongoTemplate mongoTemplate,
+            CatalogReplica catalogReplica,
+            @Value("${order.currency}") Currency currency,
+            @Value("${order.history.recent-size}") int recentSize,
+            @Value("${order.history.bucket-size}") int bucketSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.catalogReplica = catalogReplica;
+        this.currency = currency;
+        this.recentSize = recentSize;
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * @param customerId The customer ID
+     * @return The customer's recent orders, or empty if they have none
+     */
+    public Optional<CustomerOrderHistory> findHistory(String customerId) {
+        return Optional.ofNullable(mongoTemplate.findById(customerId, CustomerOrderHistory.class));
+    }
+
+    /**
+     * @param customerId The customer ID
+     * @param bucket The bucket number
+     * @return The bucket, or empty if the customer has no such bucket
+     */
+    public Optional<OrderHistoryBucket> findBucket(String customerId, int bucket) {
+        return Optional.ofNullable(
+                mongoTemplate.findById(
+                        OrderHistoryBucket.id(customerId, bucket), OrderHistoryBucket.class));
+    }
+
+    /**
+     * @param history A customer's history
+     * @return The number of overflow buckets the customer has
+     */
+    public int bucketCount(CustomerOrderHistory history) {
+        long overflowed = history.getOrderCount() - recentSize;
+        return overflowed <= 0 ? 0 : (int) ((overflowed + bucketSize - 1) / bucketSize);
+    }
+
+    /**
+     * Adds a placed order to its customer's history, or refreshes the items and total of an order
+     * placed again after being amended. A placement older than the one already shown is ignored.
+     *
+     * @param orderId The order ID
+     * @param placedAt When the order was placed
+     * @param placed The placed order
+     */
+    public void onOrderPlaced(String orderId, Timestamp placedAt, OrderPlaced placed) {
+        OrderSummary summary = summarize(orderId, placedAt, placed);
+        String customerId = placed.getCustomerId();
+        if (refresh(customerId, summary)) {
+            return;
+        }
+
+        // Push onto the front of the recent list, dropping the oldest summary once the list is full
+        Update push =
+                new Update()
+                        .push("recent")
+                        .atPosition(0)
+                        .slice(recentSize)
+                        .each(summary)
+                        .inc("orderCount", 1)
+                        .set("updatedAt", LocalDateTime.now());
+        CustomerOrderHistory before =
+                mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(customerId)),
+                        push,
+                        FindAndModifyOptions.options().upsert(true).returnNew(false),
+                        CustomerOrderHistory.class);
+        if (before != null && before.getRecent() != null && before.getRecent().size() >= recentSize) {
+            OrderSummary evicted = before.getRecent().get(recentSize - 1);
+            int bucket = (int) ((before.getOrderCount() - recentSize) / bucketSize);
+            mongoTemplate.upsert(
+                    Query.query(Criteria.where("_id").is(OrderHistoryBucket.id(customerId, bucket))),
+                    new Update()
+                            .setOnInsert("customerId", customerId)
+                            .setOnInsert("bucket", bucket)
+                            .push("orders", evicted),
+                    OrderHistoryBucket.class);
+        }
+
+        // Taken only after the push, so a status change either finds the order or is taken here
+        PendingStatusChange pending =
+                mongoTemplate.findAndRemove(
+                        Query.query(Criteria.where("_id").is(orderId)), PendingStatusChange.class);
+        if (pending != null) {
+            applyStatus(customerId, orderId, pending.getStatus(), pending.getVersion());
+        }
+    }
+
+    /**
+     * Updates the status of an order in its customer's history, or keeps it until the order's
+     * placement is applied if the order is not in the history yet.
+     *
+     * @param orderId The order ID
+     * @param statusChanged The status change
+     */
+    public void onStatusChanged(String orderId, OrderStatusChanged statusChanged) {
+        Order.OrderStatus status = Order.OrderStatus.valueOf(statusChanged.getStatus().name());
+        long version = statusChanged.getVersion();
+        String customerId = statusChanged.getCustomerId();
+        if (applyStatus(customerId, orderId, status, version)) {
+            return;
+        }
+        if (inHistory(customerId, orderId)) {
+            log.debug("No older history entry for order {} to move to {}", orderId, status);
+            return;
+        }
+
+        try {
+            mongoTemplate.upsert(
+                    Query.query(Criteria.where("_id").is(orderId).and("version").lt(version)),
+                    new Update()
+                            .set("status", status)
+                            .set("version", version)
+                            .set("createdAt", LocalDateTime.now()),
+                    PendingStatusChange.class);
+        } catch (DuplicateKeyException e) {
+            log.debug("A newer status of order {} is already pending", orderId);
+            return;
+        }
+        // The placement may have been applied while the status change was kept
+        if (applyStatus(customerId, orderId, status, version)) {
+            mongoTemplate.remove(
+                    Query.query(Criteria.where("_id").is(orderId).and("version").is(version)),
+                    PendingStatusChange.class);
+        }
+    }
+
+    /**
+     * Sets the status of an order in the history over an older version.
+     *
+     * @return Whether the order was in the history at an older version
+     */
+    private boolean applyStatus(
+            String customerId, String orderId, Order.OrderStatus status, long version) {
+        Criteria newer = Criteria.where("orderId").is(orderId).and("version").lt(version);
+        long matched =
+                mongoTemplate
+                        .updateFirst(
+                                Query.query(Criteria.where("_id").is(customerId).and("recent").elemMatch(newer)),
+                                new Update().set("recent.$.status", status).set("recent.$.version", version),
+                                CustomerOrderHistory.class)
+                        .getMatchedCount();
+        if (matched == 0) {
+            matched =
+                    mongoTemplate
+                            .updateFirst(
+                                    Query.query(
+                                            Criteria.where("customerId").is(customerId).and("orders").elemMatch(newer)),
+                                    new Update().set("orders.$.status", status).set("orders.$.version", version),
+                                    OrderHistoryBucket.class)
+                            .getMatchedCount();
+        }
+        return matched > 0;
+    }
+
+    /**
+     * Replaces the items and total of an order already in the history, unless they come from a newer
+     * placement.
+     *
+     * @return Whether the order is already in the history
+     */
+    private boolean refresh(String customerId, OrderSummary summary) {
+        String orderId = summary.getOrderId();
+        // Timestamps have millisecond precision, so only a strictly older placement is known to be
+        // stale
+        Criteria older =
+                Criteria.where("orderId")
+                        .is(orderId)
+                        .orOperator(
+                                Criteria.where("placedAt").lte(summary.getPlacedAt()),
+                                Criteria.where("placedAt").exists(false));
+
+        Update recentUpdate =
+                new Update()
+                        .set("recent.$.totalAmount", summary.getTotalAmount())
+                        .set("recent.$.itemCount", summary.getItemCount())
+                        .set("recent.$.firstItemName", summary.getFirstItemName())
+                        .set("recent.$.placedAt", summary.getPlacedAt());
+        if (mongoTemplate
+                        .updateFirst(
+                                Query.query(Criteria.where("_id").is(customerId).and("recent").elemMatch(older)),
+                                recentUpdate,
+                                CustomerOrderHistory.class)
+                        .getMatchedCount()
+                > 0) {
+            return true;
+        }
+
+        Update bucketUpdate =
+                new Update()
+                        .set("orders.$.totalAmount", summary.getTotalAmount())
+                        .set("orders.$.itemCount", summary.getItemCount())
+                        .set("orders.$.firstItemName", summary.getFirstItemName())
+                        .set("orders.$.placedAt", summary.getPlacedAt());
+        if (mongoTemplate
+                        .updateFirst(
+                                Query.query(
+                                        Criteria.where("customerId").is(customerId).and("orders").elemMatch(older)),
+                                bucketUpdate,
+                                OrderHistoryBucket.class)
+                        .getMatchedCount()
+                > 0) {
+            return true;
+        }
+
+        // Present but from a newer placement
+        if (inHistory(customerId, orderId)) {
+            log.debug("Ignoring an older placement of order {}", orderId);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean inHistory(String customerId, String orderId) {
+        return mongoTemplate.exists(
+                        Query.query(Criteria.where("_id").is(customerId).and("recent.orderId").is(orderId)),
+                        CustomerOrderHistory.class)
+                || mongoTemplate.exists(
+                        Query.query(
+                                Criteria.where("customerId").is(customerId).and("orders.orderId").is(orderId)),
+                        OrderHistoryBucket.class);
+    }
+
+    private OrderSummary summarize(String orderId, Timestamp placedAt, OrderPlaced placed) {
+        LocalDateTime placedTime =
+                LocalDateTime.ofInstant(
+                        Instant.ofEpochSecond(placedAt.getSeconds(), placedAt.getNanos()),
+                        ZoneId.systemDefault());
+        int itemCount = placed.getLinesList().stream().mapToInt(OrderLine::getQuantity).sum();
+        String firstItemName =
+                placed.getLinesCount() == 0
+                        ? null
+                        : catalogReplica
+                                .find(placed.getLines(0).getProductId())
+                                .map(CatalogEntry::name)
+                                .orElse(null);
+        return OrderSummary.builder()
+                .orderId(orderId)
+                .createdAt(placedTime)
+                .status(Order.OrderStatus.PENDING)
+                .totalAmount(new Money(placed.getTotalMinor(), currency))
+                .itemCount(itemCount)
+                .firstItemName(firstItemName)
+                .version(0)
+                .placedAt(placedTime)
+                .build();
+    }
+}
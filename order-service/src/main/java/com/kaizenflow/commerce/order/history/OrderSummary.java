@@ -0,0 +1,30 @@
+package com.kaizenflow.commerce.order.history;
+
+import java.time.LocalDateTime;
+
+import com.kaizenflow.commerce.order.domain.model.Money;
+import com.kaizenflow.commerce.order.domain.model.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** What an order history list shows of one order. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    private String orderId;
+    private LocalDateTime createdAt;
+    private Order.OrderStatus status;
+    private Money totalAmount;
+    // Total quantity across all items
+    private int itemCount;
+    private String firstItemName;
+    // Version of the order the status was taken from
+    private long version;
+    // When the order was last placed, which the items and total were taken from
+    private LocalDateTime placedAt;
+}
@@ -0,0 +1,31 @@
+package com.kaizenflow.commerce.order.history;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The newest status change of an order that is not in its customer's history yet, applied when the
+ * order's placement is.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "order_history_pending_statuses")
+public class PendingStatusChange {
+    @Id private String orderId;
+    private Order.OrderStatus status;
+    private long version;
+
+    // Dropped if the placement never arrives, e.g. for orders placed before the history existed
+    @Indexed(expireAfter = "7d")
+    private LocalDateTime createdAt;
+}
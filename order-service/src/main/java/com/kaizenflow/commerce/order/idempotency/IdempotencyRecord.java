@@ -0,0 +1,43 @@
+package com.kaizenflow.commerce.order.idempotency;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An idempotency key used to submit an order. Claimed before the order is created and completed
+ * with the created order, which is returned for every retry carrying the same key. Mongo removes
+ * the record once it expires.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "order_idempotency_keys")
+public class IdempotencyRecord {
+    // Customer ID and idempotency key, so keys only need to be unique per customer
+    @Id private String id;
+    // Fingerprint of the request, to detect a key reused for a different order
+    private String requestHash;
+    // ID the order is created with, fixed when the key is claimed
+    private String orderId;
+    // Null while the order is being created
+    private Order order;
+    private LocalDateTime claimedAt;
+
+    @Indexed(expireAfter = "0s")
+    private LocalDateTime expiresAt;
+
+    public boolean isCompleted() {
+        return order != null;
+    }
+}
@@ -0,0 +1,329 @@
+package com.kaizenflow.commerce.order.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.model.OrderItemDTO;
+import com.kaizenflow.commerce.order.model.OrderRequestDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates each order submitted with an idempotency key at most once, returning the first order for
+ * every retry with the same key.
+ *
+ * <p>Requests with the same key arriving at this instance while the first is still running wait for
+ * its result instead of creating their own order. Completed keys are kept in a bounded in-memory
+ * cache of {@code order.idempotency.cache-size} entries, backed by {@link IdempotencyRecord}s that
+ * Mongo expires after {@code order.idempotency.ttl}. A key is claimed in Mongo before its order is
+ * created, so another instance receiving the same key meanwhile is turned away rather than creating
+ * a second order. A claim not completed within {@code order.idempotency.claim-timeout} is assumed
+ * to belong to a crashed instance and can be taken over.
+ *
+ * <p>The claim also fixes the ID the order is created with. If completing the claim fails after the
+ * order was created, whoever takes the claim over finds the order under that ID and completes the
+ * claim with it instead of creating a second order.
+ *
+ * <p>Metrics: {@code order.idempotency.replays} counts requests answered with an earlier order.
+ */
+@Component
+@Slf4j
+public class IdempotentOrderSubmitter {
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final Map<String, IdempotencyRecord> completed;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Counter replays;
+
+    public IdempotentOrderSubmitter(
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${order.idempotency.ttl}") Duration ttl,
+            @Value("${order.idempotency.claim-timeout}") Duration claimTimeout,
+            @Value("${order.idempotency.cache-size}") int cacheSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+        this.completed =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                        return size() > cacheSize;
+                    }
+                };
+        this.replays = Counter.builder("order.idempotency.replays").register(meterRegistry);
+    }
+
+    /**
+     * Creates an order unless one was already created for the key.
+     *
+     * @param key The client's idempotency key
+     * @param request The order request
+     * @param createOrder Creates the order with the given ID; only called if the key is new
+     * @return The order created for the key, now or by an earlier request
+     * @throws IllegalArgumentException if the key is blank, the request is missing its customer or
+     *     items, or as thrown by {@code createOrder}
+     * @throws IllegalStateException if the key was used for a different request, or the first request
+     *     with the key is still being processed by another instance
+     */
+    public Order submit(String key, OrderRequestDTO request, Function<String, Order> createOrder) {
+        if (key.isBlank()) {
+            throw new IllegalArgumentException("Idempotency key must not be blank");
+        }
+        validate(request);
+        String id = request.getCustomerId() + ":" + key;
+        String requestHash = fingerprint(request);
+
+        InFlight mine = new InFlight(requestHash);
+        InFlight first = inFlight.putIfAbsent(id, mine);
+        if (first != null) {
+            checkSameRequest(first.requestHash, requestHash, key);
+            replays.increment();
+            return await(first, key);
+        }
+        try {
+            Order order = claimAndCreate(id, requestHash, key, createOrder);
+            mine.result.complete(order);
+            return order;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private Order claimAndCreate(
+            String id, String requestHash, String key, Function<String, Order> createOrder) {
+        IdempotencyRecord cached = cached(id);
+        if (cached != null) {
+            checkSameRequest(cached.getRequestHash(), requestHash, key);
+            replays.increment();
+            return cached.getOrder();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord claim =
+                IdempotencyRecord.builder()
+                        .id(id)
+                        .requestHash(requestHash)
+                        .orderId(new ObjectId().toHexString())
+                        .claimedAt(now)
+                        .expiresAt(now.plus(ttl))
+                        .build();
+        try {
+            mongoTemplate.insert(claim);
+        } catch (DuplicateKeyException e) {
+            IdempotencyRecord existing = mongoTemplate.findById(id, IdempotencyRecord.class);
+            if (existing == null) {
+                // Expired between the insert and the read
+                insertAfterExpiry(claim, key);
+            } else {
+                checkSameRequest(existing.getRequestHash(), requestHash, key);
+                if (existing.isCompleted()) {
+                    cache(existing);
+                    replays.increment();
+                    return existing.getOrder();
+                }
+                if (!takeOver(existing, now)) {
+                    throw new IllegalStateException(
+                            "The first request with idempotency key " + key + " is still in progress");
+                }
+                log.warn("Took over abandoned claim of idempotency key {}", key);
+                if (existing.getOrderId() != null) {
+                    claim.setOrderId(existing.getOrderId());
+                    Order created = mongoTemplate.findById(existing.getOrderId(), Order.class);
+                    if (created != null) {
+                        // The previous owner created the order but failed to complete the claim
+                        complete(claim, created);
+                        replays.increment();
+                        return created;
+                    }
+                }
+            }
+        }
+
+        Order order;
+        try {
+            order = createOrder.apply(claim.getOrderId());
+        } catch (RuntimeException e) {
+            release(id, requestHash);
+            throw e;
+        }
+        complete(claim, order);
+        return order;
+    }
+
+    /** Inserts a claim for a key whose previous record expired, unless another request beat us. */
+    private void insertAfterExpiry(IdempotencyRecord claim, String key) {
+        try {
+            mongoTemplate.insert(claim);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException(
+                    "The first request with idempotency key " + key + " is still in progress");
+        }
+    }
+
+    /**
+     * Records the created order on the claim. A failure here is only logged: the order exists under
+     * the claimed ID, so a retry that takes the claim over completes it with that order.
+     */
+    private void complete(IdempotencyRecord claim, Order order) {
+        claim.setOrder(order);
+        try {
+            mongoTemplate.save(claim);
+        } catch (RuntimeException e) {
+            log.warn(
+                    "Failed to complete idempotency claim {} with order {}", claim.getId(), order.getId(), e);
+        }
+        cache(claim);
+    }
+
+    /** Claims a key whose claim timed out without an order being recorded. */
+    private boolean takeOver(IdempotencyRecord existing, LocalDateTime now) {
+        if (existing.getClaimedAt().isAfter(now.minus(claimTimeout))) {
+            return false;
+        }
+        Query abandoned =
+                Query.query(
+                        Criteria.where("_id")
+                                .is(existing.getId())
+                                .and("order")
+                                .isNull()
+                                .and("claimedAt")
+                                .is(existing.getClaimedAt()));
+        return mongoTemplate
+                        .updateFirst(abandoned, Update.update("claimedAt", now), IdempotencyRecord.class)
+                        .getModifiedCount()
+                > 0;
+    }
+
+    /** Removes the claim of a key whose order could not be created, so the client can retry it. */
+    private void release(String id, String requestHash) {
+        try {
+            mongoTemplate.remove(
+                    Query.query(
+                            Criteria.where("_id")
+                                    .is(id)
+                                    .and("requestHash")
+                                    .is(requestHash)
+                                    .and("order")
+                                    .isNull()),
+                    IdempotencyRecord.class);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release idempotency claim {}", id, e);
+        }
+    }
+
+    private Order await(InFlight first, String key) {
+        try {
+            return first.result.get(claimTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(
+                    "The first request with idempotency key " + key + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for idempotency key " + key, e);
+        }
+    }
+
+    private IdempotencyRecord cached(String id) {
+        synchronized (completed) {
+            IdempotencyRecord cached = completed.get(id);
+            if (cached != null && cached.getExpiresAt().isBefore(LocalDateTime.now())) {
+                completed.remove(id);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void cache(IdempotencyRecord record) {
+        synchronized (completed) {
+            completed.put(record.getId(), record);
+        }
+    }
+
+    private static void checkSameRequest(String expectedHash, String requestHash, String key) {
+        if (!expectedHash.equals(requestHash)) {
+            throw new IllegalStateException(
+                    "Idempotency key " + key + " was already used for a different order");
+        }
+    }
+
+    /** Rejects requests the fingerprint cannot be computed for, before anything is claimed. */
+    private static void validate(OrderRequestDTO request) {
+        if (request.getCustomerId() == null || request.getCustomerId().isBlank()) {
+            throw new IllegalArgumentException("Order must have a customer ID");
+        }
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one item");
+        }
+        for (OrderItemDTO item : request.getItems()) {
+            if (item == null || item.getProductId() == null || item.getQuantity() == null) {
+                throw new IllegalArgumentException("Each item needs a product ID and a positive quantity");
+            }
+        }
+    }
+
+    /**
+     * Hashes what determines the created order: the customer and the products and quantities. Client
+     * unit prices are left out since orders are priced from the catalog.
+     */
+    static String fingerprint(OrderRequestDTO request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder canonical = new StringBuilder(request.getCustomerId());
+        for (OrderItemDTO item : request.getItems()) {
+            canonical.append('\n').append(item.getProductId()).append('\t').append(item.getQuantity());
+        }
+        return HexFormat.of()
+                .formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** The first request with a key still being processed by this instance. */
+    private static final class InFlight {
+
+        final String requestHash;
+        final CompletableFuture<Order> result = new CompletableFuture<>();
+
+        InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.kaizenflow.commerce.order.listeners;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.order.catalog.CatalogCheckpointer;
+import com.kaizenflow.commerce.order.catalog.CatalogReplica;
+import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
+import com.kaizenflow.commerce.proto.product.ProductEvent;
+import com.kaizenflow.commerce.proto.product.ProductModel;
+import com.kaizenflow.commerce.proto.serde.EventBatches;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feeds the {@link CatalogReplica} from the product and inventory topics. Every instance consumes
+ * in its own consumer group, so each keeps a complete replica. On first assignment the replica is
+ * restored from the newest {@link CatalogCheckpointer checkpoint} and partitions resume from its
+ * offsets; partitions it does not cover are replayed from the start. Records hold a single event or
+ * a batch of them, applied in order.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogReplicaListener implements ConsumerSeekAware {
+
+    /** Listener container ID of the product event consumer. */
+    public static final String PRODUCT_LISTENER_ID = "order-catalog-product";
+
+    /** Listener container ID of the inventory event consumer. */
+    public static final String INVENTORY_LISTENER_ID = "order-catalog-inventory";
+
+    private final CatalogReplica catalogReplica;
+    private final CatalogCheckpointer catalogCheckpointer;
+
+    @Override
+    public void onPartitionsAssigned(
+            Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        catalogCheckpointer.restoreOnce();
+        for (TopicPartition partition : assignments.keySet()) {
+            Long offset = catalogCheckpointer.resumeOffset(partition);
+            if (offset != null) {
+                callback.seek(partition.topic(), partition.partition(), offset);
+            } else {
+                callback.seekToBeginning(partition.topic(), partition.partition());
+            }
+        }
+    }
+
+    @KafkaListener(
+            id = PRODUCT_LISTENER_ID,
+            topics = {"${kafka.topic.product-created-events}", "${kafka.topic.product-updated-events}"},
+            groupId = "order-catalog-product-${random.uuid}",
+            containerFactory = "productEventKafkaListenerContainerFactory")
+    public void handleProductEvents(ConsumerRecord<String, Message> record) {
+        for (ProductEvent productEvent : EventBatches.productEvents(record.value())) {
+            ProductModel product = productEvent.getProduct();
+            long eventTime = toMillis(productEvent.getTimestamp());
+
+            if (productEvent.getType() == ProductEvent.EventType.DELETED) {
+                catalogReplica.remove(product.getId(), eventTime);
+            } else {
+                catalogReplica.updateProduct(
+                        product.getId(),
+                        product.getName(),
+                        product.getCategory(),
+                        CatalogReplica.toMinorUnits(product.getPrice()),
+                        eventTime);
+            }
+            log.debug("Applied {} event for product ID: {}", productEvent.getType(), product.getId());
+        }
+        catalogCheckpointer.applied(record.topic(), record.partition(), record.offset());
+    }
+
+    @KafkaListener(
+            id = INVENTORY_LISTENER_ID,
+            topics = "${kafka.topic.inventory-events}",
+            groupId = "order-catalog-inventory-${random.uuid}",
+            containerFactory = "inventoryUpdateEventKafkaListenerContainerFactory")
+    public void handleInventoryUpdateEvents(ConsumerRecord<String, Message> record) {
+        for (InventoryUpdateEvent event : EventBatches.inventoryUpdates(record.value())) {
+            catalogReplica.updateStock(
+                    event.getProductId(), event.getAvailableQuantity(), toMillis(event.getTimestamp()));
+            log.debug(
+                    "Applied inventory update for product ID: {}, quantity: {}",
+                    event.getProductId(),
+                    event.getAvailableQuantity());
+        }
+        catalogCheckpointer.applied(record.topic(), record.partition(), record.offset());
+    }
+
+    private static long toMillis(Timestamp timestamp) {
+        return timestamp.getSeconds() * 1000 + timestamp.getNanos() / 1_000_000;
+    }
+}
@@ -0,0 +1,38 @@
+package com.kaizenflow.commerce.order.listeners;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.messaging.retry.NonBlockingRetry;
+import com.kaizenflow.commerce.order.history.OrderHistoryProjection;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/** Feeds the {@link OrderHistoryProjection} from the order events topic. */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderHistoryListener {
+
+    private final OrderHistoryProjection orderHistoryProjection;
+
+    @NonBlockingRetry
+    @KafkaListener(
+            topics = "${kafka.topic.order-events}",
+            containerFactory = "orderHistoryKafkaListenerContainerFactory")
+    public void handleOrderEvent(OrderEvent event) {
+        switch (event.getEventCase()) {
+            case PLACED ->
+                    orderHistoryProjection.onOrderPlaced(
+                            event.getOrderId(), event.getTimestamp(), event.getPlaced());
+            case STATUS_CHANGED ->
+                    orderHistoryProjection.onStatusChanged(event.getOrderId(), event.getStatusChanged());
+            default -> {
+                // Other events do not change the history
+            }
+        }
+        log.debug("Applied {} event for order {} to history", event.getEventCase(), event.getOrderId());
+    }
+}
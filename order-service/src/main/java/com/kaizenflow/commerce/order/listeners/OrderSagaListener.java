@@ -0,0 +1,43 @@
+package com.kaizenflow.commerce.order.listeners;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.messaging.retry.NonBlockingRetry;
+import com.kaizenflow.commerce.order.saga.OrderSaga;
+import com.kaizenflow.commerce.proto.inventory.InventoryReservationEvent;
+import com.kaizenflow.commerce.proto.payment.PaymentEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/** Routes inventory and payment replies to the {@link OrderSaga}. */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderSagaListener {
+
+    private final OrderSaga orderSaga;
+
+    @NonBlockingRetry
+    @KafkaListener(
+            topics = "${kafka.topic.inventory-reservation-events}",
+            containerFactory = "reservationEventKafkaListenerContainerFactory")
+    public void handleReservationEvent(InventoryReservationEvent event) {
+        log.info(
+                "Received reservation {} event for order ID: {}",
+                event.getResultCase(),
+                event.getOrderId());
+        orderSaga.onInventoryReservation(event);
+    }
+
+    @NonBlockingRetry
+    @KafkaListener(
+            topics = "${kafka.topic.payment-events}",
+            containerFactory = "paymentEventKafkaListenerContainerFactory")
+    public void handlePaymentEvent(PaymentEvent event) {
+        log.info(
+                "Received payment {} event for order ID: {}", event.getResultCase(), event.getOrderId());
+        orderSaga.onPaymentResult(event);
+    }
+}
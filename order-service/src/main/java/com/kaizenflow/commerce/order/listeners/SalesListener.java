@@ -0,0 +1,66 @@
+package com.kaizenflow.commerce.order.listeners;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.order.analytics.SalesAggregator;
+import com.kaizenflow.commerce.order.analytics.SalesCheckpointer;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+
+/**
+ * Feeds the {@link SalesAggregator} from the order events topic. Every instance consumes in its own
+ * consumer group so each aggregates all orders. On assignment, partitions resume from the restored
+ * checkpoint's offsets; partitions the checkpoint does not cover are replayed from the start of the
+ * retained minutes.
+ */
+@Component
+public class SalesListener implements ConsumerSeekAware {
+
+    /** Listener container ID of the order event consumer. */
+    public static final String LISTENER_ID = "order-analytics";
+
+    private final SalesAggregator salesAggregator;
+    private final SalesCheckpointer salesCheckpointer;
+    private final Duration retention;
+
+    public SalesListener(
+            SalesAggregator salesAggregator,
+            SalesCheckpointer salesCheckpointer,
+            @Value("${order.analytics.retention}") Duration retention) {
+        this.salesAggregator = salesAggregator;
+        this.salesCheckpointer = salesCheckpointer;
+        this.retention = retention;
+    }
+
+    @Override
+    public void onPartitionsAssigned(
+            Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        salesCheckpointer.restoreOnce();
+        long replayFrom = System.currentTimeMillis() - retention.toMillis();
+        for (TopicPartition partition : assignments.keySet()) {
+            OptionalLong resume = salesAggregator.resumeOffset(partition.partition());
+            if (resume.isPresent()) {
+                callback.seek(partition.topic(), partition.partition(), resume.getAsLong());
+            } else {
+                callback.seekToTimestamp(partition.topic(), partition.partition(), replayFrom);
+            }
+        }
+    }
+
+    @KafkaListener(
+            id = LISTENER_ID,
+            topics = "${kafka.topic.order-events}",
+            groupId = "order-analytics-${random.uuid}",
+            containerFactory = "salesKafkaListenerContainerFactory")
+    public void handleOrderEvent(ConsumerRecord<String, OrderEvent> record) {
+        salesAggregator.apply(record.value(), record.partition(), record.offset());
+    }
+}
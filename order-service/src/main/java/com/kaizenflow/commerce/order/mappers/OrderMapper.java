@@ -1,15 +1,50 @@
 package com.kaizenflow.commerce.order.mappers;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Currency;
+import java.util.List;
+
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
+import com.kaizenflow.commerce.order.domain.model.Money;
 import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.domain.model.OrderPage;
+import com.kaizenflow.commerce.order.history.OrderSummary;
 import com.kaizenflow.commerce.order.model.OrderDTO;
+import com.kaizenflow.commerce.order.model.OrderPageDTO;
+import com.kaizenflow.commerce.order.model.OrderSummaryDTO;
 
 @Mapper(
         componentModel = "spring",
         nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.SET_TO_NULL)
 public interface OrderMapper {
 
+    @Mapping(target = "currency", source = "totalAmount.currency")
     OrderDTO toDTO(Order order);
+
+    @Mapping(target = "currency", source = "totalAmount.currency")
+    OrderSummaryDTO toSummaryDTO(OrderSummary summary);
+
+    List<OrderSummaryDTO> toSummaryDTOs(List<OrderSummary> summaries);
+
+    @Mapping(target = "items", source = "orders")
+    OrderPageDTO toPageDTO(OrderPage page);
+
+    default BigDecimal toDecimal(Money money) {
+        return money == null ? null : money.toDecimal();
+    }
+
+    default String toCurrencyCode(Currency currency) {
+        return currency == null ? null : currency.getCurrencyCode();
+    }
+
+    // Timestamps are stored as local times in the server's zone
+    default OffsetDateTime toOffsetDateTime(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.atZone(ZoneId.systemDefault()).toOffsetDateTime();
+    }
 }
@@ -0,0 +1,196 @@
+package com.kaizenflow.commerce.order.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import com.kaizenflow.commerce.order.domain.model.ArchivedOrder;
+import com.kaizenflow.commerce.order.domain.model.Order;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cold storage for orders that reached a final status long ago. Archived orders live in the {@code
+ * orders_archive} collection and are never modified; reads that miss the orders collection fall
+ * through to it.
+ *
+ * <p>Orders that cannot be converted, such as legacy orders with missing prices, are quarantined:
+ * they stay in the orders collection with {@code archiveError} set and are no longer due, so one
+ * bad order does not stall archiving of everything created after it.
+ */
+@Repository
+@Slf4j
+public class OrderArchive {
+
+    /** Statuses no transition leads out of. */
+    public static final Set<Order.OrderStatus> FINAL_STATUSES =
+            Set.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final Comparator<Order> NEWEST_FIRST =
+            Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed();
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration minAge;
+
+    public OrderArchive(
+            MongoTemplate mongoTemplate, @Value("${order.archive.min-age}") Duration minAge) {
+        this.mongoTemplate = mongoTemplate;
+        this.minAge = minAge;
+    }
+
+    /**
+     * The outcome of archiving a batch of orders.
+     *
+     * @param archived The number of orders moved to the archive
+     * @param quarantined The number of orders that could not be archived and were quarantined
+     */
+    public record ArchiveResult(long archived, int quarantined) {}
+
+    /**
+     * @return The creation time before which final orders are archived
+     */
+    public LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(minAge);
+    }
+
+    /**
+     * Finds the oldest final orders due for archiving.
+     *
+     * @param limit Maximum number of orders to return
+     * @return Final, unquarantined orders created before the cutoff whose status change events were
+     *     all published, oldest first
+     */
+    public List<Order> findDue(int limit) {
+        Query query =
+                Query.query(
+                                Criteria.where("status")
+                                        .in(FINAL_STATUSES)
+                                        .and("createdAt")
+                                        .lt(cutoff())
+                                        .and("archiveError")
+                                        .exists(false)
+                                        .and("outbox.0")
+                                        .exists(false))
+                        .with(Sort.by("createdAt"))
+                        .limit(limit);
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    /**
+     * Copies orders to the archive and then removes them from the orders collection. Orders already
+     * archived by an earlier, interrupted run are only removed; orders that cannot be converted are
+     * quarantined.
+     *
+     * @param orders Final orders
+     * @return The number of orders removed from the orders collection and the number quarantined
+     */
+    public ArchiveResult archive(List<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedOrder> archived = new ArrayList<>(orders.size());
+        int quarantined = 0;
+        for (Order order : orders) {
+            try {
+                archived.add(ArchivedOrder.from(order, now));
+            } catch (RuntimeException e) {
+                quarantine(order, e);
+                quarantined++;
+            }
+        }
+        if (archived.isEmpty()) {
+            return new ArchiveResult(0, quarantined);
+        }
+
+        try {
+            mongoTemplate
+                    .bulkOps(BulkOperations.BulkMode.UNORDERED, ArchivedOrder.class)
+                    .insert(archived)
+                    .execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+
+        List<String> ids = archived.stream().map(ArchivedOrder::getId).toList();
+        long removed =
+                mongoTemplate
+                        .remove(
+                                Query.query(Criteria.where("_id").in(ids).and("status").in(FINAL_STATUSES)),
+                                Order.class)
+                        .getDeletedCount();
+        return new ArchiveResult(removed, quarantined);
+    }
+
+    private void quarantine(Order order, RuntimeException error) {
+        log.warn("Quarantining order {} which cannot be archived", order.getId(), error);
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(order.getId())),
+                new Update().set("archiveError", String.valueOf(error)),
+                Order.class);
+    }
+
+    public Optional<Order> findById(String orderId) {
+        return Optional.ofNullable(mongoTemplate.findById(orderId, ArchivedOrder.class))
+                .map(ArchivedOrder::toOrder);
+    }
+
+    /**
+     * Merges archived orders into a page of orders read from the orders collection, for listings that
+     * should include the whole history. The archive is only read when it could contribute to the
+     * page: when the page is short, or reaches back to orders old enough to have been archived.
+     *
+     * @param orders Up to {@code limit} orders from {@link OrderRepositoryCustom#findPage}, newest
+     *     first
+     * @param customerId The customer filter of the page, or null
+     * @param status The status filter of the page, or null
+     * @param after The cursor of the page, or null
+     * @param limit The page limit
+     * @return Up to {@code limit} orders from both collections, newest first
+     */
+    public List<Order> mergePage(
+            List<Order> orders,
+            String customerId,
+            Order.OrderStatus status,
+            OrderCursor after,
+            int limit) {
+        if (status != null && !FINAL_STATUSES.contains(status)) {
+            return orders;
+        }
+        if (orders.size() >= limit && !orders.getLast().getCreatedAt().isBefore(cutoff())) {
+            return orders;
+        }
+
+        Query query = OrderRepositoryImpl.pageQuery(customerId, status, after, limit);
+        List<Order> archived =
+                mongoTemplate.find(query, ArchivedOrder.class).stream()
+                        .map(ArchivedOrder::toOrder)
+                        .toList();
+        if (archived.isEmpty()) {
+            return orders;
+        }
+
+        // An order being archived right now can be in both collections
+        Set<String> hotIds = orders.stream().map(Order::getId).collect(Collectors.toSet());
+        List<Order> merged = new ArrayList<>(orders.size() + archived.size());
+        merged.addAll(orders);
+        archived.stream().filter(order -> !hotIds.contains(order.getId())).forEach(merged::add);
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+}
@@ -0,0 +1,52 @@
+package com.kaizenflow.commerce.order.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+
+/**
+ * Position in an order listing sorted by creation time then ID, both descending. Encoded as an
+ * opaque page token so clients cannot rely on its contents.
+ *
+ * @param createdAt Creation time of the last order on the previous page
+ * @param id ID of the last order on the previous page
+ */
+public record OrderCursor(LocalDateTime createdAt, String id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a page token produced by {@link #encode()}.
+     *
+     * @param token The page token
+     * @return The cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid page token");
+            }
+            return new OrderCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+    }
+}
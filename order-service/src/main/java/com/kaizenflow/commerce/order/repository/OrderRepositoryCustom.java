@@ -0,0 +1,44 @@
+package com.kaizenflow.commerce.order.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Finds orders newest first, starting after a cursor. Uses the (createdAt, _id) compound indexes,
+     * so the cost of a page does not depend on how many orders precede it.
+     *
+     * @param customerId Only orders of this customer, or null for all customers
+     * @param status Only orders in this status, or null for any status
+     * @param after Position to continue from, or null for the first page
+     * @param limit Maximum number of orders to return
+     * @return The matching orders
+     */
+    List<Order> findPage(String customerId, Order.OrderStatus status, OrderCursor after, int limit);
+
+    /**
+     * Finds orders that have been in one of the given statuses since before a point in time, the
+     * longest-waiting first.
+     *
+     * @param statuses The statuses to look for
+     * @param updatedBefore Only orders last updated before this time
+     * @param limit Maximum number of orders to return
+     * @return The matching orders
+     */
+    List<Order> findStalled(
+            Collection<Order.OrderStatus> statuses, LocalDateTime updatedBefore, int limit);
+
+    /**
+     * Finds orders with a status change in their outbox since before a point in time, whatever their
+     * current status.
+     *
+     * @param changedBefore Only orders with an unpublished status change older than this
+     * @param limit Maximum number of orders to return
+     * @return The matching orders
+     */
+    List<Order> findUnpublished(LocalDateTime changedBefore, int limit);
+}
@@ -0,0 +1,78 @@
+package com.kaizenflow.commerce.order.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final Sort NEWEST_FIRST =
+            Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id"));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Order> findPage(
+            String customerId, Order.OrderStatus status, OrderCursor after, int limit) {
+        return mongoTemplate.find(pageQuery(customerId, status, after, limit), Order.class);
+    }
+
+    @Override
+    public List<Order> findStalled(
+            Collection<Order.OrderStatus> statuses, LocalDateTime updatedBefore, int limit) {
+        Query query =
+                Query.query(Criteria.where("status").in(statuses).and("updatedAt").lt(updatedBefore))
+                        .with(Sort.by(Sort.Order.asc("updatedAt")))
+                        .limit(limit);
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    @Override
+    public List<Order> findUnpublished(LocalDateTime changedBefore, int limit) {
+        Query query =
+                Query.query(Criteria.where("outbox.changedAt").lt(changedBefore))
+                        .with(Sort.by(Sort.Order.asc("outbox.changedAt")))
+                        .limit(limit);
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    /**
+     * Builds the query for {@link #findPage}; shared with the order archive, which has the same
+     * fields.
+     */
+    static Query pageQuery(
+            String customerId, Order.OrderStatus status, OrderCursor after, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (customerId != null) {
+            filters.add(Criteria.where("customerId").is(customerId));
+        }
+        if (status != null) {
+            filters.add(Criteria.where("status").is(status));
+        }
+        if (after != null) {
+            // Strictly after the cursor in (createdAt desc, _id desc) order
+            filters.add(
+                    new Criteria()
+                            .orOperator(
+                                    Criteria.where("createdAt").lt(after.createdAt()),
+                                    Criteria.where("createdAt").is(after.createdAt()).and("_id").lt(after.id())));
+        }
+
+        Query query =
+                filters.isEmpty()
+                        ? new Query()
+                        : Query.query(new Criteria().andOperator(filters.toArray(new Criteria[0])));
+        return query.with(NEWEST_FIRST).limit(limit);
+    }
+}
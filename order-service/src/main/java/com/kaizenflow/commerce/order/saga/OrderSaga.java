@@ -0,0 +1,340 @@
+package com.kaizenflow.commerce.order.saga;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+import com.kaizenflow.commerce.order.domain.model.Money;
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.domain.model.StatusChange;
+import com.kaizenflow.commerce.order.model.OrderItemDTO;
+import com.kaizenflow.commerce.order.repository.OrderRepository;
+import com.kaizenflow.commerce.order.service.OrderStateMachine;
+import com.kaizenflow.commerce.proto.inventory.InventoryReservationEvent;
+import com.kaizenflow.commerce.proto.order.OrderCancelled;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.order.OrderLine;
+import com.kaizenflow.commerce.proto.order.OrderPlaced;
+import com.kaizenflow.commerce.proto.payment.PaymentEvent;
+import com.kaizenflow.commerce.proto.payment.ProcessPaymentCommand;
+import com.kaizenflow.commerce.proto.payment.VoidPaymentCommand;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drives an order from placement to confirmation through asynchronous events:
+ *
+ * <ol>
+ *   <li>{@code OrderPlaced} asks inventory-service to reserve every line; the order is PENDING.
+ *   <li>On {@code InventoryReserved} the order becomes INVENTORY_RESERVED and payment is requested.
+ *       On {@code InventoryReservationFailed} it becomes REJECTED; nothing is held.
+ *   <li>On {@code PaymentAuthorized} the order becomes CONFIRMED, on {@code PaymentDeclined} it
+ *       becomes CANCELLED. Inventory-service commits or releases the held stock when it sees the
+ *       corresponding {@code OrderStatusChanged}.
+ * </ol>
+ *
+ * <p>An order may be cancelled while its payment is in flight, by the customer or by {@link
+ * OrderSagaRecovery}. A {@code PaymentAuthorized} arriving for an order that is no longer waiting
+ * for payment, and has not been paid for, is compensated with {@code VoidPaymentCommand} so the
+ * customer is not charged for a cancelled order.
+ *
+ * <p>Status changes go through {@link OrderStateMachine}, so replies that do not match the order's
+ * current status are duplicates or arrived after the order moved on, and change nothing, except
+ * that stock reserved for an order that is already over is released again with {@code
+ * OrderCancelled}. Requests carry the order version they were sent at and replies carry it back, so
+ * a reply to an earlier placement of an amended order does not move the current placement on.
+ *
+ * <p>A request or reply lost on the way, such as a publish the producer gave up on, would leave the
+ * order waiting forever; {@link OrderSagaRecovery} re-sends the request for orders that waited too
+ * long and cancels those past the saga timeout.
+ *
+ * <p>Each stage is timed as {@code order.saga.stage}, tagged with {@code stage} ({@code
+ * inventory_reservation}, {@code payment} or {@code end_to_end}) and {@code outcome}.
+ */
+@Component
+@Slf4j
+public class OrderSaga {
+
+    /** Statuses in which an order holds, or has consumed, reserved stock. */
+    private static final Set<Order.OrderStatus> HOLDING_STOCK =
+            EnumSet.of(
+                    Order.OrderStatus.INVENTORY_RESERVED,
+                    Order.OrderStatus.CONFIRMED,
+                    Order.OrderStatus.SHIPPED,
+                    Order.OrderStatus.DELIVERED);
+
+    /** Statuses in which an order has been paid for. */
+    private static final Set<Order.OrderStatus> PAID =
+            EnumSet.of(
+                    Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED, Order.OrderStatus.DELIVERED);
+
+    private final OrderRepository orderRepository;
+    private final OrderStateMachine stateMachine;
+    private final AsyncEventPublisher<OrderEvent> orderEventPublisher;
+    private final AsyncEventPublisher<ProcessPaymentCommand> paymentCommandPublisher;
+    private final AsyncEventPublisher<VoidPaymentCommand> voidPaymentPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kafka.topic.order-events}")
+    private String orderEventsTopic;
+
+    @Value("${kafka.topic.payment-commands}")
+    private String paymentCommandsTopic;
+
+    @Value("${kafka.topic.payment-voids}")
+    private String paymentVoidsTopic;
+
+    @Autowired
+    public OrderSaga(
+            OrderRepository orderRepository,
+            OrderStateMachine stateMachine,
+            AsyncEventPublisher<OrderEvent> orderEventPublisher,
+            AsyncEventPublisher<ProcessPaymentCommand> paymentCommandPublisher,
+            AsyncEventPublisher<VoidPaymentCommand> voidPaymentPublisher,
+            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.stateMachine = stateMachine;
+        this.orderEventPublisher = orderEventPublisher;
+        this.paymentCommandPublisher = paymentCommandPublisher;
+        this.voidPaymentPublisher = voidPaymentPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts the saga for a newly saved, pending order by asking for its stock to be reserved.
+     *
+     * @param order The saved order
+     */
+    public void start(Order order) {
+        OrderPlaced.Builder placed =
+                OrderPlaced.newBuilder()
+                        .setCustomerId(order.getCustomerId())
+                        .setTotalMinor(order.getTotalAmount().amountMinor())
+                        .setVersion(order.currentVersion());
+        for (OrderItemDTO item : order.getItems()) {
+            placed.addLines(
+                    OrderLine.newBuilder()
+                            .setProductId(item.getProductId())
+                            .setQuantity(item.getQuantity())
+                            .setUnitPriceMinor(
+                                    Money.of(item.getUnitPrice(), order.getTotalAmount().currency()).amountMinor()));
+        }
+        publishOrderEvent(OrderEvent.newBuilder().setOrderId(order.getId()).setPlaced(placed));
+    }
+
+    /**
+     * Re-sends the request an order is waiting on. Inventory-service and payment-service handle
+     * repeated requests for the same order idempotently, so this is safe if the original request was
+     * delivered after all.
+     *
+     * @param order An order waiting for stock to be reserved or for payment
+     */
+    public void resume(Order order) {
+        switch (order.getStatus()) {
+            case PENDING -> start(order);
+            case INVENTORY_RESERVED -> requestPayment(order);
+            default ->
+                    log.debug("Order {} is {} and not waiting on the saga", order.getId(), order.getStatus());
+        }
+    }
+
+    /**
+     * Handles inventory-service's reply to {@code OrderPlaced}.
+     *
+     * @param event The reservation outcome
+     */
+    public void onInventoryReservation(InventoryReservationEvent event) {
+        String orderId = event.getOrderId();
+        // Only the placement the order is still waiting on moves it on
+        Long placedVersion = event.getOrderVersion();
+        if (event.hasReserved()) {
+            Optional<Order> reserved =
+                    stateMachine.transition(
+                            orderId, placedVersion, Order.OrderStatus.INVENTORY_RESERVED, new Update());
+            if (reserved.isPresent()) {
+                recordStage("inventory_reservation", "reserved", reserved.get());
+                requestPayment(reserved.get());
+                log.info("Order {} is now {}", orderId, Order.OrderStatus.INVENTORY_RESERVED);
+            } else {
+                releaseUnlessHolding(orderId);
+            }
+            return;
+        }
+
+        Update rejection = new Update().set("failureReason", event.getFailed().getReason());
+        stateMachine
+                .transition(orderId, placedVersion, Order.OrderStatus.REJECTED, rejection)
+                .ifPresentOrElse(
+                        order -> {
+                            recordStage("inventory_reservation", "failed", order);
+                            recordEndToEnd("rejected", order);
+                            log.info("Order {} is now {}", orderId, order.getStatus());
+                        },
+                        () -> log.debug("Ignoring duplicate reservation reply for order {}", orderId));
+    }
+
+    /**
+     * Handles payment-service's reply to {@code ProcessPaymentCommand}.
+     *
+     * @param event The payment outcome
+     */
+    public void onPaymentResult(PaymentEvent event) {
+        String orderId = event.getOrderId();
+        Long requestedVersion = event.getOrderVersion();
+        Optional<Order> updated;
+        String outcome;
+        if (event.hasAuthorized()) {
+            updated =
+                    stateMachine.transition(
+                            orderId,
+                            requestedVersion,
+                            Order.OrderStatus.CONFIRMED,
+                            new Update().set("paymentId", event.getAuthorized().getPaymentId()));
+            outcome = "authorized";
+        } else {
+            updated =
+                    stateMachine.transition(
+                            orderId,
+                            requestedVersion,
+                            Order.OrderStatus.CANCELLED,
+                            new Update().set("failureReason", event.getDeclined().getReason()));
+            outcome = "declined";
+        }
+
+        if (updated.isEmpty()) {
+            if (event.hasAuthorized()) {
+                voidUnlessPaid(orderId, event.getAuthorized().getPaymentId());
+            } else {
+                log.debug("Ignoring payment reply for order {} not awaiting payment", orderId);
+            }
+            return;
+        }
+        Order order = updated.get();
+        recordStage("payment", outcome, order);
+        recordEndToEnd(
+                order.getStatus() == Order.OrderStatus.CONFIRMED ? "confirmed" : "cancelled", order);
+        log.info("Order {} is now {}", orderId, order.getStatus());
+    }
+
+    /** Releases stock reserved for an order that is no longer waiting for it. */
+    private void releaseUnlessHolding(String orderId) {
+        Optional<Order> found = orderRepository.findById(orderId);
+        if (found.isPresent() && HOLDING_STOCK.contains(found.get().getStatus())) {
+            log.debug("Ignoring duplicate reservation reply for order {}", orderId);
+            return;
+        }
+        if (found.isPresent() && found.get().getStatus() == Order.OrderStatus.PENDING) {
+            // A reply to an earlier placement; the stock belongs to the placement still in flight
+            log.debug("Ignoring reservation reply to an earlier placement of order {}", orderId);
+            return;
+        }
+        log.warn("Releasing stock reserved for order {} which is no longer pending", orderId);
+        publishOrderEvent(
+                OrderEvent.newBuilder()
+                        .setOrderId(orderId)
+                        .setCancelled(OrderCancelled.newBuilder().setReason("Order no longer pending")));
+    }
+
+    /** Voids a payment authorized for an order that was cancelled while the payment was in flight. */
+    private void voidUnlessPaid(String orderId, String paymentId) {
+        Optional<Order> found = orderRepository.findById(orderId);
+        if (found.isEmpty() || PAID.contains(found.get().getStatus())) {
+            log.debug("Ignoring duplicate payment authorization for order {}", orderId);
+            return;
+        }
+        Order.OrderStatus status = found.get().getStatus();
+        log.warn("Voiding payment {} authorized for order {} which is {}", paymentId, orderId, status);
+        VoidPaymentCommand command =
+                VoidPaymentCommand.newBuilder()
+                        .setOrderId(orderId)
+                        .setTimestamp(now())
+                        .setPaymentId(paymentId)
+                        .setReason("Order " + status.name().toLowerCase())
+                        .build();
+        voidPaymentPublisher
+                .publish(paymentVoidsTopic, orderId, command)
+                .whenComplete(
+                        (result, ex) -> {
+                            if (ex != null) {
+                                log.error("Failed to void payment {} for order {}", paymentId, orderId, ex);
+                            }
+                        });
+    }
+
+    private void requestPayment(Order order) {
+        ProcessPaymentCommand command =
+                ProcessPaymentCommand.newBuilder()
+                        .setOrderId(order.getId())
+                        .setTimestamp(now())
+                        .setCustomerId(order.getCustomerId())
+                        .setAmountMinor(order.getTotalAmount().amountMinor())
+                        .setOrderVersion(order.currentVersion())
+                        .build();
+        paymentCommandPublisher
+                .publish(paymentCommandsTopic, order.getId(), command)
+                .whenComplete(
+                        (result, ex) -> {
+                            if (ex != null) {
+                                log.error("Failed to request payment for order {}", order.getId(), ex);
+                            }
+                        });
+    }
+
+    private void publishOrderEvent(OrderEvent.Builder event) {
+        OrderEvent orderEvent = event.setTimestamp(now()).build();
+        orderEventPublisher
+                .publish(orderEventsTopic, orderEvent.getOrderId(), orderEvent)
+                .whenComplete(
+                        (result, ex) -> {
+                            if (ex != null) {
+                                log.error(
+                                        "Failed to publish {} event for order {}",
+                                        orderEvent.getEventCase(),
+                                        orderEvent.getOrderId(),
+                                        ex);
+                            }
+                        });
+    }
+
+    /** Records the time the order spent in the status its latest transition moved it out of. */
+    private void recordStage(String stage, String outcome, Order order) {
+        LocalDateTime since =
+                OrderStateMachine.previousStatus(order)
+                        .map(StatusChange::getChangedAt)
+                        .orElse(order.getCreatedAt());
+        recordStage(stage, outcome, since, order.getUpdatedAt());
+    }
+
+    private void recordEndToEnd(String outcome, Order order) {
+        recordStage("end_to_end", outcome, order.getCreatedAt(), order.getUpdatedAt());
+    }
+
+    private void recordStage(String stage, String outcome, LocalDateTime from, LocalDateTime to) {
+        Timer.builder("order.saga.stage")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(from, to));
+    }
+
+    private static Timestamp now() {
+        Instant instant = Instant.now();
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
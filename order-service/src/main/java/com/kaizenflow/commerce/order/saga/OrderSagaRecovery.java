@@ -0,0 +1,135 @@
+package com.kaizenflow.commerce.order.saga;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.repository.OrderRepository;
+import com.kaizenflow.commerce.order.service.OrderStateMachine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Every {@code order.saga.recovery.interval}, while {@code order.saga.recovery.enabled} is on,
+ * recovers orders whose saga stalled because a request, its reply or a status change event was
+ * lost.
+ *
+ * <p>Orders that have been PENDING or INVENTORY_RESERVED for longer than {@code
+ * order.saga.recovery.resend-after} get their stock reservation or payment request sent again. Once
+ * an order has waited longer than {@code timeout} it is cancelled instead, which releases any stock
+ * held for it. Each run handles at most {@code batch-size} orders, the longest-waiting first.
+ *
+ * <p>Orders in any status whose {@code OrderStatusChanged} events have not been acknowledged for
+ * {@code resend-after} get them published again from their outbox (see {@link OrderStateMachine}),
+ * so inventory still commits or releases the stock of confirmed and cancelled orders.
+ *
+ * <p>Counts are published as {@code order.saga.recovery.resent}, {@code
+ * order.saga.recovery.timed.out} and {@code order.saga.recovery.republished}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "order.saga.recovery.enabled", havingValue = "true")
+public class OrderSagaRecovery {
+
+    static final Set<Order.OrderStatus> AWAITING_REPLY =
+            EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.INVENTORY_RESERVED);
+
+    private final OrderRepository orderRepository;
+    private final OrderSaga orderSaga;
+    private final OrderStateMachine stateMachine;
+    private final Duration resendAfter;
+    private final Duration timeout;
+    private final int batchSize;
+    private final Counter resent;
+    private final Counter timedOut;
+    private final Counter republished;
+
+    public OrderSagaRecovery(
+            OrderRepository orderRepository,
+            OrderSaga orderSaga,
+            OrderStateMachine stateMachine,
+            MeterRegistry meterRegistry,
+            @Value("${order.saga.recovery.resend-after}") Duration resendAfter,
+            @Value("${order.saga.recovery.timeout}") Duration timeout,
+            @Value("${order.saga.recovery.batch-size}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderSaga = orderSaga;
+        this.stateMachine = stateMachine;
+        this.resendAfter = resendAfter;
+        this.timeout = timeout;
+        this.batchSize = batchSize;
+        this.resent = Counter.builder("order.saga.recovery.resent").register(meterRegistry);
+        this.timedOut = Counter.builder("order.saga.recovery.timed.out").register(meterRegistry);
+        this.republished = Counter.builder("order.saga.recovery.republished").register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${order.saga.recovery.interval}",
+            fixedDelayString = "${order.saga.recovery.interval}")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Publishes the unacknowledged status changes of one batch of orders, then re-sends or times out
+     * one batch of stalled orders.
+     *
+     * @return The number of orders handled
+     */
+    int run() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime deadline = now.minus(timeout);
+        int handled = 0;
+        try {
+            for (Order order : orderRepository.findUnpublished(now.minus(resendAfter), batchSize)) {
+                republished.increment(stateMachine.republish(order));
+                handled++;
+            }
+            for (Order order :
+                    orderRepository.findStalled(AWAITING_REPLY, now.minus(resendAfter), batchSize)) {
+                if (order.getUpdatedAt().isBefore(deadline)) {
+                    timeOut(order);
+                } else {
+                    orderSaga.resume(order);
+                    resent.increment();
+                }
+                handled++;
+            }
+        } catch (RuntimeException e) {
+            log.error("Order saga recovery failed after {} orders", handled, e);
+        }
+        if (handled > 0) {
+            log.info("Recovered {} stalled orders", handled);
+        }
+        return handled;
+    }
+
+    private void timeOut(Order order) {
+        String reason =
+                order.getStatus() == Order.OrderStatus.PENDING
+                        ? "Timed out waiting for stock reservation"
+                        : "Timed out waiting for payment";
+        // The version check leaves the order alone if a reply moved it on since it was read
+        stateMachine
+                .transition(
+                        order.getId(),
+                        order.getVersion(),
+                        Order.OrderStatus.CANCELLED,
+                        new Update().set("failureReason", reason))
+                .ifPresent(
+                        cancelled -> {
+                            timedOut.increment();
+                            log.warn("Cancelled order {}: {}", cancelled.getId(), reason);
+                        });
+    }
+}
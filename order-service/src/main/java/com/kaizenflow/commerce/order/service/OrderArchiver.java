@@ -0,0 +1,93 @@
+package com.kaizenflow.commerce.order.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.repository.OrderArchive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Every {@code order.archive.interval}, while {@code order.archive.enabled} is on, moves delivered
+ * and cancelled orders older than {@code order.archive.min-age} from the orders collection to the
+ * {@link OrderArchive}, keeping the working set and indexes of the orders collection to orders that
+ * are still read and written.
+ *
+ * <p>Each run moves at most {@code max-batches-per-run} batches of {@code batch-size} orders,
+ * pausing {@code batch-pause} between batches so archiving does not compete with order traffic.
+ * Orders that cannot be archived are quarantined and counted as {@code order.archive.quarantined}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "order.archive.enabled", havingValue = "true")
+public class OrderArchiver {
+
+    private final OrderArchive orderArchive;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final int maxBatchesPerRun;
+    private final Counter archived;
+    private final Counter quarantined;
+
+    public OrderArchiver(
+            OrderArchive orderArchive,
+            MeterRegistry meterRegistry,
+            @Value("${order.archive.batch-size}") int batchSize,
+            @Value("${order.archive.batch-pause}") Duration batchPause,
+            @Value("${order.archive.max-batches-per-run}") int maxBatchesPerRun) {
+        this.orderArchive = orderArchive;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.archived = Counter.builder("order.archive.archived").register(meterRegistry);
+        this.quarantined = Counter.builder("order.archive.quarantined").register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${order.archive.interval}",
+            fixedDelayString = "${order.archive.interval}")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Archives due orders batch by batch until none are left or the run's batch limit is reached.
+     *
+     * @return The number of orders archived
+     */
+    long run() {
+        long total = 0;
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<Order> due = orderArchive.findDue(batchSize);
+                if (due.isEmpty()) {
+                    break;
+                }
+                OrderArchive.ArchiveResult result = orderArchive.archive(due);
+                archived.increment(result.archived());
+                quarantined.increment(result.quarantined());
+                total += result.archived();
+                if (due.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(batchPause);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Order archiving failed after {} orders", total, e);
+        }
+        if (total > 0) {
+            log.info("Archived {} orders", total);
+        }
+        return total;
+    }
+}
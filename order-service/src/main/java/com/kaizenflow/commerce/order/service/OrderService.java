@@ -1,113 +1,297 @@
 package com.kaizenflow.commerce.order.service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.kaizenflow.commerce.order.catalog.CatalogEntry;
+import com.kaizenflow.commerce.order.catalog.CatalogReplica;
+import com.kaizenflow.commerce.order.domain.model.Money;
 import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.domain.model.OrderPage;
+import com.kaizenflow.commerce.order.domain.model.StatusChange;
+import com.kaizenflow.commerce.order.model.OrderItemDTO;
 import com.kaizenflow.commerce.order.model.OrderRequestDTO;
+import com.kaizenflow.commerce.order.repository.GroupCommitOrderWriter;
+import com.kaizenflow.commerce.order.repository.OrderArchive;
+import com.kaizenflow.commerce.order.repository.OrderCursor;
 import com.kaizenflow.commerce.order.repository.OrderRepository;
-
-import lombok.RequiredArgsConstructor;
+import com.kaizenflow.commerce.order.saga.OrderSaga;
 
 @Service
 public class OrderService {
 
+    /** Largest page {@link #getOrders} returns. */
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
+    private final CatalogReplica catalogReplica;
+    private final OrderSaga orderSaga;
+    private final OrderStateMachine stateMachine;
+    private final GroupCommitOrderWriter orderWriter;
+    private final OrderArchive orderArchive;
+    private final Currency currency;
 
     @Autowired
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(
+            OrderRepository orderRepository,
+            CatalogReplica catalogReplica,
+            OrderSaga orderSaga,
+            OrderStateMachine stateMachine,
+            GroupCommitOrderWriter orderWriter,
+            OrderArchive orderArchive,
+            @Value("${order.currency}") Currency currency) {
+        if (currency.getDefaultFractionDigits() != CatalogReplica.PRICE_SCALE) {
+            throw new IllegalArgumentException(
+                    "Catalog prices have "
+                            + CatalogReplica.PRICE_SCALE
+                            + " decimal places, "
+                            + currency
+                            + " has "
+                            + currency.getDefaultFractionDigits());
+        }
         this.orderRepository = orderRepository;
+        this.catalogReplica = catalogReplica;
+        this.orderSaga = orderSaga;
+        this.stateMachine = stateMachine;
+        this.orderWriter = orderWriter;
+        this.orderArchive = orderArchive;
+        this.currency = currency;
     }
 
+    /**
+     * Creates a pending order and starts the placement saga, which reserves stock and takes payment
+     * asynchronously. Items are priced from the local catalog replica; any unit price sent by the
+     * client is ignored.
+     *
+     * @param orderRequest The order request
+     * @return The saved order
+     * @throws IllegalArgumentException if an item is invalid, unknown, unpriced or out of stock
+     * @throws java.util.concurrent.RejectedExecutionException if the order writer is overloaded
+     */
     public Order createOrder(OrderRequestDTO orderRequest) {
+        return createOrder(orderRequest, null);
+    }
+
+    /**
+     * Creates a pending order with a chosen ID and starts the placement saga.
+     *
+     * @param orderRequest The order request
+     * @param orderId The ID to create the order with, or null to generate one
+     * @return The saved order
+     * @throws IllegalArgumentException if an item is invalid, unknown, unpriced or out of stock
+     * @throws java.util.concurrent.RejectedExecutionException if the order writer is overloaded
+     */
+    public Order createOrder(OrderRequestDTO orderRequest, String orderId) {
         Order order = new Order();
+        order.setId(orderId);
         order.setCustomerId(orderRequest.getCustomerId());
         order.setItems(orderRequest.getItems());
         order.setStatus(Order.OrderStatus.PENDING);
 
-        // Calculate total amount
-        BigDecimal totalAmount =
-                orderRequest.getItems().stream()
-                        .map(item -> item.getUnitPrice().multiply(new BigDecimal(item.getQuantity())))
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-        order.setTotalAmount(totalAmount);
+        // Price items and calculate total amount
+        order.setTotalAmount(priceItems(orderRequest.getItems()));
 
         // Set timestamps
         LocalDateTime now = LocalDateTime.now();
         order.setCreatedAt(now);
         order.setUpdatedAt(now);
+        order.setStatusHistory(new ArrayList<>(List.of(new StatusChange(order.getStatus(), now))));
 
-        return orderRepository.save(order);
-    }
-
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        Order saved = orderWriter.insert(order);
+        orderSaga.start(saved);
+        return saved;
     }
 
+    /**
+     * Finds an order, falling back to the archive for orders archived by {@link OrderArchiver}.
+     *
+     * @param orderId The order ID
+     * @return The order, if it exists
+     */
     public Optional<Order> getOrderById(String orderId) {
-        return orderRepository.findById(orderId);
+        Optional<Order> order = orderRepository.findById(orderId);
+        return order.isPresent() ? order : orderArchive.findById(orderId);
     }
 
-    public List<Order> getOrdersByCustomer(String customerId) {
-        return orderRepository.findByCustomerId(customerId);
-    }
-
-    public List<Order> getOrdersByStatus(Order.OrderStatus status) {
-        return orderRepository.findByStatus(status);
-    }
+    /**
+     * Lists orders newest first, one page at a time.
+     *
+     * @param customerId Only orders of this customer, or null for all customers
+     * @param status Only orders in this status, or null for any status
+     * @param pageSize Number of orders per page, between 1 and {@link #MAX_PAGE_SIZE}
+     * @param pageToken Token from the previous page, or null for the first page
+     * @return The requested page
+     * @throws IllegalArgumentException if the page size or token is invalid
+     */
+    public OrderPage getOrders(
+            String customerId, Order.OrderStatus status, int pageSize, String pageToken) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        OrderCursor after = pageToken == null ? null : OrderCursor.decode(pageToken);
 
-    public List<Order> getOrdersByCustomerAndStatus(String customerId, Order.OrderStatus status) {
-        return orderRepository.findByCustomerIdAndStatus(customerId, status);
+        // Fetch one extra order to learn whether another page follows
+        List<Order> orders =
+                orderArchive.mergePage(
+                        orderRepository.findPage(customerId, status, after, pageSize + 1),
+                        customerId,
+                        status,
+                        after,
+                        pageSize + 1);
+        if (orders.size() <= pageSize) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> page = orders.subList(0, pageSize);
+        return new OrderPage(page, OrderCursor.after(page.getLast()).encode());
     }
 
-    public Order updateOrder(String orderId, OrderRequestDTO orderRequest) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+    /**
+     * Replaces the items of a rejected order and places it again.
+     *
+     * @param orderId The order ID
+     * @param items The new items
+     * @return The resubmitted order, or null if not found
+     * @throws IllegalArgumentException if an item is invalid, unknown, unpriced or out of stock
+     * @throws IllegalStateException if the order was not rejected or was modified concurrently
+     */
+    public Order updateOrder(String orderId, List<OrderItemDTO> items) {
+        Optional<Order> orderOpt = getOrderById(orderId);
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
 
-            // Update items if provided
-            if (orderRequest.getItems() != null) {
-                order.setItems(orderRequest.getItems());
-
-                // Recalculate total amount
-                BigDecimal totalAmount =
-                        orderRequest.getItems().stream()
-                                .map(item -> item.getUnitPrice().multiply(new BigDecimal(item.getQuantity())))
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                order.setTotalAmount(totalAmount);
+            // Only orders holding no stock and no payment can be amended
+            if (order.getStatus() != Order.OrderStatus.REJECTED) {
+                throw new IllegalStateException(
+                        "Order " + orderId + " cannot be amended while " + order.getStatus());
             }
 
-            // Update timestamp
-            order.setUpdatedAt(LocalDateTime.now());
+            // Reprice items and recalculate total amount
+            Money totalAmount = priceItems(items);
+            Update resubmission =
+                    new Update().set("items", items).set("totalAmount", totalAmount).unset("failureReason");
 
-            return orderRepository.save(order);
+            // Fails if the order changed since it was read above
+            Order resubmitted =
+                    stateMachine
+                            .transition(orderId, order.getVersion(), Order.OrderStatus.PENDING, resubmission)
+                            .orElseThrow(
+                                    () ->
+                                            new IllegalStateException("Order " + orderId + " was modified concurrently"));
+            orderSaga.start(resubmitted);
+            return resubmitted;
         }
         return null;
     }
 
+    /**
+     * Sets each item's unit price from the catalog replica and checks that the requested quantity is
+     * in stock. The stock check is against the replica only and does not reserve anything.
+     *
+     * @param items The order items, updated in place
+     * @return The order total
+     * @throws IllegalArgumentException if an item is invalid, unknown, unpriced or out of stock
+     * @throws ArithmeticException if the total overflows
+     */
+    private Money priceItems(List<OrderItemDTO> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one item");
+        }
+
+        Map<String, Integer> requestedQuantities = new HashMap<>();
+        long totalMinor = 0;
+        for (OrderItemDTO item : items) {
+            if (item == null
+                    || item.getProductId() == null
+                    || item.getQuantity() == null
+                    || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Each item needs a product ID and a positive quantity");
+            }
+
+            CatalogEntry entry =
+                    catalogReplica
+                            .find(item.getProductId())
+                            .filter(CatalogEntry::hasPrice)
+                            .orElseThrow(
+                                    () -> new IllegalArgumentException("Unknown product: " + item.getProductId()));
+
+            int requested =
+                    requestedQuantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            if (!entry.hasStock(requested)) {
+                throw new IllegalArgumentException(
+                        "Insufficient stock for product: " + item.getProductId());
+            }
+
+            item.setUnitPrice(new Money(entry.unitPriceMinor(), currency).toDecimal());
+            totalMinor = Money.addLine(totalMinor, entry.unitPriceMinor(), item.getQuantity());
+        }
+        return new Money(totalMinor, currency);
+    }
+
+    /**
+     * Records the fulfilment of an order, moving it to shipped or delivered in one conditional
+     * update. The other statuses are only set by the placement saga.
+     *
+     * @param orderId The order ID
+     * @param status The new status, {@code SHIPPED} or {@code DELIVERED}
+     * @return The updated order, or null if not found
+     * @throws IllegalArgumentException if the status is not a fulfilment status
+     * @throws IllegalStateException if the order's current status does not allow the transition
+     */
     public Order updateOrderStatus(String orderId, Order.OrderStatus status) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        if (status != Order.OrderStatus.SHIPPED && status != Order.OrderStatus.DELIVERED) {
+            throw new IllegalArgumentException("Orders cannot be moved to " + status + " by request");
+        }
+        Optional<Order> updated = stateMachine.transition(orderId, status);
+        if (updated.isPresent()) {
+            return updated.get();
+        }
+
+        Optional<Order> orderOpt = getOrderById(orderId);
         if (orderOpt.isPresent()) {
-            Order order = orderOpt.get();
-            order.setStatus(status);
-            order.setUpdatedAt(LocalDateTime.now());
-            return orderRepository.save(order);
+            throw new IllegalStateException(
+                    "Order " + orderId + " cannot move from " + orderOpt.get().getStatus() + " to " + status);
         }
         return null;
     }
 
+    /**
+     * Cancels an order that has not been paid for yet. Inventory-service releases any stock held for
+     * it when it sees the status change, and a payment authorized while the cancellation raced it is
+     * voided by the saga. Cancelling an order that is already cancelled or rejected has no effect.
+     *
+     * @param orderId The order ID
+     * @return The cancelled order, or null if not found
+     * @throws IllegalStateException if the order has already been paid for
+     */
     public Order cancelOrder(String orderId) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
+        Optional<Order> cancelled =
+                stateMachine.transition(
+                        orderId,
+                        Order.OrderStatus.CANCELLED,
+                        new Update().set("failureReason", "Cancelled by request"));
+        if (cancelled.isPresent()) {
+            return cancelled.get();
+        }
+
+        Optional<Order> orderOpt = getOrderById(orderId);
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
-            order.setStatus(Order.OrderStatus.CANCELLED);
-            order.setUpdatedAt(LocalDateTime.now());
-            return orderRepository.save(order);
+            return switch (order.getStatus()) {
+                case CANCELLED, REJECTED -> order;
+                default ->
+                        throw new IllegalStateException(
+                                "Order " + orderId + " can no longer be cancelled: " + order.getStatus());
+            };
         }
         return null;
     }
@@ -0,0 +1,267 @@
+package com.kaizenflow.commerce.order.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.domain.model.Order.OrderStatus;
+import com.kaizenflow.commerce.order.domain.model.OutboxStatusChange;
+import com.kaizenflow.commerce.order.domain.model.StatusChange;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.order.OrderStatusChanged;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The allowed order status transitions, and the only way to apply them.
+ *
+ * <p>A transition is a single conditional update: it matches the order only while it is still at
+ * the status and version it was read at, so of two racing transitions exactly one applies and the
+ * other is retried against the order as the first left it. Each applied transition increments the
+ * order's version, appends to its status history and publishes {@code OrderStatusChanged} on the
+ * order events topic.
+ *
+ * <p>Inventory commits and releases held stock only on these events, so they must not be lost. The
+ * status change is written to the order's outbox in the same update as the transition and removed
+ * once Kafka acknowledges its event; {@link #republish} publishes the ones left behind by a failed
+ * send or a crash, which {@code OrderSagaRecovery} looks for periodically.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderStateMachine {
+
+    private static final Map<OrderStatus, Set<OrderStatus>> SOURCES =
+            new EnumMap<>(OrderStatus.class);
+
+    static {
+        // A rejected order is placed again after its items are amended
+        SOURCES.put(OrderStatus.PENDING, EnumSet.of(OrderStatus.REJECTED));
+        SOURCES.put(OrderStatus.INVENTORY_RESERVED, EnumSet.of(OrderStatus.PENDING));
+        SOURCES.put(OrderStatus.REJECTED, EnumSet.of(OrderStatus.PENDING));
+        SOURCES.put(OrderStatus.CONFIRMED, EnumSet.of(OrderStatus.INVENTORY_RESERVED));
+        SOURCES.put(OrderStatus.SHIPPED, EnumSet.of(OrderStatus.CONFIRMED));
+        SOURCES.put(OrderStatus.DELIVERED, EnumSet.of(OrderStatus.SHIPPED));
+        // Only orders that have not been paid for can be cancelled
+        SOURCES.put(
+                OrderStatus.CANCELLED, EnumSet.of(OrderStatus.PENDING, OrderStatus.INVENTORY_RESERVED));
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final AsyncEventPublisher<OrderEvent> orderEventPublisher;
+
+    @Value("${kafka.topic.order-events}")
+    private String orderEventsTopic;
+
+    /**
+     * Checks whether an order may move directly from one status to another.
+     *
+     * @param from The current status
+     * @param to The target status
+     * @return true if the transition is allowed
+     */
+    public static boolean canTransition(OrderStatus from, OrderStatus to) {
+        return sourcesOf(to).contains(from);
+    }
+
+    /**
+     * @param to The target status
+     * @return The statuses an order may move to the target status from
+     */
+    public static Set<OrderStatus> sourcesOf(OrderStatus to) {
+        return SOURCES.getOrDefault(to, Set.of());
+    }
+
+    /**
+     * Moves an order to a new status if its current status allows it.
+     *
+     * @param orderId The order ID
+     * @param to The target status
+     * @return The updated order, or empty if the order does not exist or its status does not allow
+     *     the transition
+     */
+    public Optional<Order> transition(String orderId, OrderStatus to) {
+        return transition(orderId, null, to, new Update());
+    }
+
+    /**
+     * Moves an order to a new status if its current status allows it, updating other fields in the
+     * same write.
+     *
+     * @param orderId The order ID
+     * @param to The target status
+     * @param changes Further field updates to apply with the transition; extended in place
+     * @return The updated order, or empty if the order does not exist or its status does not allow
+     *     the transition
+     */
+    public Optional<Order> transition(String orderId, OrderStatus to, Update changes) {
+        return transition(orderId, null, to, changes);
+    }
+
+    /**
+     * Moves an order to a new status if its current status allows it and, when a version is given,
+     * the order has not been modified since that version was read.
+     *
+     * @param orderId The order ID
+     * @param expectedVersion The version the order must still be at, or null to accept any version
+     * @param to The target status
+     * @param changes Further field updates to apply with the transition; extended in place
+     * @return The updated order, or empty if the order does not exist, was modified since the
+     *     expected version or its status does not allow the transition
+     */
+    public Optional<Order> transition(
+            String orderId, Long expectedVersion, OrderStatus to, Update changes) {
+        Set<OrderStatus> sources = sourcesOf(to);
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("No order can move to status " + to);
+        }
+
+        Criteria criteria = Criteria.where("_id").is(orderId).and("status").in(sources);
+        if (expectedVersion != null) {
+            atVersion(criteria, expectedVersion);
+        }
+        Query current = Query.query(criteria);
+        current.fields().include("status").include("version");
+
+        // The outbox entry records the version the transition produces, so the transition is applied
+        // to the version just read; when another write got there first, the order is read again
+        while (true) {
+            Order found = mongoTemplate.findOne(current, Order.class);
+            if (found == null) {
+                return Optional.empty();
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            OutboxStatusChange change =
+                    new OutboxStatusChange(found.getStatus(), to, found.currentVersion() + 1, now);
+            changes
+                    .set("status", to)
+                    .set("updatedAt", now)
+                    .inc("version", 1)
+                    .push("statusHistory", new StatusChange(to, now))
+                    .push("outbox", change);
+
+            Order updated =
+                    mongoTemplate.findAndModify(
+                            Query.query(
+                                    atVersion(
+                                            Criteria.where("_id").is(orderId).and("status").is(found.getStatus()),
+                                            found.currentVersion())),
+                            changes,
+                            FindAndModifyOptions.options().returnNew(true),
+                            Order.class);
+            if (updated != null) {
+                publishStatusChanged(updated, change);
+                return Optional.of(updated);
+            }
+        }
+    }
+
+    /**
+     * Matches an order at a version. Orders stored before orders were versioned have no version field
+     * and match version 0; the transition's increment then sets it to 1.
+     */
+    private static Criteria atVersion(Criteria criteria, long version) {
+        return version == 0
+                ? criteria.and("version").in(0L, null)
+                : criteria.and("version").is(version);
+    }
+
+    /**
+     * Publishes the status changes of an order whose events were not acknowledged. Consumers ignore a
+     * status change they have already seen, so this is safe if the original event was delivered after
+     * all.
+     *
+     * @param order The order, with its outbox
+     * @return The number of events published
+     */
+    public int republish(Order order) {
+        List<OutboxStatusChange> outbox = order.getOutbox();
+        if (outbox == null) {
+            return 0;
+        }
+        outbox.forEach(change -> publishStatusChanged(order, change));
+        return outbox.size();
+    }
+
+    /**
+     * Finds the status an order was in before its latest transition.
+     *
+     * @param order The order
+     * @return The previous status change, or empty if the order has not changed status yet
+     */
+    public static Optional<StatusChange> previousStatus(Order order) {
+        List<StatusChange> history = order.getStatusHistory();
+        if (history == null || history.size() < 2) {
+            return Optional.empty();
+        }
+        return Optional.of(history.get(history.size() - 2));
+    }
+
+    private void publishStatusChanged(Order order, OutboxStatusChange change) {
+        OrderStatusChanged.Builder changed =
+                OrderStatusChanged.newBuilder()
+                        .setPreviousStatus(toProto(change.getPreviousStatus()))
+                        .setStatus(toProto(change.getStatus()))
+                        .setVersion(change.getVersion())
+                        .setCustomerId(order.getCustomerId());
+
+        Instant now = Instant.now();
+        OrderEvent event =
+                OrderEvent.newBuilder()
+                        .setOrderId(order.getId())
+                        .setTimestamp(
+                                Timestamp.newBuilder().setSeconds(now.getEpochSecond()).setNanos(now.getNano()))
+                        .setStatusChanged(changed)
+                        .build();
+        // Acknowledged off the producer's I/O thread, which must not wait on the database
+        orderEventPublisher
+                .publish(orderEventsTopic, order.getId(), event)
+                .whenCompleteAsync(
+                        (result, ex) -> {
+                            if (ex != null) {
+                                log.error(
+                                        "Failed to publish status change to {} for order {}, left in its outbox",
+                                        change.getStatus(),
+                                        order.getId(),
+                                        ex);
+                            } else {
+                                acknowledge(order.getId(), change.getVersion());
+                            }
+                        });
+    }
+
+    /** Removes a published status change from the order's outbox, without touching its version. */
+    private void acknowledge(String orderId, long version) {
+        try {
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(orderId)),
+                    new Update().pull("outbox", new Document("version", version)),
+                    Order.class);
+        } catch (RuntimeException e) {
+            log.warn("Failed to clear published status change {} of order {}", version, orderId, e);
+        }
+    }
+
+    private static com.kaizenflow.commerce.proto.order.OrderStatus toProto(OrderStatus status) {
+        return com.kaizenflow.commerce.proto.order.OrderStatus.valueOf(status.name());
+    }
+}
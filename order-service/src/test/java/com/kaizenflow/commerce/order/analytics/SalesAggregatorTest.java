@@ -0,0 +1,150 @@
+package com.kaizenflow.commerce.order.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.order.catalog.CatalogReplica;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.order.OrderLine;
+import com.kaizenflow.commerce.proto.order.OrderPlaced;
+import com.kaizenflow.commerce.proto.order.OrderStatus;
+import com.kaizenflow.commerce.proto.order.OrderStatusChanged;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SalesAggregatorTest {
+
+    // 10:00 on some day, in minutes since the epoch
+    private static final long NOW_MINUTE = 29_000_000;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CatalogReplica catalog = new CatalogReplica(registry);
+    private final Clock clock =
+            Clock.fixed(Instant.ofEpochSecond(NOW_MINUTE * 60 + 30), ZoneOffset.UTC);
+    private SalesAggregator aggregator = newAggregator();
+
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        catalog.updateProduct("lamp", "Desk lamp", "Lighting", 1500, 1);
+        catalog.updateProduct("bulb", "Bulb", "Lighting", 200, 1);
+        catalog.updateProduct("mug", "Mug", "Kitchen", 800, 1);
+    }
+
+    @Test
+    void countsConfirmedOrdersInTheMinuteTheyAreConfirmed() {
+        sell("o1", 0, line("lamp", 1, 1500), line("bulb", 3, 200));
+        sell("o2", 2, line("mug", 2, 800));
+
+        SalesDashboard last2 = aggregator.dashboard(2, 10);
+        assertEquals(new SalesTotals(2100, 1, 4), last2.total());
+        assertEquals(List.of(SalesTotals.ZERO, new SalesTotals(2100, 1, 4)), last2.perMinute());
+
+        SalesDashboard last5 = aggregator.dashboard(5, 10);
+        assertEquals(new SalesTotals(3700, 2, 6), last5.total());
+        assertEquals(
+                List.of(
+                        new SalesDashboard.Ranked("Lighting", new SalesTotals(2100, 1, 4)),
+                        new SalesDashboard.Ranked("Kitchen", new SalesTotals(1600, 1, 2))),
+                last5.categories());
+        assertEquals(
+                List.of(
+                        new SalesDashboard.Ranked("mug", new SalesTotals(1600, 1, 2)),
+                        new SalesDashboard.Ranked("lamp", new SalesTotals(1500, 1, 1))),
+                aggregator.dashboard(5, 2).topProducts());
+    }
+
+    @Test
+    void ignoresRejectedOrdersAndRedeliveredEvents() {
+        apply(placed("o1", line("lamp", 1, 1500)));
+        apply(statusChanged("o1", OrderStatus.REJECTED, 0));
+        apply(statusChanged("o1", OrderStatus.CONFIRMED, 0));
+
+        OrderEvent placed = placed("o2", line("mug", 1, 800));
+        OrderEvent confirmed = statusChanged("o2", OrderStatus.CONFIRMED, 0);
+        aggregator.apply(placed, 0, 10);
+        aggregator.apply(confirmed, 0, 11);
+        aggregator.apply(placed, 0, 10);
+        aggregator.apply(confirmed, 0, 11);
+
+        assertEquals(new SalesTotals(800, 1, 1), aggregator.dashboard(1, 10).total());
+    }
+
+    @Test
+    void dropsSalesOlderThanTheRetention() {
+        sell("o1", 60, line("lamp", 1, 1500));
+        sell("o2", 59, line("lamp", 1, 1500));
+
+        assertEquals(new SalesTotals(1500, 1, 1), aggregator.dashboard(60, 10).total());
+        assertEquals(1.0, registry.get("order.analytics.late").counter().count());
+        assertThrows(IllegalArgumentException.class, () -> aggregator.dashboard(61, 10));
+    }
+
+    @Test
+    void resumesFromACheckpoint() {
+        sell("o1", 1, line("lamp", 2, 1500));
+        apply(placed("o2", line("mug", 1, 800)));
+
+        SalesCheckpoint checkpoint = aggregator.checkpoint();
+        aggregator = newAggregator();
+        aggregator.restore(checkpoint);
+        apply(statusChanged("o2", OrderStatus.CONFIRMED, 0));
+
+        assertEquals(offset, aggregator.resumeOffset(0).orElseThrow());
+        assertEquals(new SalesTotals(3800, 2, 3), aggregator.dashboard(5, 10).total());
+    }
+
+    private SalesAggregator newAggregator() {
+        return new SalesAggregator(catalog, registry, Duration.ofMinutes(60), 100, clock);
+    }
+
+    private void sell(String orderId, int minutesAgo, OrderLine... lines) {
+        apply(placed(orderId, lines));
+        apply(statusChanged(orderId, OrderStatus.CONFIRMED, minutesAgo));
+    }
+
+    private void apply(OrderEvent event) {
+        aggregator.apply(event, 0, offset++);
+    }
+
+    private static OrderEvent placed(String orderId, OrderLine... lines) {
+        OrderPlaced.Builder placed = OrderPlaced.newBuilder().setCustomerId("customer-1");
+        long total = 0;
+        for (OrderLine line : lines) {
+            placed.addLines(line);
+            total += line.getUnitPriceMinor() * line.getQuantity();
+        }
+        return OrderEvent.newBuilder()
+                .setOrderId(orderId)
+                .setPlaced(placed.setTotalMinor(total))
+                .build();
+    }
+
+    private static OrderEvent statusChanged(String orderId, OrderStatus status, int minutesAgo) {
+        return OrderEvent.newBuilder()
+                .setOrderId(orderId)
+                .setTimestamp(Timestamp.newBuilder().setSeconds((NOW_MINUTE - minutesAgo) * 60 + 5))
+                .setStatusChanged(
+                        OrderStatusChanged.newBuilder().setStatus(status).setCustomerId("customer-1"))
+                .build();
+    }
+
+    private static OrderLine line(String productId, int quantity, long unitPriceMinor) {
+        return OrderLine.newBuilder()
+                .setProductId(productId)
+                .setQuantity(quantity)
+                .setUnitPriceMinor(unitPriceMinor)
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.kaizenflow.commerce.order.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CatalogReplicaTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CatalogReplica replica = new CatalogReplica(registry);
+
+    @Test
+    void pricesAndStockAreMergedPerProduct() {
+        replica.updateStock("p1", 7, 100);
+        assertTrue(replica.find("p1").isEmpty(), "stock alone does not make a product orderable");
+
+        replica.updateProduct("p1", "Desk lamp", "Lighting", CatalogReplica.toMinorUnits(19.99), 100);
+
+        CatalogEntry entry = replica.find("p1").orElseThrow();
+        assertEquals("Desk lamp", entry.name());
+        assertEquals("Lighting", entry.category());
+        assertEquals(1999, entry.unitPriceMinor());
+        assertEquals(new BigDecimal("19.99"), entry.unitPrice());
+        assertTrue(entry.hasStock(7));
+        assertFalse(entry.hasStock(8));
+        assertEquals(1, replica.size());
+    }
+
+    @Test
+    void olderEventsDoNotOverwriteNewerOnes() {
+        replica.updatePrice("p1", 500, 200);
+        replica.updatePrice("p1", 400, 100);
+        replica.updateStock("p1", 3, 200);
+        replica.updateStock("p1", 9, 100);
+
+        CatalogEntry entry = replica.find("p1").orElseThrow();
+        assertEquals(500, entry.unitPriceMinor());
+        assertEquals(3, entry.availableQuantity());
+
+        replica.remove("p1", 300);
+        replica.updatePrice("p1", 600, 250);
+        assertTrue(replica.find("p1").isEmpty());
+        assertEquals(0, replica.size());
+    }
+
+    @Test
+    void restoresACheckpointWithoutOverwritingNewerEvents() {
+        replica.updateProduct("p1", "Desk lamp", "Lighting", 1999, 100);
+        replica.updateStock("p1", 5, 100);
+        replica.updateProduct("p2", "Shelf", "Furniture", 4500, 100);
+        replica.remove("p2", 200);
+        CatalogCheckpoint.Products checkpoint = replica.checkpoint();
+
+        CatalogReplica restored = new CatalogReplica(new SimpleMeterRegistry());
+        restored.updateStock("p1", 2, 300);
+        restored.restore(checkpoint);
+
+        CatalogEntry entry = restored.find("p1").orElseThrow();
+        assertEquals("Desk lamp", entry.name());
+        assertEquals(1999, entry.unitPriceMinor());
+        assertEquals(2, entry.availableQuantity(), "the newer stock event is kept");
+        assertTrue(restored.find("p2").isEmpty());
+        assertEquals(1, restored.size());
+
+        restored.updatePrice("p2", 4000, 150);
+        assertTrue(restored.find("p2").isEmpty(), "an older event does not undo the removal");
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        for (int i = 0; i < 5000; i++) {
+            replica.updatePrice("product-" + i, i, 1);
+        }
+
+        assertEquals(5000, replica.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, replica.find("product-" + i).orElseThrow().unitPriceMinor());
+        }
+        assertTrue(replica.find("product-5000").isEmpty());
+    }
+
+    @Test
+    void reportsSizeAndLagGauges() {
+        replica.updatePrice("p1", 100, System.currentTimeMillis() - 2000);
+
+        assertEquals(1.0, registry.get("order.catalog.replica.size").gauge().value());
+        double lag = registry.get("order.catalog.replica.lag").tag("source", "product").gauge().value();
+        assertTrue(lag >= 2.0, "lag was " + lag);
+        assertTrue(
+                Double.isNaN(
+                        registry
+                                .get("order.catalog.replica.staleness")
+                                .tag("source", "inventory")
+                                .gauge()
+                                .value()));
+    }
+}
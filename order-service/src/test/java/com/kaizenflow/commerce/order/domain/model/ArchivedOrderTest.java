@@ -0,0 +1,44 @@
+package com.kaizenflow.commerce.order.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.kaizenflow.commerce.order.model.OrderItemDTO;
+
+class ArchivedOrderTest {
+
+    @Test
+    void roundTripsThroughArchive() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 10, 9, 30);
+        Order order =
+                Order.builder()
+                        .id("67f0c2a1e4b0a1b2c3d4e5f6")
+                        .customerId("customer-1")
+                        .items(
+                                List.of(
+                                        new OrderItemDTO()
+                                                .productId("product-1")
+                                                .quantity(2)
+                                                .unitPrice(new BigDecimal("19.99")),
+                                        new OrderItemDTO()
+                                                .productId("product-2")
+                                                .quantity(1)
+                                                .unitPrice(new BigDecimal("5.00"))))
+                        .status(Order.OrderStatus.DELIVERED)
+                        .totalAmount(new Money(4498, Currency.getInstance("GBP")))
+                        .paymentId("payment-1")
+                        .createdAt(createdAt)
+                        .updatedAt(createdAt.plusDays(3))
+                        .version(4L)
+                        .statusHistory(List.of(new StatusChange(Order.OrderStatus.PENDING, createdAt)))
+                        .build();
+
+        assertEquals(order, ArchivedOrder.from(order, LocalDateTime.now()).toOrder());
+    }
+}
@@ -0,0 +1,91 @@
+package com.kaizenflow.commerce.order.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    private static final Currency GBP = Currency.getInstance("GBP");
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void lineTotalsMatchDecimalArithmetic() {
+        Random random = new Random(35);
+        for (int i = 0; i < SAMPLES / 100; i++) {
+            int lines = 1 + random.nextInt(200);
+            Money total = Money.zero(GBP);
+            long totalMinor = 0;
+            BigDecimal expected = BigDecimal.ZERO;
+            for (int line = 0; line < lines; line++) {
+                long unitMinor = random.nextLong(10_000_000);
+                int quantity = 1 + random.nextInt(1_000);
+                total = total.plus(new Money(unitMinor, GBP).times(quantity));
+                totalMinor = Money.addLine(totalMinor, unitMinor, quantity);
+                expected =
+                        expected.add(BigDecimal.valueOf(unitMinor, 2).multiply(new BigDecimal(quantity)));
+            }
+            assertEquals(0, expected.compareTo(total.toDecimal()), total::toString);
+            assertEquals(total, new Money(totalMinor, GBP));
+        }
+    }
+
+    @Test
+    void ratesRoundLikeDecimalArithmetic() {
+        Random random = new Random(36);
+        for (RoundingMode rounding : RoundingMode.values()) {
+            if (rounding == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            for (int i = 0; i < SAMPLES; i++) {
+                Money amount = new Money(random.nextLong(-1_000_000_000L, 1_000_000_000L), GBP);
+                long numerator = random.nextLong(-20_000, 20_000);
+                long denominator = 1 + random.nextLong(10_000);
+
+                BigDecimal expected =
+                        amount
+                                .toDecimal()
+                                .multiply(BigDecimal.valueOf(numerator))
+                                .divide(BigDecimal.valueOf(denominator), 2, rounding);
+                assertEquals(
+                        expected,
+                        amount.multiply(numerator, denominator, rounding).toDecimal(),
+                        () -> amount + " * " + numerator + "/" + denominator + " " + rounding);
+            }
+        }
+    }
+
+    @Test
+    void roundsTiesByMode() {
+        Money fivePence = new Money(5, GBP);
+
+        assertEquals(2, fivePence.multiply(1, 2, RoundingMode.HALF_EVEN).amountMinor());
+        assertEquals(3, fivePence.multiply(1, 2, RoundingMode.HALF_UP).amountMinor());
+        assertEquals(2, fivePence.multiply(1, 2, RoundingMode.HALF_DOWN).amountMinor());
+        assertEquals(-3, fivePence.multiply(-1, 2, RoundingMode.HALF_UP).amountMinor());
+        assertThrows(
+                ArithmeticException.class, () -> fivePence.multiply(1, 2, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    void convertsDecimalsExactly() {
+        assertEquals(new Money(1999, GBP), Money.of(new BigDecimal("19.99"), GBP));
+        assertEquals(new Money(1990, GBP), Money.of(new BigDecimal("19.9"), GBP));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("19.999"), GBP));
+    }
+
+    @Test
+    void rejectsMixedCurrenciesAndOverflow() {
+        Money pounds = new Money(100, GBP);
+        Money euros = new Money(100, Currency.getInstance("EUR"));
+
+        assertThrows(IllegalArgumentException.class, () -> pounds.plus(euros));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MAX_VALUE, GBP).times(2));
+    }
+}
@@ -0,0 +1,158 @@
+package com.kaizenflow.commerce.order.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Currency;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.order.catalog.CatalogReplica;
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.proto.order.OrderLine;
+import com.kaizenflow.commerce.proto.order.OrderPlaced;
+import com.kaizenflow.commerce.proto.order.OrderStatus;
+import com.kaizenflow.commerce.proto.order.OrderStatusChanged;
+import com.mongodb.client.result.UpdateResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderHistoryProjectionTest {
+
+    private static final int RECENT_SIZE = 3;
+    private static final int BUCKET_SIZE = 2;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final OrderHistoryProjection projection =
+            new OrderHistoryProjection(
+                    mongoTemplate,
+                    new CatalogReplica(new SimpleMeterRegistry()),
+                    Currency.getInstance("GBP"),
+                    RECENT_SIZE,
+                    BUCKET_SIZE);
+
+    private final OrderPlaced placed =
+            OrderPlaced.newBuilder()
+                    .setCustomerId("customer-1")
+                    .addLines(OrderLine.newBuilder().setProductId("p1").setQuantity(2))
+                    .setTotalMinor(1000)
+                    .build();
+
+    @BeforeEach
+    void setUp() {
+        // The order is not in the history yet
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), any(Class.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+    }
+
+    @Test
+    void countsBuckets() {
+        assertEquals(0, projection.bucketCount(history(2)));
+        assertEquals(0, projection.bucketCount(history(3)));
+        assertEquals(1, projection.bucketCount(history(4)));
+        assertEquals(1, projection.bucketCount(history(5)));
+        assertEquals(2, projection.bucketCount(history(6)));
+    }
+
+    @Test
+    void keepsRecentOrdersInOneDocument() {
+        whenPushedOnto(history(2));
+
+        projection.onOrderPlaced("order-3", Timestamp.getDefaultInstance(), placed);
+
+        verify(mongoTemplate, never())
+                .upsert(any(Query.class), any(Update.class), eq(OrderHistoryBucket.class));
+    }
+
+    @Test
+    void movesTheOldestRecentOrderToTheCurrentBucket() {
+        // Orders 0-2 went to bucket 0 and 1 as they overflowed; the fourth overflow starts bucket 1
+        whenPushedOnto(history(6));
+
+        projection.onOrderPlaced("order-7", Timestamp.getDefaultInstance(), placed);
+
+        ArgumentCaptor<Query> bucketQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate)
+                .upsert(bucketQuery.capture(), any(Update.class), eq(OrderHistoryBucket.class));
+        assertEquals("customer-1:1", bucketQuery.getValue().getQueryObject().get("_id"));
+    }
+
+    @Test
+    void ignoresAnOlderPlacementOfAnOrderAlreadyInTheHistory() {
+        // The refresh matches no older placement, but the order is in the recent list
+        when(mongoTemplate.exists(any(Query.class), eq(CustomerOrderHistory.class))).thenReturn(true);
+
+        projection.onOrderPlaced("order-1", Timestamp.getDefaultInstance(), placed);
+
+        verify(mongoTemplate, never())
+                .findAndModify(
+                        any(Query.class),
+                        any(Update.class),
+                        any(FindAndModifyOptions.class),
+                        eq(CustomerOrderHistory.class));
+    }
+
+    @Test
+    void keepsAStatusChangeHandledBeforeThePlacement() {
+        projection.onStatusChanged(
+                "order-1",
+                OrderStatusChanged.newBuilder()
+                        .setStatus(OrderStatus.CONFIRMED)
+                        .setVersion(3)
+                        .setCustomerId("customer-1")
+                        .build());
+
+        ArgumentCaptor<Update> pending = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate)
+                .upsert(any(Query.class), pending.capture(), eq(PendingStatusChange.class));
+        Document set = (Document) pending.getValue().getUpdateObject().get("$set");
+        assertEquals(Order.OrderStatus.CONFIRMED, set.get("status"));
+        assertEquals(3L, set.get("version"));
+    }
+
+    @Test
+    void appliesAPendingStatusChangeWithThePlacement() {
+        whenPushedOnto(history(1));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(PendingStatusChange.class)))
+                .thenReturn(new PendingStatusChange("order-2", Order.OrderStatus.CONFIRMED, 3, null));
+
+        projection.onOrderPlaced("order-2", Timestamp.getDefaultInstance(), placed);
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2))
+                .updateFirst(any(Query.class), updates.capture(), eq(CustomerOrderHistory.class));
+        Document set = (Document) updates.getValue().getUpdateObject().get("$set");
+        assertEquals(Order.OrderStatus.CONFIRMED, set.get("recent.$.status"));
+        assertEquals(3L, set.get("recent.$.version"));
+    }
+
+    private void whenPushedOnto(CustomerOrderHistory before) {
+        when(mongoTemplate.findAndModify(
+                        any(Query.class),
+                        any(Update.class),
+                        any(FindAndModifyOptions.class),
+                        eq(CustomerOrderHistory.class)))
+                .thenReturn(before);
+    }
+
+    private static CustomerOrderHistory history(long orderCount) {
+        int recent = (int) Math.min(orderCount, RECENT_SIZE);
+        return new CustomerOrderHistory(
+                "customer-1", Collections.nCopies(recent, new OrderSummary()), orderCount, null);
+    }
+}
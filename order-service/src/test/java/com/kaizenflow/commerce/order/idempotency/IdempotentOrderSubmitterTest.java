@@ -0,0 +1,223 @@
+package com.kaizenflow.commerce.order.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.model.OrderItemDTO;
+import com.kaizenflow.commerce.order.model.OrderRequestDTO;
+import com.mongodb.client.result.UpdateResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotentOrderSubmitterTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final IdempotentOrderSubmitter submitter =
+            new IdempotentOrderSubmitter(
+                    mongoTemplate,
+                    new SimpleMeterRegistry(),
+                    Duration.ofHours(24),
+                    Duration.ofSeconds(5),
+                    100);
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final OrderRequestDTO request = request(2);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void retriesReturnTheFirstOrder() {
+        Order first = submitter.submit("key-1", request, this::createOrder);
+        Order retry = submitter.submit("key-1", request(2), this::createOrder);
+
+        assertSame(first, retry);
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, Order> slowCreate =
+                orderId -> {
+                    creating.countDown();
+                    await(release);
+                    return createOrder(orderId);
+                };
+
+        Future<Order> first = callers.submit(() -> submitter.submit("key-1", request, slowCreate));
+        creating.await();
+        List<Future<Order>> duplicates =
+                List.of(
+                        callers.submit(() -> submitter.submit("key-1", request, this::createOrder)),
+                        callers.submit(() -> submitter.submit("key-1", request, this::createOrder)));
+        release.countDown();
+
+        for (Future<Order> duplicate : duplicates) {
+            assertSame(first.get(), duplicate.get());
+        }
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentOrder() {
+        submitter.submit("key-1", request, this::createOrder);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> submitter.submit("key-1", request(3), this::createOrder));
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void returnsAnOrderCreatedByAnotherInstance() {
+        Order stored = Order.builder().id("order-9").build();
+        when(mongoTemplate.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findById("customer-1:key-1", IdempotencyRecord.class))
+                .thenReturn(
+                        IdempotencyRecord.builder()
+                                .id("customer-1:key-1")
+                                .requestHash(IdempotentOrderSubmitter.fingerprint(request))
+                                .order(stored)
+                                .claimedAt(LocalDateTime.now())
+                                .expiresAt(LocalDateTime.now().plusHours(1))
+                                .build());
+
+        assertSame(stored, submitter.submit("key-1", request, this::createOrder));
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void releasesTheKeyWhenTheOrderFails() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        submitter.submit(
+                                "key-1",
+                                request,
+                                orderId -> {
+                                    throw new IllegalArgumentException("Out of stock");
+                                }));
+
+        verify(mongoTemplate).remove(any(Query.class), eq(IdempotencyRecord.class));
+        submitter.submit("key-1", request, this::createOrder);
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void rejectsIncompleteRequestsBeforeClaimingTheKey() {
+        OrderRequestDTO noCustomer = request(1).customerId(null);
+        OrderRequestDTO noItems = new OrderRequestDTO().customerId("customer-1");
+        OrderRequestDTO nullItem =
+                new OrderRequestDTO().customerId("customer-1").items(Arrays.asList((OrderItemDTO) null));
+
+        for (OrderRequestDTO incomplete : List.of(noCustomer, noItems, nullItem)) {
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () -> submitter.submit("key-1", incomplete, this::createOrder));
+        }
+        verify(mongoTemplate, never()).insert(any(IdempotencyRecord.class));
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void losingTheRaceForAnExpiredKeyIsAConflict() {
+        when(mongoTemplate.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findById("customer-1:key-1", IdempotencyRecord.class)).thenReturn(null);
+
+        assertThrows(
+                IllegalStateException.class, () -> submitter.submit("key-1", request, this::createOrder));
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void aClaimLeftIncompleteIsCompletedWithTheOrderAlreadyCreated() {
+        when(mongoTemplate.save(any(IdempotencyRecord.class)))
+                .thenThrow(new DataAccessResourceFailureException("primary stepped down"));
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+
+        Order first = submitter.submit("key-1", request, this::createOrder);
+        verify(mongoTemplate).insert(claim.capture());
+        assertEquals(claim.getValue().getOrderId(), first.getId());
+
+        // A retry reaching another instance once the incomplete claim has timed out
+        IdempotentOrderSubmitter other =
+                new IdempotentOrderSubmitter(
+                        mongoTemplate,
+                        new SimpleMeterRegistry(),
+                        Duration.ofHours(24),
+                        Duration.ofSeconds(5),
+                        100);
+        when(mongoTemplate.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        when(mongoTemplate.findById("customer-1:key-1", IdempotencyRecord.class))
+                .thenReturn(
+                        IdempotencyRecord.builder()
+                                .id("customer-1:key-1")
+                                .requestHash(IdempotentOrderSubmitter.fingerprint(request))
+                                .orderId(first.getId())
+                                .claimedAt(LocalDateTime.now().minusMinutes(1))
+                                .expiresAt(LocalDateTime.now().plusHours(1))
+                                .build());
+        when(mongoTemplate.updateFirst(
+                        any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.findById(first.getId(), Order.class)).thenReturn(first);
+
+        assertSame(first, other.submit("key-1", request, this::createOrder));
+        assertEquals(1, created.get());
+    }
+
+    private Order createOrder(String orderId) {
+        created.incrementAndGet();
+        return Order.builder().id(orderId).build();
+    }
+
+    private static OrderRequestDTO request(int quantity) {
+        return new OrderRequestDTO()
+                .customerId("customer-1")
+                .items(List.of(new OrderItemDTO().productId("product-1").quantity(quantity)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.kaizenflow.commerce.order.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.WriteConcernError;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GroupCommitOrderWriterTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOps = mock(BulkOperations.class);
+    private final ExecutorService callers = Executors.newFixedThreadPool(32);
+    private GroupCommitOrderWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Order.class)))
+                .thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenReturn(bulkOps);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        writer.stop();
+    }
+
+    @Test
+    void batchesConcurrentInserts() throws Exception {
+        writer = start(16, Duration.ofMillis(20));
+
+        List<Future<Order>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            results.add(callers.submit(() -> writer.insert(new Order())));
+        }
+        for (Future<Order> result : results) {
+            assertNotNull(result.get().getId());
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Order>> batches = ArgumentCaptor.forClass(List.class);
+        verify(bulkOps, atLeastOnce()).insert(batches.capture());
+        assertEquals(100, batches.getAllValues().stream().mapToInt(List::size).sum());
+        assertTrue(batches.getAllValues().size() < 100, "inserts were not batched");
+        assertTrue(batches.getAllValues().stream().allMatch(batch -> batch.size() <= 16));
+    }
+
+    @Test
+    void failsOnlyTheRejectedDocumentsOfABatch() throws Exception {
+        BulkOperationException duplicate = mock(BulkOperationException.class);
+        when(duplicate.getErrors())
+                .thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)));
+        when(bulkOps.execute()).thenThrow(duplicate);
+        writer = start(2, Duration.ofSeconds(5));
+
+        Future<Order> first = callers.submit(() -> writer.insert(new Order()));
+        Future<Order> second = callers.submit(() -> writer.insert(new Order()));
+
+        int failed = 0;
+        for (Future<Order> result : List.of(first, second)) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                assertEquals(duplicate, e.getCause());
+                failed++;
+            }
+        }
+        assertEquals(1, failed);
+    }
+
+    @Test
+    void failsTheWholeBatchOnAWriteConcernError() throws Exception {
+        MongoBulkWriteException source = mock(MongoBulkWriteException.class);
+        when(source.getWriteConcernError()).thenReturn(mock(WriteConcernError.class));
+        BulkOperationException unacknowledged = mock(BulkOperationException.class);
+        when(unacknowledged.getCause()).thenReturn(source);
+        when(unacknowledged.getErrors())
+                .thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)));
+        when(bulkOps.execute()).thenThrow(unacknowledged);
+        writer = start(2, Duration.ofSeconds(5));
+
+        assertBatchFails(unacknowledged);
+    }
+
+    @Test
+    void failsTheWholeBatchWhenNoDocumentIsNamed() throws Exception {
+        BulkOperationException unexplained = mock(BulkOperationException.class);
+        when(unexplained.getErrors()).thenReturn(List.of());
+        when(bulkOps.execute()).thenThrow(unexplained);
+        writer = start(2, Duration.ofSeconds(5));
+
+        assertBatchFails(unexplained);
+    }
+
+    @Test
+    void rejectsOrdersQueuedAfterTheWriterStopped() throws Exception {
+        writer = start(16, Duration.ofMillis(20));
+        writer.stop();
+        // An insert that saw the writer running just before its loop exited
+        ReflectionTestUtils.setField(writer, "running", true);
+
+        assertTimeoutPreemptively(
+                Duration.ofSeconds(5),
+                () -> assertThrows(RejectedExecutionException.class, () -> writer.insert(new Order())));
+        verify(bulkOps, never()).insert(anyList());
+    }
+
+    private void assertBatchFails(BulkOperationException failure) {
+        Future<Order> first = callers.submit(() -> writer.insert(new Order()));
+        Future<Order> second = callers.submit(() -> writer.insert(new Order()));
+
+        for (Future<Order> result : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, result::get);
+            assertEquals(failure, e.getCause());
+        }
+    }
+
+    private GroupCommitOrderWriter start(int maxBatchSize, Duration maxDelay) {
+        GroupCommitOrderWriter groupCommit =
+                new GroupCommitOrderWriter(
+                        mongoTemplate,
+                        new SimpleMeterRegistry(),
+                        true,
+                        maxBatchSize,
+                        maxDelay,
+                        1_000,
+                        Duration.ofSeconds(1));
+        groupCommit.start();
+        return groupCommit;
+    }
+}
@@ -0,0 +1,123 @@
+package com.kaizenflow.commerce.order.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.kaizenflow.commerce.order.domain.model.ArchivedOrder;
+import com.kaizenflow.commerce.order.domain.model.Money;
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.model.OrderItemDTO;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+
+class OrderArchiveTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOps = mock(BulkOperations.class);
+    private final OrderArchive archive = new OrderArchive(mongoTemplate, Duration.ofDays(90));
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(ArchivedOrder.class)))
+                .thenReturn(bulkOps);
+        when(bulkOps.insert(anyList())).thenReturn(bulkOps);
+        when(mongoTemplate.remove(any(Query.class), eq(Order.class)))
+                .thenReturn(DeleteResult.acknowledged(1));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Order.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    @Test
+    void quarantinesMalformedOrdersAndArchivesTheRest() {
+        Order valid = order("valid", new BigDecimal("19.99"));
+        // Legacy order priced with sub-penny precision
+        Order malformed = order("malformed", new BigDecimal("19.999"));
+
+        OrderArchive.ArchiveResult result = archive.archive(List.of(malformed, valid));
+
+        assertEquals(new OrderArchive.ArchiveResult(1, 1), result);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ArchivedOrder>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOps).insert(inserted.capture());
+        assertEquals(List.of("valid"), inserted.getValue().stream().map(ArchivedOrder::getId).toList());
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(Order.class));
+        assertEquals(
+                List.of("valid"),
+                removed.getValue().getQueryObject().get("_id", Document.class).get("$in"));
+
+        ArgumentCaptor<Query> quarantined = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(quarantined.capture(), update.capture(), eq(Order.class));
+        assertEquals("malformed", quarantined.getValue().getQueryObject().get("_id"));
+        assertNotNull(
+                update.getValue().getUpdateObject().get("$set", Document.class).get("archiveError"));
+    }
+
+    @Test
+    void quarantinesOrdersWithMissingFields() {
+        Order noItems = order("no-items", new BigDecimal("5.00"));
+        noItems.setItems(Arrays.asList((OrderItemDTO) null));
+        Order noTotal = order("no-total", new BigDecimal("5.00"));
+        noTotal.setTotalAmount(null);
+
+        assertEquals(new OrderArchive.ArchiveResult(0, 2), archive.archive(List.of(noItems, noTotal)));
+    }
+
+    @Test
+    void quarantinedOrdersAreNoLongerDue() {
+        archive.findDue(10);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Order.class));
+        assertEquals(
+                new Document("$exists", false), query.getValue().getQueryObject().get("archiveError"));
+    }
+
+    @Test
+    void ordersWithUnpublishedStatusChangesAreNotDue() {
+        archive.findDue(10);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Order.class));
+        assertEquals(new Document("$exists", false), query.getValue().getQueryObject().get("outbox.0"));
+    }
+
+    private static Order order(String id, BigDecimal unitPrice) {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(100);
+        return Order.builder()
+                .id(id)
+                .customerId("customer-1")
+                .items(List.of(new OrderItemDTO().productId("product-1").quantity(1).unitPrice(unitPrice)))
+                .status(Order.OrderStatus.DELIVERED)
+                .totalAmount(new Money(1999, Currency.getInstance("GBP")))
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .version(3L)
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.kaizenflow.commerce.order.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+class OrderCursorTest {
+
+    @Test
+    void roundTripsThroughPageToken() {
+        OrderCursor cursor =
+                new OrderCursor(LocalDateTime.of(2025, 4, 5, 10, 0), "67f0c2a1e4b0a1b2c3d4e5f6");
+
+        assertEquals(cursor, OrderCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("not a token!"));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("bm8tc2VwYXJhdG9y"));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("eWVzdGVyZGF5fDE"));
+    }
+}
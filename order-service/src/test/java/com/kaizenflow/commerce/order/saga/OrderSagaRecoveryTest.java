@@ -0,0 +1,104 @@
+package com.kaizenflow.commerce.order.saga;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.domain.model.Order.OrderStatus;
+import com.kaizenflow.commerce.order.repository.OrderRepository;
+import com.kaizenflow.commerce.order.service.OrderStateMachine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrderSagaRecoveryTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderSaga orderSaga = mock(OrderSaga.class);
+    private final OrderStateMachine stateMachine = mock(OrderStateMachine.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderSagaRecovery recovery =
+            new OrderSagaRecovery(
+                    orderRepository,
+                    orderSaga,
+                    stateMachine,
+                    meterRegistry,
+                    Duration.ofMinutes(1),
+                    Duration.ofMinutes(15),
+                    100);
+
+    @Test
+    void resendsRequestsForStalledOrders() {
+        Order stalled = waitingSince(OrderStatus.INVENTORY_RESERVED, Duration.ofMinutes(2));
+        when(orderRepository.findStalled(eq(OrderSagaRecovery.AWAITING_REPLY), any(), anyInt()))
+                .thenReturn(List.of(stalled));
+
+        assertEquals(1, recovery.run());
+
+        verify(orderSaga).resume(stalled);
+        verify(stateMachine, never()).transition(any(), any(), any(), any());
+        assertEquals(1, meterRegistry.get("order.saga.recovery.resent").counter().count());
+    }
+
+    @Test
+    void cancelsOrdersPastTheTimeout() {
+        Order expired = waitingSince(OrderStatus.PENDING, Duration.ofMinutes(20));
+        when(orderRepository.findStalled(eq(OrderSagaRecovery.AWAITING_REPLY), any(), anyInt()))
+                .thenReturn(List.of(expired));
+        when(stateMachine.transition(
+                        eq("order-1"), eq(3L), eq(OrderStatus.CANCELLED), any(Update.class)))
+                .thenReturn(Optional.of(expired));
+
+        assertEquals(1, recovery.run());
+
+        verify(orderSaga, never()).resume(any());
+        assertEquals(1, meterRegistry.get("order.saga.recovery.timed.out").counter().count());
+    }
+
+    @Test
+    void leavesOrdersThatMovedOnSinceTheyWereRead() {
+        Order expired = waitingSince(OrderStatus.PENDING, Duration.ofMinutes(20));
+        when(orderRepository.findStalled(eq(OrderSagaRecovery.AWAITING_REPLY), any(), anyInt()))
+                .thenReturn(List.of(expired));
+        when(stateMachine.transition(any(), any(), any(), any())).thenReturn(Optional.empty());
+
+        recovery.run();
+
+        assertEquals(0, meterRegistry.get("order.saga.recovery.timed.out").counter().count());
+    }
+
+    @Test
+    void republishesStatusChangesOfOrdersInAnyStatus() {
+        Order confirmed = waitingSince(OrderStatus.CONFIRMED, Duration.ofMinutes(2));
+        when(orderRepository.findUnpublished(any(), anyInt())).thenReturn(List.of(confirmed));
+        when(stateMachine.republish(confirmed)).thenReturn(1);
+
+        assertEquals(1, recovery.run());
+
+        verify(stateMachine).republish(confirmed);
+        verify(orderSaga, never()).resume(any());
+        assertEquals(1, meterRegistry.get("order.saga.recovery.republished").counter().count());
+    }
+
+    private static Order waitingSince(OrderStatus status, Duration waited) {
+        return Order.builder()
+                .id("order-1")
+                .status(status)
+                .updatedAt(LocalDateTime.now().minus(waited))
+                .version(3L)
+                .build();
+    }
+}
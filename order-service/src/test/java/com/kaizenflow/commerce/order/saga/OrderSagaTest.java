@@ -0,0 +1,321 @@
+package com.kaizenflow.commerce.order.saga;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+import com.kaizenflow.commerce.order.domain.model.Money;
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.domain.model.Order.OrderStatus;
+import com.kaizenflow.commerce.order.domain.model.StatusChange;
+import com.kaizenflow.commerce.order.repository.OrderRepository;
+import com.kaizenflow.commerce.order.service.OrderStateMachine;
+import com.kaizenflow.commerce.proto.inventory.InventoryReservationEvent;
+import com.kaizenflow.commerce.proto.inventory.InventoryReservationFailed;
+import com.kaizenflow.commerce.proto.inventory.InventoryReserved;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+import com.kaizenflow.commerce.proto.payment.PaymentAuthorized;
+import com.kaizenflow.commerce.proto.payment.PaymentDeclined;
+import com.kaizenflow.commerce.proto.payment.PaymentEvent;
+import com.kaizenflow.commerce.proto.payment.ProcessPaymentCommand;
+import com.kaizenflow.commerce.proto.payment.VoidPaymentCommand;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SuppressWarnings("unchecked")
+class OrderSagaTest {
+
+    private static final String ORDER_ID = "order-1";
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderStateMachine stateMachine = mock(OrderStateMachine.class);
+    private final AsyncEventPublisher<OrderEvent> orderEventPublisher =
+            mock(AsyncEventPublisher.class);
+    private final AsyncEventPublisher<ProcessPaymentCommand> paymentCommandPublisher =
+            mock(AsyncEventPublisher.class);
+    private final AsyncEventPublisher<VoidPaymentCommand> voidPaymentPublisher =
+            mock(AsyncEventPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderSaga saga =
+            new OrderSaga(
+                    orderRepository,
+                    stateMachine,
+                    orderEventPublisher,
+                    paymentCommandPublisher,
+                    voidPaymentPublisher,
+                    meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(saga, "orderEventsTopic", "order-events");
+        ReflectionTestUtils.setField(saga, "paymentCommandsTopic", "payment-commands");
+        ReflectionTestUtils.setField(saga, "paymentVoidsTopic", "payment-voids");
+        when(orderEventPublisher.publish(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(paymentCommandPublisher.publish(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(voidPaymentPublisher.publish(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void reservedStockRequestsPayment() {
+        when(stateMachine.transition(
+                        eq(ORDER_ID), eq(0L), eq(OrderStatus.INVENTORY_RESERVED), any(Update.class)))
+                .thenReturn(Optional.of(order(OrderStatus.PENDING, OrderStatus.INVENTORY_RESERVED)));
+
+        saga.onInventoryReservation(reserved());
+
+        ArgumentCaptor<ProcessPaymentCommand> command =
+                ArgumentCaptor.forClass(ProcessPaymentCommand.class);
+        verify(paymentCommandPublisher)
+                .publish(eq("payment-commands"), eq(ORDER_ID), command.capture());
+        assertEquals(1250, command.getValue().getAmountMinor());
+        assertEquals(1, stageCount("inventory_reservation", "reserved"));
+    }
+
+    @Test
+    void failedReservationRejectsTheOrder() {
+        when(stateMachine.transition(eq(ORDER_ID), eq(0L), eq(OrderStatus.REJECTED), any(Update.class)))
+                .thenReturn(Optional.of(order(OrderStatus.PENDING, OrderStatus.REJECTED)));
+
+        saga.onInventoryReservation(
+                InventoryReservationEvent.newBuilder()
+                        .setOrderId(ORDER_ID)
+                        .setFailed(InventoryReservationFailed.newBuilder().setReason("Out of stock"))
+                        .build());
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(stateMachine)
+                .transition(eq(ORDER_ID), eq(0L), eq(OrderStatus.REJECTED), update.capture());
+        assertEquals(
+                "Out of stock",
+                update.getValue().getUpdateObject().get("$set", Document.class).get("failureReason"));
+        verify(paymentCommandPublisher, never()).publish(any(), any(), any());
+        assertEquals(1, stageCount("end_to_end", "rejected"));
+    }
+
+    @Test
+    void failureOfAnEarlierPlacementLeavesTheAmendedOrderWaiting() {
+        // The order was amended and placed again at version 3; the reply is to its first placement
+        when(stateMachine.transition(eq(ORDER_ID), eq(0L), eq(OrderStatus.REJECTED), any(Update.class)))
+                .thenReturn(Optional.empty());
+
+        saga.onInventoryReservation(
+                InventoryReservationEvent.newBuilder()
+                        .setOrderId(ORDER_ID)
+                        .setOrderVersion(0)
+                        .setFailed(InventoryReservationFailed.newBuilder().setReason("Out of stock"))
+                        .build());
+
+        // Conditional on the version replied to, which the amended order has moved past
+        verify(stateMachine)
+                .transition(eq(ORDER_ID), eq(0L), eq(OrderStatus.REJECTED), any(Update.class));
+        assertEquals(0, meterRegistry.find("order.saga.stage").timers().size());
+    }
+
+    @Test
+    void reservationOfAnEarlierPlacementIsNotReleased() {
+        when(stateMachine.transition(
+                        eq(ORDER_ID), eq(0L), eq(OrderStatus.INVENTORY_RESERVED), any(Update.class)))
+                .thenReturn(Optional.empty());
+        when(orderRepository.findById(ORDER_ID))
+                .thenReturn(
+                        Optional.of(order(OrderStatus.PENDING, OrderStatus.REJECTED, OrderStatus.PENDING)));
+
+        saga.onInventoryReservation(reserved());
+
+        verify(orderEventPublisher, never()).publish(any(), any(), any());
+        verify(paymentCommandPublisher, never()).publish(any(), any(), any());
+    }
+
+    @Test
+    void duplicateReservationIsIgnoredWhileTheOrderHoldsStock() {
+        when(stateMachine.transition(
+                        eq(ORDER_ID), eq(0L), eq(OrderStatus.INVENTORY_RESERVED), any(Update.class)))
+                .thenReturn(Optional.empty());
+        when(orderRepository.findById(ORDER_ID))
+                .thenReturn(Optional.of(order(OrderStatus.PENDING, OrderStatus.INVENTORY_RESERVED)));
+
+        saga.onInventoryReservation(reserved());
+
+        verify(paymentCommandPublisher, never()).publish(any(), any(), any());
+        verify(orderEventPublisher, never()).publish(any(), any(), any());
+    }
+
+    @Test
+    void lateReservationForAnOrderThatMovedOnIsReleased() {
+        when(stateMachine.transition(
+                        eq(ORDER_ID), eq(0L), eq(OrderStatus.INVENTORY_RESERVED), any(Update.class)))
+                .thenReturn(Optional.empty());
+        when(orderRepository.findById(ORDER_ID))
+                .thenReturn(Optional.of(order(OrderStatus.PENDING, OrderStatus.CANCELLED)));
+
+        saga.onInventoryReservation(reserved());
+
+        ArgumentCaptor<OrderEvent> event = ArgumentCaptor.forClass(OrderEvent.class);
+        verify(orderEventPublisher).publish(eq("order-events"), eq(ORDER_ID), event.capture());
+        assertEquals(OrderEvent.EventCase.CANCELLED, event.getValue().getEventCase());
+        verify(paymentCommandPublisher, never()).publish(any(), any(), any());
+    }
+
+    @Test
+    void authorizedPaymentConfirmsTheOrder() {
+        when(stateMachine.transition(
+                        eq(ORDER_ID), eq(0L), eq(OrderStatus.CONFIRMED), any(Update.class)))
+                .thenReturn(
+                        Optional.of(
+                                order(OrderStatus.PENDING, OrderStatus.INVENTORY_RESERVED, OrderStatus.CONFIRMED)));
+
+        saga.onPaymentResult(authorized());
+
+        assertEquals(1, stageCount("payment", "authorized"));
+        assertEquals(1, stageCount("end_to_end", "confirmed"));
+    }
+
+    @Test
+    void declinedPaymentCancelsTheOrder() {
+        when(stateMachine.transition(
+                        eq(ORDER_ID), eq(0L), eq(OrderStatus.CANCELLED), any(Update.class)))
+                .thenReturn(
+                        Optional.of(
+                                order(OrderStatus.PENDING, OrderStatus.INVENTORY_RESERVED, OrderStatus.CANCELLED)));
+
+        saga.onPaymentResult(
+                PaymentEvent.newBuilder()
+                        .setOrderId(ORDER_ID)
+                        .setDeclined(PaymentDeclined.newBuilder().setReason("Card declined"))
+                        .build());
+
+        assertEquals(1, stageCount("payment", "declined"));
+        assertEquals(1, stageCount("end_to_end", "cancelled"));
+    }
+
+    @Test
+    void duplicatePaymentReplyChangesNothing() {
+        when(stateMachine.transition(
+                        eq(ORDER_ID), eq(0L), eq(OrderStatus.CONFIRMED), any(Update.class)))
+                .thenReturn(Optional.empty());
+        when(orderRepository.findById(ORDER_ID))
+                .thenReturn(
+                        Optional.of(
+                                order(OrderStatus.PENDING, OrderStatus.INVENTORY_RESERVED, OrderStatus.CONFIRMED)));
+
+        saga.onPaymentResult(authorized());
+
+        verify(orderEventPublisher, never()).publish(any(), any(), any());
+        verify(voidPaymentPublisher, never()).publish(any(), any(), any());
+        assertEquals(0, meterRegistry.find("order.saga.stage").timers().size());
+    }
+
+    @Test
+    void paymentAuthorizedAfterTheOrderWasCancelledIsVoided() {
+        // The cancellation wins the race: the order is CANCELLED before the authorization arrives
+        Order cancelled =
+                order(OrderStatus.PENDING, OrderStatus.INVENTORY_RESERVED, OrderStatus.CANCELLED);
+        when(stateMachine.transition(
+                        eq(ORDER_ID), eq(0L), eq(OrderStatus.CONFIRMED), any(Update.class)))
+                .thenReturn(Optional.empty());
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(cancelled));
+
+        saga.onPaymentResult(authorized());
+
+        ArgumentCaptor<VoidPaymentCommand> command = ArgumentCaptor.forClass(VoidPaymentCommand.class);
+        verify(voidPaymentPublisher).publish(eq("payment-voids"), eq(ORDER_ID), command.capture());
+        assertEquals("payment-1", command.getValue().getPaymentId());
+        assertEquals(0, meterRegistry.find("order.saga.stage").timers().size());
+    }
+
+    @Test
+    void declineAfterTheOrderWasCancelledNeedsNoCompensation() {
+        when(stateMachine.transition(
+                        eq(ORDER_ID), eq(0L), eq(OrderStatus.CANCELLED), any(Update.class)))
+                .thenReturn(Optional.empty());
+
+        saga.onPaymentResult(
+                PaymentEvent.newBuilder()
+                        .setOrderId(ORDER_ID)
+                        .setDeclined(PaymentDeclined.newBuilder().setReason("Card declined"))
+                        .build());
+
+        verify(voidPaymentPublisher, never()).publish(any(), any(), any());
+    }
+
+    @Test
+    void resumeResendsTheRequestTheOrderIsWaitingOn() {
+        saga.resume(order(OrderStatus.PENDING));
+        ArgumentCaptor<OrderEvent> event = ArgumentCaptor.forClass(OrderEvent.class);
+        verify(orderEventPublisher).publish(eq("order-events"), eq(ORDER_ID), event.capture());
+        assertEquals(OrderEvent.EventCase.PLACED, event.getValue().getEventCase());
+        assertEquals(1, event.getValue().getPlaced().getVersion());
+
+        saga.resume(order(OrderStatus.PENDING, OrderStatus.INVENTORY_RESERVED));
+        ArgumentCaptor<ProcessPaymentCommand> command =
+                ArgumentCaptor.forClass(ProcessPaymentCommand.class);
+        verify(paymentCommandPublisher)
+                .publish(eq("payment-commands"), eq(ORDER_ID), command.capture());
+        assertEquals(2, command.getValue().getOrderVersion());
+    }
+
+    private long stageCount(String stage, String outcome) {
+        return meterRegistry
+                .get("order.saga.stage")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    private static InventoryReservationEvent reserved() {
+        return InventoryReservationEvent.newBuilder()
+                .setOrderId(ORDER_ID)
+                .setReserved(InventoryReserved.getDefaultInstance())
+                .build();
+    }
+
+    private static PaymentEvent authorized() {
+        return PaymentEvent.newBuilder()
+                .setOrderId(ORDER_ID)
+                .setAuthorized(PaymentAuthorized.newBuilder().setPaymentId("payment-1"))
+                .build();
+    }
+
+    /** An order that went through the given statuses, one second apart, ending in the last. */
+    static Order order(OrderStatus... statuses) {
+        LocalDateTime createdAt = LocalDateTime.now().minusMinutes(1);
+        List<StatusChange> history = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            history.add(new StatusChange(statuses[i], createdAt.plusSeconds(i)));
+        }
+        return Order.builder()
+                .id(ORDER_ID)
+                .customerId("customer-1")
+                .items(List.of())
+                .status(statuses[statuses.length - 1])
+                .totalAmount(new Money(1250, Currency.getInstance("GBP")))
+                .createdAt(createdAt)
+                .updatedAt(createdAt.plusSeconds(statuses.length - 1))
+                .version((long) statuses.length)
+                .statusHistory(history)
+                .build();
+    }
+}
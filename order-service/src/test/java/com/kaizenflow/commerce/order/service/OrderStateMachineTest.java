@@ -0,0 +1,252 @@
+package com.kaizenflow.commerce.order.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+import com.kaizenflow.commerce.order.domain.model.Order;
+import com.kaizenflow.commerce.order.domain.model.Order.OrderStatus;
+import com.kaizenflow.commerce.order.domain.model.OutboxStatusChange;
+import com.kaizenflow.commerce.proto.order.OrderEvent;
+
+@SuppressWarnings("unchecked")
+class OrderStateMachineTest {
+
+    private static final String ORDER_ID = "order-1";
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final AsyncEventPublisher<OrderEvent> orderEventPublisher =
+            mock(AsyncEventPublisher.class);
+    private final OrderStateMachine stateMachine =
+            new OrderStateMachine(mongoTemplate, orderEventPublisher);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stateMachine, "orderEventsTopic", "order-events");
+        when(orderEventPublisher.publish(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void allowsTheSagaPath() {
+        assertTrue(
+                OrderStateMachine.canTransition(OrderStatus.PENDING, OrderStatus.INVENTORY_RESERVED));
+        assertTrue(
+                OrderStateMachine.canTransition(OrderStatus.INVENTORY_RESERVED, OrderStatus.CONFIRMED));
+        assertTrue(OrderStateMachine.canTransition(OrderStatus.CONFIRMED, OrderStatus.SHIPPED));
+        assertTrue(OrderStateMachine.canTransition(OrderStatus.SHIPPED, OrderStatus.DELIVERED));
+        assertTrue(OrderStateMachine.canTransition(OrderStatus.REJECTED, OrderStatus.PENDING));
+    }
+
+    @Test
+    void onlyUnpaidOrdersCanBeCancelled() {
+        assertTrue(OrderStateMachine.canTransition(OrderStatus.PENDING, OrderStatus.CANCELLED));
+        assertTrue(
+                OrderStateMachine.canTransition(OrderStatus.INVENTORY_RESERVED, OrderStatus.CANCELLED));
+        assertFalse(OrderStateMachine.canTransition(OrderStatus.CONFIRMED, OrderStatus.CANCELLED));
+        assertFalse(OrderStateMachine.canTransition(OrderStatus.SHIPPED, OrderStatus.CANCELLED));
+    }
+
+    @Test
+    void finalStatusesAreFinal() {
+        for (OrderStatus to : OrderStatus.values()) {
+            assertFalse(OrderStateMachine.canTransition(OrderStatus.CANCELLED, to));
+            assertFalse(OrderStateMachine.canTransition(OrderStatus.DELIVERED, to));
+        }
+    }
+
+    @Test
+    void everyStatusHasAnEventCounterpart() {
+        Arrays.stream(OrderStatus.values())
+                .forEach(status -> com.kaizenflow.commerce.proto.order.OrderStatus.valueOf(status.name()));
+    }
+
+    @Test
+    void writesTheStatusChangeToTheOutboxWithTheTransition() {
+        readAt(OrderStatus.INVENTORY_RESERVED, 2);
+        when(mongoTemplate.findAndModify(
+                        any(Query.class),
+                        any(UpdateDefinition.class),
+                        any(FindAndModifyOptions.class),
+                        eq(Order.class)))
+                .thenReturn(updated(OrderStatus.CONFIRMED, 3));
+
+        stateMachine.transition(ORDER_ID, OrderStatus.CONFIRMED);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate)
+                .findAndModify(
+                        any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Order.class));
+        OutboxStatusChange change =
+                (OutboxStatusChange)
+                        update.getValue().getUpdateObject().get("$push", Document.class).get("outbox");
+        assertEquals(OrderStatus.INVENTORY_RESERVED, change.getPreviousStatus());
+        assertEquals(3, change.getVersion());
+
+        OrderEvent event = published();
+        assertEquals(3, event.getStatusChanged().getVersion());
+        assertEquals(
+                com.kaizenflow.commerce.proto.order.OrderStatus.INVENTORY_RESERVED,
+                event.getStatusChanged().getPreviousStatus());
+    }
+
+    @Test
+    void clearsTheOutboxOnceTheEventIsAcknowledged() {
+        readAt(OrderStatus.INVENTORY_RESERVED, 2);
+        when(mongoTemplate.findAndModify(
+                        any(Query.class),
+                        any(UpdateDefinition.class),
+                        any(FindAndModifyOptions.class),
+                        eq(Order.class)))
+                .thenReturn(updated(OrderStatus.CONFIRMED, 3));
+
+        stateMachine.transition(ORDER_ID, OrderStatus.CONFIRMED);
+
+        ArgumentCaptor<Update> pull = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(1000))
+                .updateFirst(any(Query.class), pull.capture(), eq(Order.class));
+        assertEquals(
+                new Document("outbox", new Document("version", 3L)),
+                pull.getValue().getUpdateObject().get("$pull"));
+    }
+
+    @Test
+    void leavesTheStatusChangeInTheOutboxWhenThePublishFails() {
+        when(orderEventPublisher.publish(any(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Broker down")));
+        readAt(OrderStatus.INVENTORY_RESERVED, 2);
+        when(mongoTemplate.findAndModify(
+                        any(Query.class),
+                        any(UpdateDefinition.class),
+                        any(FindAndModifyOptions.class),
+                        eq(Order.class)))
+                .thenReturn(updated(OrderStatus.CANCELLED, 3));
+
+        stateMachine.transition(ORDER_ID, OrderStatus.CANCELLED);
+
+        verify(mongoTemplate, after(200).never())
+                .updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Order.class));
+    }
+
+    @Test
+    void appliesTheTransitionToTheVersionAnotherWriteLeft() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Order.class)))
+                .thenReturn(read(OrderStatus.PENDING, 0))
+                .thenReturn(read(OrderStatus.PENDING, 1));
+        when(mongoTemplate.findAndModify(
+                        any(Query.class),
+                        any(UpdateDefinition.class),
+                        any(FindAndModifyOptions.class),
+                        eq(Order.class)))
+                .thenReturn(null)
+                .thenReturn(updated(OrderStatus.CANCELLED, 2));
+
+        assertTrue(stateMachine.transition(ORDER_ID, OrderStatus.CANCELLED).isPresent());
+
+        verify(mongoTemplate, times(2))
+                .findAndModify(
+                        any(Query.class),
+                        any(UpdateDefinition.class),
+                        any(FindAndModifyOptions.class),
+                        eq(Order.class));
+        assertEquals(2, published().getStatusChanged().getVersion());
+    }
+
+    @Test
+    void transitionsAnOrderStoredWithoutAVersion() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Order.class)))
+                .thenReturn(Order.builder().id(ORDER_ID).status(OrderStatus.CONFIRMED).build());
+        when(mongoTemplate.findAndModify(
+                        any(Query.class),
+                        any(UpdateDefinition.class),
+                        any(FindAndModifyOptions.class),
+                        eq(Order.class)))
+                .thenReturn(updated(OrderStatus.SHIPPED, 1));
+
+        assertTrue(
+                stateMachine.transition(ORDER_ID, 0L, OrderStatus.SHIPPED, new Update()).isPresent());
+
+        ArgumentCaptor<Query> read = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(read.capture(), eq(Order.class));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate)
+                .findAndModify(
+                        query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Order.class));
+        // Version 0 also matches a missing version field
+        Document unversioned = new Document("$in", Arrays.asList(0L, null));
+        assertEquals(unversioned, read.getValue().getQueryObject().get("version"));
+        assertEquals(unversioned, query.getValue().getQueryObject().get("version"));
+        OutboxStatusChange change =
+                (OutboxStatusChange)
+                        update.getValue().getUpdateObject().get("$push", Document.class).get("outbox");
+        assertEquals(1, change.getVersion());
+        assertEquals(1, published().getStatusChanged().getVersion());
+    }
+
+    @Test
+    void republishesEveryUnacknowledgedStatusChange() {
+        Order order = updated(OrderStatus.SHIPPED, 4);
+        order.setOutbox(
+                new ArrayList<>(
+                        List.of(
+                                new OutboxStatusChange(
+                                        OrderStatus.INVENTORY_RESERVED, OrderStatus.CONFIRMED, 3, LocalDateTime.now()),
+                                new OutboxStatusChange(
+                                        OrderStatus.CONFIRMED, OrderStatus.SHIPPED, 4, LocalDateTime.now()))));
+
+        assertEquals(2, stateMachine.republish(order));
+
+        verify(orderEventPublisher, times(2)).publish(eq("order-events"), eq(ORDER_ID), any());
+    }
+
+    private void readAt(OrderStatus status, long version) {
+        when(mongoTemplate.findOne(any(Query.class), eq(Order.class)))
+                .thenReturn(read(status, version));
+    }
+
+    private static Order read(OrderStatus status, long version) {
+        return Order.builder().id(ORDER_ID).status(status).version(version).build();
+    }
+
+    private static Order updated(OrderStatus status, long version) {
+        return Order.builder()
+                .id(ORDER_ID)
+                .customerId("customer-1")
+                .status(status)
+                .version(version)
+                .build();
+    }
+
+    private OrderEvent published() {
+        ArgumentCaptor<OrderEvent> event = ArgumentCaptor.forClass(OrderEvent.class);
+        verify(orderEventPublisher).publish(eq("order-events"), eq(ORDER_ID), event.capture());
+        return event.getValue();
+    }
+}
@@ -0,0 +1,74 @@
+package com.kaizenflow.commerce.payment.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import com.kaizenflow.commerce.messaging.consumer.ByteBufferErrorHandlingDeserializer;
+import com.kaizenflow.commerce.proto.payment.ProcessPaymentCommand;
+import com.kaizenflow.commerce.proto.payment.VoidPaymentCommand;
+import com.kaizenflow.commerce.proto.serde.ProtobufDeserializer;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+	@Value("${spring.kafka.bootstrap-servers}")
+	private String bootstrapServers;
+
+	@Bean
+	public ConsumerFactory<String, ProcessPaymentCommand> paymentCommandConsumerFactory() {
+		Map<String, Object> configProps = new HashMap<>();
+		configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "payment-group");
+		configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+		configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ProtobufDeserializer.class);
+
+		// A record that cannot be deserialized is dead-lettered instead of failing every poll
+		return new DefaultKafkaConsumerFactory<>(
+				configProps,
+				new StringDeserializer(),
+				new ByteBufferErrorHandlingDeserializer<>(
+						new ProtobufDeserializer<>(ProcessPaymentCommand.parser())));
+	}
+
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, ProcessPaymentCommand>
+			paymentCommandKafkaListenerContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, ProcessPaymentCommand> factory =
+				new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(paymentCommandConsumerFactory());
+		return factory;
+	}
+
+	@Bean
+	public ConsumerFactory<String, VoidPaymentCommand> voidPaymentConsumerFactory() {
+		Map<String, Object> configProps = new HashMap<>();
+		configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "payment-group");
+		configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+		configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ProtobufDeserializer.class);
+
+		return new DefaultKafkaConsumerFactory<>(
+				configProps,
+				new StringDeserializer(),
+				new ByteBufferErrorHandlingDeserializer<>(
+						new ProtobufDeserializer<>(VoidPaymentCommand.parser())));
+	}
+
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, VoidPaymentCommand>
+			voidPaymentKafkaListenerContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, VoidPaymentCommand> factory =
+				new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(voidPaymentConsumerFactory());
+		return factory;
+	}
+}
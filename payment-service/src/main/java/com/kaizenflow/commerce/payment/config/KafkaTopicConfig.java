@@ -0,0 +1,19 @@
+package com.kaizenflow.commerce.payment.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+
+	@Value("${kafka.topic.payment-events}")
+	private String topicName;
+
+	@Bean
+	public NewTopic paymentEventsTopic() {
+		return TopicBuilder.name(topicName).build();
+	}
+}
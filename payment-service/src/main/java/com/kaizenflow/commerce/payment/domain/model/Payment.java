@@ -0,0 +1,40 @@
+package com.kaizenflow.commerce.payment.domain.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a payment request. Keyed by order ID, so each order is charged at most once; a request
+ * at a newer order version replaces it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "payments")
+public class Payment {
+	@Id private String orderId;
+	// Order version the payment was requested at
+	private long orderVersion;
+	private String paymentId;
+	private String customerId;
+	private Long amountMinor;
+	private PaymentStatus status;
+	private String declineReason;
+	private LocalDateTime createdAt;
+	private String voidReason;
+	private LocalDateTime voidedAt;
+
+	public enum PaymentStatus {
+		AUTHORIZED,
+		DECLINED,
+		VOIDED // Authorized, then released because the order was cancelled
+	}
+}
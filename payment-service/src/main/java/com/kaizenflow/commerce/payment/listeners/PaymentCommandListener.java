@@ -0,0 +1,40 @@
+package com.kaizenflow.commerce.payment.listeners;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.messaging.retry.NonBlockingRetry;
+import com.kaizenflow.commerce.payment.service.PaymentService;
+import com.kaizenflow.commerce.proto.payment.ProcessPaymentCommand;
+import com.kaizenflow.commerce.proto.payment.VoidPaymentCommand;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PaymentCommandListener {
+
+	private final PaymentService paymentService;
+
+	/** Takes payment for orders whose stock has been reserved. */
+	@NonBlockingRetry
+	@KafkaListener(
+			topics = "${kafka.topic.payment-commands}",
+			containerFactory = "paymentCommandKafkaListenerContainerFactory")
+	public void handleProcessPayment(ProcessPaymentCommand command) {
+		log.info("Received payment command for order ID: {}", command.getOrderId());
+		paymentService.processPayment(command);
+	}
+
+	/** Voids payments authorized for orders that were cancelled while payment was in flight. */
+	@NonBlockingRetry
+	@KafkaListener(
+			topics = "${kafka.topic.payment-voids}",
+			containerFactory = "voidPaymentKafkaListenerContainerFactory")
+	public void handleVoidPayment(VoidPaymentCommand command) {
+		log.info("Received void command for order ID: {}", command.getOrderId());
+		paymentService.voidPayment(command);
+	}
+}
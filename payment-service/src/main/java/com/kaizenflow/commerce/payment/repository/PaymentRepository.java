@@ -0,0 +1,9 @@
+package com.kaizenflow.commerce.payment.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.kaizenflow.commerce.payment.domain.model.Payment;
+
+@Repository
+public interface PaymentRepository extends MongoRepository<Payment, String> {}
@@ -0,0 +1,185 @@
+package com.kaizenflow.commerce.payment.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.payment.domain.model.Payment;
+import com.kaizenflow.commerce.payment.repository.PaymentRepository;
+import com.kaizenflow.commerce.proto.payment.PaymentAuthorized;
+import com.kaizenflow.commerce.proto.payment.PaymentDeclined;
+import com.kaizenflow.commerce.proto.payment.PaymentEvent;
+import com.kaizenflow.commerce.proto.payment.ProcessPaymentCommand;
+import com.kaizenflow.commerce.proto.payment.VoidPaymentCommand;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PaymentService {
+
+	private final PaymentRepository paymentRepository;
+	private final MongoTemplate mongoTemplate;
+	private final KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+
+	@Value("${kafka.topic.payment-events}")
+	private String paymentEventsTopic;
+
+	/**
+	 * Takes payment for an order and replies with the outcome. A repeated command for the same order
+	 * version gets the original outcome again rather than a second charge. A command for a newer
+	 * version of the order, which was amended and placed again, replaces the earlier outcome, and one
+	 * for an older version than recorded is ignored.
+	 *
+	 * <p>No payment provider is integrated yet: well-formed requests are authorized and requests
+	 * without a positive amount are declined.
+	 *
+	 * @param command The payment command
+	 */
+	public void processPayment(ProcessPaymentCommand command) {
+		Payment payment =
+				paymentRepository
+						.findById(command.getOrderId())
+						.map(
+								found ->
+										found.getOrderVersion() < command.getOrderVersion()
+												? replacePayment(found, command)
+												: found)
+						.orElseGet(() -> recordPayment(command));
+		if (payment.getOrderVersion() > command.getOrderVersion()) {
+			log.info(
+					"Ignoring payment command for order ID: {} at version {}, superseded by version {}",
+					command.getOrderId(),
+					command.getOrderVersion(),
+					payment.getOrderVersion());
+			return;
+		}
+		sendPaymentEvent(payment);
+	}
+
+	/**
+	 * Voids the authorization taken for an order that was cancelled while its payment was in flight.
+	 * Repeated commands, and commands for payments that were never authorized, change nothing.
+	 *
+	 * @param command The void command
+	 */
+	public void voidPayment(VoidPaymentCommand command) {
+		Optional<Payment> found = paymentRepository.findById(command.getOrderId());
+		if (found.isEmpty()
+				|| found.get().getStatus() != Payment.PaymentStatus.AUTHORIZED
+				|| !found.get().getPaymentId().equals(command.getPaymentId())) {
+			log.info("No authorized payment to void for order ID: {}", command.getOrderId());
+			return;
+		}
+		Payment payment = found.get();
+		payment.setStatus(Payment.PaymentStatus.VOIDED);
+		payment.setVoidReason(command.getReason());
+		payment.setVoidedAt(LocalDateTime.now());
+		paymentRepository.save(payment);
+		log.info("Voided payment {} for order ID: {}", payment.getPaymentId(), payment.getOrderId());
+	}
+
+	private Payment recordPayment(ProcessPaymentCommand command) {
+		try {
+			return paymentRepository.insert(decide(command));
+		} catch (DuplicateKeyException e) {
+			// A concurrent delivery of the same command got there first
+			return paymentRepository.findById(command.getOrderId()).orElseThrow();
+		}
+	}
+
+	/**
+	 * Replaces the outcome recorded for an earlier version of the order. An authorization taken for
+	 * the earlier version is released with it.
+	 */
+	private Payment replacePayment(Payment previous, ProcessPaymentCommand command) {
+		if (previous.getStatus() == Payment.PaymentStatus.AUTHORIZED) {
+			log.warn(
+					"Releasing payment {} for order ID: {} at version {}, superseded by version {}",
+					previous.getPaymentId(),
+					previous.getOrderId(),
+					previous.getOrderVersion(),
+					command.getOrderVersion());
+		}
+		Payment replaced =
+				mongoTemplate.findAndReplace(
+						Query.query(
+								Criteria.where("_id")
+										.is(command.getOrderId())
+										.and("orderVersion")
+										.lt(command.getOrderVersion())),
+						decide(command),
+						FindAndReplaceOptions.options().returnNew());
+		// A concurrent delivery replaced it first
+		return replaced != null
+				? replaced
+				: paymentRepository.findById(command.getOrderId()).orElseThrow();
+	}
+
+	private static Payment decide(ProcessPaymentCommand command) {
+		Payment.PaymentBuilder payment =
+				Payment.builder()
+						.orderId(command.getOrderId())
+						.orderVersion(command.getOrderVersion())
+						.customerId(command.getCustomerId())
+						.amountMinor(command.getAmountMinor())
+						.createdAt(LocalDateTime.now());
+
+		if (command.getAmountMinor() > 0) {
+			payment.status(Payment.PaymentStatus.AUTHORIZED).paymentId(UUID.randomUUID().toString());
+		} else {
+			payment.status(Payment.PaymentStatus.DECLINED).declineReason("Invalid amount");
+		}
+		return payment.build();
+	}
+
+	private void sendPaymentEvent(Payment payment) {
+		Instant instant = Instant.now();
+		PaymentEvent.Builder event =
+				PaymentEvent.newBuilder()
+						.setOrderId(payment.getOrderId())
+						.setOrderVersion(payment.getOrderVersion())
+						.setTimestamp(
+								Timestamp.newBuilder()
+										.setSeconds(instant.getEpochSecond())
+										.setNanos(instant.getNano()));
+
+		switch (payment.getStatus()) {
+			case AUTHORIZED ->
+					event.setAuthorized(PaymentAuthorized.newBuilder().setPaymentId(payment.getPaymentId()));
+			case DECLINED ->
+					event.setDeclined(PaymentDeclined.newBuilder().setReason(payment.getDeclineReason()));
+			case VOIDED ->
+					event.setDeclined(
+							PaymentDeclined.newBuilder().setReason("Payment voided: " + payment.getVoidReason()));
+		}
+
+		kafkaTemplate
+				.send(paymentEventsTopic, payment.getOrderId(), event.build())
+				.whenComplete(
+						(result, ex) -> {
+							if (ex != null) {
+								log.error(
+										"Failed to send payment event for order ID: {}", payment.getOrderId(), ex);
+							} else {
+								log.info(
+										"Sent payment {} event for order ID: {}",
+										payment.getStatus(),
+										payment.getOrderId());
+							}
+						});
+	}
+}
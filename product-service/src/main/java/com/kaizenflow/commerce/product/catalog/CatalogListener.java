@@ -0,0 +1,27 @@
+package com.kaizenflow.commerce.product.catalog;
+
+import com.kaizenflow.commerce.proto.product.ProductModel;
+
+/**
+ * Receives the product catalog as it is loaded at startup and as it changes afterwards.
+ *
+ * <p>Implementations back local, in-memory views of the catalog (caches, search indexes). They are
+ * first fed every product from the latest snapshot, then every product event published after that
+ * snapshot was taken, so an implementation only has to be idempotent under replays.
+ */
+public interface CatalogListener {
+
+    /**
+     * Called when a product is loaded from a snapshot, created or updated.
+     *
+     * @param product The current state of the product
+     */
+    void onProductUpserted(ProductModel product);
+
+    /**
+     * Called when a product is removed from the catalog.
+     *
+     * @param productId The ID of the removed product
+     */
+    default void onProductRemoved(String productId) {}
+}
@@ -0,0 +1,233 @@
+package com.kaizenflow.commerce.product.catalog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.kafka.common.TopicPartition;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.kaizenflow.commerce.proto.product.ProductModel;
+
+/**
+ * Read-only view of a catalog snapshot file, memory-mapped so products are parsed straight from the
+ * page cache without copying the file onto the heap.
+ *
+ * <p>File layout, all integers big-endian:
+ *
+ * <pre>
+ * header:  magic(int) version(int) createdAtMillis(long) offsetCount(int)
+ *          offsetCount x [topicLength(short) topic(UTF-8) partition(int) offset(long)]
+ * records: recordCount x [varint length, ProductModel bytes]
+ * index:   recordCount x [record position(long)]
+ * trailer: indexPosition(long) recordCount(int) magic(int)
+ * </pre>
+ *
+ * The offsets are the Kafka end offsets of the product topics captured before the products were
+ * read, so consuming from them after loading the snapshot replays every later change.
+ */
+public final class CatalogSnapshot {
+
+    static final String FILE_NAME = "catalog.snapshot";
+    static final int MAGIC = 0x50434154; // "PCAT"
+    static final int VERSION = 1;
+    static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final MappedByteBuffer buffer;
+    private final Instant createdAt;
+    private final Map<TopicPartition, Long> offsets;
+    private final int recordsPosition;
+    private final int indexPosition;
+    private final int recordCount;
+
+    private CatalogSnapshot(
+            MappedByteBuffer buffer,
+            Instant createdAt,
+            Map<TopicPartition, Long> offsets,
+            int recordsPosition,
+            int indexPosition,
+            int recordCount) {
+        this.buffer = buffer;
+        this.createdAt = createdAt;
+        this.offsets = offsets;
+        this.recordsPosition = recordsPosition;
+        this.indexPosition = indexPosition;
+        this.recordCount = recordCount;
+    }
+
+    /**
+     * Writes a snapshot file in a single sequential pass.
+     *
+     * @param file The file to write, replaced if it exists
+     * @param createdAt The time the snapshot was taken
+     * @param offsets Kafka offsets from which readers must resume consuming product events
+     * @param products The products to include
+     * @return The number of products written
+     * @throws IOException if the file cannot be written
+     */
+    public static int write(
+            Path file,
+            Instant createdAt,
+            Map<TopicPartition, Long> offsets,
+            Iterable<ProductModel> products)
+            throws IOException {
+        try (DataOutputStream out =
+                new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(file), WRITE_BUFFER_SIZE))) {
+            // Header
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(createdAt.toEpochMilli());
+            out.writeInt(offsets.size());
+            for (Map.Entry<TopicPartition, Long> entry : offsets.entrySet()) {
+                byte[] topic = entry.getKey().topic().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(topic.length);
+                out.write(topic);
+                out.writeInt(entry.getKey().partition());
+                out.writeLong(entry.getValue());
+            }
+
+            // Length-delimited records, remembering where each one starts
+            long position = out.size();
+            long[] index = new long[1024];
+            int recordCount = 0;
+            for (ProductModel product : products) {
+                int size = product.getSerializedSize();
+                if (recordCount == index.length) {
+                    index = Arrays.copyOf(index, recordCount * 2);
+                }
+                index[recordCount++] = position;
+                product.writeDelimitedTo(out);
+                position += CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+            }
+
+            // Offset index and trailer
+            for (int i = 0; i < recordCount; i++) {
+                out.writeLong(index[i]);
+            }
+            out.writeLong(position);
+            out.writeInt(recordCount);
+            out.writeInt(MAGIC);
+            return recordCount;
+        }
+    }
+
+    /**
+     * Memory-maps and validates a snapshot file.
+     *
+     * @param file The snapshot file
+     * @return The opened snapshot
+     * @throws IOException if the file cannot be mapped or is not a valid snapshot
+     */
+    public static CatalogSnapshot open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot too large to map: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < TRAILER_SIZE) {
+            throw new IOException("Catalog snapshot truncated: " + file);
+        }
+        int trailerPosition = buffer.capacity() - TRAILER_SIZE;
+        long indexPosition = buffer.getLong(trailerPosition);
+        int recordCount = buffer.getInt(trailerPosition + Long.BYTES);
+        if (buffer.getInt(trailerPosition + Long.BYTES + Integer.BYTES) != MAGIC
+                || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot: " + file);
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Unsupported catalog snapshot version in " + file);
+        }
+
+        ByteBuffer header = buffer.duplicate().position(2 * Integer.BYTES);
+        Instant createdAt = Instant.ofEpochMilli(header.getLong());
+        int offsetCount = header.getInt();
+        Map<TopicPartition, Long> offsets = new HashMap<>(offsetCount * 2);
+        for (int i = 0; i < offsetCount; i++) {
+            byte[] topic = new byte[header.getShort()];
+            header.get(topic);
+            offsets.put(
+                    new TopicPartition(new String(topic, StandardCharsets.UTF_8), header.getInt()),
+                    header.getLong());
+        }
+
+        return new CatalogSnapshot(
+                buffer,
+                createdAt,
+                Collections.unmodifiableMap(offsets),
+                header.position(),
+                (int) indexPosition,
+                recordCount);
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    /** Kafka offsets from which product events must be consumed to catch up with this snapshot. */
+    public Map<TopicPartition, Long> offsets() {
+        return offsets;
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Parses a single product using the offset index.
+     *
+     * @param index The record index, from 0 to size() - 1
+     * @return The product at that index
+     * @throws IOException if the record is corrupt
+     */
+    public ProductModel get(int index) throws IOException {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int position = (int) buffer.getLong(indexPosition + index * Long.BYTES);
+        CodedInputStream input =
+                CodedInputStream.newInstance(buffer.slice(position, indexPosition - position));
+        return readRecord(input);
+    }
+
+    /**
+     * Parses every product in file order, streaming through the mapped records region.
+     *
+     * @param action Receives each product
+     * @throws IOException if a record is corrupt
+     */
+    public void forEach(Consumer<ProductModel> action) throws IOException {
+        CodedInputStream input =
+                CodedInputStream.newInstance(
+                        buffer.slice(recordsPosition, indexPosition - recordsPosition));
+        for (int i = 0; i < recordCount; i++) {
+            action.accept(readRecord(input));
+        }
+    }
+
+    private static ProductModel readRecord(CodedInputStream input) throws IOException {
+        int length = input.readRawVarint32();
+        int previousLimit = input.pushLimit(length);
+        ProductModel product = ProductModel.parseFrom(input);
+        input.popLimit(previousLimit);
+        return product;
+    }
+}
@@ -0,0 +1,100 @@
+package com.kaizenflow.commerce.product.catalog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.product.domain.models.Product;
+import com.kaizenflow.commerce.product.mappers.ProductProtoMapper;
+import com.kaizenflow.commerce.proto.product.ProductModel;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically writes the product catalog to a snapshot file that new instances can load instead of
+ * streaming the whole products collection from MongoDB.
+ *
+ * <p>The Kafka end offsets of the product topics are captured before the collection is read. Any
+ * change committed after that point is therefore also in the event stream from those offsets, so a
+ * reader never misses an update, at the cost of replaying a few it already has.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "catalog.snapshot.writer-enabled", havingValue = "true")
+public class CatalogSnapshotWriter {
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductProtoMapper productProtoMapper;
+    private final ProductTopicOffsets productTopicOffsets;
+    private final Path snapshotFile;
+
+    public CatalogSnapshotWriter(
+            MongoTemplate mongoTemplate,
+            ProductProtoMapper productProtoMapper,
+            ProductTopicOffsets productTopicOffsets,
+            @Value("${catalog.snapshot.directory}") String snapshotDirectory) {
+        this.mongoTemplate = mongoTemplate;
+        this.productProtoMapper = productProtoMapper;
+        this.productTopicOffsets = productTopicOffsets;
+        this.snapshotFile = Path.of(snapshotDirectory, CatalogSnapshot.FILE_NAME);
+    }
+
+    @Scheduled(
+            initialDelayString = "${catalog.snapshot.initial-delay:PT1M}",
+            fixedDelayString = "${catalog.snapshot.interval:PT10M}")
+    public void scheduledSnapshot() {
+        try {
+            writeSnapshot();
+        } catch (Exception e) {
+            log.error("Failed to write catalog snapshot to {}", snapshotFile, e);
+        }
+    }
+
+    /**
+     * Writes a new snapshot to a temporary file and atomically moves it over the previous one, so
+     * readers never observe a partially written snapshot.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void writeSnapshot() throws IOException {
+        long startNanos = System.nanoTime();
+        Instant createdAt = Instant.now();
+        Map<TopicPartition, Long> offsets = productTopicOffsets.endOffsets();
+
+        Files.createDirectories(snapshotFile.getParent());
+        Path tempFile = Files.createTempFile(snapshotFile.getParent(), "catalog-", ".tmp");
+        int recordCount;
+        try {
+            try (Stream<Product> products = mongoTemplate.stream(new Query(), Product.class)) {
+                Iterable<ProductModel> models =
+                        () -> products.map(productProtoMapper::toProductModel).iterator();
+                recordCount = CatalogSnapshot.write(tempFile, createdAt, offsets, models);
+            }
+            Files.move(
+                    tempFile,
+                    snapshotFile,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        log.info(
+                "Wrote catalog snapshot with {} products to {} in {} ms",
+                recordCount,
+                snapshotFile,
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+}
@@ -0,0 +1,151 @@
+package com.kaizenflow.commerce.product.catalog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.product.domain.models.Product;
+import com.kaizenflow.commerce.product.mappers.ProductProtoMapper;
+import com.kaizenflow.commerce.proto.product.ProductModel;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the product catalog into every {@link CatalogListener} when the application starts, then
+ * starts the catalog event listener so they stay current.
+ *
+ * <p>The latest snapshot file is preferred, as it is read through a memory mapping without touching
+ * MongoDB. Without a usable snapshot the products collection is streamed instead. Either way the
+ * Kafka offsets to resume from are recorded before the listener is started.
+ */
+@Component
+@Slf4j
+public class CatalogWarmStarter {
+
+    /** Listener container ID of the product event consumer that keeps catalog listeners current. */
+    public static final String CATALOG_LISTENER_ID = "product-catalog";
+
+    private final ObjectProvider<CatalogListener> catalogListeners;
+    private final MongoTemplate mongoTemplate;
+    private final ProductProtoMapper productProtoMapper;
+    private final ProductTopicOffsets productTopicOffsets;
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+    private final Path snapshotFile;
+
+    private volatile Map<TopicPartition, Long> resumeOffsets = Map.of();
+
+    public CatalogWarmStarter(
+            ObjectProvider<CatalogListener> catalogListeners,
+            MongoTemplate mongoTemplate,
+            ProductProtoMapper productProtoMapper,
+            ProductTopicOffsets productTopicOffsets,
+            KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
+            @Value("${catalog.snapshot.directory}") String snapshotDirectory) {
+        this.catalogListeners = catalogListeners;
+        this.mongoTemplate = mongoTemplate;
+        this.productProtoMapper = productProtoMapper;
+        this.productTopicOffsets = productTopicOffsets;
+        this.kafkaListenerEndpointRegistry = kafkaListenerEndpointRegistry;
+        this.snapshotFile = Path.of(snapshotDirectory, CatalogSnapshot.FILE_NAME);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmStart() {
+        List<CatalogListener> listeners = catalogListeners.orderedStream().toList();
+        if (listeners.isEmpty()) {
+            log.debug("No catalog listeners registered, skipping catalog warm start");
+            return;
+        }
+
+        // Load off the startup thread so an unreachable database cannot hold up the application
+        Thread.ofPlatform().name("catalog-warm-start").daemon().start(() -> loadCatalog(listeners));
+    }
+
+    private void loadCatalog(List<CatalogListener> listeners) {
+        long startNanos = System.nanoTime();
+        try {
+            int loaded = loadSnapshot(listeners);
+            if (loaded < 0) {
+                loaded = loadFromDatabase(listeners);
+            }
+            log.info(
+                    "Loaded {} products into {} catalog listeners in {} ms",
+                    loaded,
+                    listeners.size(),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Catalog warm start failed, catalog will be rebuilt from the event stream", e);
+            resumeOffsets = Map.of();
+        }
+
+        MessageListenerContainer container =
+                kafkaListenerEndpointRegistry.getListenerContainer(CATALOG_LISTENER_ID);
+        if (container != null) {
+            container.start();
+        }
+    }
+
+    /**
+     * Returns the offset product events must be consumed from to catch up with the loaded catalog.
+     *
+     * @param partition A partition of one of the product topics
+     * @return The offset to seek to, or null if the partition was unknown when the catalog loaded
+     */
+    public Long resumeOffset(TopicPartition partition) {
+        return resumeOffsets.get(partition);
+    }
+
+    private int loadSnapshot(List<CatalogListener> listeners) {
+        if (!Files.isReadable(snapshotFile)) {
+            log.info("No catalog snapshot found at {}", snapshotFile);
+            return -1;
+        }
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshot.open(snapshotFile);
+            snapshot.forEach(product -> publish(listeners, product));
+            resumeOffsets = snapshot.offsets();
+            log.info("Loaded catalog snapshot taken at {}", snapshot.createdAt());
+            return snapshot.size();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to load catalog snapshot {}, falling back to MongoDB", snapshotFile, e);
+            return -1;
+        }
+    }
+
+    private int loadFromDatabase(List<CatalogListener> listeners) {
+        try {
+            resumeOffsets = productTopicOffsets.endOffsets();
+        } catch (IllegalStateException e) {
+            log.warn("Unable to capture product topic offsets, catalog will replay all events", e);
+        }
+
+        int loaded = 0;
+        try (Stream<Product> products = mongoTemplate.stream(new Query(), Product.class)) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                publish(listeners, productProtoMapper.toProductModel(product));
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    private static void publish(List<CatalogListener> listeners, ProductModel product) {
+        for (CatalogListener listener : listeners) {
+            listener.onProductUpserted(product);
+        }
+    }
+}
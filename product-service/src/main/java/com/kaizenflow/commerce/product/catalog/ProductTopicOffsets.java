@@ -0,0 +1,71 @@
+package com.kaizenflow.commerce.product.catalog;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+/** Looks up the current end offsets of the topics that carry product events. */
+@Component
+public class ProductTopicOffsets {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final KafkaAdmin kafkaAdmin;
+    private final List<String> topics;
+
+    public ProductTopicOffsets(
+            KafkaAdmin kafkaAdmin,
+            @Value("${kafka.topic.product-created-events}") String productCreatedEventsTopic,
+            @Value("${kafka.topic.product-updated-events}") String productUpdatedEventsTopic) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.topics = List.of(productCreatedEventsTopic, productUpdatedEventsTopic);
+    }
+
+    /**
+     * Returns the offset the next product event will be written at, for every partition of the
+     * product topics.
+     *
+     * @return The end offset of each partition
+     * @throws IllegalStateException if the offsets cannot be fetched from the broker
+     */
+    public Map<TopicPartition, Long> endOffsets() {
+        try (AdminClient adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            Map<String, TopicDescription> descriptions =
+                    adminClient.describeTopics(topics).allTopicNames().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+            descriptions.forEach(
+                    (topic, description) ->
+                            description
+                                    .partitions()
+                                    .forEach(
+                                            partition ->
+                                                    request.put(
+                                                            new TopicPartition(topic, partition.partition()),
+                                                            OffsetSpec.latest())));
+
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> results =
+                    adminClient.listOffsets(request).all().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Map<TopicPartition, Long> offsets = new HashMap<>(results.size() * 2);
+            results.forEach((partition, info) -> offsets.put(partition, info.offset()));
+            return offsets;
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Unable to fetch product topic offsets", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching product topic offsets", e);
+        }
+    }
+}
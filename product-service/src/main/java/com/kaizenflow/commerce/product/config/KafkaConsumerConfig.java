@@ -1,6 +1,8 @@
 package com.kaizenflow.commerce.product.config;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
@@ -9,11 +11,17 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 
-import com.kaizenflow.commerce.product.serializer.SimpleProtobufDeserializer;
-import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
+import com.google.protobuf.Message;
+import com.kaizenflow.commerce.messaging.consumer.ByteBufferErrorHandlingDeserializer;
+import com.kaizenflow.commerce.messaging.consumer.InstanceConsumerGroups;
+import com.kaizenflow.commerce.product.catalog.CatalogWarmStarter;
+import com.kaizenflow.commerce.proto.serde.EventBatches;
+import com.kaizenflow.commerce.proto.serde.ProtobufDeserializer;
 
 @Configuration
 public class KafkaConsumerConfig {
@@ -22,26 +30,59 @@ public class KafkaConsumerConfig {
     private String bootstrapServers;
 
     @Bean
-    public ConsumerFactory<String, InventoryUpdateEvent> inventoryUpdateEventConsumerFactory() {
+    public ConsumerFactory<String, Message> inventoryUpdateEventConsumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "product-group");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(
-                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SimpleProtobufDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ProtobufDeserializer.class);
 
+        // A record that cannot be deserialized is dead-lettered instead of failing every poll
         return new DefaultKafkaConsumerFactory<>(
                 configProps,
                 new StringDeserializer(),
-                new SimpleProtobufDeserializer<>(InventoryUpdateEvent.parser()));
+                new ByteBufferErrorHandlingDeserializer<>(EventBatches.inventoryUpdateDeserializer()));
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, InventoryUpdateEvent>
+    public ConcurrentKafkaListenerContainerFactory<String, Message>
             inventoryUpdateEventKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, InventoryUpdateEvent> factory =
+        ConcurrentKafkaListenerContainerFactory<String, Message> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(inventoryUpdateEventConsumerFactory());
         return factory;
     }
+
+    @Bean
+    public ConsumerFactory<String, Message> productEventConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ProtobufDeserializer.class);
+
+        return new DefaultKafkaConsumerFactory<>(
+                configProps, new StringDeserializer(), EventBatches.productEventDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Message>
+            productEventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Message> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(productEventConsumerFactory());
+        return factory;
+    }
+
+    /** Removes the catalog listener's consumer group on shutdown. */
+    @Bean
+    public InstanceConsumerGroups instanceConsumerGroups(
+            KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry,
+            KafkaAdmin kafkaAdmin,
+            @Value("${kafka.consumer.group-delete-timeout}") Duration groupDeleteTimeout) {
+        return new InstanceConsumerGroups(
+                kafkaListenerEndpointRegistry,
+                kafkaAdmin,
+                List.of(CatalogWarmStarter.CATALOG_LISTENER_ID),
+                groupDeleteTimeout);
+    }
 }
@@ -1,19 +1,27 @@
 package com.kaizenflow.commerce.product.config;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
 
-import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 
-import com.kaizenflow.commerce.product.serializer.SimpleProtobufSerializer;
+import com.kaizenflow.commerce.messaging.batch.BatchSettings;
+import com.kaizenflow.commerce.messaging.batch.EventBatcher;
+import com.kaizenflow.commerce.messaging.producer.KafkaProducers;
+import com.kaizenflow.commerce.messaging.producer.ProducerProfile;
+import com.kaizenflow.commerce.messaging.publisher.AsyncEventPublisher;
+import com.kaizenflow.commerce.messaging.publisher.PublisherSettings;
 import com.kaizenflow.commerce.proto.product.ProductEvent;
+import com.kaizenflow.commerce.proto.product.ProductEventBatch;
+import com.kaizenflow.commerce.proto.serde.ProtobufSerializer;
+import com.kaizenflow.commerce.proto.time.TimestampClock;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class KafkaProducerConfig {
@@ -22,17 +30,50 @@ public class KafkaProducerConfig {
     private String bootstrapServers;
 
     @Bean
-    public ProducerFactory<String, ProductEvent> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SimpleProtobufSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+    public TimestampClock eventClock() {
+        return new TimestampClock(Clock.systemUTC());
+    }
+
+    @Bean
+    public ProducerFactory<String, ProductEventBatch> producerFactory(
+            MeterRegistry meterRegistry,
+            @Value("${kafka.producer.product-events.profile}") ProducerProfile profile) {
+        return KafkaProducers.producerFactory(
+                "product-events", bootstrapServers, profile, new ProtobufSerializer<>(), meterRegistry);
+    }
+
+    @Bean
+    public KafkaTemplate<String, ProductEventBatch> kafkaTemplate(
+            ProducerFactory<String, ProductEventBatch> producerFactory, MeterRegistry meterRegistry) {
+        return KafkaProducers.kafkaTemplate(producerFactory, meterRegistry);
+    }
+
+    @Bean
+    public AsyncEventPublisher<ProductEventBatch> productEventPublisher(
+            KafkaTemplate<String, ProductEventBatch> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.publisher.max-in-flight}") int maxInFlight) {
+        return new AsyncEventPublisher<>(
+                "product-events", kafkaTemplate, meterRegistry, new PublisherSettings(maxInFlight));
     }
 
     @Bean
-    public KafkaTemplate<String, ProductEvent> kafkaTemplate(
-            ProducerFactory<String, ProductEvent> producerFactory) {
-        return new KafkaTemplate<>(producerFactory);
+    public EventBatcher<ProductEvent, ProductEventBatch> productEventBatcher(
+            AsyncEventPublisher<ProductEventBatch> productEventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.topic.product-created-events}") String productCreatedEventsTopic,
+            @Value("${kafka.topic.product-updated-events}") String productUpdatedEventsTopic,
+            @Value("${kafka.batch.max-events}") int maxEvents,
+            @Value("${kafka.batch.max-bytes}") int maxBytes,
+            @Value("${kafka.batch.linger}") Duration linger,
+            @Value("${kafka.batch.metadata-wait}") Duration metadataWait) {
+        return new EventBatcher<>(
+                "product-events",
+                List.of(productCreatedEventsTopic, productUpdatedEventsTopic),
+                productEventPublisher,
+                events -> ProductEventBatch.newBuilder().addAllEvents(events).build(),
+                ProductEvent::getSerializedSize,
+                meterRegistry,
+                new BatchSettings(maxEvents, maxBytes, linger, metadataWait));
     }
 }
@@ -0,0 +1,25 @@
+package com.kaizenflow.commerce.product.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.kaizenflow.commerce.product.mappers.ProductProtoMapper;
+import com.kaizenflow.commerce.product.serializer.ProductProtobufHttpMessageConverter;
+
+import lombok.RequiredArgsConstructor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ProductProtoMapper productProtoMapper;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Appended after Jackson so JSON stays the default for clients that accept anything
+        converters.add(new ProductProtobufHttpMessageConverter(productProtoMapper));
+    }
+}
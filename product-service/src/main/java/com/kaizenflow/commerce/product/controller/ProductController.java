@@ -1,15 +1,30 @@
 package com.kaizenflow.commerce.product.controller;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.kaizenflow.commerce.messaging.http.VersionETags;
 import com.kaizenflow.commerce.product.domain.dto.ProductRecord;
+import com.kaizenflow.commerce.product.domain.dto.ProductSuggestion;
+import com.kaizenflow.commerce.product.domain.dto.ProductVersion;
 import com.kaizenflow.commerce.product.domain.dto.request.CreateProductRequest;
+import com.kaizenflow.commerce.product.search.AutocompleteIndex;
 import com.kaizenflow.commerce.product.service.ProductService;
 
 import jakarta.validation.Valid;
@@ -19,11 +34,21 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/v1/products")
 public class ProductController {
 
+    // Catalog data changes rarely; let clients reuse it briefly, then revalidate with the ETag
+    private static final CacheControl PRODUCT_CACHE_CONTROL =
+            CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic().mustRevalidate();
+
+    // Suggestions tolerate a minute of staleness and are requested on every keystroke
+    private static final CacheControl AUTOCOMPLETE_CACHE_CONTROL =
+            CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+
     private final ProductService productService;
+    private final AutocompleteIndex autocompleteIndex;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, AutocompleteIndex autocompleteIndex) {
         this.productService = productService;
+        this.autocompleteIndex = autocompleteIndex;
     }
 
     /**
@@ -38,4 +63,101 @@ public class ProductController {
         ProductRecord createdProduct = productService.createProduct(createProductRequest);
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
+
+    /**
+     * Retrieves a product by its ID. Revalidation requests carrying If-None-Match are answered with
+     * 304 from a version lookup, without loading the full product document. ETags differ between the
+     * JSON and Protobuf representations, and responses vary by Accept, so caches keep the two apart.
+     * Served from the gateway's edge cache most of the time, so it does not count as a view; see
+     * {@link #recordView}.
+     *
+     * @param id The product ID
+     * @param ifNoneMatch The ETag(s) held by the client, if any
+     * @param accept The media types the client accepts, if any
+     * @return ResponseEntity containing the product record, or 304 if unchanged
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductRecord> getProductById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType representation = VersionETags.representationFor(accept);
+
+        if (ifNoneMatch != null) {
+            Optional<ProductVersion> version = productService.getProductVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (version.get().isMatchedBy(ifNoneMatch, representation)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(version.get().eTag(representation))
+                        .cacheControl(PRODUCT_CACHE_CONTROL)
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build();
+            }
+        }
+
+        return productService
+                .getProductById(id)
+                .map(
+                        product ->
+                                ResponseEntity.ok()
+                                        .eTag(VersionETags.eTagFor(product.version(), representation))
+                                        .cacheControl(PRODUCT_CACHE_CONTROL)
+                                        .varyBy(HttpHeaders.ACCEPT)
+                                        .body(product))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Counts a view of a product towards its autocomplete popularity. Views have their own endpoint
+     * because product GETs are answered by the gateway's edge cache and would only be counted on
+     * misses, flattening popularity towards the least viewed products. POSTs are never cached, so
+     * every view reaches this service.
+     *
+     * @param id The product ID
+     * @return 204, or 404 if there is no such product
+     */
+    @PostMapping("/{id}/views")
+    public ResponseEntity<Void> recordView(@PathVariable String id) {
+        if (productService.getProductVersion(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        autocompleteIndex.recordView(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Retrieves several products at once, such as a customer's recently viewed products. IDs with no
+     * product are left out.
+     *
+     * @param ids The product IDs, at most {@value ProductService#MAX_BULK_IDS}
+     * @return ResponseEntity containing the products found, in the order requested, or 400 if too
+     *     many IDs were given
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProductRecord>> getProductsByIds(@RequestParam List<String> ids) {
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(PRODUCT_CACHE_CONTROL)
+                    .body(productService.getProductsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Suggests products whose names start with the typed text, served from the in-memory index.
+     *
+     * @param query The text typed so far
+     * @param limit The maximum number of suggestions
+     * @return ResponseEntity containing the suggestions, most popular first
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<ProductSuggestion>> autocomplete(
+            @RequestParam("q") String query, @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(AUTOCOMPLETE_CACHE_CONTROL)
+                .body(autocompleteIndex.suggest(query, limit));
+    }
 }
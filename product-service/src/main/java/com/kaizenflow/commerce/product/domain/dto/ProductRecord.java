@@ -20,4 +20,5 @@ public record ProductRecord(
         Integer availableQuantity,
         LocalDateTime inventoryLastUpdated,
         LocalDateTime createdAt,
-        LocalDateTime updatedAt) {}
+        LocalDateTime updatedAt,
+        long version) {}
@@ -0,0 +1,4 @@
+package com.kaizenflow.commerce.product.domain.dto;
+
+/** A product name suggested while the user types a search query. */
+public record ProductSuggestion(String id, String name) {}
@@ -0,0 +1,33 @@
+package com.kaizenflow.commerce.product.domain.dto;
+
+import org.springframework.http.MediaType;
+
+import com.kaizenflow.commerce.messaging.http.VersionETags;
+
+/**
+ * Lightweight projection of a product's version counter. Used to answer conditional GETs without
+ * loading and serializing the full product document; the ETags come from {@link VersionETags}.
+ */
+public record ProductVersion(String id, long version) {
+
+    /**
+     * Returns the strong ETag of this version in a representation.
+     *
+     * @param representation The media type the product is served as
+     * @return The quoted ETag value
+     */
+    public String eTag(MediaType representation) {
+        return VersionETags.eTagFor(version, representation);
+    }
+
+    /**
+     * Checks whether an If-None-Match header matches this version in a representation.
+     *
+     * @param ifNoneMatch The raw If-None-Match header value, may be null
+     * @param representation The media type the product is served as
+     * @return true if the client's cached representation is still current
+     */
+    public boolean isMatchedBy(String ifNoneMatch, MediaType representation) {
+        return VersionETags.isMatchedBy(ifNoneMatch, version, representation);
+    }
+}
@@ -1,10 +1,27 @@
 package com.kaizenflow.commerce.product.domain.enums;
 
+import com.kaizenflow.commerce.proto.inventory.StockStatus;
+
 import lombok.Getter;
 
 @Getter
 public enum InventoryStatus {
     IN_STOCK,
     LOW_STOCK,
-    OUT_OF_STOCK
+    OUT_OF_STOCK;
+
+    /**
+     * Converts the status carried in inventory update events.
+     *
+     * @param stockStatus The event's status
+     * @return The matching status, or null if the event carries none
+     */
+    public static InventoryStatus fromStockStatus(StockStatus stockStatus) {
+        return switch (stockStatus) {
+            case IN_STOCK -> IN_STOCK;
+            case LOW_STOCK -> LOW_STOCK;
+            case OUT_OF_STOCK -> OUT_OF_STOCK;
+            case STOCK_STATUS_UNSPECIFIED, UNRECOGNIZED -> null;
+        };
+    }
 }
@@ -1,6 +1,7 @@
 package com.kaizenflow.commerce.product.domain.models;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -8,6 +9,7 @@ import java.util.UUID;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -63,9 +65,14 @@ public class Product {
 
     private LocalDateTime inventoryLastUpdated; // Timestamp of last inventory update
 
+    private Instant inventoryEventTime; // Time of the newest inventory event applied
+
     @CreatedDate
     private LocalDateTime createdAt; // Spring Data: Automatically sets creation timestamp
 
     @LastModifiedDate
     private LocalDateTime updatedAt; // Spring Data: Automatically updates on modifications
+
+    @Version
+    private long version; // Spring Data: Bumped on every save, which fails if it changed; for ETags
 }
@@ -0,0 +1,65 @@
+package com.kaizenflow.commerce.product.listeners;
+
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.google.protobuf.Message;
+import com.kaizenflow.commerce.product.catalog.CatalogListener;
+import com.kaizenflow.commerce.product.catalog.CatalogWarmStarter;
+import com.kaizenflow.commerce.proto.product.ProductEvent;
+import com.kaizenflow.commerce.proto.serde.EventBatches;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps catalog listeners current after warm start. Every instance consumes the product topics in
+ * its own consumer group, starting from the offsets recorded with the loaded catalog.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogEventListener implements ConsumerSeekAware {
+
+    private final ObjectProvider<CatalogListener> catalogListeners;
+    private final CatalogWarmStarter catalogWarmStarter;
+
+    @KafkaListener(
+            id = CatalogWarmStarter.CATALOG_LISTENER_ID,
+            topics = {"${kafka.topic.product-created-events}", "${kafka.topic.product-updated-events}"},
+            groupId = "product-catalog-${random.uuid}",
+            containerFactory = "productEventKafkaListenerContainerFactory",
+            autoStartup = "false")
+    public void handleProductEvents(Message record) {
+        for (ProductEvent productEvent : EventBatches.productEvents(record)) {
+            if (productEvent.getType() == ProductEvent.EventType.DELETED) {
+                catalogListeners.forEach(
+                        listener -> listener.onProductRemoved(productEvent.getProduct().getId()));
+            } else {
+                catalogListeners.forEach(listener -> listener.onProductUpserted(productEvent.getProduct()));
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(
+            Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        assignments
+                .keySet()
+                .forEach(
+                        partition -> {
+                            Long offset = catalogWarmStarter.resumeOffset(partition);
+                            if (offset != null) {
+                                callback.seek(partition.topic(), partition.partition(), offset);
+                            } else {
+                                callback.seekToBeginning(partition.topic(), partition.partition());
+                            }
+                        });
+        log.info("Catalog event listener assigned {} partitions", assignments.size());
+    }
+}
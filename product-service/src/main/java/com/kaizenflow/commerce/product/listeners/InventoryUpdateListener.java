@@ -1,10 +1,17 @@
 package com.kaizenflow.commerce.product.listeners;
 
+import java.time.Instant;
+
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import com.google.protobuf.Message;
+import com.kaizenflow.commerce.messaging.retry.NonBlockingRetry;
+import com.kaizenflow.commerce.product.domain.enums.InventoryStatus;
 import com.kaizenflow.commerce.product.service.ProductService;
 import com.kaizenflow.commerce.proto.inventory.InventoryUpdateEvent;
+import com.kaizenflow.commerce.proto.inventory.StockStatus;
+import com.kaizenflow.commerce.proto.serde.EventBatches;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,21 +22,50 @@ import lombok.extern.slf4j.Slf4j;
 public class InventoryUpdateListener {
     private final ProductService productService;
 
+    /**
+     * Applies inventory updates to products. Each record holds a single update or a batch of them.
+     */
+    @NonBlockingRetry
     @KafkaListener(
             topics = "${kafka.topic.inventory-events}",
             containerFactory = "inventoryUpdateEventKafkaListenerContainerFactory")
-    public void updateInventoryStatus(InventoryUpdateEvent inventoryUpdateEvent) {
-        log.info(
-                "Received Inventory Update event with productId: {}, available quantity: {}, status: {}",
-                inventoryUpdateEvent.getProductId(),
-                inventoryUpdateEvent.getAvailableQuantity(),
-                inventoryUpdateEvent.getInventoryStatus());
-
-        // Delegate to product service
-        productService.updateProductInventory(
-                inventoryUpdateEvent.getProductId(),
-                inventoryUpdateEvent.getAvailableQuantity(),
-                inventoryUpdateEvent.getInventoryStatus(),
-                inventoryUpdateEvent.getInStock());
+    public void updateInventoryStatus(Message record) {
+        for (InventoryUpdateEvent inventoryUpdateEvent : EventBatches.inventoryUpdates(record)) {
+            log.info(
+                    "Received Inventory Update event with productId: {}, available quantity: {}, in stock: {}",
+                    inventoryUpdateEvent.getProductId(),
+                    inventoryUpdateEvent.getAvailableQuantity(),
+                    inventoryUpdateEvent.getInStock());
+
+            // Delegate to product service
+            productService.updateProductInventory(
+                    inventoryUpdateEvent.getProductId(),
+                    inventoryUpdateEvent.getAvailableQuantity(),
+                    inventoryStatus(inventoryUpdateEvent),
+                    inventoryUpdateEvent.getInStock(),
+                    eventTime(inventoryUpdateEvent));
+        }
+    }
+
+    private static Instant eventTime(InventoryUpdateEvent event) {
+        if (!event.hasTimestamp()) {
+            return null;
+        }
+        return Instant.ofEpochSecond(
+                event.getTimestamp().getSeconds(), event.getTimestamp().getNanos());
+    }
+
+    /** The event's status, read from the status name on records written before the status enum. */
+    @SuppressWarnings("deprecation")
+    private static InventoryStatus inventoryStatus(InventoryUpdateEvent event) {
+        if (event.getStockStatus() != StockStatus.STOCK_STATUS_UNSPECIFIED) {
+            return InventoryStatus.fromStockStatus(event.getStockStatus());
+        }
+        return switch (event.getInventoryStatus()) {
+            case "IN_STOCK" -> InventoryStatus.IN_STOCK;
+            case "LOW_STOCK" -> InventoryStatus.LOW_STOCK;
+            case "OUT_OF_STOCK" -> InventoryStatus.OUT_OF_STOCK;
+            default -> null;
+        };
     }
 }
@@ -0,0 +1,145 @@
+package com.kaizenflow.commerce.product.mappers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.product.domain.dto.ProductRecord;
+import com.kaizenflow.commerce.product.domain.dto.request.CreateProductRequest;
+import com.kaizenflow.commerce.product.domain.models.Product;
+import com.kaizenflow.commerce.proto.product.ProductCreateRequest;
+import com.kaizenflow.commerce.proto.product.ProductListResponse;
+import com.kaizenflow.commerce.proto.product.ProductModel;
+import com.kaizenflow.commerce.proto.product.ProductResponse;
+
+/**
+ * Mapper for converting between product DTOs and their Protobuf API messages.
+ *
+ * <p>Written by hand rather than generated by MapStruct because Protobuf builders reject nulls and
+ * expose repeated fields through addAll methods.
+ */
+@Component
+public class ProductProtoMapper {
+
+    /**
+     * Maps a ProductRecord to a ProductResponse message.
+     *
+     * @param product the source ProductRecord
+     * @return a ProductResponse message
+     */
+    public ProductResponse toProductResponse(ProductRecord product) {
+        ProductResponse.Builder builder = ProductResponse.newBuilder();
+        setIfPresent(product.id(), builder::setId);
+        setIfPresent(product.sku(), builder::setSku);
+        setIfPresent(product.name(), builder::setName);
+        setIfPresent(product.description(), builder::setDescription);
+        setIfPresent(toDecimalString(product.price()), builder::setPrice);
+        setIfPresent(toDecimalString(product.costPrice()), builder::setCostPrice);
+        setIfPresent(product.category(), builder::setCategory);
+        setIfPresent(product.tags(), builder::addAllTags);
+        setIfPresent(product.brand(), builder::setBrand);
+        setIfPresent(product.active(), builder::setActive);
+        setIfPresent(product.inStock(), builder::setInStock);
+        setIfPresent(product.inventoryStatus(), builder::setInventoryStatus);
+        setIfPresent(product.availableQuantity(), builder::setAvailableQuantity);
+        setIfPresent(toTimestamp(product.inventoryLastUpdated()), builder::setInventoryLastUpdated);
+        setIfPresent(toTimestamp(product.createdAt()), builder::setCreatedAt);
+        setIfPresent(toTimestamp(product.updatedAt()), builder::setUpdatedAt);
+        return builder.build();
+    }
+
+    /**
+     * Maps a list of ProductRecords to a ProductListResponse message.
+     *
+     * @param products the source ProductRecords
+     * @return a ProductListResponse message
+     */
+    public ProductListResponse toProductListResponse(List<ProductRecord> products) {
+        ProductListResponse.Builder builder = ProductListResponse.newBuilder();
+        for (ProductRecord product : products) {
+            builder.addProducts(toProductResponse(product));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Maps a Product entity to the ProductModel message used in events and catalog snapshots. Checks
+     * fields directly rather than through {@code setIfPresent}, whose method references allocate on
+     * every call, as this runs for every published event.
+     *
+     * @param product the source Product entity
+     * @return a ProductModel message
+     */
+    public ProductModel toProductModel(Product product) {
+        ProductModel.Builder builder = ProductModel.newBuilder();
+        if (product.getId() != null) {
+            builder.setId(product.getId());
+        }
+        if (product.getName() != null) {
+            builder.setName(product.getName());
+        }
+        if (product.getDescription() != null) {
+            builder.setDescription(product.getDescription());
+        }
+        if (product.getPrice() != null) {
+            builder.setPrice(product.getPrice().doubleValue());
+        }
+        if (product.getCategory() != null) {
+            builder.setCategory(product.getCategory());
+        }
+        if (product.getInStock() != null) {
+            builder.setInStock(product.getInStock());
+        }
+        if (product.getSku() != null) {
+            builder.setSku(product.getSku().toString());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Maps a ProductCreateRequest message to a CreateProductRequest.
+     *
+     * @param request the source ProductCreateRequest message
+     * @return a CreateProductRequest
+     */
+    public CreateProductRequest toCreateProductRequest(ProductCreateRequest request) {
+        return new CreateProductRequest(
+                request.getName(),
+                request.getDescription(),
+                toBigDecimal(request.getPrice()),
+                toBigDecimal(request.getCostPrice()),
+                request.getCategory(),
+                List.copyOf(request.getTagsList()),
+                request.getBrand());
+    }
+
+    private static <T> void setIfPresent(T value, Consumer<T> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    private static String toDecimalString(BigDecimal value) {
+        return value == null ? null : value.toPlainString();
+    }
+
+    private static BigDecimal toBigDecimal(String value) {
+        return value.isEmpty() ? null : new BigDecimal(value);
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        var instant = dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
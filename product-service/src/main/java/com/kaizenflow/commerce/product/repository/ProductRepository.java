@@ -7,9 +7,11 @@ import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import com.kaizenflow.commerce.product.domain.dto.ProductRecord;
+import com.kaizenflow.commerce.product.domain.dto.ProductVersion;
 import com.kaizenflow.commerce.product.domain.models.Product;
 
 /**
@@ -19,6 +21,14 @@ import com.kaizenflow.commerce.product.domain.models.Product;
 @Repository
 public interface ProductRepository extends MongoRepository<Product, String> {
 
+    // Find only the version counter of a product, for conditional requests
+    Optional<ProductVersion> findVersionById(String id);
+
+    // Give a product stored before it had a version counter its first version
+    @Query("{ '_id': ?0, 'version': { $exists: false } }")
+    @Update("{ '$set': { 'version': 1 } }")
+    void initializeVersion(String id);
+
     // Find a product by its SKU
     Optional<ProductRecord> findBySku(String sku);
 
@@ -0,0 +1,458 @@
+package com.kaizenflow.commerce.product.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kaizenflow.commerce.product.catalog.CatalogListener;
+import com.kaizenflow.commerce.product.domain.dto.ProductSuggestion;
+import com.kaizenflow.commerce.proto.product.ProductModel;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory prefix index over normalized product name tokens, used for type-ahead suggestions.
+ *
+ * <p>Every trie node caches the {@value #TOP_K} most popular products below it, so a lookup is a
+ * walk down the query prefix followed by a read of that node's list, independent of catalog size. A
+ * node's list is always the best of its own terminal products and its children's lists, which lets
+ * updates recompute only the nodes on the changed tokens' paths. Nodes left without products are
+ * pruned, so removals and renames do not leave dead branches behind. Terminal products are kept in
+ * popularity order, so a node's list is rebuilt from at most {@value #TOP_K} of them.
+ *
+ * <p>Writes are serialized on the index. Reads take no locks: child tables, terminal products and
+ * top-k lists are immutable arrays published through volatile fields, so readers always see a
+ * consistent node.
+ */
+@Component
+@Slf4j
+public class AutocompleteIndex implements CatalogListener {
+
+    static final int TOP_K = 10;
+
+    // Nodes and products a multi-token lookup may visit past the cached top-k lists
+    static final int MAX_SCAN_VISITS = 2_000;
+
+    private static final int MAX_TOKEN_LENGTH = 32;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String[] NO_TOKENS = new String[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Comparator<Entry> BY_POPULARITY =
+            Comparator.comparingLong(Entry::weight)
+                    .reversed()
+                    .thenComparing(Entry::name)
+                    .thenComparing(Entry::id);
+
+    private final Node root = new Node();
+
+    // Guarded by this
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    // View counts recorded since the last weight refresh
+    private final Map<String, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    private final LongAdder scanVisits = new LongAdder();
+
+    @Override
+    public synchronized void onProductUpserted(ProductModel product) {
+        Entry current = entries.get(product.getId());
+        if (current != null && current.name().equals(product.getName())) {
+            return;
+        }
+        long weight = current != null ? current.weight() : 0;
+        replace(
+                current,
+                new Entry(product.getId(), product.getName(), tokenize(product.getName()), weight));
+    }
+
+    @Override
+    public synchronized void onProductRemoved(String productId) {
+        Entry current = entries.get(productId);
+        if (current != null) {
+            replace(current, null);
+        }
+    }
+
+    /**
+     * Records a product view, which raises the product's rank once weights are next refreshed.
+     *
+     * @param productId The ID of the viewed product
+     */
+    public void recordView(String productId) {
+        pendingViews.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    /** Folds recorded views into product weights, re-ranking the affected trie paths. */
+    @Scheduled(fixedDelayString = "${catalog.autocomplete.weight-refresh-interval:PT30S}")
+    public void refreshWeights() {
+        if (pendingViews.isEmpty()) {
+            return;
+        }
+        int updated = 0;
+        for (Map.Entry<String, LongAdder> pending : pendingViews.entrySet()) {
+            // Reset in place so views recorded while the weight is folded in are kept for the next pass
+            long views = pending.getValue().sumThenReset();
+            if (views == 0) {
+                continue;
+            }
+            synchronized (this) {
+                Entry current = entries.get(pending.getKey());
+                if (current != null) {
+                    replace(current, current.withWeight(current.weight() + views));
+                    updated++;
+                } else {
+                    pendingViews.remove(pending.getKey());
+                }
+            }
+        }
+        log.debug("Refreshed autocomplete weights for {} products", updated);
+    }
+
+    /**
+     * Suggests the most popular products whose name tokens start with the query. The last query token
+     * is matched as a prefix; earlier tokens must each prefix some token of the name.
+     *
+     * <p>The lookup starts from the node of the query token with the fewest products below it. Its
+     * cached top-k list answers most queries. When other tokens filter that list below the limit, the
+     * products below the node are walked in popularity order until the limit is reached, so less
+     * popular matches are still found. The walk gives up after {@value #MAX_SCAN_VISITS} nodes and
+     * products, returning the matches found so far, so a rare combination of two common tokens costs
+     * a bounded amount of work instead of a scan of the catalog.
+     *
+     * @param query The text typed so far
+     * @param limit The maximum number of suggestions, capped at {@value #TOP_K}
+     * @return The suggestions, most popular first
+     */
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        String[] queryTokens = tokenize(query);
+        if (queryTokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        int max = Math.min(limit, TOP_K);
+        Node narrowest = null;
+        for (String token : queryTokens) {
+            Node node = root;
+            for (int i = 0; i < token.length() && node != null; i++) {
+                node = node.child(token.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            if (narrowest == null || node.size < narrowest.size) {
+                narrowest = node;
+            }
+        }
+
+        Entry[] top = narrowest.top;
+        List<ProductSuggestion> suggestions = new ArrayList<>(Math.min(max, top.length));
+        for (Entry entry : top) {
+            if (suggestions.size() == max) {
+                break;
+            }
+            if (entry.matchesAll(queryTokens)) {
+                suggestions.add(new ProductSuggestion(entry.id(), entry.name()));
+            }
+        }
+        // A list shorter than TOP_K already holds every product below the node
+        if (suggestions.size() == max || top.length < TOP_K) {
+            return suggestions;
+        }
+
+        return scan(narrowest, queryTokens, max);
+    }
+
+    /**
+     * Walks the products below a node best first: a node is queued under its most popular product,
+     * which no product below it outranks, and its terminal products are queued one at a time in their
+     * stored order. Products therefore leave the queue in popularity order, and the walk can stop as
+     * soon as enough of them match.
+     */
+    private List<ProductSuggestion> scan(Node start, String[] queryTokens, int max) {
+        PriorityQueue<Cursor> queue =
+                new PriorityQueue<>(Comparator.comparing(Cursor::best, BY_POPULARITY));
+        Cursor.offerNode(queue, start);
+        Set<String> seen = new HashSet<>();
+        List<ProductSuggestion> suggestions = new ArrayList<>(max);
+        int visits = 0;
+        while (!queue.isEmpty() && suggestions.size() < max && visits < MAX_SCAN_VISITS) {
+            Cursor cursor = queue.poll();
+            visits++;
+            if (cursor.terminals() == null) {
+                Cursor.offerTerminal(queue, cursor.node().terminals, 0);
+                for (Node child : cursor.node().children.nodes()) {
+                    Cursor.offerNode(queue, child);
+                }
+                continue;
+            }
+            Entry entry = cursor.best();
+            // A product with several tokens under the node is reached once per token
+            if (seen.add(entry.id()) && entry.matchesAll(queryTokens)) {
+                suggestions.add(new ProductSuggestion(entry.id(), entry.name()));
+            }
+            Cursor.offerTerminal(queue, cursor.terminals(), cursor.index() + 1);
+        }
+        scanVisits.add(visits);
+        return suggestions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Returns the number of trie nodes below the root. */
+    synchronized int nodeCount() {
+        return root.descendants();
+    }
+
+    /** Returns the number of nodes and products visited by lookups past the cached top-k lists. */
+    long scanVisits() {
+        return scanVisits.sum();
+    }
+
+    private void replace(Entry previous, Entry next) {
+        if (previous != null) {
+            entries.remove(previous.id());
+            List<String> keptTokens = next != null ? Arrays.asList(next.tokens()) : List.of();
+            for (String token : previous.tokens()) {
+                Node[] path = pathOf(token, false);
+                path[path.length - 1].removeTerminal(previous);
+                // Tokens the product keeps are re-added below, so their nodes are left in place
+                recomputePath(keptTokens.contains(token) ? path : prune(path, token));
+            }
+        }
+        if (next != null) {
+            entries.put(next.id(), next);
+            for (String token : next.tokens()) {
+                Node[] path = pathOf(token, true);
+                path[path.length - 1].addTerminal(next);
+                recomputePath(path);
+            }
+        }
+    }
+
+    private Node[] pathOf(String token, boolean create) {
+        Node[] path = new Node[token.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < token.length(); i++) {
+            path[i + 1] =
+                    create ? path[i].getOrCreateChild(token.charAt(i)) : path[i].child(token.charAt(i));
+        }
+        return path;
+    }
+
+    /**
+     * Detaches the nodes at the end of a path that no longer lead to any product.
+     *
+     * @return The part of the path still attached to the trie
+     */
+    private static Node[] prune(Node[] path, String token) {
+        int last = path.length - 1;
+        while (last > 0 && path[last].isEmpty()) {
+            path[last - 1].removeChild(token.charAt(last - 1));
+            last--;
+        }
+        return last == path.length - 1 ? path : Arrays.copyOf(path, last + 1);
+    }
+
+    private static void recomputePath(Node[] path) {
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i].recompute();
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return NO_TOKENS;
+        }
+        String normalized =
+                DIACRITICS
+                        .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                        .replaceAll("")
+                        .toLowerCase(Locale.ROOT);
+        return Arrays.stream(TOKEN_SEPARATORS.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .map(
+                        token ->
+                                token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token)
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    /** An indexed product. Immutable, so readers can hold references without locking. */
+    private record Entry(String id, String name, String[] tokens, long weight) {
+
+        Entry withWeight(long newWeight) {
+            return new Entry(id, name, tokens, newWeight);
+        }
+
+        boolean matchesAll(String[] queryTokens) {
+            for (String queryToken : queryTokens) {
+                if (!hasTokenWithPrefix(queryToken)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean hasTokenWithPrefix(String prefix) {
+            for (String token : tokens) {
+                if (token.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A queued step of {@link #scan}: either a node still to be expanded, or the terminal product at
+     * an index of a node's terminals. Ordered by the most popular product it can lead to.
+     */
+    private record Cursor(Entry best, Node node, Entry[] terminals, int index) {
+
+        static void offerNode(PriorityQueue<Cursor> queue, Node node) {
+            Entry[] top = node.top;
+            if (top.length > 0) {
+                queue.offer(new Cursor(top[0], node, null, 0));
+            }
+        }
+
+        static void offerTerminal(PriorityQueue<Cursor> queue, Entry[] terminals, int index) {
+            if (index < terminals.length) {
+                queue.offer(new Cursor(terminals[index], null, terminals, index));
+            }
+        }
+    }
+
+    /** Sorted child table, replaced as a whole so readers never see keys and nodes out of step. */
+    private record Children(char[] keys, Node[] nodes) {
+
+        static final Children EMPTY = new Children(new char[0], new Node[0]);
+
+        Node get(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? nodes[index] : null;
+        }
+
+        Children with(char key, Node node) {
+            int insertAt = -(Arrays.binarySearch(keys, key) + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newNodes = new Node[nodes.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(nodes, 0, newNodes, 0, insertAt);
+            newKeys[insertAt] = key;
+            newNodes[insertAt] = node;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(nodes, insertAt, newNodes, insertAt + 1, nodes.length - insertAt);
+            return new Children(newKeys, newNodes);
+        }
+
+        Children without(char key) {
+            int removeAt = Arrays.binarySearch(keys, key);
+            if (removeAt < 0) {
+                return this;
+            }
+            if (keys.length == 1) {
+                return EMPTY;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newNodes = new Node[nodes.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, removeAt);
+            System.arraycopy(nodes, 0, newNodes, 0, removeAt);
+            System.arraycopy(keys, removeAt + 1, newKeys, removeAt, keys.length - removeAt - 1);
+            System.arraycopy(nodes, removeAt + 1, newNodes, removeAt, nodes.length - removeAt - 1);
+            return new Children(newKeys, newNodes);
+        }
+    }
+
+    private static final class Node {
+
+        private volatile Children children = Children.EMPTY;
+        private volatile Entry[] top = NO_ENTRIES;
+
+        // Products with a token ending exactly at this node, most popular first
+        private volatile Entry[] terminals = NO_ENTRIES;
+
+        // Products at or below this node, counted once per token
+        private volatile int size;
+
+        Node child(char key) {
+            return children.get(key);
+        }
+
+        Node getOrCreateChild(char key) {
+            Node child = children.get(key);
+            if (child == null) {
+                child = new Node();
+                children = children.with(key, child);
+            }
+            return child;
+        }
+
+        void removeChild(char key) {
+            children = children.without(key);
+        }
+
+        void addTerminal(Entry entry) {
+            int index = Arrays.binarySearch(terminals, entry, BY_POPULARITY);
+            int insertAt = index >= 0 ? index : -(index + 1);
+            Entry[] updated = new Entry[terminals.length + 1];
+            System.arraycopy(terminals, 0, updated, 0, insertAt);
+            updated[insertAt] = entry;
+            System.arraycopy(terminals, insertAt, updated, insertAt + 1, terminals.length - insertAt);
+            terminals = updated;
+        }
+
+        void removeTerminal(Entry entry) {
+            terminals =
+                    Arrays.stream(terminals).filter(terminal -> terminal != entry).toArray(Entry[]::new);
+        }
+
+        boolean isEmpty() {
+            return terminals.length == 0 && children.keys().length == 0;
+        }
+
+        int descendants() {
+            int count = 0;
+            for (Node child : children.nodes()) {
+                count += 1 + child.descendants();
+            }
+            return count;
+        }
+
+        /** Rebuilds the top-k list and size from the terminals and the children's lists. */
+        void recompute() {
+            Map<String, Entry> candidates = new HashMap<>();
+            Entry[] ownTerminals = terminals;
+            // Terminals are sorted, so only the first k can make the list
+            for (int i = 0; i < Math.min(ownTerminals.length, TOP_K); i++) {
+                candidates.put(ownTerminals[i].id(), ownTerminals[i]);
+            }
+            int total = ownTerminals.length;
+            for (Node child : children.nodes()) {
+                for (Entry entry : child.top) {
+                    candidates.put(entry.id(), entry);
+                }
+                total += child.size;
+            }
+            top = candidates.values().stream().sorted(BY_POPULARITY).limit(TOP_K).toArray(Entry[]::new);
+            size = total;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.kaizenflow.commerce.product.serializer;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.kaizenflow.commerce.product.domain.dto.ProductRecord;
+import com.kaizenflow.commerce.product.domain.dto.request.CreateProductRequest;
+import com.kaizenflow.commerce.product.mappers.ProductProtoMapper;
+import com.kaizenflow.commerce.proto.product.ProductCreateRequest;
+
+/**
+ * HTTP message converter that reads and writes the product API types as application/x-protobuf.
+ *
+ * <p>Controllers keep returning ProductRecords; this converter is only selected when the client
+ * negotiates Protobuf, in which case records are mapped to the commerce-proto API messages and
+ * written in binary form, skipping Jackson entirely.
+ */
+public class ProductProtobufHttpMessageConverter
+        extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ProductProtoMapper productProtoMapper;
+
+    public ProductProtobufHttpMessageConverter(ProductProtoMapper productProtoMapper) {
+        super(ProtobufHttpMessageConverter.PROTOBUF);
+        this.productProtoMapper = productProtoMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ProductRecord.class == clazz || CreateProductRequest.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type == CreateProductRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        Type targetType = type != null ? type : clazz;
+        return (targetType == ProductRecord.class || isListOf(targetType, ProductRecord.class))
+                && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException {
+        return readInternal(CreateProductRequest.class, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return productProtoMapper.toCreateProductRequest(
+                    ProductCreateRequest.parseFrom(inputMessage.getBody()));
+        } catch (InvalidProtocolBufferException | NumberFormatException e) {
+            throw new HttpMessageNotReadableException(
+                    "Invalid Protobuf product request: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        Message message =
+                object instanceof List<?> products
+                        ? productProtoMapper.toProductListResponse((List<ProductRecord>) products)
+                        : productProtoMapper.toProductResponse((ProductRecord) object);
+        message.writeTo(outputMessage.getBody());
+    }
+
+    private static boolean isListOf(Type type, Class<?> elementType) {
+        return type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getRawType() instanceof Class<?> rawType
+                && List.class.isAssignableFrom(rawType)
+                && parameterizedType.getActualTypeArguments()[0] == elementType;
+    }
+}
@@ -2,33 +2,50 @@ package com.kaizenflow.commerce.product.service;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.google.protobuf.Timestamp;
+import com.kaizenflow.commerce.messaging.batch.EventBatcher;
 import com.kaizenflow.commerce.product.domain.dto.ProductRecord;
+import com.kaizenflow.commerce.product.domain.dto.ProductVersion;
 import com.kaizenflow.commerce.product.domain.dto.request.CreateProductRequest;
 import com.kaizenflow.commerce.product.domain.enums.InventoryStatus;
 import com.kaizenflow.commerce.product.domain.models.Product;
 import com.kaizenflow.commerce.product.mappers.ProductMapper;
+import com.kaizenflow.commerce.product.mappers.ProductProtoMapper;
 import com.kaizenflow.commerce.product.repository.ProductRepository;
 import com.kaizenflow.commerce.proto.product.ProductEvent;
+import com.kaizenflow.commerce.proto.product.ProductEventBatch;
 import com.kaizenflow.commerce.proto.product.ProductModel;
+import com.kaizenflow.commerce.proto.time.TimestampClock;
 
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
 public class ProductService {
+    /** The most products {@link #getProductsByIds} returns in one call. */
+    public static final int MAX_BULK_IDS = 100;
+
+    /** How many times an inventory update is tried when the product changes while it is applied. */
+    private static final int MAX_INVENTORY_UPDATE_ATTEMPTS = 3;
+
     private final ProductRepository repository;
-    private final KafkaTemplate<String, ProductEvent> kafkaTemplate;
+    private final EventBatcher<ProductEvent, ProductEventBatch> eventBatcher;
     private final ProductMapper productMapper;
+    private final ProductProtoMapper productProtoMapper;
+    private final TimestampClock eventClock;
 
     @Value("${kafka.topic.product-created-events}")
     private String productCreatedEventsTopic;
@@ -39,20 +56,25 @@ public class ProductService {
     @Autowired
     public ProductService(
             ProductRepository repository,
-            KafkaTemplate<String, ProductEvent> kafkaTemplate,
-            ProductMapper productMapper) {
+            EventBatcher<ProductEvent, ProductEventBatch> eventBatcher,
+            ProductMapper productMapper,
+            ProductProtoMapper productProtoMapper,
+            TimestampClock eventClock) {
         this.repository = repository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.eventBatcher = eventBatcher;
         this.productMapper = productMapper;
+        this.productProtoMapper = productProtoMapper;
+        this.eventClock = eventClock;
     }
 
     /**
-     * Creates a new product from the request and publishes a creation event.
+     * Creates a new product from the request and publishes a creation event. The event is sent
+     * asynchronously after the product is saved; a failed send is logged and counted but does not
+     * roll back the save.
      *
      * @param createProductRequest The product creation request
      * @return The created product as a ProductRecord
      */
-    @Transactional
     public ProductRecord createProduct(CreateProductRequest createProductRequest) {
         // Convert request to product entity
         Product newProduct = createProductFromRequest(createProductRequest);
@@ -67,6 +89,46 @@ public class ProductService {
         return productMapper.productToProductRecord(saved);
     }
 
+    /**
+     * Retrieves a product by its ID.
+     *
+     * @param id The product ID
+     * @return The product as a ProductRecord, or empty if not found
+     */
+    public Optional<ProductRecord> getProductById(String id) {
+        return repository.findById(id).map(productMapper::productToProductRecord);
+    }
+
+    /**
+     * Retrieves several products in one query.
+     *
+     * @param ids The product IDs
+     * @return The products found, in the order of their IDs; IDs with no product are skipped
+     * @throws IllegalArgumentException if more than {@value #MAX_BULK_IDS} IDs are given
+     */
+    public List<ProductRecord> getProductsByIds(List<String> ids) {
+        if (ids.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException(
+                    "At most " + MAX_BULK_IDS + " products can be fetched at once, got " + ids.size());
+        }
+
+        Map<String, ProductRecord> productsById =
+                repository.findAllById(ids).stream()
+                        .map(productMapper::productToProductRecord)
+                        .collect(Collectors.toMap(ProductRecord::id, Function.identity()));
+        return ids.stream().distinct().map(productsById::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Looks up the current ETag of a product without loading the full document.
+     *
+     * @param id The product ID
+     * @return The product version, or empty if not found
+     */
+    public Optional<ProductVersion> getProductVersion(String id) {
+        return repository.findVersionById(id);
+    }
+
     /**
      * Creates a Product entity from a CreateProductRequest.
      *
@@ -92,23 +154,21 @@ public class ProductService {
 
     /**
      * Publishes a product event to Kafka with the specified event type. Uses different topics based
-     * on the event type.
+     * on the event type. The event is batched with others for the same partition and sent
+     * asynchronously; the outcome is logged from the completion callback once its batch is sent.
      *
      * @param product The product to publish
      * @param eventType The type of event (CREATED, UPDATED, etc.)
      */
     private void publishProductEvent(Product product, ProductEvent.EventType eventType) {
         // Convert product to Protobuf model
-        ProductModel protoProduct = convertToProtoProduct(product);
-
-        // Create timestamp
-        Timestamp timestamp = createTimestamp();
+        ProductModel protoProduct = productProtoMapper.toProductModel(product);
 
-        // Build event
+        // Build event, stamped from the shared clock
         ProductEvent event =
                 ProductEvent.newBuilder()
                         .setType(eventType)
-                        .setTimestamp(timestamp)
+                        .setTimestamp(eventClock.now())
                         .setProduct(protoProduct)
                         .build();
 
@@ -120,59 +180,76 @@ public class ProductService {
             topicName = productUpdatedEventsTopic;
         }
 
-        // Publish to the selected Kafka topic
-        kafkaTemplate.send(topicName, product.getId(), event);
-
-        log.info(
-                "Published {} event for product ID: {} to topic: {}",
-                eventType,
-                product.getId(),
-                topicName);
-    }
-
-    /**
-     * Converts a Product entity to a ProductModel protobuf message.
-     *
-     * @param product The product entity
-     * @return A ProductModel protobuf message
-     */
-    private ProductModel convertToProtoProduct(Product product) {
-        return ProductModel.newBuilder()
-                .setId(product.getId())
-                .setName(product.getName())
-                .setDescription(product.getDescription())
-                .setPrice(product.getPrice().doubleValue())
-                .setCategory(product.getCategory())
-                .setInStock(product.getInStock())
-                .setSku(product.getSku().toString())
-                .build();
-    }
-
-    /**
-     * Creates a Protobuf Timestamp for the current time.
-     *
-     * @return A Protobuf Timestamp
-     */
-    private Timestamp createTimestamp() {
-        Instant instant = Instant.now();
-        return Timestamp.newBuilder()
-                .setSeconds(instant.getEpochSecond())
-                .setNanos(instant.getNano())
-                .build();
+        // Publish to the selected Kafka topic, batched per partition, without waiting for the broker
+        eventBatcher
+                .add(topicName, product.getId(), event)
+                .whenComplete(
+                        (result, ex) -> {
+                            if (ex != null) {
+                                log.error(
+                                        "Failed to publish {} event for product ID: {} to topic: {}",
+                                        eventType,
+                                        product.getId(),
+                                        topicName,
+                                        ex);
+                            } else {
+                                log.info(
+                                        "Published {} event for product ID: {} to topic: {} at offset {}",
+                                        eventType,
+                                        product.getId(),
+                                        topicName,
+                                        result.getRecordMetadata().offset());
+                            }
+                        });
     }
 
     /**
-     * Updates a product's inventory information based on an inventory update event.
+     * Updates a product's inventory information based on an inventory update event. An event older
+     * than the newest one already applied is skipped, so an update redelivered from a retry topic
+     * after a later one never puts stale stock back. The product is saved only if it has not changed
+     * since it was read, and the update is applied again to the current product if it has.
      *
      * @param productId The ID of the product to update
      * @param availableQuantity The new available quantity
-     * @param inventoryStatusStr The inventory status as a string from the event
+     * @param inventoryStatus The inventory status from the event, or null to calculate it from the
+     *     quantity
      * @param inStock Whether the product is in stock
+     * @param eventTime When the inventory changed, or null if the event does not say
      * @return true if product was updated successfully, false otherwise
+     * @throws OptimisticLockingFailureException if the product kept changing on every attempt
      */
     @Transactional
     public boolean updateProductInventory(
-            String productId, int availableQuantity, String inventoryStatusStr, boolean inStock) {
+            String productId,
+            int availableQuantity,
+            InventoryStatus inventoryStatus,
+            boolean inStock,
+            Instant eventTime) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return applyInventoryUpdate(
+                        productId, availableQuantity, inventoryStatus, inStock, eventTime);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_INVENTORY_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+                log.info("Product {} changed during an inventory update, applying it again", productId);
+            }
+        }
+    }
+
+    /**
+     * Applies an inventory update to the current state of a product, as {@link
+     * #updateProductInventory} describes.
+     *
+     * @throws OptimisticLockingFailureException if the product changed since it was read
+     */
+    private boolean applyInventoryUpdate(
+            String productId,
+            int availableQuantity,
+            InventoryStatus inventoryStatus,
+            boolean inStock,
+            Instant eventTime) {
         // Find product by ID
         Optional<Product> optionalProduct = repository.findById(productId);
 
@@ -183,13 +260,27 @@ public class ProductService {
 
         Product product = optionalProduct.get();
 
-        // Convert the string inventory status to enum
-        InventoryStatus inventoryStatus;
-        try {
-            inventoryStatus = InventoryStatus.valueOf(inventoryStatusStr);
-        } catch (IllegalArgumentException e) {
+        // A product stored before it had a version counter would be inserted again by save
+        if (product.getVersion() == 0) {
+            repository.initializeVersion(productId);
+            product.setVersion(1);
+        }
+
+        // Timestamps have millisecond precision, so only a strictly older event is known to be stale
+        if (eventTime != null
+                && product.getInventoryEventTime() != null
+                && eventTime.isBefore(product.getInventoryEventTime())) {
+            log.info(
+                    "Skipping inventory update for product {} from {}, already updated from {}",
+                    productId,
+                    eventTime,
+                    product.getInventoryEventTime());
+            return false;
+        }
+
+        if (inventoryStatus == null) {
             log.warn(
-                    "Invalid inventory status: {}. Using calculated status instead.", inventoryStatusStr);
+                    "Inventory update for product {} has no status. Using calculated status.", productId);
             inventoryStatus = determineInventoryStatus(availableQuantity);
         }
 
@@ -198,8 +289,11 @@ public class ProductService {
         product.setInventoryStatus(inventoryStatus);
         product.setInStock(inStock);
         product.setInventoryLastUpdated(LocalDateTime.now());
+        if (eventTime != null) {
+            product.setInventoryEventTime(eventTime);
+        }
 
-        // Save updated product
+        // Save updated product, failing if it changed since it was read
         repository.save(product);
 
         log.info(
@@ -0,0 +1,65 @@
+package com.kaizenflow.commerce.product.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.kaizenflow.commerce.proto.product.ProductModel;
+
+class CatalogSnapshotTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    void roundTripsProductsAndOffsets() throws IOException {
+        Path file = tempDir.resolve(CatalogSnapshot.FILE_NAME);
+        List<ProductModel> products =
+                IntStream.range(0, 2500)
+                        .mapToObj(
+                                i ->
+                                        ProductModel.newBuilder()
+                                                .setId("product-" + i)
+                                                .setName("Product " + i)
+                                                .setPrice(i * 1.5)
+                                                .build())
+                        .toList();
+        Map<TopicPartition, Long> offsets =
+                Map.of(
+                        new TopicPartition("product-created", 0),
+                        42L,
+                        new TopicPartition("product-updated", 2),
+                        7L);
+        Instant createdAt = Instant.ofEpochMilli(1_700_000_000_000L);
+
+        assertEquals(2500, CatalogSnapshot.write(file, createdAt, offsets, products));
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+        assertEquals(createdAt, snapshot.createdAt());
+        assertEquals(offsets, snapshot.offsets());
+        assertEquals(products.size(), snapshot.size());
+        assertEquals(products.get(1234), snapshot.get(1234));
+
+        List<ProductModel> loaded = new ArrayList<>();
+        snapshot.forEach(loaded::add);
+        assertEquals(products, loaded);
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSnapshots() throws IOException {
+        Path file = Files.write(tempDir.resolve("garbage"), new byte[64]);
+
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(file));
+    }
+}
@@ -0,0 +1,150 @@
+package com.kaizenflow.commerce.product.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.kaizenflow.commerce.product.domain.dto.ProductRecord;
+import com.kaizenflow.commerce.product.domain.dto.ProductVersion;
+import com.kaizenflow.commerce.product.mappers.ProductProtoMapper;
+import com.kaizenflow.commerce.product.search.AutocompleteIndex;
+import com.kaizenflow.commerce.product.serializer.ProductProtobufHttpMessageConverter;
+import com.kaizenflow.commerce.product.service.ProductService;
+import com.kaizenflow.commerce.proto.product.ProductResponse;
+
+class ProductControllerTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final AutocompleteIndex autocompleteIndex = mock(AutocompleteIndex.class);
+
+    // Converters in the order WebConfig leaves them: Jackson first, Protobuf appended
+    private final MockMvc mockMvc =
+            MockMvcBuilders.standaloneSetup(new ProductController(productService, autocompleteIndex))
+                    .setMessageConverters(
+                            new MappingJackson2HttpMessageConverter(),
+                            new ProductProtobufHttpMessageConverter(new ProductProtoMapper()))
+                    .build();
+
+    @Test
+    void answersRevalidationOfAnUnchangedProductWith304() throws Exception {
+        when(productService.getProductVersion("p1"))
+                .thenReturn(Optional.of(new ProductVersion("p1", 3)));
+
+        mockMvc
+                .perform(get("/api/v1/products/p1").header(HttpHeaders.IF_NONE_MATCH, "\"3-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-json\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        verify(productService, never()).getProductById("p1");
+    }
+
+    @Test
+    void countsViewsOnlyThroughTheViewsEndpoint() throws Exception {
+        when(productService.getProductVersion("p1"))
+                .thenReturn(Optional.of(new ProductVersion("p1", 4)));
+        when(productService.getProductById("p1")).thenReturn(Optional.of(product("p1", 4)));
+
+        mockMvc.perform(get("/api/v1/products/p1")).andExpect(status().isOk());
+        verify(autocompleteIndex, never()).recordView("p1");
+
+        mockMvc.perform(post("/api/v1/products/p1/views")).andExpect(status().isNoContent());
+        verify(autocompleteIndex).recordView("p1");
+    }
+
+    @Test
+    void doesNotCountViewsOfMissingProducts() throws Exception {
+        when(productService.getProductVersion("gone")).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/v1/products/gone/views")).andExpect(status().isNotFound());
+
+        verify(autocompleteIndex, never()).recordView("gone");
+    }
+
+    @Test
+    void servesTheProductAgainOnceItChanged() throws Exception {
+        when(productService.getProductVersion("p1"))
+                .thenReturn(Optional.of(new ProductVersion("p1", 4)));
+        when(productService.getProductById("p1")).thenReturn(Optional.of(product("p1", 4)));
+
+        mockMvc
+                .perform(get("/api/v1/products/p1").header(HttpHeaders.IF_NONE_MATCH, "\"3-json\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4-json\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(jsonPath("$.name").value("Kettle"));
+    }
+
+    @Test
+    void givesTheProtobufRepresentationItsOwnETag() throws Exception {
+        when(productService.getProductVersion("p1"))
+                .thenReturn(Optional.of(new ProductVersion("p1", 4)));
+        when(productService.getProductById("p1")).thenReturn(Optional.of(product("p1", 4)));
+
+        byte[] body =
+                mockMvc
+                        .perform(
+                                get("/api/v1/products/p1")
+                                        .accept(ProtobufHttpMessageConverter.PROTOBUF)
+                                        .header(HttpHeaders.IF_NONE_MATCH, "\"4-json\""))
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentType(ProtobufHttpMessageConverter.PROTOBUF))
+                        .andExpect(header().string(HttpHeaders.ETAG, "\"4-x-protobuf\""))
+                        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsByteArray();
+        assertEquals("Kettle", ProductResponse.parseFrom(body).getName());
+
+        mockMvc
+                .perform(
+                        get("/api/v1/products/p1")
+                                .accept(ProtobufHttpMessageConverter.PROTOBUF)
+                                .header(HttpHeaders.IF_NONE_MATCH, "\"4-x-protobuf\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4-x-protobuf\""));
+    }
+
+    private static ProductRecord product(String id, long version) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ProductRecord(
+                id,
+                "sku-" + id,
+                "Kettle",
+                "Stovetop kettle",
+                new BigDecimal("24.99"),
+                new BigDecimal("12.00"),
+                "kitchen",
+                List.of("tea"),
+                "Acme",
+                true,
+                true,
+                "IN_STOCK",
+                12,
+                now,
+                now,
+                now,
+                version);
+    }
+}
@@ -0,0 +1,145 @@
+package com.kaizenflow.commerce.product.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.kaizenflow.commerce.product.domain.dto.ProductSuggestion;
+import com.kaizenflow.commerce.proto.product.ProductModel;
+
+class AutocompleteIndexTest {
+
+    private final AutocompleteIndex index = new AutocompleteIndex();
+
+    @Test
+    void matchesNormalizedTokenPrefixes() {
+        index.onProductUpserted(product("1", "Crème Brûlée Torch"));
+        index.onProductUpserted(product("2", "Cast-Iron Skillet"));
+
+        assertEquals(
+                List.of(new ProductSuggestion("1", "Crème Brûlée Torch")), index.suggest("bru", 10));
+        assertEquals(
+                List.of(new ProductSuggestion("2", "Cast-Iron Skillet")), index.suggest("IRON sk", 10));
+        assertTrue(index.suggest("skillet torch", 10).isEmpty());
+    }
+
+    @Test
+    void ranksByViewsAfterRefresh() {
+        index.onProductUpserted(product("1", "Red Kettle"));
+        index.onProductUpserted(product("2", "Red Teapot"));
+        index.recordView("2");
+        index.refreshWeights();
+
+        assertEquals("2", index.suggest("re", 10).get(0).id());
+    }
+
+    @Test
+    void renamedAndRemovedProductsLeaveTheIndex() {
+        index.onProductUpserted(product("1", "Blue Mug"));
+        index.onProductUpserted(product("1", "Green Mug"));
+        assertTrue(index.suggest("blu", 10).isEmpty());
+        assertEquals(1, index.suggest("mug", 10).size());
+
+        index.onProductRemoved("1");
+        assertTrue(index.suggest("mug", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void capsEachNodeAtTopK() {
+        for (int i = 0; i < 50; i++) {
+            index.onProductUpserted(product(String.valueOf(i), "Widget " + i));
+        }
+
+        assertEquals(AutocompleteIndex.TOP_K, index.suggest("widget", 100).size());
+        assertEquals(3, index.suggest("wid", 3).size());
+    }
+
+    @Test
+    void findsMultiTokenMatchesBeyondTheCachedTopK() {
+        for (int i = 0; i < 50; i++) {
+            index.onProductUpserted(product(String.valueOf(i), "Steel Pan " + i));
+            index.recordView(String.valueOf(i));
+        }
+        index.refreshWeights();
+        index.onProductUpserted(product("cast", "Cast Iron Pan"));
+
+        assertEquals(
+                List.of(new ProductSuggestion("cast", "Cast Iron Pan")), index.suggest("iron pan", 5));
+        assertEquals(
+                List.of(new ProductSuggestion("cast", "Cast Iron Pan")), index.suggest("pan c", 5));
+    }
+
+    @Test
+    void stopsWalkingALargeCatalogOnceEnoughMatchesAreFound() {
+        // The cached list under "steel" holds only pots, so "steel pan" has to look past it
+        for (int i = 0; i < 10; i++) {
+            index.onProductUpserted(product("pot" + i, "Steel Pot " + i));
+            index.recordView("pot" + i);
+            index.recordView("pot" + i);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            index.onProductUpserted(product("steel" + i, "Steel Pan " + i));
+            index.recordView("steel" + i);
+        }
+        index.refreshWeights();
+        // Makes "pan" the broader token, so the lookup starts from "steel"
+        for (int i = 0; i < 1_500; i++) {
+            index.onProductUpserted(product("iron" + i, "Iron Pan " + i));
+        }
+
+        assertEquals(
+                List.of("Steel Pan 0", "Steel Pan 1", "Steel Pan 10", "Steel Pan 100", "Steel Pan 101"),
+                index.suggest("steel pan", 5).stream().map(ProductSuggestion::name).toList());
+        // The "steel" node, the 10 pots and the 5 pans
+        assertEquals(16, index.scanVisits());
+    }
+
+    @Test
+    void boundsTheWalkWhenMatchesAreRare() {
+        for (int i = 0; i < 2_500; i++) {
+            index.onProductUpserted(product("pot" + i, "A Steel Pot " + i));
+            index.onProductUpserted(product("iron" + i, "Iron Pan " + i));
+        }
+        IntStream.range(0, 3)
+                .forEach(i -> index.onProductUpserted(product("pan" + i, "Steel Pan " + i)));
+
+        // All 2,500 pots rank above the pans, so the walk gives up before reaching them
+        assertTrue(index.suggest("steel pan", 5).isEmpty());
+        assertEquals(AutocompleteIndex.MAX_SCAN_VISITS, index.scanVisits());
+    }
+
+    @Test
+    void viewsRecordedDuringRefreshAreKept() {
+        index.onProductUpserted(product("1", "Red Kettle"));
+        index.onProductUpserted(product("2", "Red Teapot"));
+        index.recordView("1");
+        index.refreshWeights();
+        index.recordView("2");
+        index.recordView("2");
+        index.refreshWeights();
+
+        assertEquals("2", index.suggest("red", 10).get(0).id());
+    }
+
+    @Test
+    void removalPrunesEmptiedBranches() {
+        index.onProductUpserted(product("1", "Teapot"));
+        index.onProductUpserted(product("2", "Tea Towel"));
+        index.onProductRemoved("1");
+        index.onProductUpserted(product("2", "Dish Towel"));
+
+        assertTrue(index.suggest("tea", 10).isEmpty());
+        assertEquals(1, index.suggest("tow", 10).size());
+        // "dish" and "towel" only
+        assertEquals(9, index.nodeCount());
+    }
+
+    private static ProductModel product(String id, String name) {
+        return ProductModel.newBuilder().setId(id).setName(name).build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.kaizenflow.commerce.product.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.kaizenflow.commerce.messaging.batch.EventBatcher;
+import com.kaizenflow.commerce.product.domain.enums.InventoryStatus;
+import com.kaizenflow.commerce.product.domain.models.Product;
+import com.kaizenflow.commerce.product.mappers.ProductMapper;
+import com.kaizenflow.commerce.product.mappers.ProductProtoMapper;
+import com.kaizenflow.commerce.product.repository.ProductRepository;
+import com.kaizenflow.commerce.proto.time.TimestampClock;
+
+@SuppressWarnings("unchecked")
+class ProductServiceTest {
+
+    private static final String ID = "p1";
+
+    private final ProductRepository repository = mock(ProductRepository.class);
+    private final ProductService service =
+            new ProductService(
+                    repository,
+                    mock(EventBatcher.class),
+                    mock(ProductMapper.class),
+                    mock(ProductProtoMapper.class),
+                    new TimestampClock(Clock.systemUTC()));
+
+    @Test
+    void appliesAnInventoryUpdateAgainWhenTheProductChangedMeanwhile() {
+        when(repository.findById(ID)).thenReturn(Optional.of(product(4)), Optional.of(product(5)));
+        when(repository.save(any()))
+                .thenThrow(new OptimisticLockingFailureException("changed"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertTrue(service.updateProductInventory(ID, 3, InventoryStatus.LOW_STOCK, true, null));
+
+        ArgumentCaptor<Product> saved = ArgumentCaptor.forClass(Product.class);
+        verify(repository, times(2)).save(saved.capture());
+        assertEquals(5, saved.getValue().getVersion());
+        assertEquals(3, saved.getValue().getAvailableQuantity());
+    }
+
+    @Test
+    void givesUpWhenTheProductKeepsChanging() {
+        when(repository.findById(ID)).thenAnswer(invocation -> Optional.of(product(4)));
+        when(repository.save(any())).thenThrow(new OptimisticLockingFailureException("changed"));
+
+        assertThrows(
+                OptimisticLockingFailureException.class,
+                () -> service.updateProductInventory(ID, 3, InventoryStatus.LOW_STOCK, true, null));
+
+        verify(repository, times(3)).save(any());
+    }
+
+    @Test
+    void versionsAProductStoredWithoutAVersionBeforeSavingIt() {
+        when(repository.findById(ID)).thenReturn(Optional.of(product(0)));
+
+        service.updateProductInventory(ID, 3, InventoryStatus.LOW_STOCK, true, null);
+
+        verify(repository).initializeVersion(ID);
+        ArgumentCaptor<Product> saved = ArgumentCaptor.forClass(Product.class);
+        verify(repository).save(saved.capture());
+        assertEquals(1, saved.getValue().getVersion());
+    }
+
+    @Test
+    void leavesAVersionedProductAsItIs() {
+        when(repository.findById(ID)).thenReturn(Optional.of(product(4)));
+
+        service.updateProductInventory(ID, 3, InventoryStatus.LOW_STOCK, true, null);
+
+        verify(repository, never()).initializeVersion(any());
+    }
+
+    private static Product product(long version) {
+        return Product.builder().id(ID).availableQuantity(0).version(version).build();
+    }
+}